@@ -2,8 +2,10 @@ package org.axolotlj.iotcart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
 
 @SpringBootApplication
+@PropertySource("classpath:iotcart.properties")
 public class IotcartApplication {
 
 	public static void main(String[] args) {
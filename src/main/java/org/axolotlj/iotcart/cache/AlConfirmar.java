@@ -0,0 +1,33 @@
+package org.axolotlj.iotcart.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Difiere los cambios de las cachés y las notificaciones a monitores hasta que
+ * la transacción en curso se confirme, para que nunca reflejen escrituras
+ * revertidas.
+ */
+public final class AlConfirmar {
+
+	private AlConfirmar() {
+	}
+
+	/**
+	 * Ejecuta la acción después de confirmar la transacción en curso, o de
+	 * inmediato si no hay una. Si la transacción se revierte, la acción se
+	 * descarta.
+	 */
+	public static void ejecutar(Runnable accion) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			accion.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				accion.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,148 @@
+package org.axolotlj.iotcart.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.util.OperacionEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Catálogo en memoria de las secuencias DEMO, indexado por
+ * {@code id_secuencia}.
+ * <p>
+ * Se carga de 'sp_obtener_ultimas_secuencias_demo' la primera vez que se
+ * necesita y guarda cada secuencia ya procesada (pasos separados y mapeados a
+ * IDs), de modo que ejecutar una secuencia es una búsqueda directa sin leer la
+ * base de datos. Se invalida al confirmar la creación de una secuencia.
+ * <p>
+ * El procedimiento solo devuelve las últimas secuencias, así que un ID
+ * desconocido menor que el mayor del catálogo es una secuencia antigua (o
+ * inexistente) y se responde sin leer la base de datos. Uno mayor puede ser una
+ * secuencia creada en otra instancia: se recarga, pero no más de una vez cada
+ * {@code recargaMinimaMs}, para que los IDs inexistentes no lean el catálogo
+ * en cada petición. Las cargas leen la base primaria ({@link LecturaPrimaria}),
+ * para no guardar como vigente una lectura de una réplica retrasada.
+ */
+@Component
+public class CatalogoSecuencias {
+
+	private static final Logger log = LogManager.getLogger(CatalogoSecuencias.class);
+
+	private static final String SEPARADOR_PASOS = " -> ";
+
+	/**
+	 * Contenido inmutable del catálogo junto con la generación en que se leyó.
+	 */
+	private record Contenido(long generacion, List<SecuenciaResponse> secuencias,
+			Map<Integer, SecuenciaCatalogada> porId, int maximoId, long cargadoNanos) {
+	}
+
+	private final LecturaPrimaria lecturaPrimaria;
+	private final long recargaMinimaNanos;
+	private final AtomicLong generacion = new AtomicLong();
+	private volatile Contenido contenido;
+
+	@Autowired
+	public CatalogoSecuencias(LecturaPrimaria lecturaPrimaria,
+			@Value("${iotcart.cache.secuencias.recarga-minima-ms}") long recargaMinimaMs) {
+		this.lecturaPrimaria = lecturaPrimaria;
+		this.recargaMinimaNanos = TimeUnit.MILLISECONDS.toNanos(recargaMinimaMs);
+	}
+
+	/**
+	 * @param consultaBd Consulta el procedimiento almacenado.
+	 * @return Las secuencias en el orden del procedimiento almacenado.
+	 */
+	public List<SecuenciaResponse> listar(Supplier<List<UltimasSecuenciasDto>> consultaBd) {
+		return vigente(consultaBd).secuencias();
+	}
+
+	/**
+	 * Busca una secuencia por ID, recargando el catálogo si no está y pudo
+	 * crearse en otra instancia.
+	 *
+	 * @param consultaBd Consulta el procedimiento almacenado.
+	 * @return La secuencia, o vacío si tampoco está en la base de datos.
+	 */
+	public Optional<SecuenciaCatalogada> buscar(int idSecuencia, Supplier<List<UltimasSecuenciasDto>> consultaBd) {
+		Contenido actual = contenido;
+		boolean recien = actual == null || actual.generacion() != generacion.get();
+		if (recien) {
+			actual = cargar(consultaBd);
+		}
+
+		SecuenciaCatalogada secuencia = actual.porId().get(idSecuencia);
+		if (secuencia == null && !recien && idSecuencia > actual.maximoId()
+				&& System.nanoTime() - actual.cargadoNanos() >= recargaMinimaNanos) {
+			log.debug("Secuencia DEMO [ID: {}] no está en el catálogo; se recarga.", idSecuencia);
+			secuencia = cargar(consultaBd).porId().get(idSecuencia);
+		}
+		return Optional.ofNullable(secuencia);
+	}
+
+	/**
+	 * Descarta el catálogo cuando la transacción en curso se confirme.
+	 */
+	public void invalidar() {
+		AlConfirmar.ejecutar(generacion::incrementAndGet);
+	}
+
+	private Contenido vigente(Supplier<List<UltimasSecuenciasDto>> consultaBd) {
+		Contenido actual = contenido;
+		if (actual == null || actual.generacion() != generacion.get()) {
+			actual = cargar(consultaBd);
+		}
+		return actual;
+	}
+
+	private Contenido cargar(Supplier<List<UltimasSecuenciasDto>> consultaBd) {
+		// La generación se lee antes de consultar: si se invalida durante la consulta,
+		// este contenido nace obsoleto y se vuelve a cargar en la siguiente lectura
+		long leida = generacion.get();
+		List<UltimasSecuenciasDto> filas = lecturaPrimaria.leer(consultaBd);
+
+		List<SecuenciaResponse> secuencias = new ArrayList<>(filas.size());
+		Map<Integer, SecuenciaCatalogada> porId = new HashMap<>();
+		int maximoId = 0;
+		for (UltimasSecuenciasDto fila : filas) {
+			SecuenciaCatalogada secuencia = procesar(fila);
+			secuencias.add(secuencia.respuesta());
+			porId.put(fila.id_secuencia(), secuencia);
+			maximoId = Math.max(maximoId, fila.id_secuencia());
+		}
+
+		Contenido nuevo = new Contenido(leida, Collections.unmodifiableList(secuencias), porId, maximoId,
+				System.nanoTime());
+		contenido = nuevo;
+		log.debug("Catálogo de secuencias DEMO cargado con {} secuencias.", secuencias.size());
+		return nuevo;
+	}
+
+	/**
+	 * Separa el GROUP_CONCAT de pasos y los mapea a sus IDs de operación.
+	 */
+	private static SecuenciaCatalogada procesar(UltimasSecuenciasDto fila) {
+		List<String> pasos = fila.pasos() == null || fila.pasos().isEmpty() ? List.of()
+				: List.of(fila.pasos().split(SEPARADOR_PASOS));
+
+		List<Integer> pasosIds = pasos.stream().mapToInt(OperacionEnum::resolverId)
+				.filter(id -> id != OperacionEnum.ID_DESCONOCIDO).boxed().toList();
+
+		SecuenciaResponse respuesta = new SecuenciaResponse(fila.id_secuencia(), fila.nombre_secuencia(),
+				fila.fecha_creacion(), fila.numero_pasos(), pasos);
+		return new SecuenciaCatalogada(respuesta, pasosIds);
+	}
+}
@@ -0,0 +1,120 @@
+package org.axolotlj.iotcart.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Los eventos más recientes de un dispositivo, tal como los devolvió el
+ * procedimiento almacenado, sin locks.
+ * <p>
+ * El contenido es una copia inmutable que se reemplaza entera: al sembrarlo
+ * con una lectura de la base de datos ({@link #sembrar(Estado, List, boolean)}),
+ * al agregarle los eventos recién confirmados del dispositivo
+ * ({@link #agregar(Estado, List)}) o al invalidarlo ({@link #invalidar()}).
+ * Cada cambio crea un estado nuevo y se aplica solo sobre el estado que se leyó
+ * antes de consultar la base de datos, por lo que una lectura que se cruzó con
+ * otra escritura ya no puede guardarse.
+ *
+ * @param <T> El tipo de evento almacenado.
+ */
+final class EventosRecientes<T> {
+
+	/**
+	 * Estado del contenido. {@code eventos} es null mientras no se haya
+	 * sembrado desde la última invalidación.
+	 *
+	 * @param historiaCompleta Si no existen en la base de datos eventos más
+	 *                         antiguos que los guardados.
+	 */
+	record Estado<T>(List<T> eventos, boolean historiaCompleta) {
+	}
+
+	private final int capacidad;
+	private final AtomicReference<Estado<T>> estado = new AtomicReference<>(new Estado<>(null, false));
+
+	EventosRecientes(int capacidad) {
+		this.capacidad = capacidad;
+	}
+
+	int getCapacidad() {
+		return capacidad;
+	}
+
+	/**
+	 * @return El estado actual; se pasa a {@link #sembrar(Estado, List, boolean)}
+	 *         después de consultar la base de datos.
+	 */
+	Estado<T> getEstado() {
+		return estado.get();
+	}
+
+	boolean isCalentado() {
+		return estado.get().eventos() != null;
+	}
+
+	/**
+	 * Descarta el contenido; la siguiente consulta vuelve a la base de datos.
+	 */
+	void invalidar() {
+		estado.set(new Estado<>(null, false));
+	}
+
+	/**
+	 * Devuelve los últimos eventos, del más reciente al más antiguo.
+	 *
+	 * @param limite Cantidad máxima de eventos.
+	 * @return La lista, o null si no se puede responder con certeza.
+	 */
+	List<T> ultimos(int limite) {
+		Estado<T> actual = estado.get();
+		List<T> eventos = actual.eventos();
+		if (eventos == null || limite > capacidad || (eventos.size() < limite && !actual.historiaCompleta())) {
+			return null;
+		}
+		return new ArrayList<>(eventos.subList(0, Math.min(limite, eventos.size())));
+	}
+
+	/**
+	 * Agrega al inicio los eventos recién confirmados, descartando los más
+	 * antiguos que ya no caben, solo si el contenido no cambió desde que se leyó
+	 * {@code esperado}.
+	 *
+	 * @param esperado Valor de {@link #getEstado()} antes de insertar los
+	 *                 eventos; debe estar sembrado.
+	 * @param nuevos   Los eventos insertados, leídos de la base de datos, del
+	 *                 más reciente al más antiguo.
+	 * @return true si se agregaron; si no, el llamador debe invalidar.
+	 */
+	boolean agregar(Estado<T> esperado, List<T> nuevos) {
+		List<T> actuales = esperado.eventos();
+		if (actuales == null) {
+			return false;
+		}
+		int total = Math.min(nuevos.size() + actuales.size(), capacidad);
+		List<T> eventos = new ArrayList<>(total);
+		eventos.addAll(nuevos.subList(0, Math.min(nuevos.size(), total)));
+		eventos.addAll(actuales.subList(0, total - eventos.size()));
+		boolean completa = esperado.historiaCompleta() && nuevos.size() + actuales.size() <= capacidad;
+		return estado.compareAndSet(esperado, new Estado<>(List.copyOf(eventos), completa));
+	}
+
+	/**
+	 * Guarda los eventos leídos de la base de datos, solo si el contenido no se
+	 * invalidó desde que se leyó {@code esperado}; de lo contrario la lectura
+	 * pudo perder eventos confirmados después y se descarta.
+	 *
+	 * @param esperado            Valor de {@link #getEstado()} antes de la
+	 *                            consulta.
+	 * @param masRecientesPrimero Eventos de la base de datos, del más reciente al
+	 *                            más antiguo.
+	 * @param completa            Si la consulta devolvió toda la historia del
+	 *                            dispositivo.
+	 * @return true si el contenido quedó sembrado.
+	 */
+	boolean sembrar(Estado<T> esperado, List<T> masRecientesPrimero, boolean completa) {
+		List<T> eventos = List.copyOf(
+				masRecientesPrimero.subList(0, Math.min(masRecientesPrimero.size(), capacidad)));
+		return estado.compareAndSet(esperado, new Estado<>(eventos, completa));
+	}
+}
@@ -0,0 +1,58 @@
+package org.axolotlj.iotcart.cache;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hace que las cargas de las cachés que se invalidan por escrituras lean la
+ * base primaria.
+ * <p>
+ * Las consultas del servicio son {@code @Transactional(readOnly = true)} y,
+ * con réplica de lectura ({@code ReplicaLecturaConfig}), leen de ella. Una
+ * carga hecha ahí justo después de la invalidación puede no ver todavía la
+ * escritura que la provocó y la caché la guardaría como vigente hasta la
+ * siguiente invalidación. Por eso, con réplica, la carga corre en una
+ * transacción propia que no es de solo lectura; la transacción de la consulta
+ * todavía no tiene conexión física (el proxy la pide en la primera sentencia),
+ * así que solo se ocupa la de la primaria.
+ * <p>
+ * Sin réplica, la consulta ya lee la primaria y la carga corre en su misma
+ * transacción: una transacción nueva pediría una segunda conexión al pool
+ * mientras la de la consulta sigue tomada, y con tantas cargas concurrentes
+ * como conexiones el pool quedaría bloqueado. Dentro de una transacción de
+ * escritura la consulta también se ejecuta en ella, que ya usa la primaria.
+ */
+@Component
+public class LecturaPrimaria {
+
+	private final TransactionTemplate transaccion;
+	private final boolean replicaHabilitada;
+
+	@Autowired
+	public LecturaPrimaria(PlatformTransactionManager transactionManager,
+			@Value("${iotcart.bd.replica.habilitada}") boolean replicaHabilitada) {
+		this.replicaHabilitada = replicaHabilitada;
+		this.transaccion = new TransactionTemplate(transactionManager);
+		this.transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.transaccion.setReadOnly(false);
+	}
+
+	/**
+	 * @param consulta La consulta a la base de datos.
+	 * @return El resultado de la consulta, leído de la base primaria.
+	 */
+	public <T> T leer(Supplier<T> consulta) {
+		if (!replicaHabilitada || (TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			return consulta.get();
+		}
+		return transaccion.execute(status -> consulta.get());
+	}
+}
@@ -0,0 +1,15 @@
+package org.axolotlj.iotcart.cache;
+
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+
+/**
+ * Secuencia DEMO ya procesada: la respuesta de la API y los pasos mapeados a
+ * sus IDs numéricos para la notificación WebSocket.
+ *
+ * @param respuesta La secuencia con los pasos como arreglo de textos.
+ * @param pasosIds  Los IDs de operación de cada paso (inmutable).
+ */
+public record SecuenciaCatalogada(SecuenciaResponse respuesta, List<Integer> pasosIds) {
+}
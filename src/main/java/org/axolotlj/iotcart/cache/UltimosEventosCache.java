@@ -0,0 +1,234 @@
+package org.axolotlj.iotcart.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Últimos movimientos y obstáculos por dispositivo, en memoria, para responder
+ * las consultas de "últimos N" sin llamar a los procedimientos almacenados.
+ * <p>
+ * Cada dispositivo tiene unos {@link EventosRecientes} por tipo de evento con
+ * las filas tal como las devolvió el procedimiento almacenado (descripción del
+ * catálogo de la base de datos y {@code fecha_evento} de la base de datos). La
+ * primera consulta de un dispositivo los carga leyendo {@code limite} eventos.
+ * Después, cada registro de eventos del dispositivo relee en su transacción de
+ * escritura solo las filas que acaba de insertar y las agrega al inicio una
+ * vez confirmada; los dispositivos que nadie consulta no se releen. Así, las
+ * consultas de los paneles de los carros en movimiento se siguen respondiendo
+ * desde memoria. Si dos escrituras del mismo dispositivo se cruzan, sus
+ * eventos recientes se invalidan y la siguiente consulta los vuelve a cargar.
+ * Las consultas con un {@code limite} mayor que la capacidad se delegan a la
+ * base de datos.
+ * <p>
+ * Las cargas leen la base primaria ({@link LecturaPrimaria}): una réplica
+ * retrasada podría no tener aún un evento ya confirmado.
+ */
+@Component
+public class UltimosEventosCache {
+
+	private static final Logger log = LogManager.getLogger(UltimosEventosCache.class);
+
+	private final LecturaPrimaria lecturaPrimaria;
+	private final boolean habilitada;
+	private final int capacidad;
+
+	private final Map<String, EventosRecientes<UltimosMovimientosDto>> movimientos = new ConcurrentHashMap<>();
+	private final Map<String, EventosRecientes<UltimosObstaculosDto>> obstaculos = new ConcurrentHashMap<>();
+
+	private final Counter aciertosMovimientos;
+	private final Counter fallosMovimientos;
+	private final Counter aciertosObstaculos;
+	private final Counter fallosObstaculos;
+
+	@Autowired
+	public UltimosEventosCache(MeterRegistry meterRegistry, LecturaPrimaria lecturaPrimaria,
+			@Value("${iotcart.cache.ultimos.habilitada}") boolean habilitada,
+			@Value("${iotcart.cache.ultimos.capacidad}") int capacidad) {
+		this.lecturaPrimaria = lecturaPrimaria;
+		this.habilitada = habilitada;
+		this.capacidad = capacidad;
+		this.aciertosMovimientos = contador(meterRegistry, "movimiento", "acierto");
+		this.fallosMovimientos = contador(meterRegistry, "movimiento", "fallo");
+		this.aciertosObstaculos = contador(meterRegistry, "obstaculo", "acierto");
+		this.fallosObstaculos = contador(meterRegistry, "obstaculo", "fallo");
+	}
+
+	private static Counter contador(MeterRegistry meterRegistry, String tipo, String resultado) {
+		return Counter.builder("iotcart.cache.ultimos.consultas").tag("tipo", tipo).tag("resultado", resultado)
+				.description("Consultas de últimos eventos respondidas desde memoria (acierto) o desde la base de datos (fallo)")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Registra movimientos con {@code insercion} y agrega a los eventos recientes
+	 * de cada dispositivo los que insertó, al confirmarse la transacción en
+	 * curso.
+	 *
+	 * @param cantidades Movimientos insertados por dispositivo.
+	 * @param insercion  Llama a los procedimientos almacenados de inserción.
+	 * @param consultaBd Consulta los últimos movimientos de un dispositivo en la
+	 *                   transacción de escritura, después de insertar.
+	 * @return El resultado de {@code insercion}.
+	 */
+	public <R> R registrarMovimientos(Map<String, Integer> cantidades, Supplier<R> insercion,
+			BiFunction<String, Integer, List<UltimosMovimientosDto>> consultaBd) {
+		return registrar(movimientos, cantidades, insercion, consultaBd);
+	}
+
+	/**
+	 * Igual que {@link #registrarMovimientos(Map, Supplier, BiFunction)}, para
+	 * obstáculos.
+	 */
+	public <R> R registrarObstaculos(Map<String, Integer> cantidades, Supplier<R> insercion,
+			BiFunction<String, Integer, List<UltimosObstaculosDto>> consultaBd) {
+		return registrar(obstaculos, cantidades, insercion, consultaBd);
+	}
+
+	/**
+	 * Descarta los movimientos en memoria del dispositivo cuando la transacción
+	 * en curso se confirme. Se invoca al ejecutar una secuencia, cuyos
+	 * movimientos inserta la base de datos.
+	 */
+	public void invalidarMovimientos(String dispositivo) {
+		if (!habilitada) {
+			return;
+		}
+		AlConfirmar.ejecutar(() -> {
+			EventosRecientes<UltimosMovimientosDto> eventos = movimientos.get(dispositivo);
+			if (eventos != null) {
+				eventos.invalidar();
+			}
+		});
+	}
+
+	/**
+	 * El estado de cada dispositivo se lee antes de insertar: si otra escritura
+	 * lo cambia antes de confirmar esta, la relectura ya no se agrega y se
+	 * invalida. Las entradas creadas por una carga durante la escritura también
+	 * se invalidan, porque la carga pudo leer antes de la confirmación.
+	 */
+	private <T, R> R registrar(Map<String, EventosRecientes<T>> recientes, Map<String, Integer> cantidades,
+			Supplier<R> insercion, BiFunction<String, Integer, List<T>> consultaBd) {
+		if (!habilitada) {
+			return insercion.get();
+		}
+
+		Map<String, Previo<T>> previos = new HashMap<>();
+		for (String dispositivo : cantidades.keySet()) {
+			EventosRecientes<T> eventos = recientes.get(dispositivo);
+			if (eventos != null) {
+				previos.put(dispositivo, new Previo<>(eventos, eventos.getEstado()));
+			}
+		}
+
+		R resultado = insercion.get();
+
+		Map<String, List<T>> insertados = new HashMap<>();
+		previos.forEach((dispositivo, previo) -> {
+			int cantidad = cantidades.get(dispositivo);
+			if (previo.estado().eventos() != null && cantidad <= previo.eventos().getCapacidad()) {
+				insertados.put(dispositivo, consultaBd.apply(dispositivo, cantidad));
+			}
+		});
+
+		AlConfirmar.ejecutar(() -> {
+			for (String dispositivo : cantidades.keySet()) {
+				EventosRecientes<T> actual = recientes.get(dispositivo);
+				if (actual == null) {
+					continue;
+				}
+				Previo<T> previo = previos.get(dispositivo);
+				List<T> nuevos = insertados.get(dispositivo);
+				if (previo == null || previo.eventos() != actual || nuevos == null
+						|| !actual.agregar(previo.estado(), nuevos)) {
+					actual.invalidar();
+				}
+			}
+		});
+		return resultado;
+	}
+
+	/**
+	 * Eventos recientes de un dispositivo y su estado antes de una escritura.
+	 */
+	private record Previo<T>(EventosRecientes<T> eventos, EventosRecientes.Estado<T> estado) {
+	}
+
+	/**
+	 * @param consultaBd Consulta el procedimiento almacenado con el límite dado.
+	 * @return Los últimos movimientos, del más reciente al más antiguo.
+	 */
+	public List<UltimosMovimientosDto> ultimosMovimientos(String dispositivo, int limite,
+			IntFunction<List<UltimosMovimientosDto>> consultaBd) {
+		return consultar(movimientos, dispositivo, limite, consultaBd, aciertosMovimientos, fallosMovimientos);
+	}
+
+	/**
+	 * @param consultaBd Consulta el procedimiento almacenado con el límite dado.
+	 * @return Los últimos obstáculos, del más reciente al más antiguo.
+	 */
+	public List<UltimosObstaculosDto> ultimosObstaculos(String dispositivo, int limite,
+			IntFunction<List<UltimosObstaculosDto>> consultaBd) {
+		return consultar(obstaculos, dispositivo, limite, consultaBd, aciertosObstaculos, fallosObstaculos);
+	}
+
+	private <T> List<T> consultar(Map<String, EventosRecientes<T>> recientes, String dispositivo, int limite,
+			IntFunction<List<T>> consultaBd, Counter aciertos, Counter fallos) {
+		if (!habilitada || limite <= 0 || limite > capacidad) {
+			fallos.increment();
+			return consultaBd.apply(limite);
+		}
+
+		EventosRecientes<T> eventos = recientes.get(dispositivo);
+		if (eventos != null) {
+			List<T> enMemoria = eventos.ultimos(limite);
+			if (enMemoria != null) {
+				aciertos.increment();
+				return enMemoria;
+			}
+		}
+
+		fallos.increment();
+		return calentar(recientes, dispositivo, limite, consultaBd);
+	}
+
+	/**
+	 * Lee {@code limite} eventos de la base primaria, los guarda como los
+	 * eventos recientes del dispositivo y responde la consulta con ellos. Las
+	 * escrituras los van completando hasta la capacidad.
+	 * <p>
+	 * La entrada del dispositivo se crea antes de leer, para que un evento
+	 * confirmado durante la lectura la invalide y la lectura no se guarde.
+	 */
+	private <T> List<T> calentar(Map<String, EventosRecientes<T>> recientes, String dispositivo, int limite,
+			IntFunction<List<T>> consultaBd) {
+		EventosRecientes<T> eventos = recientes.computeIfAbsent(dispositivo, d -> new EventosRecientes<>(capacidad));
+		EventosRecientes.Estado<T> antes = eventos.getEstado();
+		List<T> filas = lecturaPrimaria.leer(() -> consultaBd.apply(limite));
+
+		if (filas.isEmpty()) {
+			// Sin historia: no se retienen nombres consultados al azar
+			recientes.remove(dispositivo, eventos);
+		} else if (eventos.sembrar(antes, filas, filas.size() < limite)) {
+			log.debug("Caché de últimos eventos calentada para {} con {} eventos.", dispositivo, filas.size());
+		}
+
+		return filas;
+	}
+}
@@ -0,0 +1,192 @@
+package org.axolotlj.iotcart.config;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.ObstaculoHistorialDto;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializadores JSON de las filas que devuelven los endpoints de consulta.
+ * <p>
+ * Spring Boot los registra en el {@code ObjectMapper} al arrancar, así que
+ * Jackson no tiene que introspeccionar los tipos ni invocar sus accesores por
+ * reflexión: cada campo se escribe directamente, con su nombre ya codificado.
+ * Los nombres y el orden de los campos son los mismos que producía la
+ * serialización por reflexión. Las fechas se escriben con
+ * {@link SerializerProvider#defaultSerializeDateValue(Date, JsonGenerator)},
+ * por lo que respetan la configuración de fechas del {@code ObjectMapper}.
+ */
+@JsonComponent
+public class FilasConsultaJson {
+
+    private static final SerializableString ID_EVENTO = new SerializedString("id_evento");
+    private static final SerializableString FECHA_EVENTO = new SerializedString("fecha_evento");
+    private static final SerializableString NOMBRE_DISPOSITIVO = new SerializedString("nombre_dispositivo");
+    private static final SerializableString MOVIMIENTO = new SerializedString("movimiento");
+    private static final SerializableString OBSTACULO_DETECTADO = new SerializedString("obstaculo_detectado");
+    private static final SerializableString IP_CLIENTE = new SerializedString("ip_cliente");
+    private static final SerializableString ID_SECUENCIA = new SerializedString("id_secuencia");
+    private static final SerializableString NOMBRE_SECUENCIA = new SerializedString("nombre_secuencia");
+    private static final SerializableString FECHA_CREACION = new SerializedString("fecha_creacion");
+    private static final SerializableString NUMERO_PASOS = new SerializedString("numero_pasos");
+    private static final SerializableString PASOS = new SerializedString("pasos");
+
+    /**
+     * Serializa una fila de 'sp_obtener_ultimos_movimientos'.
+     */
+    public static class MovimientoSerializer extends StdSerializer<UltimosMovimientosDto> {
+
+        private static final long serialVersionUID = 1L;
+
+        public MovimientoSerializer() {
+            super(UltimosMovimientosDto.class);
+        }
+
+        @Override
+        public void serialize(UltimosMovimientosDto fila, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(fila);
+            escribirFecha(gen, provider, FECHA_EVENTO, fila.fecha_evento());
+            escribirTexto(gen, NOMBRE_DISPOSITIVO, fila.nombre_dispositivo());
+            escribirTexto(gen, MOVIMIENTO, fila.movimiento());
+            escribirTexto(gen, IP_CLIENTE, fila.ip_cliente());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializa una fila de 'sp_obtener_ultimos_obstaculos'.
+     */
+    public static class ObstaculoSerializer extends StdSerializer<UltimosObstaculosDto> {
+
+        private static final long serialVersionUID = 1L;
+
+        public ObstaculoSerializer() {
+            super(UltimosObstaculosDto.class);
+        }
+
+        @Override
+        public void serialize(UltimosObstaculosDto fila, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(fila);
+            escribirFecha(gen, provider, FECHA_EVENTO, fila.fecha_evento());
+            escribirTexto(gen, NOMBRE_DISPOSITIVO, fila.nombre_dispositivo());
+            escribirTexto(gen, OBSTACULO_DETECTADO, fila.obstaculo_detectado());
+            escribirTexto(gen, IP_CLIENTE, fila.ip_cliente());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializa una fila del historial de movimientos.
+     */
+    public static class MovimientoHistorialSerializer extends StdSerializer<MovimientoHistorialDto> {
+
+        private static final long serialVersionUID = 1L;
+
+        public MovimientoHistorialSerializer() {
+            super(MovimientoHistorialDto.class);
+        }
+
+        @Override
+        public void serialize(MovimientoHistorialDto fila, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(fila);
+            gen.writeFieldName(ID_EVENTO);
+            gen.writeNumber(fila.id_evento());
+            escribirFecha(gen, provider, FECHA_EVENTO, fila.fecha_evento());
+            escribirTexto(gen, NOMBRE_DISPOSITIVO, fila.nombre_dispositivo());
+            escribirTexto(gen, MOVIMIENTO, fila.movimiento());
+            escribirTexto(gen, IP_CLIENTE, fila.ip_cliente());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializa una fila del historial de obstáculos.
+     */
+    public static class ObstaculoHistorialSerializer extends StdSerializer<ObstaculoHistorialDto> {
+
+        private static final long serialVersionUID = 1L;
+
+        public ObstaculoHistorialSerializer() {
+            super(ObstaculoHistorialDto.class);
+        }
+
+        @Override
+        public void serialize(ObstaculoHistorialDto fila, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(fila);
+            gen.writeFieldName(ID_EVENTO);
+            gen.writeNumber(fila.id_evento());
+            escribirFecha(gen, provider, FECHA_EVENTO, fila.fecha_evento());
+            escribirTexto(gen, NOMBRE_DISPOSITIVO, fila.nombre_dispositivo());
+            escribirTexto(gen, OBSTACULO_DETECTADO, fila.obstaculo_detectado());
+            escribirTexto(gen, IP_CLIENTE, fila.ip_cliente());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Serializa una secuencia del catálogo, con los pasos como arreglo.
+     */
+    public static class SecuenciaSerializer extends StdSerializer<SecuenciaResponse> {
+
+        private static final long serialVersionUID = 1L;
+
+        public SecuenciaSerializer() {
+            super(SecuenciaResponse.class);
+        }
+
+        @Override
+        public void serialize(SecuenciaResponse secuencia, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(secuencia);
+            gen.writeFieldName(ID_SECUENCIA);
+            gen.writeNumber(secuencia.getId_secuencia());
+            escribirTexto(gen, NOMBRE_SECUENCIA, secuencia.getNombre_secuencia());
+            escribirFecha(gen, provider, FECHA_CREACION, secuencia.getFecha_creacion());
+            gen.writeFieldName(NUMERO_PASOS);
+            gen.writeNumber(secuencia.getNumero_pasos());
+            gen.writeFieldName(PASOS);
+            List<String> pasos = secuencia.getPasos();
+            if (pasos == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(pasos, pasos.size());
+                for (String paso : pasos) {
+                    gen.writeString(paso);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private static void escribirTexto(JsonGenerator gen, SerializableString campo, String valor) throws IOException {
+        gen.writeFieldName(campo);
+        gen.writeString(valor);
+    }
+
+    private static void escribirFecha(JsonGenerator gen, SerializerProvider provider, SerializableString campo,
+            Date valor) throws IOException {
+        gen.writeFieldName(campo);
+        if (valor == null) {
+            gen.writeNull();
+        } else {
+            provider.defaultSerializeDateValue(valor, gen);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.axolotlj.iotcart.config;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.util.CoordenadaFija;
+import org.axolotlj.iotcart.util.OperacionEnum;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Formato compacto de ingesta para microcontroladores: los endpoints de
+ * control aceptan, además de JSON, cuerpos {@code Content-Type: application/cbor}
+ * donde cada evento es un arreglo CBOR posicional, sin nombres de campo:
+ * <ul>
+ * <li>Movimiento: {@code [nombreDispositivo, idOperacion, latitudE7, longitudE7, velocidad, pais, ciudad]}</li>
+ * <li>Obstáculo: {@code [nombreDispositivo, codigoObstaculo, latitudE7, longitudE7, pais, ciudad]}</li>
+ * </ul>
+ * {@code idOperacion} es el ID numérico de {@link OperacionEnum} y no puede ser
+ * null; las coordenadas son enteros E7 (ver {@link CoordenadaFija}) y pueden
+ * ser null. Los
+ * campos desde {@code velocidad} (movimiento) o {@code pais} (obstáculo) son
+ * opcionales y pueden omitirse al final del arreglo. Los lotes son un arreglo
+ * de estos arreglos.
+ * <p>
+ * Cada arreglo se convierte directamente en el mismo {@link MovimientoRequest}
+ * u {@link ObstaculoRequest} que produce el JSON, así que el controlador y el
+ * servicio no distinguen el formato. El JSON sigue usando la forma verbosa.
+ */
+@Configuration
+public class FormatoCompactoCbor {
+
+    /**
+     * Convertidor de {@code application/cbor}. Reemplaza al que Spring registra
+     * por defecto al encontrar Jackson CBOR en el classpath.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        cborMapper.registerModule(modulo());
+        return new MappingJackson2CborHttpMessageConverter(cborMapper);
+    }
+
+    /**
+     * @return El módulo de Jackson con los deserializadores del formato
+     *         compacto, para registrarlo en un mapper CBOR.
+     */
+    public static SimpleModule modulo() {
+        SimpleModule modulo = new SimpleModule("FormatoCompactoCbor");
+        modulo.addDeserializer(MovimientoRequest.class, new MovimientoDeserializer());
+        modulo.addDeserializer(ObstaculoRequest.class, new ObstaculoDeserializer());
+        return modulo;
+    }
+
+    /**
+     * Lee un movimiento en formato compacto.
+     */
+    public static class MovimientoDeserializer extends StdDeserializer<MovimientoRequest> {
+
+        private static final long serialVersionUID = 1L;
+
+        public MovimientoDeserializer() {
+            super(MovimientoRequest.class);
+        }
+
+        @Override
+        public MovimientoRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Arreglo arreglo = new Arreglo(p, MovimientoRequest.class);
+            MovimientoRequest request = new MovimientoRequest();
+            request.setNombreDispositivo(arreglo.texto(true));
+            Integer idOperacion = arreglo.entero(true);
+            if (idOperacion == null) {
+                throw MismatchedInputException.from(p, MovimientoRequest.class,
+                        "El ID de operación no puede ser null en el formato compacto.");
+            }
+            OperacionEnum operacion = OperacionEnum.desdeId(idOperacion);
+            if (operacion == null) {
+                throw ctxt.weirdNumberException(idOperacion, OperacionEnum.class, "ID de operación desconocido");
+            }
+            request.setCodigoOperacion(operacion.getCodigoProtocolo());
+            leerUbicacion(arreglo, request);
+            Integer velocidad = arreglo.entero(false);
+            request.setVelocidad(velocidad != null ? velocidad : 0);
+            request.setPais(arreglo.texto(false));
+            request.setCiudad(arreglo.texto(false));
+            arreglo.cerrar();
+            return request;
+        }
+    }
+
+    /**
+     * Lee un obstáculo en formato compacto.
+     */
+    public static class ObstaculoDeserializer extends StdDeserializer<ObstaculoRequest> {
+
+        private static final long serialVersionUID = 1L;
+
+        public ObstaculoDeserializer() {
+            super(ObstaculoRequest.class);
+        }
+
+        @Override
+        public ObstaculoRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            Arreglo arreglo = new Arreglo(p, ObstaculoRequest.class);
+            ObstaculoRequest request = new ObstaculoRequest();
+            request.setNombreDispositivo(arreglo.texto(true));
+            request.setCodigoObstaculo(arreglo.texto(true));
+            leerUbicacion(arreglo, request);
+            request.setPais(arreglo.texto(false));
+            request.setCiudad(arreglo.texto(false));
+            arreglo.cerrar();
+            return request;
+        }
+    }
+
+    private static void leerUbicacion(Arreglo arreglo, EventoBaseRequest request) throws IOException {
+        BigDecimal latitud = CoordenadaFija.desdeE7(arreglo.entero(true));
+        BigDecimal longitud = CoordenadaFija.desdeE7(arreglo.entero(true));
+        request.setLatitud(latitud);
+        request.setLongitud(longitud);
+    }
+
+    /**
+     * Recorre los elementos de un arreglo posicional, en orden.
+     */
+    private static final class Arreglo {
+
+        private final JsonParser p;
+        private final Class<?> tipo;
+        private boolean terminado;
+
+        Arreglo(JsonParser p, Class<?> tipo) throws IOException {
+            this.p = p;
+            this.tipo = tipo;
+            if (!p.isExpectedStartArrayToken()) {
+                throw MismatchedInputException.from(p, tipo, "Se esperaba un arreglo del formato compacto.");
+            }
+        }
+
+        /**
+         * @param requerido Si el elemento no puede faltar (aunque sí ser null).
+         */
+        String texto(boolean requerido) throws IOException {
+            JsonToken token = siguiente(requerido);
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token != JsonToken.VALUE_STRING) {
+                throw MismatchedInputException.from(p, tipo, "Se esperaba un texto en el formato compacto.");
+            }
+            return p.getText();
+        }
+
+        /**
+         * @param requerido Si el elemento no puede faltar (aunque sí ser null).
+         */
+        Integer entero(boolean requerido) throws IOException {
+            JsonToken token = siguiente(requerido);
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            if (token != JsonToken.VALUE_NUMBER_INT) {
+                throw MismatchedInputException.from(p, tipo, "Se esperaba un entero en el formato compacto.");
+            }
+            return p.getIntValue();
+        }
+
+        void cerrar() throws IOException {
+            if (!terminado && p.nextToken() != JsonToken.END_ARRAY) {
+                throw MismatchedInputException.from(p, tipo, "Elementos de más en el formato compacto.");
+            }
+        }
+
+        private JsonToken siguiente(boolean requerido) throws IOException {
+            JsonToken token = terminado ? null : p.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                terminado = true;
+                token = null;
+            }
+            if (token == null && requerido) {
+                throw MismatchedInputException.from(p, tipo, "Faltan elementos en el formato compacto.");
+            }
+            return token;
+        }
+    }
+}
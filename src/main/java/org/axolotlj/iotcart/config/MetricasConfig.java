@@ -0,0 +1,93 @@
+package org.axolotlj.iotcart.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.diagnostico.TiemposServidor;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor.Fase;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Configuración de las métricas de la aplicación.
+ */
+@Configuration
+public class MetricasConfig {
+
+    /**
+     * Prefijo de los métodos de {@code IotProcedureRepository} que leen las
+     * filas crudas del procedimiento para su método {@code obtener*}.
+     */
+    private static final String PREFIJO_CONSULTA = "consultar";
+    private static final String PREFIJO_OPERACION = "obtener";
+
+    /**
+     * Agrega la etiqueta {@code procedimiento} al timer de invocaciones de
+     * repositorio, de modo que cada procedimiento almacenado tenga su propia
+     * serie. Los métodos sin {@link Procedure} (como los del fragmento por
+     * lotes) se etiquetan con el nombre del método.
+     * <p>
+     * En modo JPA, Spring Data mide los métodos {@code consultar*} que llaman
+     * los {@code obtener*} de {@code IotProcedureOperations}; su etiqueta
+     * {@code method} se reporta con el nombre {@code obtener*}, igual que el
+     * repositorio JDBC, para que ambos modos publiquen la misma serie.
+     *
+     * @return El proveedor de etiquetas que usa Spring Boot para esas métricas.
+     */
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        return new DefaultRepositoryTagsProvider() {
+            @Override
+            public Iterable<Tag> repositoryTags(RepositoryMethodInvocation invocation) {
+                return Tags.of(super.repositoryTags(invocation))
+                        .and("method", metodo(invocation.getMethod()))
+                        .and("procedimiento", procedimiento(invocation.getMethod()));
+            }
+        };
+    }
+
+    /**
+     * Suma la duración de cada llamada a un repositorio a la fase {@code db}
+     * del encabezado {@code Server-Timing} de la petición en curso.
+     *
+     * @return El post-procesador que registra el listener en cada repositorio.
+     */
+    @Bean
+    public static BeanPostProcessor tiemposRepositorioBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+                            TiemposServidor.sumar(Fase.BD, invocation.getDuration(TimeUnit.NANOSECONDS))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    static String metodo(Method metodo) {
+        String nombre = metodo.getName();
+        return nombre.startsWith(PREFIJO_CONSULTA)
+                ? PREFIJO_OPERACION + nombre.substring(PREFIJO_CONSULTA.length())
+                : nombre;
+    }
+
+    private static String procedimiento(Method metodo) {
+        Procedure procedure = metodo.getAnnotation(Procedure.class);
+        if (procedure != null && !procedure.procedureName().isEmpty()) {
+            return procedure.procedureName();
+        }
+        return metodo.getName();
+    }
+}
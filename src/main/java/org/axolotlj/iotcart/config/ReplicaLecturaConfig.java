@@ -0,0 +1,109 @@
+package org.axolotlj.iotcart.config;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Separa las lecturas de las escrituras en dos pools de conexiones.
+ * <p>
+ * Las transacciones {@code @Transactional(readOnly = true)} (las consultas de
+ * últimos movimientos, obstáculos y secuencias) toman su conexión del pool de
+ * la réplica; el resto, incluida la ingesta, del pool de la base primaria. La
+ * decisión la toma un {@link LazyConnectionDataSourceProxy}: la conexión real
+ * se pide recién en la primera sentencia, cuando ya se sabe si la transacción
+ * es de solo lectura. Como efecto secundario, una consulta respondida desde la
+ * caché no ocupa ninguna conexión.
+ * <p>
+ * Cada pool tiene su propio tamaño y sus propias métricas
+ * ({@code hikaricp.connections.*} con la etiqueta {@code pool}):
+ * <ul>
+ * <li>{@value #POOL_PRIMARIA}: {@code spring.datasource.*} y
+ * {@code spring.datasource.hikari.*}, como sin réplica.</li>
+ * <li>{@value #POOL_REPLICA}: {@code iotcart.bd.replica.url/username/password}
+ * (vacíos: los de la primaria), las mismas propiedades
+ * {@code spring.datasource.hikari.*} y encima {@code iotcart.bd.replica.hikari.*}.</li>
+ * </ul>
+ * Se activa con {@code iotcart.bd.replica.habilitada=true}. Las lecturas en la
+ * réplica pueden ir por detrás de la primaria según el retraso de la
+ * replicación; por eso las cachés que se invalidan al escribir se recargan
+ * desde la primaria ({@code LecturaPrimaria}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "iotcart.bd.replica.habilitada", havingValue = "true")
+public class ReplicaLecturaConfig {
+
+    private static final Logger log = LogManager.getLogger(ReplicaLecturaConfig.class);
+
+    public static final String POOL_PRIMARIA = "iotcart-primaria";
+    public static final String POOL_REPLICA = "iotcart-replica";
+
+    private static final String PREFIJO_HIKARI = "spring.datasource.hikari";
+    private static final String PREFIJO_HIKARI_REPLICA = "iotcart.bd.replica.hikari";
+
+    /**
+     * Pool de la base primaria, configurado igual que el que crearía Spring
+     * Boot sin réplica.
+     */
+    @Bean
+    public HikariDataSource primariaDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(PREFIJO_HIKARI, Bindable.ofInstance(pool));
+        pool.setPoolName(POOL_PRIMARIA);
+        return pool;
+    }
+
+    /**
+     * Pool de la réplica de lectura.
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment,
+            @Value("${iotcart.bd.replica.url}") String url,
+            @Value("${iotcart.bd.replica.username}") String username,
+            @Value("${iotcart.bd.replica.password}") String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            pool.setJdbcUrl(url);
+        }
+        if (!username.isBlank()) {
+            pool.setUsername(username);
+            pool.setPassword(password);
+        }
+        Binder binder = Binder.get(environment);
+        binder.bind(PREFIJO_HIKARI, Bindable.ofInstance(pool));
+        binder.bind(PREFIJO_HIKARI_REPLICA, Bindable.ofInstance(pool));
+        pool.setPoolName(POOL_REPLICA);
+        if (url.isBlank()) {
+            log.warn("iotcart.bd.replica.url vacía: las lecturas usan un pool propio sobre la base primaria.");
+        }
+        return pool;
+    }
+
+    /**
+     * DataSource que usan JPA, JdbcTemplate y los gestores de transacciones.
+     * Entrega conexiones de la réplica dentro de transacciones de solo lectura
+     * y de la primaria en cualquier otro caso.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primariaDataSource, HikariDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primariaDataSource);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        log.info("Lecturas de solo lectura enrutadas a la réplica [Primaria: {}, Réplica: {}]",
+                primariaDataSource.getJdbcUrl(), replicaDataSource.getJdbcUrl());
+        return proxy;
+    }
+}
@@ -0,0 +1,52 @@
+package org.axolotlj.iotcart.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Tiempo límite propio para las respuestas transmitidas
+ * ({@code StreamingResponseBody}).
+ * <p>
+ * Spring MVC aplica a toda respuesta asíncrona el mismo tiempo límite (el del
+ * contenedor si no se configura, 30 s en Tomcat), que cortaría a la mitad una
+ * transmisión larga. Cada endpoint fija el suyo con
+ * {@link #fijar(HttpServletRequest, long)} y este interceptor lo aplica justo
+ * antes de iniciar el procesamiento asíncrono.
+ */
+@Configuration
+public class TiempoLimiteAsync implements WebMvcConfigurer {
+
+    private static final String ATRIBUTO = TiempoLimiteAsync.class.getName() + ".ms";
+
+    /**
+     * Fija el tiempo límite de la respuesta asíncrona de la solicitud.
+     *
+     * @param request        La solicitud en curso.
+     * @param tiempoLimiteMs El tiempo límite en milisegundos.
+     */
+    public static void fijar(HttpServletRequest request, long tiempoLimiteMs) {
+        request.setAttribute(ATRIBUTO, tiempoLimiteMs);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object tiempoLimiteMs = request.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+                if (tiempoLimiteMs != null && request instanceof AsyncWebRequest asyncWebRequest) {
+                    asyncWebRequest.setTimeout((Long) tiempoLimiteMs);
+                }
+            }
+        });
+    }
+}
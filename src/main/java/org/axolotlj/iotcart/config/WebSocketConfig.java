@@ -1,5 +1,6 @@
 package org.axolotlj.iotcart.config;
 
+import org.axolotlj.iotcart.ingest.IotIngestSocketHandler;
 import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -14,20 +15,36 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
 
+    /**
+     * Origen del panel web, el mismo que aceptan los endpoints REST de control.
+     */
+    private static final String ORIGEN_PANEL = "https://wicho471.github.io";
+
     private final IotEventSocketHandler iotEventSocketHandler;
+    private final IotIngestSocketHandler iotIngestSocketHandler;
 
     /**
-     * Inyecta el manejador de eventos WebSocket.
+     * Inyecta los manejadores WebSocket.
      *
-     * @param iotEventSocketHandler El manejador que procesará las conexiones.
+     * @param iotEventSocketHandler  El manejador de los monitores.
+     * @param iotIngestSocketHandler El manejador de la ingesta de los
+     *                               dispositivos.
      */
     @Autowired
-    public WebSocketConfig(IotEventSocketHandler iotEventSocketHandler) {
+    public WebSocketConfig(IotEventSocketHandler iotEventSocketHandler,
+            IotIngestSocketHandler iotIngestSocketHandler) {
         this.iotEventSocketHandler = iotEventSocketHandler;
+        this.iotIngestSocketHandler = iotIngestSocketHandler;
     }
 
     /**
-     * Registra el manejador de WebSocket en la ruta "/ws/iot-events".
+     * Registra los monitores en "/ws/iot-events" y la ingesta de los
+     * dispositivos en "/ws/iot-ingest".
+     * <p>
+     * La ingesta es un canal de escritura: desde un navegador solo se acepta
+     * el origen del panel, para que ninguna otra página pueda registrar
+     * eventos. Los carros no envían el encabezado {@code Origin}, por lo que se
+     * siguen aceptando.
      *
      * @param registry El registro de manejadores de WebSocket.
      */
@@ -35,5 +52,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(iotEventSocketHandler, "/ws/iot-events")
                 .setAllowedOrigins("*"); // Permitir conexiones de cualquier origen
+        registry.addHandler(iotIngestSocketHandler, "/ws/iot-ingest")
+                .setAllowedOrigins(ORIGEN_PANEL);
     }
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package org.axolotlj.iotcart.controller;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
@@ -8,8 +11,11 @@ import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
 import org.axolotlj.iotcart.dto.request.SecuenciaDemoRequest;
 import org.axolotlj.iotcart.dto.response.ApiResponse;
 import org.axolotlj.iotcart.dto.response.IdResponse;
+import org.axolotlj.iotcart.dto.response.TicketResponse;
+import org.axolotlj.iotcart.ingest.IotIngestPipeline;
 import org.axolotlj.iotcart.service.IotEventService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -32,23 +38,30 @@ public class IotControlController {
 	private static final Logger log = LogManager.getLogger(IotControlController.class);
 
 	private final IotEventService iotEventService;
+	private final IotIngestPipeline iotIngestPipeline;
+	private final int loteMaximo;
 
 	private static final String X_FORWARDED_FOR_HEADER = "X-Forwarded-For";
 
 	/**
-	 * Inyecta el servicio de eventos.
+	 * Inyecta el servicio de eventos, la ingesta asíncrona y el tamaño máximo
+	 * de los lotes.
 	 */
 	@Autowired
-	public IotControlController(IotEventService iotEventService) {
+	public IotControlController(IotEventService iotEventService, IotIngestPipeline iotIngestPipeline,
+			@Value("${iotcart.control.lote-maximo}") int loteMaximo) {
 		this.iotEventService = iotEventService;
+		this.iotIngestPipeline = iotIngestPipeline;
+		this.loteMaximo = loteMaximo;
 	}
 
 	/**
 	 * Endpoint para registrar un nuevo movimiento (SP a). Devuelve el ID del evento
-	 * creado en el formato ApiResponse.
+	 * creado en el formato ApiResponse. Con la ingesta asíncrona habilitada
+	 * responde 202 con un ticket provisional.
 	 */
 	@PostMapping("/movimiento")
-	public ResponseEntity<ApiResponse<IdResponse>> registrarMovimiento(@RequestBody MovimientoRequest request,
+	public ResponseEntity<ApiResponse<?>> registrarMovimiento(@RequestBody MovimientoRequest request,
 			HttpServletRequest httpServletRequest) {
 
 		String ipCliente = getClientIpAddress(httpServletRequest);
@@ -56,6 +69,12 @@ public class IotControlController {
 				ipCliente);
 		log.debug("Payload de registrarMovimiento: {}", request::toString);
 
+		if (iotIngestPipeline.isHabilitada()) {
+			long ticket = iotIngestPipeline.encolarMovimiento(request, ipCliente);
+			log.info("Movimiento encolado para confirmación asíncrona. Ticket: {}", ticket);
+			return new ResponseEntity<>(ApiResponse.success(new TicketResponse(ticket)), HttpStatus.ACCEPTED);
+		}
+
 		Long id = iotEventService.registrarMovimiento(request, ipCliente);
 		log.info("Movimiento registrado con éxito. Nuevo ID de evento: {}", id);
 
@@ -66,10 +85,11 @@ public class IotControlController {
 
 	/**
 	 * Endpoint para registrar un nuevo obstáculo (SP g). Devuelve el ID del evento
-	 * creado en el formato ApiResponse.
+	 * creado en el formato ApiResponse. Con la ingesta asíncrona habilitada
+	 * responde 202 con un ticket provisional.
 	 */
 	@PostMapping("/obstaculo")
-	public ResponseEntity<ApiResponse<IdResponse>> registrarObstaculo(@RequestBody ObstaculoRequest request,
+	public ResponseEntity<ApiResponse<?>> registrarObstaculo(@RequestBody ObstaculoRequest request,
 			HttpServletRequest httpServletRequest) {
 
 		String ipCliente = getClientIpAddress(httpServletRequest);
@@ -77,6 +97,12 @@ public class IotControlController {
 				ipCliente);
 		log.debug("Payload de registrarObstaculo: {}", request::toString);
 
+		if (iotIngestPipeline.isHabilitada()) {
+			long ticket = iotIngestPipeline.encolarObstaculo(request, ipCliente);
+			log.info("Obstáculo encolado para confirmación asíncrona. Ticket: {}", ticket);
+			return new ResponseEntity<>(ApiResponse.success(new TicketResponse(ticket)), HttpStatus.ACCEPTED);
+		}
+
 		Long id = iotEventService.registrarObstaculo(request, ipCliente);
 		log.info("Obstáculo registrado con éxito. Nuevo ID de evento: {}", id);
 
@@ -85,6 +111,65 @@ public class IotControlController {
 		return new ResponseEntity<>(response, HttpStatus.CREATED);
 	}
 
+	/**
+	 * Endpoint para registrar un lote de movimientos (SP a) en una sola
+	 * transacción. Pensado para dispositivos que acumulan telemetría sin
+	 * cobertura. Devuelve los IDs creados en el mismo orden del lote, o 400 si
+	 * el lote está vacío o supera {@code iotcart.control.lote-maximo}.
+	 */
+	@PostMapping("/movimiento/batch")
+	public ResponseEntity<ApiResponse<List<IdResponse>>> registrarMovimientos(
+			@RequestBody List<MovimientoRequest> requests, HttpServletRequest httpServletRequest) {
+
+		if (requests == null || requests.isEmpty()) {
+			return new ResponseEntity<>(ApiResponse.error("El lote de movimientos está vacío."),
+					HttpStatus.BAD_REQUEST);
+		}
+		if (requests.size() > loteMaximo) {
+			return new ResponseEntity<>(ApiResponse.error(mensajeLoteExcedido(requests.size())),
+					HttpStatus.BAD_REQUEST);
+		}
+
+		String ipCliente = getClientIpAddress(httpServletRequest);
+		log.info("Endpoint /movimiento/batch invocado con {} movimientos desde IP: {}", requests.size(), ipCliente);
+
+		List<Long> ids = iotEventService.registrarMovimientos(requests, ipCliente);
+		log.info("Lote de movimientos registrado con éxito. {} eventos creados.", ids.size());
+
+		// Envolver la respuesta
+		ApiResponse<List<IdResponse>> response = ApiResponse.success(toIdResponses(ids));
+		return new ResponseEntity<>(response, HttpStatus.CREATED);
+	}
+
+	/**
+	 * Endpoint para registrar un lote de obstáculos (SP g) en una sola
+	 * transacción. Devuelve los IDs creados en el mismo orden del lote, o 400 si
+	 * el lote está vacío o supera {@code iotcart.control.lote-maximo}.
+	 */
+	@PostMapping("/obstaculo/batch")
+	public ResponseEntity<ApiResponse<List<IdResponse>>> registrarObstaculos(
+			@RequestBody List<ObstaculoRequest> requests, HttpServletRequest httpServletRequest) {
+
+		if (requests == null || requests.isEmpty()) {
+			return new ResponseEntity<>(ApiResponse.error("El lote de obstáculos está vacío."),
+					HttpStatus.BAD_REQUEST);
+		}
+		if (requests.size() > loteMaximo) {
+			return new ResponseEntity<>(ApiResponse.error(mensajeLoteExcedido(requests.size())),
+					HttpStatus.BAD_REQUEST);
+		}
+
+		String ipCliente = getClientIpAddress(httpServletRequest);
+		log.info("Endpoint /obstaculo/batch invocado con {} obstáculos desde IP: {}", requests.size(), ipCliente);
+
+		List<Long> ids = iotEventService.registrarObstaculos(requests, ipCliente);
+		log.info("Lote de obstáculos registrado con éxito. {} eventos creados.", ids.size());
+
+		// Envolver la respuesta
+		ApiResponse<List<IdResponse>> response = ApiResponse.success(toIdResponses(ids));
+		return new ResponseEntity<>(response, HttpStatus.CREATED);
+	}
+
 	/**
 	 * Endpoint para crear una nueva secuencia DEMO (SP d). Devuelve el ID de la
 	 * secuencia creada en el formato ApiResponse.
@@ -123,6 +208,21 @@ public class IotControlController {
 		return ResponseEntity.ok(response);
 	}
 
+	/**
+	 * Un lote se registra en una sola transacción que retiene su conexión hasta
+	 * el final, y se anuncia en una sola notificación: su tamaño se acota.
+	 */
+	private String mensajeLoteExcedido(int tamano) {
+		return "El lote tiene " + tamano + " eventos; el máximo es " + loteMaximo + ".";
+	}
+
+	/**
+	 * Método auxiliar privado para envolver cada ID creado en un IdResponse.
+	 */
+	private List<IdResponse> toIdResponses(List<Long> ids) {
+		return ids.stream().map(IdResponse::new).collect(Collectors.toList());
+	}
+
 	/**
 	 * Método auxiliar privado para obtener la IP del cliente real.
 	 */
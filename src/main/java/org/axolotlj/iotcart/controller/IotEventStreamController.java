@@ -0,0 +1,69 @@
+package org.axolotlj.iotcart.controller;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.sse.EmisorEventosSse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controlador de la transmisión de eventos IoT por Server-Sent Events, la
+ * alternativa a '/ws/iot-events' para monitores que no pueden usar WebSocket.
+ */
+@RestController
+@CrossOrigin(origins = "https://wicho471.github.io")
+public class IotEventStreamController {
+
+	private static final Logger log = LogManager.getLogger(IotEventStreamController.class);
+
+	private final EmisorEventosSse emisorEventosSse;
+
+	@Autowired
+	public IotEventStreamController(EmisorEventosSse emisorEventosSse) {
+		this.emisorEventosSse = emisorEventosSse;
+	}
+
+	/**
+	 * Endpoint SSE con las mismas notificaciones que '/ws/iot-events'. Cada
+	 * evento lleva un ID y su tipo como nombre; al reconectarse, el navegador
+	 * envía {@code Last-Event-ID} y recibe los eventos que se perdió, si siguen
+	 * en memoria. Opcionalmente filtra por dispositivos y tipos de evento.
+	 */
+	@GetMapping(path = "/sse/iot-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> transmitirEventos(
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+			@RequestParam(required = false) List<String> dispositivos,
+			@RequestParam(required = false) List<String> eventos) {
+
+		if (!emisorEventosSse.isHabilitado()) {
+			return ResponseEntity.notFound().build();
+		}
+		log.info("Endpoint /sse/iot-events invocado (Last-Event-ID: {})", lastEventId);
+		return ResponseEntity.ok(emisorEventosSse.conectar(ultimoId(lastEventId), dispositivos, eventos));
+	}
+
+	/**
+	 * Un {@code Last-Event-ID} que no es un número no viene de este servidor: se
+	 * trata como una primera conexión.
+	 */
+	private static Long ultimoId(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			return null;
+		}
+		try {
+			return Long.valueOf(lastEventId.trim());
+		} catch (NumberFormatException e) {
+			log.debug("Last-Event-ID inválido ignorado: {}", lastEventId);
+			return null;
+		}
+	}
+}
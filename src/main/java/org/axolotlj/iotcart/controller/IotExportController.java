@@ -0,0 +1,76 @@
+package org.axolotlj.iotcart.controller;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.config.TiempoLimiteAsync;
+import org.axolotlj.iotcart.exportacion.ExportadorEventos;
+import org.axolotlj.iotcart.exportacion.TipoEvento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Controlador REST para la exportación masiva de la bitácora de eventos.
+ */
+@RestController
+@CrossOrigin(origins = "https://wicho471.github.io")
+@RequestMapping("/api/v1/iot/export")
+public class IotExportController {
+
+	private static final Logger log = LogManager.getLogger(IotExportController.class);
+
+	private final ExportadorEventos exportadorEventos;
+	private final long tiempoLimiteMs;
+
+	@Autowired
+	public IotExportController(ExportadorEventos exportadorEventos,
+			@Value("${iotcart.exportacion.tiempo-limite-ms}") long tiempoLimiteMs) {
+		this.exportadorEventos = exportadorEventos;
+		this.tiempoLimiteMs = tiempoLimiteMs;
+	}
+
+	/**
+	 * Endpoint que descarga los eventos de un tipo como archivo {@code .iotx.gz}
+	 * (ver {@code FormatoExportacion}), en orden ascendente de ID. Acepta una
+	 * lista de dispositivos (vacía: todos) y un rango de fechas (ISO-8601,
+	 * {@code desde} inclusivo y {@code hasta} exclusivo). Si la descarga se
+	 * corta, se reanuda con {@code despuesDeId} igual al último ID recibido. La
+	 * descarga se corta tras {@code iotcart.exportacion.tiempo-limite-ms}.
+	 */
+	@GetMapping("/eventos")
+	public ResponseEntity<StreamingResponseBody> exportarEventos(
+			@RequestParam TipoEvento tipo,
+			@RequestParam(required = false) List<String> dispositivos,
+			@RequestParam(required = false) Instant desde,
+			@RequestParam(required = false) Instant hasta,
+			@RequestParam(defaultValue = "0") long despuesDeId,
+			HttpServletRequest httpServletRequest) {
+
+		log.info("Endpoint /eventos (exportación) invocado [Tipo: {}, Después de ID: {}]", tipo, despuesDeId);
+		TiempoLimiteAsync.fijar(httpServletRequest, tiempoLimiteMs);
+		StreamingResponseBody cuerpo = (OutputStream salida) -> exportadorEventos.exportar(tipo, dispositivos,
+				desde, hasta, despuesDeId, Channels.newChannel(salida));
+		String archivo = "eventos-" + tipo.name().toLowerCase() + "-" + despuesDeId + ".iotx.gz";
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(archivo).build()
+						.toString())
+				.body(cuerpo);
+	}
+}
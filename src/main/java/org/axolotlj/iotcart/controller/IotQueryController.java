@@ -1,18 +1,28 @@
 package org.axolotlj.iotcart.controller;
 
-import java.util.Arrays; // Importar
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
-import java.util.stream.Collectors; // Importar
+import java.util.function.Consumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.config.TiempoLimiteAsync;
 import org.axolotlj.iotcart.dto.response.ApiResponse;
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.ObstaculoHistorialDto;
+import org.axolotlj.iotcart.dto.response.PaginaHistorial;
 import org.axolotlj.iotcart.dto.response.SecuenciaResponse; // Importar nuevo DTO
-import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
 import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
 import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.axolotlj.iotcart.service.HistorialService;
 import org.axolotlj.iotcart.service.IotEventService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +30,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Controlador REST para las operaciones de consulta (lectura) del dispositivo
@@ -33,15 +49,34 @@ public class IotQueryController {
 	private static final Logger log = LogManager.getLogger(IotQueryController.class);
 
 	private final IotEventService iotEventService;
+	private final HistorialService historialService;
+	private final ObjectMapper objectMapper;
+	private final int limiteMaximo;
+	private final long tiempoLimiteTransmisionMs;
+
+	/**
+	 * Una transmisión del historial de un tipo de evento hacia un consumidor.
+	 */
+	@FunctionalInterface
+	private interface Transmision<T> {
+		long transmitir(Consumer<? super T> destino);
+	}
 
 	@Autowired
-	public IotQueryController(IotEventService iotEventService) {
+	public IotQueryController(IotEventService iotEventService, HistorialService historialService,
+			ObjectMapper objectMapper, @Value("${iotcart.consulta.limite-maximo}") int limiteMaximo,
+			@Value("${iotcart.historial.tiempo-limite-transmision-ms}") long tiempoLimiteTransmisionMs) {
 		this.iotEventService = iotEventService;
+		this.historialService = historialService;
+		this.objectMapper = objectMapper;
+		this.limiteMaximo = limiteMaximo;
+		this.tiempoLimiteTransmisionMs = tiempoLimiteTransmisionMs;
 	}
 
 	/**
 	 * Endpoint para obtener los últimos movimientos (SP b, c).
-	 * Devuelve la lista en el formato ApiResponse.
+	 * Devuelve la lista en el formato ApiResponse, o 400 si el límite no está
+	 * entre 1 y {@code iotcart.consulta.limite-maximo}.
 	 */
 	@GetMapping("/movimiento/{dispositivoNombre}")
 	public ResponseEntity<ApiResponse<List<UltimosMovimientosDto>>> getUltimosMovimientos(
@@ -49,6 +84,9 @@ public class IotQueryController {
 			@RequestParam(defaultValue = "10") int limite) {
 
 		log.info("Endpoint /movimiento/{} invocado (limite: {})", dispositivoNombre, limite);
+		if (limite < 1 || limite > limiteMaximo) {
+			return new ResponseEntity<>(ApiResponse.error(mensajeLimiteInvalido()), HttpStatus.BAD_REQUEST);
+		}
 		List<UltimosMovimientosDto> movimientos = iotEventService.obtenerUltimosMovimientos(dispositivoNombre, limite);
 		log.debug("Consulta de movimientos para {} devolvió {} resultados.", dispositivoNombre, movimientos.size());
 
@@ -58,7 +96,8 @@ public class IotQueryController {
 
 	/**
 	 * Endpoint para obtener los últimos obstáculos (SP h, i).
-	 * Devuelve la lista en el formato ApiResponse.
+	 * Devuelve la lista en el formato ApiResponse, o 400 si el límite no está
+	 * entre 1 y {@code iotcart.consulta.limite-maximo}.
 	 */
 	@GetMapping("/obstaculo/{dispositivoNombre}")
 	public ResponseEntity<ApiResponse<List<UltimosObstaculosDto>>> getUltimosObstaculos(
@@ -66,6 +105,9 @@ public class IotQueryController {
 			@RequestParam(defaultValue = "10") int limite) {
 
 		log.info("Endpoint /obstaculo/{} invocado (limite: {})", dispositivoNombre, limite);
+		if (limite < 1 || limite > limiteMaximo) {
+			return new ResponseEntity<>(ApiResponse.error(mensajeLimiteInvalido()), HttpStatus.BAD_REQUEST);
+		}
 		List<UltimosObstaculosDto> obstaculos = iotEventService.obtenerUltimosObstaculos(dispositivoNombre, limite);
 		log.debug("Consulta de obstáculos para {} devolvió {} resultados.", dispositivoNombre, obstaculos.size());
 		
@@ -75,31 +117,123 @@ public class IotQueryController {
 
 	/**
 	 * Endpoint para obtener las últimas secuencias DEMO (SP e).
-	 * Devuelve la lista en el formato ApiResponse, transformando los
-	 * pasos de String a un Arreglo.
+	 * Devuelve la lista en el formato ApiResponse, con los pasos ya
+	 * transformados de String a un Arreglo por el catálogo de secuencias.
 	 */
 	@GetMapping("/secuencia")
 	public ResponseEntity<ApiResponse<List<SecuenciaResponse>>> getUltimasSecuenciasDemo() {
 		log.info("Endpoint /secuencia (consulta) invocado.");
-		
-		// 1. Obtener DTO de la DB (con pasos como String)
-		List<UltimasSecuenciasDto> secuenciasDto = iotEventService.obtenerUltimasSecuenciasDemo();
-		log.debug("Consulta de secuencias DEMO devolvió {} resultados.", secuenciasDto.size());
-
-		// 2. Transformar la lista
-		List<SecuenciaResponse> secuenciasResponse = secuenciasDto.stream()
-				.map(dto -> new SecuenciaResponse(
-						dto.getId_secuencia(),
-						dto.getNombre_secuencia(),
-						dto.getFecha_creacion(),
-						dto.getNumero_pasos(),
-						// Transformación: Separar el string por " -> "
-						Arrays.asList(dto.getPasos().split(" -> "))
-				))
-				.collect(Collectors.toList());
-
-		// 3. Envolver la respuesta transformada
+
+		List<SecuenciaResponse> secuenciasResponse = iotEventService.obtenerUltimasSecuenciasDemo();
+		log.debug("Consulta de secuencias DEMO devolvió {} resultados.", secuenciasResponse.size());
+
 		ApiResponse<List<SecuenciaResponse>> response = ApiResponse.success(secuenciasResponse);
 		return ResponseEntity.ok(response);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Endpoint para obtener una página del historial de movimientos, del más
+	 * reciente al más antiguo, opcionalmente acotado por fechas (ISO-8601,
+	 * {@code desde} inclusivo y {@code hasta} exclusivo). La página siguiente se
+	 * pide con el {@code siguiente_cursor} de la respuesta.
+	 */
+	@GetMapping("/movimiento/{dispositivoNombre}/historial")
+	public ResponseEntity<ApiResponse<PaginaHistorial<MovimientoHistorialDto>>> getHistorialMovimientos(
+			@PathVariable String dispositivoNombre,
+			@RequestParam(required = false) Instant desde,
+			@RequestParam(required = false) Instant hasta,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "100") int tamano) {
+
+		log.info("Endpoint /movimiento/{}/historial invocado (tamano: {})", dispositivoNombre, tamano);
+		PaginaHistorial<MovimientoHistorialDto> pagina = historialService
+				.obtenerHistorialMovimientos(dispositivoNombre, desde, hasta, cursor, tamano);
+		return ResponseEntity.ok(ApiResponse.success(pagina));
+	}
+
+	/**
+	 * Endpoint para obtener una página del historial de obstáculos.
+	 *
+	 * @see #getHistorialMovimientos(String, Instant, Instant, String, int)
+	 */
+	@GetMapping("/obstaculo/{dispositivoNombre}/historial")
+	public ResponseEntity<ApiResponse<PaginaHistorial<ObstaculoHistorialDto>>> getHistorialObstaculos(
+			@PathVariable String dispositivoNombre,
+			@RequestParam(required = false) Instant desde,
+			@RequestParam(required = false) Instant hasta,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "100") int tamano) {
+
+		log.info("Endpoint /obstaculo/{}/historial invocado (tamano: {})", dispositivoNombre, tamano);
+		PaginaHistorial<ObstaculoHistorialDto> pagina = historialService
+				.obtenerHistorialObstaculos(dispositivoNombre, desde, hasta, cursor, tamano);
+		return ResponseEntity.ok(ApiResponse.success(pagina));
+	}
+
+	/**
+	 * Endpoint que transmite todo el historial de movimientos del rango como
+	 * NDJSON (un evento JSON por línea, sin el contenedor ApiResponse). Los
+	 * eventos se escriben por lotes conforme se leen de la base de datos, así que
+	 * la memoria usada no depende del tamaño del rango; la respuesta se corta
+	 * tras {@code iotcart.historial.tiempo-limite-transmision-ms}.
+	 */
+	@GetMapping(value = "/movimiento/{dispositivoNombre}/historial/ndjson",
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> transmitirHistorialMovimientos(
+			@PathVariable String dispositivoNombre,
+			@RequestParam(required = false) Instant desde,
+			@RequestParam(required = false) Instant hasta,
+			HttpServletRequest httpServletRequest) {
+
+		log.info("Endpoint /movimiento/{}/historial/ndjson invocado [{} - {}]", dispositivoNombre, desde, hasta);
+		TiempoLimiteAsync.fijar(httpServletRequest, tiempoLimiteTransmisionMs);
+		return ndjson(destino -> historialService.transmitirHistorialMovimientos(dispositivoNombre, desde, hasta,
+				destino));
+	}
+
+	/**
+	 * Endpoint que transmite todo el historial de obstáculos del rango como
+	 * NDJSON.
+	 *
+	 * @see #transmitirHistorialMovimientos(String, Instant, Instant, HttpServletRequest)
+	 */
+	@GetMapping(value = "/obstaculo/{dispositivoNombre}/historial/ndjson",
+			produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> transmitirHistorialObstaculos(
+			@PathVariable String dispositivoNombre,
+			@RequestParam(required = false) Instant desde,
+			@RequestParam(required = false) Instant hasta,
+			HttpServletRequest httpServletRequest) {
+
+		log.info("Endpoint /obstaculo/{}/historial/ndjson invocado [{} - {}]", dispositivoNombre, desde, hasta);
+		TiempoLimiteAsync.fijar(httpServletRequest, tiempoLimiteTransmisionMs);
+		return ndjson(destino -> historialService.transmitirHistorialObstaculos(dispositivoNombre, desde, hasta,
+				destino));
+	}
+
+	private String mensajeLimiteInvalido() {
+		return "El límite debe estar entre 1 y " + limiteMaximo + ".";
+	}
+
+	/**
+	 * Escribe cada evento de la transmisión como una línea JSON. Los errores de
+	 * escritura (cliente desconectado) cortan la lectura de la base de datos.
+	 */
+	private <T> ResponseEntity<StreamingResponseBody> ndjson(Transmision<T> transmision) {
+		StreamingResponseBody cuerpo = (OutputStream salida) -> {
+			JsonGenerator generador = objectMapper.createGenerator(salida);
+			generador.setRootValueSeparator(null);
+			long eventos = transmision.transmitir(fila -> {
+				try {
+					generador.writeObject(fila);
+					generador.writeRaw('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			generador.flush();
+			log.debug("Transmisión NDJSON terminada con {} eventos.", eventos);
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+	}
+}
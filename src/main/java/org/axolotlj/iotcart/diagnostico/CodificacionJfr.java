@@ -0,0 +1,37 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la serialización de una notificación WebSocket.
+ */
+@Name("org.axolotlj.iotcart.Codificacion")
+@Label("Codificación de notificación")
+@Category({ "IoT Cart", "WebSocket" })
+@StackTrace(false)
+public final class CodificacionJfr extends Event {
+
+	@Label("Tipo de evento")
+	final String eventType;
+
+	@Label("Tamaño")
+	@DataAmount
+	int bytes;
+
+	public CodificacionJfr(String eventType) {
+		this.eventType = eventType;
+	}
+
+	/**
+	 * @param caracteres Longitud del frame; en JSON ASCII coincide con los
+	 *                   bytes enviados.
+	 */
+	public void setBytes(int caracteres) {
+		this.bytes = caracteres;
+	}
+}
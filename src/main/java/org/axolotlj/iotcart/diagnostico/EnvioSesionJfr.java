@@ -0,0 +1,51 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR del envío de un frame a una sesión de monitoreo.
+ * <p>
+ * Hay uno por sesión y notificación, así que por defecto solo se graban los
+ * envíos de más de 1 ms; el umbral se cambia en la configuración de la
+ * grabación ({@code org.axolotlj.iotcart.EnvioSesion#threshold=0 ms}).
+ */
+@Name("org.axolotlj.iotcart.EnvioSesion")
+@Label("Envío a sesión WebSocket")
+@Category({ "IoT Cart", "WebSocket" })
+@Threshold("1 ms")
+@StackTrace(false)
+public final class EnvioSesionJfr extends Event {
+
+	@Label("Sesión")
+	final String sesion;
+
+	@Label("Tamaño")
+	@DataAmount
+	final int bytes;
+
+	@Label("Espera en buffer")
+	@Description("Tiempo desde que el frame se encoló hasta que empezó su envío")
+	@Timespan(Timespan.NANOSECONDS)
+	final long espera;
+
+	@Label("Fallido")
+	boolean fallido;
+
+	public EnvioSesionJfr(String sesion, int bytes, long espera) {
+		this.sesion = sesion;
+		this.bytes = bytes;
+		this.espera = espera;
+	}
+
+	public void setFallido(boolean fallido) {
+		this.fallido = fallido;
+	}
+}
@@ -0,0 +1,45 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de la ingesta síncrona de un movimiento, obstáculo o lote: desde
+ * que el servicio lo recibe hasta que queda registrado y notificado.
+ * <p>
+ * Los eventos de la aplicación están en la categoría "IoT Cart" y se graban
+ * con cualquier grabación en curso, por ejemplo arrancando con
+ * {@code -XX:StartFlightRecording:maxage=1h,filename=iotcart.jfr} o con
+ * {@code jcmd <pid> JFR.start}, y se vuelcan con {@code jcmd <pid> JFR.dump}.
+ */
+@Name("org.axolotlj.iotcart.Ingesta")
+@Label("Ingesta")
+@Category({ "IoT Cart", "Ingesta" })
+@Description("Registro de un movimiento, obstáculo o lote en el servicio")
+@StackTrace(false)
+public final class IngestaJfr extends Event {
+
+	@Label("Tipo")
+	final String tipo;
+
+	@Label("Dispositivo")
+	final String dispositivo;
+
+	@Label("Código")
+	@Description("Código de operación u obstáculo; vacío en los lotes")
+	final String codigo;
+
+	@Label("Eventos")
+	final int cantidad;
+
+	public IngestaJfr(String tipo, String dispositivo, String codigo, int cantidad) {
+		this.tipo = tipo;
+		this.dispositivo = dispositivo;
+		this.codigo = codigo;
+		this.cantidad = cantidad;
+	}
+}
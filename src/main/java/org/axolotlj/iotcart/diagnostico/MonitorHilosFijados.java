@@ -0,0 +1,94 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reporta los hilos virtuales que quedan fijados (pinned) a su hilo portador.
+ * <p>
+ * Un hilo virtual que bloquea dentro de un bloque {@code synchronized} o de un
+ * método nativo no libera a su portador, y con pocos portadores eso limita la
+ * concurrencia igual que un pool de hilos de plataforma. Este componente
+ * escucha el evento JFR {@code jdk.VirtualThreadPinned} en el mismo proceso y,
+ * por cada fijación más larga que el umbral, registra una advertencia con la
+ * pila que la provocó e incrementa {@code iotcart.hilos.virtuales.fijados}.
+ * <p>
+ * Solo se activa en el modo de hilos virtuales.
+ */
+@Component
+public class MonitorHilosFijados {
+
+	private static final Logger log = LogManager.getLogger(MonitorHilosFijados.class);
+
+	private static final String EVENTO = "jdk.VirtualThreadPinned";
+	private static final int MARCOS_REPORTADOS = 8;
+
+	private final boolean activo;
+	private final Duration umbral;
+	private final Counter fijados;
+
+	private RecordingStream stream;
+
+	@Autowired
+	public MonitorHilosFijados(MeterRegistry meterRegistry,
+			@Value("${spring.threads.virtual.enabled}") boolean hilosVirtuales,
+			@Value("${iotcart.hilos-virtuales.reportar-fijados}") boolean reportarFijados,
+			@Value("${iotcart.hilos-virtuales.umbral-fijado-ms}") long umbralMs) {
+		this.activo = hilosVirtuales && reportarFijados;
+		this.umbral = Duration.ofMillis(umbralMs);
+		this.fijados = Counter.builder("iotcart.hilos.virtuales.fijados")
+				.description("Hilos virtuales fijados a su portador por más del umbral").register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		if (!activo) {
+			return;
+		}
+		stream = new RecordingStream();
+		stream.enable(EVENTO).withThreshold(umbral).withStackTrace();
+		stream.onEvent(EVENTO, this::reportar);
+		stream.startAsync();
+		log.info("Monitor de hilos virtuales fijados activo [umbral: {} ms]", umbral.toMillis());
+	}
+
+	@PreDestroy
+	public void detener() {
+		if (stream != null) {
+			stream.close();
+		}
+	}
+
+	private void reportar(RecordedEvent evento) {
+		fijados.increment();
+		String hilo = evento.getThread() != null ? evento.getThread().getJavaName() : "?";
+		log.warn("Hilo virtual fijado a su portador durante {} ms [Hilo: {}]:\n{}", evento.getDuration().toMillis(),
+				hilo, pila(evento));
+	}
+
+	private static String pila(RecordedEvent evento) {
+		if (evento.getStackTrace() == null) {
+			return "\t(sin pila)";
+		}
+		List<RecordedFrame> marcos = evento.getStackTrace().getFrames();
+		return marcos.stream().limit(MARCOS_REPORTADOS)
+				.map(m -> "\tat " + m.getMethod().getType().getName() + "." + m.getMethod().getName() + ":"
+						+ m.getLineNumber())
+				.collect(Collectors.joining("\n"));
+	}
+}
@@ -0,0 +1,190 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * Filtro de Log4j2 que deja pasar solo una fracción de los eventos de bajo
+ * nivel de un grupo de loggers, para conservar una muestra de los logs por
+ * petición sin pagar el costo de escribirlos todos.
+ * <p>
+ * Se usa como filtro global de la configuración (antes de crear el evento):
+ * los eventos de {@code prefijo} con nivel {@code nivel} o menos severo pasan
+ * con probabilidad {@code tasa}; el resto, y los más severos (WARN, ERROR),
+ * siguen su camino normal. No asigna memoria por evento.
+ * <p>
+ * La decisión se toma una vez por petición: {@link MuestreoPeticionFilter}
+ * sortea un número en {@code [0, ESCALA)} y lo deja en el
+ * {@link ThreadContext} bajo {@value #CLAVE_MUESTRA}; los eventos de la
+ * petición pasan si ese número es menor que {@code tasa * ESCALA}, de modo que
+ * una petición muestreada conserva todos sus logs y el resto no deja ninguno.
+ * Fuera de una petición (tareas programadas, WebSocket, ingesta asíncrona) se
+ * sortea por evento.
+ *
+ * <pre>
+ * &lt;MuestreoFilter prefijo="org.axolotlj.iotcart.controller" nivel="INFO" tasa="0.1"/&gt;
+ * </pre>
+ */
+@Plugin(name = "MuestreoFilter", category = Node.CATEGORY, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class MuestreoFilter extends AbstractFilter {
+
+	/**
+	 * Clave del {@link ThreadContext} con el número sorteado para la petición.
+	 */
+	public static final String CLAVE_MUESTRA = "muestra";
+
+	/**
+	 * Los números sorteados van de 0 a {@code ESCALA - 1}.
+	 */
+	public static final int ESCALA = 10_000;
+
+	private final String prefijo;
+	private final Level nivel;
+	private final double tasa;
+	private final int umbral;
+
+	private MuestreoFilter(String prefijo, Level nivel, double tasa) {
+		super(Result.NEUTRAL, Result.DENY);
+		this.prefijo = prefijo;
+		this.nivel = nivel;
+		this.tasa = tasa;
+		this.umbral = (int) Math.round(tasa * ESCALA);
+	}
+
+	/**
+	 * @param prefijo Prefijo de los nombres de logger muestreados.
+	 * @param nivel   Nivel más severo que se muestrea (por defecto INFO).
+	 * @param tasa    Fracción de eventos que pasan, entre 0 y 1.
+	 */
+	@PluginFactory
+	public static MuestreoFilter createFilter(@PluginAttribute("prefijo") String prefijo,
+			@PluginAttribute("nivel") String nivel, @PluginAttribute(value = "tasa", defaultDouble = 1.0) double tasa) {
+		return new MuestreoFilter(prefijo == null ? "" : prefijo, Level.toLevel(nivel, Level.INFO),
+				Math.max(0.0, Math.min(1.0, tasa)));
+	}
+
+	private boolean muestreable(String logger, Level level) {
+		return tasa < 1.0 && level.isLessSpecificThan(nivel) && logger.startsWith(prefijo);
+	}
+
+	private Result decidir(String logger, Level level) {
+		if (!muestreable(logger, level)) {
+			return onMatch;
+		}
+		return muestreado(ThreadContext.get(CLAVE_MUESTRA)) ? onMatch : onMismatch;
+	}
+
+	/**
+	 * @param muestra El número sorteado para la petición, o null fuera de una.
+	 */
+	private boolean muestreado(String muestra) {
+		if (muestra == null) {
+			return ThreadLocalRandom.current().nextInt(ESCALA) < umbral;
+		}
+		try {
+			return Integer.parseInt(muestra) < umbral;
+		} catch (NumberFormatException e) {
+			return true;
+		}
+	}
+
+	@Override
+	public Result filter(LogEvent event) {
+		if (!muestreable(event.getLoggerName(), event.getLevel())) {
+			return onMatch;
+		}
+		String muestra = event.getContextData().getValue(CLAVE_MUESTRA);
+		return muestreado(muestra) ? onMatch : onMismatch;
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, Message msg, Throwable t) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, Object msg, Throwable t) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object... params) {
+		return decidir(logger.getName(), level);
+	}
+
+	// Sobrecargas sin varargs: la implementación base crea un arreglo por evento
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7, Object p8) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public Result filter(Logger logger, Level level, Marker marker, String msg, Object p0, Object p1, Object p2,
+			Object p3, Object p4, Object p5, Object p6, Object p7, Object p8, Object p9) {
+		return decidir(logger.getName(), level);
+	}
+
+	@Override
+	public String toString() {
+		return "prefijo=" + prefijo + ", nivel=" + nivel + ", tasa=" + tasa;
+	}
+}
@@ -0,0 +1,41 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sortea una vez por petición si sus logs de bajo nivel entran en la muestra
+ * de {@link MuestreoFilter}, para que una petición se registre completa o no
+ * se registre, en lugar de dejar líneas sueltas de cada una.
+ * <p>
+ * El número sorteado queda en el {@link ThreadContext} mientras el hilo
+ * atiende la petición. Va primero en la cadena, para cubrir también los logs
+ * de los demás filtros.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MuestreoPeticionFilter extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		ThreadContext.put(MuestreoFilter.CLAVE_MUESTRA,
+				Integer.toString(ThreadLocalRandom.current().nextInt(MuestreoFilter.ESCALA)));
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ThreadContext.remove(MuestreoFilter.CLAVE_MUESTRA);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de una llamada a un procedimiento almacenado desde el servicio.
+ */
+@Name("org.axolotlj.iotcart.Procedimiento")
+@Label("Procedimiento almacenado")
+@Category({ "IoT Cart", "Base de datos" })
+@StackTrace(false)
+public final class ProcedimientoJfr extends Event {
+
+	@Label("Procedimiento")
+	final String procedimiento;
+
+	public ProcedimientoJfr(String procedimiento) {
+		this.procedimiento = procedimiento;
+	}
+}
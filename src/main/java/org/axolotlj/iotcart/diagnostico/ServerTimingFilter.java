@@ -0,0 +1,151 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Agrega el encabezado {@code Server-Timing} a las respuestas de los
+ * controladores de control y consulta, con el tiempo de base de datos,
+ * serialización de notificaciones, reparto WebSocket y serialización de la
+ * respuesta (ver {@link TiemposServidor}).
+ * <p>
+ * El encabezado tiene que salir antes que el cuerpo, por lo que se escribe
+ * justo antes del primer flush de la respuesta, cuando el convertidor de
+ * Spring ya terminó de serializar. Si el cuerpo supera el buffer del
+ * contenedor y la respuesta se confirma antes, se omite el encabezado.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+	static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+	private static final String[] RUTAS = { "/api/v1/iot/control/", "/api/v1/iot/query/" };
+
+	private final boolean habilitado;
+
+	@Autowired
+	public ServerTimingFilter(@Value("${iotcart.server-timing.habilitado}") boolean habilitado) {
+		this.habilitado = habilitado;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		if (!habilitado) {
+			return true;
+		}
+		String ruta = request.getRequestURI().substring(request.getContextPath().length());
+		for (String prefijo : RUTAS) {
+			if (ruta.startsWith(prefijo)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		RespuestaConServerTiming respuesta = new RespuestaConServerTiming(response, TiemposServidor.abrir());
+		try {
+			chain.doFilter(request, respuesta);
+			// Respuestas sin cuerpo o escritas sin flush
+			respuesta.escribirEncabezado();
+		} finally {
+			TiemposServidor.cerrar();
+		}
+	}
+
+	/**
+	 * Respuesta que escribe el encabezado antes de confirmarse.
+	 */
+	private static final class RespuestaConServerTiming extends HttpServletResponseWrapper {
+
+		private final TiemposServidor tiempos;
+		private ServletOutputStream salida;
+		private boolean escrito;
+
+		RespuestaConServerTiming(HttpServletResponse response, TiemposServidor tiempos) {
+			super(response);
+			this.tiempos = tiempos;
+		}
+
+		void escribirEncabezado() {
+			if (escrito) {
+				return;
+			}
+			escrito = true;
+			if (!isCommitted()) {
+				setHeader(SERVER_TIMING_HEADER, tiempos.encabezado());
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (salida == null) {
+				salida = new SalidaConServerTiming(super.getOutputStream(), this);
+			}
+			return salida;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			escribirEncabezado();
+			super.flushBuffer();
+		}
+	}
+
+	private static final class SalidaConServerTiming extends ServletOutputStream {
+
+		private final ServletOutputStream destino;
+		private final RespuestaConServerTiming respuesta;
+
+		SalidaConServerTiming(ServletOutputStream destino, RespuestaConServerTiming respuesta) {
+			this.destino = destino;
+			this.respuesta = respuesta;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			destino.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			destino.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			respuesta.escribirEncabezado();
+			destino.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			respuesta.escribirEncabezado();
+			destino.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return destino.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			destino.setWriteListener(writeListener);
+		}
+	}
+}
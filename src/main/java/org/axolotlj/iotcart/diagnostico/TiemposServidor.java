@@ -0,0 +1,125 @@
+package org.axolotlj.iotcart.diagnostico;
+
+/**
+ * Desglose del tiempo de una petición HTTP por fase, para el encabezado
+ * {@code Server-Timing}.
+ * <p>
+ * {@link ServerTimingFilter} abre un acumulador por petición en el hilo que la
+ * atiende; el resto del código solo suma duraciones con
+ * {@link #sumar(Fase, long)}, que no hace nada si el hilo no tiene un
+ * acumulador abierto (ingesta asíncrona, executors de WebSocket, pruebas).
+ * Los tiempos se toman con {@link System#nanoTime()}.
+ */
+public final class TiemposServidor {
+
+	/**
+	 * Fases reportadas, en el orden en que aparecen en el encabezado.
+	 */
+	public enum Fase {
+		/** Llamadas al repositorio (procedimientos almacenados). */
+		BD("db"),
+		/** Serialización de las notificaciones WebSocket. */
+		NOTIFICACION("notif"),
+		/** Reparto de las notificaciones a las sesiones suscritas. */
+		REPARTO("fanout"),
+		/** Serialización del cuerpo de la respuesta. */
+		RESPUESTA("resp");
+
+		private final String metrica;
+
+		Fase(String metrica) {
+			this.metrica = metrica;
+		}
+
+		public String getMetrica() {
+			return metrica;
+		}
+	}
+
+	private static final Fase[] FASES = Fase.values();
+	private static final ThreadLocal<TiemposServidor> ACTUAL = new ThreadLocal<>();
+
+	private final long inicio;
+	private final long[] nanos = new long[FASES.length];
+	private long inicioRespuesta;
+
+	private TiemposServidor(long inicio) {
+		this.inicio = inicio;
+	}
+
+	/**
+	 * Abre el acumulador de la petición atendida por el hilo actual.
+	 */
+	static TiemposServidor abrir() {
+		TiemposServidor tiempos = new TiemposServidor(System.nanoTime());
+		ACTUAL.set(tiempos);
+		return tiempos;
+	}
+
+	/**
+	 * Cierra el acumulador del hilo actual.
+	 */
+	static void cerrar() {
+		ACTUAL.remove();
+	}
+
+	/**
+	 * Suma una duración a la fase en la petición del hilo actual, si la hay.
+	 *
+	 * @param fase     La fase medida.
+	 * @param duracion Duración en nanosegundos.
+	 */
+	public static void sumar(Fase fase, long duracion) {
+		TiemposServidor tiempos = ACTUAL.get();
+		if (tiempos != null) {
+			tiempos.nanos[fase.ordinal()] += duracion;
+		}
+	}
+
+	/**
+	 * Marca el inicio de la serialización del cuerpo de la respuesta.
+	 */
+	static void marcarInicioRespuesta() {
+		TiemposServidor tiempos = ACTUAL.get();
+		if (tiempos != null) {
+			tiempos.inicioRespuesta = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Construye el valor del encabezado, por ejemplo
+	 * {@code db;dur=1.204, notif;dur=0.031, fanout;dur=0.012, resp;dur=0.085, total;dur=1.530}.
+	 * La fase de respuesta va desde {@link #marcarInicioRespuesta()} hasta este
+	 * momento.
+	 */
+	String encabezado() {
+		long ahora = System.nanoTime();
+		if (inicioRespuesta != 0) {
+			nanos[Fase.RESPUESTA.ordinal()] = ahora - inicioRespuesta;
+		}
+		StringBuilder sb = new StringBuilder(96);
+		for (Fase fase : FASES) {
+			agregar(sb, fase.getMetrica(), nanos[fase.ordinal()]);
+			sb.append(", ");
+		}
+		agregar(sb, "total", ahora - inicio);
+		return sb.toString();
+	}
+
+	/**
+	 * Escribe {@code nombre;dur=ms} con tres decimales sin pasar por
+	 * {@code String.format}.
+	 */
+	private static void agregar(StringBuilder sb, String nombre, long duracion) {
+		long micros = duracion / 1_000;
+		long fraccion = micros % 1_000;
+		sb.append(nombre).append(";dur=").append(micros / 1_000).append('.');
+		if (fraccion < 100) {
+			sb.append('0');
+		}
+		if (fraccion < 10) {
+			sb.append('0');
+		}
+		sb.append(fraccion);
+	}
+}
@@ -0,0 +1,23 @@
+package org.axolotlj.iotcart.dto.response;
+
+import java.sql.Timestamp;
+
+/**
+ * DTO (Record) con una fila del resultado de 'sp_obtener_historial_movimientos'.
+ * Tiene los mismos campos que {@link UltimosMovimientosDto} más el ID del
+ * evento, que junto con la fecha forma la posición del cursor de paginación.
+ *
+ * @param id_evento          El ID del evento (alias 'id_evento').
+ * @param fecha_evento       El timestamp del evento (alias 'fecha_evento').
+ * @param nombre_dispositivo El nombre del dispositivo (alias 'nombre_dispositivo').
+ * @param movimiento         La descripción del movimiento (alias 'movimiento').
+ * @param ip_cliente         La IP del cliente (alias 'ip_cliente').
+ */
+public record MovimientoHistorialDto(
+        long id_evento,
+        Timestamp fecha_evento,
+        String nombre_dispositivo,
+        String movimiento,
+        String ip_cliente
+) {
+}
@@ -0,0 +1,23 @@
+package org.axolotlj.iotcart.dto.response;
+
+import java.sql.Timestamp;
+
+/**
+ * DTO (Record) con una fila del resultado de 'sp_obtener_historial_obstaculos'.
+ * Tiene los mismos campos que {@link UltimosObstaculosDto} más el ID del
+ * evento, que junto con la fecha forma la posición del cursor de paginación.
+ *
+ * @param id_evento           El ID del evento (alias 'id_evento').
+ * @param fecha_evento        El timestamp del evento (alias 'fecha_evento').
+ * @param nombre_dispositivo  El nombre del dispositivo (alias 'nombre_dispositivo').
+ * @param obstaculo_detectado La descripción del obstáculo (alias 'obstaculo_detectado').
+ * @param ip_cliente          La IP del cliente (alias 'ip_cliente').
+ */
+public record ObstaculoHistorialDto(
+        long id_evento,
+        Timestamp fecha_evento,
+        String nombre_dispositivo,
+        String obstaculo_detectado,
+        String ip_cliente
+) {
+}
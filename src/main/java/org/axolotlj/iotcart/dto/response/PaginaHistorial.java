@@ -0,0 +1,18 @@
+package org.axolotlj.iotcart.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO (Record) con una página del historial de eventos de un dispositivo, del
+ * más reciente al más antiguo.
+ *
+ * @param elementos        Los eventos de la página.
+ * @param siguiente_cursor Cursor opaco para pedir la página siguiente, o null
+ *                         si no hay más eventos en el rango.
+ * @param <T> El tipo de evento.
+ */
+public record PaginaHistorial<T>(
+        List<T> elementos,
+        String siguiente_cursor
+) {
+}
@@ -0,0 +1,14 @@
+package org.axolotlj.iotcart.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO para devolver el ticket provisional de un evento aceptado por la
+ * ingesta asíncrona. El ID de evento definitivo se asigna al confirmarse.
+ */
+@Getter
+@AllArgsConstructor
+public class TicketResponse {
+    private long ticket;
+}
@@ -0,0 +1,21 @@
+package org.axolotlj.iotcart.exception;
+
+import java.math.BigDecimal;
+
+/**
+ * Se lanza cuando un evento trae una latitud o longitud fuera de rango. Se
+ * traduce a HTTP 400.
+ */
+public class CoordenadaInvalidaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param campo  El nombre de la coordenada ("latitud" o "longitud").
+     * @param grados El valor recibido.
+     * @param limite El valor absoluto máximo permitido.
+     */
+    public CoordenadaInvalidaException(String campo, BigDecimal grados, int limite) {
+        super("La " + campo + " debe estar entre -" + limite + " y " + limite + " grados: " + grados);
+    }
+}
@@ -0,0 +1,18 @@
+package org.axolotlj.iotcart.exception;
+
+/**
+ * Se lanza cuando el cursor de paginación recibido no fue generado por la API
+ * o está dañado. Se traduce a HTTP 400.
+ */
+public class CursorInvalidoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param cursor El cursor recibido.
+     * @param causa  El error al decodificarlo.
+     */
+    public CursorInvalidoException(String cursor, Throwable causa) {
+        super("Cursor de paginación inválido: " + cursor, causa);
+    }
+}
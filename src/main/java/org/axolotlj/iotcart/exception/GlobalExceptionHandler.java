@@ -4,8 +4,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.axolotlj.iotcart.dto.response.ApiResponse;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -41,6 +43,75 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Maneja el rechazo de eventos por cola de ingesta asíncrona llena.
+     *
+     * @param ex La excepción de saturación.
+     * @param request La solicitud web actual.
+     * @return Una respuesta HTTP 429 (Too Many Requests) en formato ApiResponse.
+     */
+    @ExceptionHandler(IngestaSaturadaException.class)
+    public ResponseEntity<ApiResponse<Object>> handleIngestaSaturadaException(IngestaSaturadaException ex,
+            WebRequest request) {
+        log.warn("Ingesta saturada en la solicitud: {}. {}", request.getDescription(false), ex.getMessage());
+
+        // Indicar al dispositivo que reintente en breve
+        ApiResponse<Object> apiResponse = ApiResponse.error("El servidor está saturado. Reintente más tarde.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiResponse);
+    }
+
+    /**
+     * Maneja los cursores de paginación que no se pueden interpretar.
+     *
+     * @param ex La excepción del cursor.
+     * @param request La solicitud web actual.
+     * @return Una respuesta HTTP 400 (Bad Request) en formato ApiResponse.
+     */
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ApiResponse<Object>> handleCursorInvalidoException(CursorInvalidoException ex,
+            WebRequest request) {
+        log.warn("Cursor inválido en la solicitud: {}. {}", request.getDescription(false), ex.getMessage());
+
+        ApiResponse<Object> apiResponse = ApiResponse.error("El cursor de paginación no es válido.");
+        return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja los eventos con latitud o longitud fuera de rango.
+     *
+     * @param ex La excepción de la coordenada.
+     * @param request La solicitud web actual.
+     * @return Una respuesta HTTP 400 (Bad Request) en formato ApiResponse.
+     */
+    @ExceptionHandler(CoordenadaInvalidaException.class)
+    public ResponseEntity<ApiResponse<Object>> handleCoordenadaInvalidaException(CoordenadaInvalidaException ex,
+            WebRequest request) {
+        log.warn("Coordenada inválida en la solicitud: {}. {}", request.getDescription(false), ex.getMessage());
+
+        ApiResponse<Object> apiResponse = ApiResponse.error(ex.getMessage());
+        return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja los cuerpos que no se pueden leer, en JSON o en el formato compacto
+     * CBOR (por ejemplo, un ID de operación desconocido).
+     *
+     * @param ex La excepción de lectura del cuerpo.
+     * @param request La solicitud web actual.
+     * @return Una respuesta HTTP 400 (Bad Request) en formato ApiResponse.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException ex, WebRequest request) {
+        log.warn("Cuerpo ilegible en la solicitud: {}. {}", request.getDescription(false),
+                ex.getMostSpecificCause().getMessage());
+
+        ApiResponse<Object> apiResponse = ApiResponse.error("El cuerpo de la solicitud no es válido.");
+        return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Maneja todas las demás excepciones genéricas no controladas.
      *
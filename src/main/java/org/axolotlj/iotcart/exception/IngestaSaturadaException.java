@@ -0,0 +1,17 @@
+package org.axolotlj.iotcart.exception;
+
+/**
+ * Se lanza cuando la cola de ingesta asíncrona está llena y no puede aceptar
+ * más eventos. Se traduce a HTTP 429 para que el dispositivo reintente.
+ */
+public class IngestaSaturadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param capacidad La capacidad configurada de la cola.
+     */
+    public IngestaSaturadaException(int capacidad) {
+        super("La cola de ingesta asíncrona está llena (capacidad: " + capacidad + ").");
+    }
+}
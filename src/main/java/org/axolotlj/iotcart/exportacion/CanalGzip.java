@@ -0,0 +1,94 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Canal que comprime en formato GZIP lo que se escribe y lo pasa a otro canal.
+ * <p>
+ * Comprime directamente desde los {@link ByteBuffer} recibidos hacia un buffer
+ * de salida fijo, sin copias intermedias a arreglos ni flujos. Al cerrarse
+ * escribe el final del GZIP pero no cierra el canal de destino, que sigue
+ * siendo de quien lo abrió.
+ */
+final class CanalGzip implements WritableByteChannel {
+
+	private static final byte[] ENCABEZADO_GZIP = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0,
+			(byte) 0xff };
+
+	private final WritableByteChannel destino;
+	private final Deflater deflater;
+	private final CRC32 crc = new CRC32();
+	private final ByteBuffer comprimido;
+	private long bytesEntrada;
+	private boolean abierto = true;
+
+	CanalGzip(WritableByteChannel destino, int nivelCompresion, int tamanoBuffer) throws IOException {
+		this.destino = destino;
+		this.deflater = new Deflater(nivelCompresion, true);
+		this.comprimido = ByteBuffer.allocate(tamanoBuffer).order(ByteOrder.LITTLE_ENDIAN);
+		comprimido.put(ENCABEZADO_GZIP);
+	}
+
+	@Override
+	public int write(ByteBuffer origen) throws IOException {
+		if (!abierto) {
+			throw new ClosedChannelException();
+		}
+		int bytes = origen.remaining();
+		crc.update(origen.duplicate());
+		deflater.setInput(origen);
+		while (!deflater.needsInput()) {
+			comprimir();
+		}
+		bytesEntrada += bytes;
+		return bytes;
+	}
+
+	@Override
+	public boolean isOpen() {
+		return abierto;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!abierto) {
+			return;
+		}
+		abierto = false;
+		try {
+			deflater.finish();
+			while (!deflater.finished()) {
+				comprimir();
+			}
+			if (comprimido.remaining() < Integer.BYTES * 2) {
+				vaciar();
+			}
+			comprimido.putInt((int) crc.getValue());
+			comprimido.putInt((int) bytesEntrada);
+			vaciar();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private void comprimir() throws IOException {
+		deflater.deflate(comprimido);
+		if (!comprimido.hasRemaining()) {
+			vaciar();
+		}
+	}
+
+	private void vaciar() throws IOException {
+		comprimido.flip();
+		while (comprimido.hasRemaining()) {
+			destino.write(comprimido);
+		}
+		comprimido.clear();
+	}
+}
@@ -0,0 +1,104 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escribe el contenido de un archivo de exportación (ver
+ * {@link FormatoExportacion}) sobre un canal, a través de un buffer de tamaño
+ * fijo que se vacía cada vez que el siguiente registro no cabe.
+ */
+final class EscritorExportacion {
+
+	private final WritableByteChannel destino;
+	private final ByteBuffer buffer;
+	private long eventos;
+	private long ultimoId;
+
+	EscritorExportacion(WritableByteChannel destino, int tamanoBuffer) {
+		this.destino = destino;
+		this.buffer = ByteBuffer.allocate(tamanoBuffer);
+	}
+
+	void escribirEncabezado(TipoEvento tipo, long despuesDeId) throws IOException {
+		reservar(FormatoExportacion.MAGIA.length + 2 + Long.BYTES);
+		buffer.put(FormatoExportacion.MAGIA);
+		buffer.put((byte) FormatoExportacion.VERSION);
+		buffer.put((byte) tipo.getCodigo());
+		buffer.putLong(despuesDeId);
+		ultimoId = despuesDeId;
+	}
+
+	void escribir(EventoExportado evento) throws IOException {
+		byte[] dispositivo = utf8(evento.nombreDispositivo());
+		byte[] descripcion = utf8(evento.evento());
+		byte[] ip = utf8(evento.ipCliente());
+		int longitud = FormatoExportacion.BYTES_FIJOS_REGISTRO + longitudTexto(dispositivo)
+				+ longitudTexto(descripcion) + longitudTexto(ip);
+		reservar(Integer.BYTES + longitud);
+		buffer.putInt(longitud);
+		buffer.putLong(evento.idEvento());
+		buffer.putLong(FormatoExportacion.aMicros(evento.fechaEvento()));
+		escribirTexto(dispositivo);
+		escribirTexto(descripcion);
+		escribirTexto(ip);
+		eventos++;
+		ultimoId = evento.idEvento();
+	}
+
+	/**
+	 * Escribe el cierre y vacía el buffer.
+	 */
+	void terminar() throws IOException {
+		reservar(Integer.BYTES + Long.BYTES * 2);
+		buffer.putInt(0);
+		buffer.putLong(eventos);
+		buffer.putLong(ultimoId);
+		vaciar();
+	}
+
+	long getEventos() {
+		return eventos;
+	}
+
+	long getUltimoId() {
+		return ultimoId;
+	}
+
+	private void reservar(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			vaciar();
+			if (buffer.remaining() < bytes) {
+				throw new IOException("El evento ocupa " + bytes + " bytes y no cabe en el buffer de exportación de "
+						+ buffer.capacity() + " bytes.");
+			}
+		}
+	}
+
+	private void vaciar() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			destino.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void escribirTexto(byte[] texto) {
+		if (texto == null) {
+			buffer.putInt(-1);
+		} else {
+			buffer.putInt(texto.length);
+			buffer.put(texto);
+		}
+	}
+
+	private static int longitudTexto(byte[] texto) {
+		return Integer.BYTES + (texto != null ? texto.length : 0);
+	}
+
+	private static byte[] utf8(String texto) {
+		return texto != null ? texto.getBytes(StandardCharsets.UTF_8) : null;
+	}
+}
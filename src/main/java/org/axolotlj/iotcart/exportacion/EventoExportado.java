@@ -0,0 +1,16 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.sql.Timestamp;
+
+/**
+ * Un evento de la bitácora tal como se guarda en el archivo exportado.
+ *
+ * @param evento Movimiento u obstáculo detectado, según el tipo exportado.
+ */
+public record EventoExportado(
+        long idEvento,
+        Timestamp fechaEvento,
+        String nombreDispositivo,
+        String evento,
+        String ipCliente) {
+}
@@ -0,0 +1,106 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.repository.ExportacionEventosRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exporta la bitácora de eventos a un archivo comprimido (ver
+ * {@link FormatoExportacion}) escrito sobre un canal.
+ * <p>
+ * Los eventos se leen por clave primaria en lotes de
+ * {@code iotcart.exportacion.lote} filas, cada uno en su propia transacción de
+ * solo lectura. El lote se lee completo y se escribe en el canal ya cerrada la
+ * transacción, para no retener una conexión mientras el cliente descarga. La
+ * memoria usada es la de un lote más los buffers de escritura y compresión,
+ * sin importar cuántos eventos se exporten. Una exportación interrumpida se
+ * reanuda pidiendo los eventos posteriores al último ID recibido (ver
+ * {@link LectorExportacion}).
+ */
+@Component
+public class ExportadorEventos {
+
+	private static final Logger log = LogManager.getLogger(ExportadorEventos.class);
+
+	private final ExportacionEventosRepository exportacionRepository;
+	private final TransactionTemplate lectura;
+	private final int lote;
+	private final int nivelCompresion;
+	private final int tamanoBuffer;
+
+	@Autowired
+	public ExportadorEventos(ExportacionEventosRepository exportacionRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${iotcart.exportacion.lote}") int lote,
+			@Value("${iotcart.exportacion.nivel-compresion}") int nivelCompresion,
+			@Value("${iotcart.exportacion.tamano-buffer}") int tamanoBuffer) {
+		this.exportacionRepository = exportacionRepository;
+		this.lectura = new TransactionTemplate(transactionManager);
+		this.lectura.setReadOnly(true);
+		this.lote = lote;
+		this.nivelCompresion = nivelCompresion;
+		this.tamanoBuffer = tamanoBuffer;
+	}
+
+	/**
+	 * Escribe en el canal el archivo con los eventos del tipo, rango y
+	 * dispositivos indicados. El canal no se cierra.
+	 *
+	 * @param dispositivos Dispositivos a exportar, o null/vacío para todos.
+	 * @param despuesDeId  Se exportan los eventos con ID mayor a este (0 para
+	 *                     empezar desde el primero).
+	 * @return Cantidad de eventos exportados.
+	 * @throws IOException Si no se puede escribir en el canal (por ejemplo,
+	 *                     porque el cliente cerró la conexión).
+	 */
+	public long exportar(TipoEvento tipo, List<String> dispositivos, Instant desde, Instant hasta,
+			long despuesDeId, WritableByteChannel destino) throws IOException {
+		log.info("Exportando eventos {} [Dispositivos: {}, Rango: {} - {}, Después de ID: {}]", tipo,
+				dispositivos, desde, hasta, despuesDeId);
+		String listaDispositivos = dispositivos == null || dispositivos.isEmpty() ? null
+				: String.join(",", dispositivos);
+		Timestamp inicio = timestamp(desde);
+		Timestamp fin = timestamp(hasta);
+
+		try (CanalGzip gzip = new CanalGzip(destino, nivelCompresion, tamanoBuffer)) {
+			EscritorExportacion escritor = new EscritorExportacion(gzip, tamanoBuffer);
+			escritor.escribirEncabezado(tipo, despuesDeId);
+			List<EventoExportado> eventos = new ArrayList<>(lote);
+			do {
+				long inicioLote = escritor.getUltimoId();
+				eventos.clear();
+				lectura.executeWithoutResult(status -> exportacionRepository.recorrerEventos(tipo,
+						listaDispositivos, inicio, fin, inicioLote, lote, eventos::add));
+				for (EventoExportado evento : eventos) {
+					escritor.escribir(evento);
+				}
+			} while (eventos.size() == lote);
+			escritor.terminar();
+			log.info("Exportación de eventos {} terminada [Eventos: {}, Último ID: {}]", tipo,
+					escritor.getEventos(), escritor.getUltimoId());
+			return escritor.getEventos();
+		} catch (IOException e) {
+			// El cliente cerró la conexión: no es un error del servidor
+			throw e;
+		} catch (Exception e) {
+			log.error("Error inesperado al exportar eventos {} [Dispositivos: {}]", tipo, dispositivos, e);
+			throw new RuntimeException("Error de base de datos al exportar eventos.", e);
+		}
+	}
+
+	private static Timestamp timestamp(Instant instante) {
+		return instante != null ? Timestamp.from(instante) : null;
+	}
+}
@@ -0,0 +1,54 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.sql.Timestamp;
+
+/**
+ * Formato de los archivos de exportación de la bitácora ({@code .iotx.gz}).
+ * <p>
+ * El archivo es un flujo GZIP; dentro, todos los enteros van en big-endian:
+ * <ol>
+ * <li>Encabezado: los 4 bytes {@code IOTX}, la versión (1 byte), el código del
+ * {@link TipoEvento} (1 byte) y el ID a partir del cual se exportó (int64).</li>
+ * <li>Un registro por evento, en orden ascendente de {@code id_evento}: su
+ * longitud en bytes (int32) seguida de {@code id_evento} (int64),
+ * {@code fecha_evento} en microsegundos desde la época UTC (int64,
+ * {@link #FECHA_NULA} si es nula) y los textos {@code nombre_dispositivo},
+ * {@code evento} e {@code ip_cliente}, cada uno como longitud en bytes (int32,
+ * -1 si es nulo) más sus bytes UTF-8.</li>
+ * <li>Cierre: una longitud 0, el total de eventos (int64) y el ID del último
+ * (int64).</li>
+ * </ol>
+ * Cada registro se puede leer por sí solo, así que un archivo cortado (sin
+ * cierre) sigue siendo útil hasta su último registro completo, y la
+ * exportación se reanuda pidiendo los eventos posteriores a ese ID.
+ */
+public final class FormatoExportacion {
+
+    public static final byte[] MAGIA = { 'I', 'O', 'T', 'X' };
+    public static final int VERSION = 1;
+    public static final long FECHA_NULA = Long.MIN_VALUE;
+
+    /** Bytes fijos de un registro: ID y fecha. */
+    static final int BYTES_FIJOS_REGISTRO = Long.BYTES * 2;
+
+    private static final long MICROS_POR_SEGUNDO = 1_000_000L;
+
+    private FormatoExportacion() {
+    }
+
+    static long aMicros(Timestamp fecha) {
+        if (fecha == null) {
+            return FECHA_NULA;
+        }
+        return Math.floorDiv(fecha.getTime(), 1000L) * MICROS_POR_SEGUNDO + fecha.getNanos() / 1000;
+    }
+
+    static Timestamp desdeMicros(long micros) {
+        if (micros == FECHA_NULA) {
+            return null;
+        }
+        Timestamp fecha = new Timestamp(Math.floorDiv(micros, MICROS_POR_SEGUNDO) * 1000L);
+        fecha.setNanos((int) Math.floorMod(micros, MICROS_POR_SEGUNDO) * 1000);
+        return fecha;
+    }
+}
@@ -0,0 +1,98 @@
+package org.axolotlj.iotcart.exportacion;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lee archivos de exportación (ver {@link FormatoExportacion}).
+ * <p>
+ * Un archivo cortado no es un error: se entregan sus registros completos y el
+ * resultado indica el ID desde el cual reanudar la exportación.
+ */
+public final class LectorExportacion {
+
+	/**
+	 * Resultado de leer un archivo.
+	 *
+	 * @param despuesDeId ID a partir del cual se exportó el archivo.
+	 * @param eventos     Registros completos leídos.
+	 * @param ultimoId    ID del último registro completo ({@code despuesDeId} si
+	 *                    no hay ninguno): desde dónde reanudar.
+	 * @param completo    Si el archivo terminó con su cierre.
+	 */
+	public record Resultado(TipoEvento tipo, long despuesDeId, long eventos, long ultimoId, boolean completo) {
+	}
+
+	private LectorExportacion() {
+	}
+
+	/**
+	 * Lee el archivo y entrega cada evento al consumidor, en orden.
+	 *
+	 * @throws IOException Si el contenido no es un archivo de exportación o
+	 *                     no se puede leer.
+	 */
+	public static Resultado leer(InputStream entrada, Consumer<? super EventoExportado> destino)
+			throws IOException {
+		DataInputStream datos = new DataInputStream(new BufferedInputStream(new GZIPInputStream(entrada)));
+		byte[] magia = new byte[FormatoExportacion.MAGIA.length];
+		datos.readFully(magia);
+		int version = datos.readUnsignedByte();
+		if (!Arrays.equals(magia, FormatoExportacion.MAGIA) || version != FormatoExportacion.VERSION) {
+			throw new IOException("El contenido no es un archivo de exportación de versión "
+					+ FormatoExportacion.VERSION + ".");
+		}
+		TipoEvento tipo = TipoEvento.desdeCodigo(datos.readUnsignedByte());
+		long despuesDeId = datos.readLong();
+
+		long eventos = 0;
+		long ultimoId = despuesDeId;
+		try {
+			while (true) {
+				int longitud = datos.readInt();
+				if (longitud == 0) {
+					long total = datos.readLong();
+					long idFinal = datos.readLong();
+					if (total != eventos || idFinal != ultimoId) {
+						throw new IOException("El cierre del archivo no coincide con sus registros [Esperados: "
+								+ total + ", Leídos: " + eventos + "]");
+					}
+					return new Resultado(tipo, despuesDeId, eventos, ultimoId, true);
+				}
+				byte[] registro = new byte[longitud];
+				datos.readFully(registro);
+				EventoExportado evento = decodificar(ByteBuffer.wrap(registro));
+				destino.accept(evento);
+				eventos++;
+				ultimoId = evento.idEvento();
+			}
+		} catch (EOFException e) {
+			return new Resultado(tipo, despuesDeId, eventos, ultimoId, false);
+		}
+	}
+
+	private static EventoExportado decodificar(ByteBuffer registro) {
+		long idEvento = registro.getLong();
+		long fecha = registro.getLong();
+		return new EventoExportado(idEvento, FormatoExportacion.desdeMicros(fecha), leerTexto(registro),
+				leerTexto(registro), leerTexto(registro));
+	}
+
+	private static String leerTexto(ByteBuffer registro) {
+		int longitud = registro.getInt();
+		if (longitud < 0) {
+			return null;
+		}
+		String texto = new String(registro.array(), registro.position(), longitud, StandardCharsets.UTF_8);
+		registro.position(registro.position() + longitud);
+		return texto;
+	}
+}
@@ -0,0 +1,33 @@
+package org.axolotlj.iotcart.exportacion;
+
+/**
+ * Tipos de evento de la bitácora que se pueden exportar. El código es el byte
+ * que identifica el tipo en el encabezado del archivo exportado.
+ */
+public enum TipoEvento {
+    MOVIMIENTO(1),
+    OBSTACULO(2);
+
+    private final int codigo;
+
+    TipoEvento(int codigo) {
+        this.codigo = codigo;
+    }
+
+    public int getCodigo() {
+        return codigo;
+    }
+
+    /**
+     * @return El tipo con el código indicado, o null si no corresponde a
+     *         ninguno.
+     */
+    public static TipoEvento desdeCodigo(int codigo) {
+        for (TipoEvento tipo : values()) {
+            if (tipo.codigo == codigo) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package org.axolotlj.iotcart.ingest;
+
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+
+/**
+ * Evento aceptado por la ingesta asíncrona y pendiente de confirmarse en la
+ * base de datos.
+ *
+ * @param ticket    El ticket provisional entregado al dispositivo.
+ * @param request   El movimiento u obstáculo recibido.
+ * @param ipCliente La IP del dispositivo que lo envió.
+ */
+record EventoPendiente(long ticket, EventoBaseRequest request, String ipCliente) {
+}
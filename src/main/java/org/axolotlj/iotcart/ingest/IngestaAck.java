@@ -0,0 +1,29 @@
+package org.axolotlj.iotcart.ingest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Acuse que recibe el dispositivo por cada frame de '/ws/iot-ingest', en el
+ * mismo orden en que los envió.
+ *
+ * @param ref    La referencia del frame (null si no pudo leerse).
+ * @param id     El ID del evento creado; ausente en ejecuciones de secuencia y
+ *               con la ingesta asíncrona.
+ * @param ticket El ticket provisional, con la ingesta asíncrona habilitada.
+ * @param error  El motivo del rechazo; ausente si el frame se aceptó.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record IngestaAck(Long ref, Long id, Long ticket, String error) {
+
+    static IngestaAck registrado(Long ref, Long id) {
+        return new IngestaAck(ref, id, null, null);
+    }
+
+    static IngestaAck encolado(Long ref, long ticket) {
+        return new IngestaAck(ref, null, ticket, null);
+    }
+
+    static IngestaAck rechazado(Long ref, String error) {
+        return new IngestaAck(ref, null, null, error);
+    }
+}
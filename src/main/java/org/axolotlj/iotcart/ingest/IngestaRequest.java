@@ -0,0 +1,46 @@
+package org.axolotlj.iotcart.ingest;
+
+import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Frame que un dispositivo envía por '/ws/iot-ingest'.
+ * <p>
+ * Ejemplo: {@code {"tipo":"MOVIMIENTO","ref":17,"evento":{"nombreDispositivo":"ROVER-01","codigoOperacion":"ADELANTE",...}}}.
+ * El {@code evento} tiene los mismos campos que el cuerpo del endpoint REST
+ * correspondiente y se lee en una sola pasada según el {@code tipo}.
+ */
+@Getter
+@Setter
+public class IngestaRequest {
+
+    public static final String TIPO_MOVIMIENTO = "MOVIMIENTO";
+    public static final String TIPO_OBSTACULO = "OBSTACULO";
+    public static final String TIPO_SECUENCIA = "SECUENCIA";
+
+    /**
+     * Referencia elegida por el dispositivo; se devuelve en el acuse para
+     * emparejarlo con el frame.
+     */
+    private Long ref;
+
+    /**
+     * "MOVIMIENTO", "OBSTACULO" o "SECUENCIA" (ejecución de una secuencia
+     * DEMO).
+     */
+    private String tipo;
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXTERNAL_PROPERTY, property = "tipo")
+    @JsonSubTypes({ @JsonSubTypes.Type(value = MovimientoRequest.class, name = TIPO_MOVIMIENTO),
+            @JsonSubTypes.Type(value = ObstaculoRequest.class, name = TIPO_OBSTACULO),
+            @JsonSubTypes.Type(value = EjecutarSecuenciaRequest.class, name = TIPO_SECUENCIA) })
+    private EventoBaseRequest evento;
+}
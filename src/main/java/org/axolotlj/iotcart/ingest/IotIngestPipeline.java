@@ -0,0 +1,254 @@
+package org.axolotlj.iotcart.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.exception.CoordenadaInvalidaException;
+import org.axolotlj.iotcart.exception.IngestaSaturadaException;
+import org.axolotlj.iotcart.service.IotEventService;
+import org.axolotlj.iotcart.util.CoordenadaFija;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingesta asíncrona (write-behind) de movimientos y obstáculos.
+ * <p>
+ * Los eventos se encolan en una cola acotada y el hilo de Tomcat responde de
+ * inmediato con un ticket provisional. Un escritor dedicado vacía la cola y
+ * confirma los eventos por grupos en una sola transacción, cerrando cada grupo
+ * al alcanzar {@code tamano-lote} eventos o al agotar {@code ventana-ms}.
+ * Si un grupo falla, sus eventos se reintentan uno a uno, cada uno en su
+ * propia transacción, para no perder los válidos.
+ * <p>
+ * Las notificaciones a monitores WebSocket y SSE de cada evento salen solo
+ * cuando se confirma la transacción que lo insertó (ver
+ * {@link org.axolotlj.iotcart.cache.AlConfirmar}): un grupo revertido no
+ * anuncia nada, y su reintento anuncia cada evento una sola vez.
+ */
+@Component
+public class IotIngestPipeline {
+
+	private static final Logger log = LogManager.getLogger(IotIngestPipeline.class);
+
+	private static final long ESPERA_COLA_VACIA_MS = 200;
+
+	private final IotEventService iotEventService;
+	private final TransactionTemplate transactionTemplate;
+
+	private final boolean habilitada;
+	private final int capacidadCola;
+	private final int tamanoLote;
+	private final long ventanaNanos;
+	private final boolean hilosVirtuales;
+
+	private final BlockingQueue<EventoPendiente> cola;
+	private final AtomicLong siguienteTicket = new AtomicLong();
+
+	private final Counter rechazados;
+	private final Counter fallidos;
+	private final DistributionSummary tamanoConfirmado;
+	private final Timer latenciaConfirmacion;
+
+	private volatile boolean activo;
+	private Thread escritor;
+
+	@Autowired
+	public IotIngestPipeline(IotEventService iotEventService, TransactionTemplate transactionTemplate,
+			MeterRegistry meterRegistry,
+			@Value("${iotcart.ingesta.asincrona.habilitada}") boolean habilitada,
+			@Value("${iotcart.ingesta.asincrona.capacidad-cola}") int capacidadCola,
+			@Value("${iotcart.ingesta.asincrona.tamano-lote}") int tamanoLote,
+			@Value("${iotcart.ingesta.asincrona.ventana-ms}") long ventanaMs,
+			@Value("${spring.threads.virtual.enabled}") boolean hilosVirtuales) {
+		this.iotEventService = iotEventService;
+		this.transactionTemplate = transactionTemplate;
+		this.habilitada = habilitada;
+		this.capacidadCola = capacidadCola;
+		this.tamanoLote = tamanoLote;
+		this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+		this.hilosVirtuales = hilosVirtuales;
+		this.cola = new ArrayBlockingQueue<>(capacidadCola);
+
+		Gauge.builder("iotcart.ingesta.cola.profundidad", cola, BlockingQueue::size)
+				.description("Eventos pendientes de confirmar en la ingesta asíncrona").register(meterRegistry);
+		this.rechazados = Counter.builder("iotcart.ingesta.rechazados")
+				.description("Eventos rechazados con 429 por cola llena").register(meterRegistry);
+		this.fallidos = Counter.builder("iotcart.ingesta.fallidos")
+				.description("Eventos que no pudieron confirmarse ni en grupo ni de forma individual")
+				.register(meterRegistry);
+		this.tamanoConfirmado = DistributionSummary.builder("iotcart.ingesta.lote.tamano")
+				.description("Eventos confirmados por transacción").register(meterRegistry);
+		this.latenciaConfirmacion = Timer.builder("iotcart.ingesta.lote.latencia")
+				.description("Duración de la confirmación de un grupo").register(meterRegistry);
+	}
+
+	/**
+	 * Arranca el escritor dedicado si la ingesta asíncrona está habilitada.
+	 */
+	@PostConstruct
+	public void iniciar() {
+		if (!habilitada) {
+			return;
+		}
+		activo = true;
+		Thread.Builder constructor = hilosVirtuales ? Thread.ofVirtual() : Thread.ofPlatform();
+		escritor = constructor.name("iot-ingesta-escritor").start(this::ejecutarEscritor);
+		log.info("Ingesta asíncrona habilitada [capacidad: {}, tamaño de lote: {}, ventana: {} ms]", capacidadCola,
+				tamanoLote, TimeUnit.NANOSECONDS.toMillis(ventanaNanos));
+	}
+
+	/**
+	 * Detiene el escritor y confirma lo que quede en la cola antes de cerrar.
+	 */
+	@PreDestroy
+	public void detener() throws InterruptedException {
+		if (escritor == null) {
+			return;
+		}
+		activo = false;
+		escritor.interrupt();
+		escritor.join();
+
+		List<EventoPendiente> restantes = new ArrayList<>();
+		cola.drainTo(restantes);
+		if (!restantes.isEmpty()) {
+			log.info("Confirmando {} eventos pendientes antes de detener la ingesta asíncrona.", restantes.size());
+			confirmar(restantes);
+		}
+	}
+
+	/**
+	 * Indica si los endpoints de control deben usar la ingesta asíncrona.
+	 */
+	public boolean isHabilitada() {
+		return habilitada;
+	}
+
+	/**
+	 * Encola un movimiento para confirmarlo en segundo plano.
+	 *
+	 * @return El ticket provisional asignado.
+	 * @throws IngestaSaturadaException si la cola está llena.
+	 * @throws CoordenadaInvalidaException si la ubicación está fuera de rango.
+	 */
+	public long encolarMovimiento(MovimientoRequest request, String ipCliente) {
+		return encolar(request, ipCliente);
+	}
+
+	/**
+	 * Encola un obstáculo para confirmarlo en segundo plano.
+	 *
+	 * @return El ticket provisional asignado.
+	 * @throws IngestaSaturadaException si la cola está llena.
+	 * @throws CoordenadaInvalidaException si la ubicación está fuera de rango.
+	 */
+	public long encolarObstaculo(ObstaculoRequest request, String ipCliente) {
+		return encolar(request, ipCliente);
+	}
+
+	private long encolar(EventoBaseRequest request, String ipCliente) {
+		// Se rechaza aquí, mientras el dispositivo aún espera la respuesta
+		CoordenadaFija.validar(request.getLatitud(), request.getLongitud());
+		long ticket = siguienteTicket.incrementAndGet();
+		if (!cola.offer(new EventoPendiente(ticket, request, ipCliente))) {
+			rechazados.increment();
+			log.warn("Cola de ingesta llena. Evento rechazado para el dispositivo: {}", request.getNombreDispositivo());
+			throw new IngestaSaturadaException(capacidadCola);
+		}
+		return ticket;
+	}
+
+	/**
+	 * Bucle del escritor: espera el primer evento y completa el grupo hasta el
+	 * tamaño máximo o hasta agotar la ventana de tiempo.
+	 */
+	private void ejecutarEscritor() {
+		List<EventoPendiente> lote = new ArrayList<>(tamanoLote);
+		while (activo) {
+			try {
+				EventoPendiente primero = cola.poll(ESPERA_COLA_VACIA_MS, TimeUnit.MILLISECONDS);
+				if (primero == null) {
+					continue;
+				}
+				lote.add(primero);
+
+				long limite = System.nanoTime() + ventanaNanos;
+				while (lote.size() < tamanoLote) {
+					cola.drainTo(lote, tamanoLote - lote.size());
+					long restante = limite - System.nanoTime();
+					if (lote.size() >= tamanoLote || restante <= 0) {
+						break;
+					}
+					EventoPendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+					if (siguiente == null) {
+						break;
+					}
+					lote.add(siguiente);
+				}
+			} catch (InterruptedException e) {
+				// Señal de parada: se confirma el grupo en curso y el bucle termina
+				activo = false;
+			}
+
+			if (!lote.isEmpty()) {
+				confirmar(lote);
+				lote.clear();
+			}
+		}
+	}
+
+	/**
+	 * Confirma un grupo en una sola transacción. Si la transacción falla, se
+	 * reintenta cada evento por separado.
+	 */
+	private void confirmar(List<EventoPendiente> lote) {
+		long inicio = System.nanoTime();
+		try {
+			transactionTemplate.executeWithoutResult(status -> lote.forEach(this::registrar));
+			tamanoConfirmado.record(lote.size());
+		} catch (RuntimeException e) {
+			log.error("Falló la confirmación de un grupo de {} eventos. Se reintentará uno a uno.", lote.size(), e);
+			for (EventoPendiente evento : lote) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> registrar(evento));
+					tamanoConfirmado.record(1);
+				} catch (RuntimeException ex) {
+					fallidos.increment();
+					log.error("Evento descartado tras reintento individual [Ticket: {}, Dispositivo: {}]",
+							evento.ticket(), evento.request().getNombreDispositivo(), ex);
+				}
+			}
+		} finally {
+			latenciaConfirmacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private void registrar(EventoPendiente evento) {
+		Long eventoId;
+		if (evento.request() instanceof MovimientoRequest movimiento) {
+			eventoId = iotEventService.registrarMovimiento(movimiento, evento.ipCliente());
+		} else {
+			eventoId = iotEventService.registrarObstaculo((ObstaculoRequest) evento.request(), evento.ipCliente());
+		}
+		log.debug("Ticket {} confirmado como evento ID: {}", evento.ticket(), eventoId);
+	}
+}
@@ -0,0 +1,173 @@
+package org.axolotlj.iotcart.ingest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.exception.CoordenadaInvalidaException;
+import org.axolotlj.iotcart.exception.IngestaSaturadaException;
+import org.axolotlj.iotcart.service.IotEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Manejador de '/ws/iot-ingest': canal persistente por el que un carro envía
+ * sus movimientos, obstáculos y ejecuciones de secuencia sin abrir una
+ * petición HTTP por evento.
+ * <p>
+ * Cada {@link IngestaRequest} se procesa con la misma lógica que los endpoints
+ * de {@code /api/v1/iot/control} (incluida la ingesta asíncrona, si está
+ * habilitada) y se responde con un {@link IngestaAck} que lleva su
+ * {@code ref} y el ID del evento, el ticket provisional o el error. Los frames
+ * de una sesión se procesan en orden, de a uno, en el hilo que los recibe, así
+ * que los acuses llegan en el mismo orden y nunca se envían de forma
+ * concurrente sobre la misma sesión.
+ */
+@Component
+public class IotIngestSocketHandler extends TextWebSocketHandler {
+
+	private static final Logger log = LogManager.getLogger(IotIngestSocketHandler.class);
+
+	private static final String X_FORWARDED_FOR_HEADER = "X-Forwarded-For";
+	private static final String ATRIBUTO_IP = "iotcart.ipCliente";
+
+	private final IotEventService iotEventService;
+	private final IotIngestPipeline iotIngestPipeline;
+	private final ObjectReader lector;
+	private final ObjectWriter escritor;
+
+	private final AtomicInteger sesiones = new AtomicInteger();
+	private final Counter aceptados;
+	private final Counter rechazados;
+
+	@Autowired
+	public IotIngestSocketHandler(IotEventService iotEventService, IotIngestPipeline iotIngestPipeline,
+			ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.iotEventService = iotEventService;
+		this.iotIngestPipeline = iotIngestPipeline;
+		this.lector = objectMapper.readerFor(IngestaRequest.class);
+		this.escritor = objectMapper.writerFor(IngestaAck.class);
+
+		Gauge.builder("iotcart.ingesta.websocket.sesiones", sesiones, AtomicInteger::get)
+				.description("Dispositivos conectados al canal de ingesta WebSocket").register(meterRegistry);
+		this.aceptados = contadorFrames(meterRegistry, "aceptado");
+		this.rechazados = contadorFrames(meterRegistry, "rechazado");
+	}
+
+	private static Counter contadorFrames(MeterRegistry meterRegistry, String resultado) {
+		return Counter.builder("iotcart.ingesta.websocket.frames")
+				.description("Frames recibidos por el canal de ingesta WebSocket").tag("resultado", resultado)
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void afterConnectionEstablished(WebSocketSession session) {
+		String ipCliente = getClientIpAddress(session);
+		if (ipCliente != null) {
+			// Los atributos de la sesión no admiten valores nulos
+			session.getAttributes().put(ATRIBUTO_IP, ipCliente);
+		}
+		sesiones.incrementAndGet();
+		log.info("Dispositivo conectado al canal de ingesta WebSocket: [ID: {}, IP: {}]", session.getId(), ipCliente);
+	}
+
+	@Override
+	public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+		sesiones.decrementAndGet();
+		log.info("Dispositivo desconectado del canal de ingesta WebSocket: [ID: {}, Status: {}]", session.getId(),
+				status);
+	}
+
+	/**
+	 * Procesa un frame y responde su acuse.
+	 *
+	 * @param session La sesión del dispositivo.
+	 * @param message El {@link IngestaRequest} en JSON.
+	 */
+	@Override
+	protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+		IngestaRequest request;
+		try {
+			request = lector.readValue(message.getPayload());
+		} catch (JsonProcessingException e) {
+			log.warn("Frame de ingesta inválido en la sesión WebSocket [ID: {}]: {}", session.getId(),
+					e.getOriginalMessage());
+			responder(session, IngestaAck.rechazado(null, "Frame de ingesta inválido."));
+			return;
+		}
+		if (request.getEvento() == null) {
+			responder(session, IngestaAck.rechazado(request.getRef(), "Frame de ingesta sin evento."));
+			return;
+		}
+		responder(session, procesar(request.getRef(), request.getEvento(), (String) session.getAttributes()
+				.get(ATRIBUTO_IP)));
+	}
+
+	private IngestaAck procesar(Long ref, EventoBaseRequest evento, String ipCliente) {
+		log.debug("Frame de ingesta [Ref: {}, Tipo: {}] del dispositivo: {}", ref, evento.getClass().getSimpleName(),
+				evento.getNombreDispositivo());
+		try {
+			if (evento instanceof MovimientoRequest movimiento) {
+				if (iotIngestPipeline.isHabilitada()) {
+					return IngestaAck.encolado(ref, iotIngestPipeline.encolarMovimiento(movimiento, ipCliente));
+				}
+				return IngestaAck.registrado(ref, iotEventService.registrarMovimiento(movimiento, ipCliente));
+			}
+			if (evento instanceof ObstaculoRequest obstaculo) {
+				if (iotIngestPipeline.isHabilitada()) {
+					return IngestaAck.encolado(ref, iotIngestPipeline.encolarObstaculo(obstaculo, ipCliente));
+				}
+				return IngestaAck.registrado(ref, iotEventService.registrarObstaculo(obstaculo, ipCliente));
+			}
+			iotEventService.ejecutarSecuenciaDemo((EjecutarSecuenciaRequest) evento, ipCliente);
+			return IngestaAck.registrado(ref, null);
+		} catch (IngestaSaturadaException e) {
+			log.warn("Ingesta saturada en el canal WebSocket [Ref: {}]. {}", ref, e.getMessage());
+			return IngestaAck.rechazado(ref, "El servidor está saturado. Reintente más tarde.");
+		} catch (CoordenadaInvalidaException e) {
+			log.warn("Coordenada inválida en el canal WebSocket [Ref: {}]. {}", ref, e.getMessage());
+			return IngestaAck.rechazado(ref, e.getMessage());
+		} catch (RuntimeException e) {
+			log.error("Error al procesar el frame de ingesta [Ref: {}, Dispositivo: {}]", ref,
+					evento.getNombreDispositivo(), e);
+			return IngestaAck.rechazado(ref, "Ocurrió un error inesperado.");
+		}
+	}
+
+	private void responder(WebSocketSession session, IngestaAck ack) throws IOException {
+		(ack.error() == null ? aceptados : rechazados).increment();
+		session.sendMessage(new TextMessage(escritor.writeValueAsString(ack)));
+	}
+
+	/**
+	 * Obtiene la IP del dispositivo de la cabecera {@code X-Forwarded-For} del
+	 * handshake o, si no viene, de la conexión.
+	 */
+	private static String getClientIpAddress(WebSocketSession session) {
+		String ipAddress = session.getHandshakeHeaders().getFirst(X_FORWARDED_FOR_HEADER);
+		if (ipAddress != null && !ipAddress.isEmpty() && !"unknown".equalsIgnoreCase(ipAddress)) {
+			return ipAddress.split(",")[0].trim();
+		}
+		InetSocketAddress remota = session.getRemoteAddress();
+		return remota != null ? remota.getAddress().getHostAddress() : null;
+	}
+}
@@ -0,0 +1,83 @@
+package org.axolotlj.iotcart.repository;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.Consumer;
+
+import org.axolotlj.iotcart.exportacion.EventoExportado;
+import org.axolotlj.iotcart.exportacion.TipoEvento;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lectura de la bitácora para la exportación masiva.
+ * <p>
+ * Llama a 'sp_exportar_eventos', que recibe {@code (in_tipo, in_dispositivos,
+ * in_desde, in_hasta, in_despues_de_id, in_limite)} y devuelve como máximo
+ * {@code in_limite} eventos del tipo ('MOVIMIENTO' u 'OBSTACULO') con
+ * {@code id_evento > in_despues_de_id} y {@code in_desde <= fecha_evento < in_hasta}
+ * (límites nulos: sin límite), de los dispositivos de {@code in_dispositivos}
+ * (nombres separados por comas; nulo: todos), ordenados por
+ * {@code id_evento ASC}. Las columnas son {@code id_evento, fecha_evento,
+ * nombre_dispositivo, evento, ip_cliente}. Al avanzar por la clave primaria,
+ * cada lote cuesta lo mismo sin importar cuánto se haya exportado antes.
+ * <p>
+ * Este repositorio no acumula filas: cada una se entrega al consumidor apenas
+ * se lee del ResultSet, con un tamaño de fetch igual al límite de la llamada.
+ * {@link org.axolotlj.iotcart.exportacion.ExportadorEventos} junta el lote completo
+ * en una lista y lo escribe después de cerrar la transacción de lectura, así
+ * que la memoria queda acotada por el tamaño del lote, no por la exportación.
+ */
+@Repository
+public class ExportacionEventosRepository {
+
+	private static final String CALL_EXPORTAR_EVENTOS = "{call sp_exportar_eventos(?, ?, ?, ?, ?, ?)}";
+
+	private static final RowMapper<EventoExportado> EVENTO = (rs, fila) -> new EventoExportado(
+			rs.getLong("id_evento"), rs.getTimestamp("fecha_evento"), rs.getString("nombre_dispositivo"),
+			rs.getString("evento"), rs.getString("ip_cliente"));
+
+	private final JdbcTemplate jdbcTemplate;
+	private final MedidorProcedimientos medidor;
+
+	@Autowired
+	public ExportacionEventosRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.medidor = new MedidorProcedimientos(meterRegistry, getClass().getSimpleName());
+	}
+
+	/**
+	 * Lee un lote de eventos a exportar.
+	 *
+	 * @param dispositivos Nombres separados por comas, o null para todos.
+	 * @param despuesDeId  ID del último evento ya exportado (0 para empezar).
+	 * @param destino      Recibe cada fila en orden, mientras se lee.
+	 * @return Cantidad de filas entregadas.
+	 */
+	public int recorrerEventos(TipoEvento tipo, String dispositivos, Timestamp desde, Timestamp hasta,
+			long despuesDeId, int limite, Consumer<? super EventoExportado> destino) {
+		return medidor.medir("recorrerEventos", "sp_exportar_eventos",
+				() -> jdbcTemplate.execute(CALL_EXPORTAR_EVENTOS, (CallableStatementCallback<Integer>) cs -> {
+					cs.setString(1, tipo.name());
+					cs.setString(2, dispositivos);
+					cs.setObject(3, desde, Types.TIMESTAMP);
+					cs.setObject(4, hasta, Types.TIMESTAMP);
+					cs.setLong(5, despuesDeId);
+					cs.setInt(6, limite);
+					cs.setFetchSize(limite);
+					int filas = 0;
+					try (ResultSet rs = cs.executeQuery()) {
+						while (rs.next()) {
+							destino.accept(EVENTO.mapRow(rs, filas++));
+						}
+					}
+					return filas;
+				}));
+	}
+}
@@ -0,0 +1,115 @@
+package org.axolotlj.iotcart.repository;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.Consumer;
+
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.ObstaculoHistorialDto;
+import org.axolotlj.iotcart.util.CursorHistorial;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lectura del historial de movimientos y obstáculos de un dispositivo con
+ * paginación por clave.
+ * <p>
+ * Llama a 'sp_obtener_historial_movimientos' y 'sp_obtener_historial_obstaculos',
+ * que reciben {@code (in_nombre_dispositivo, in_desde, in_hasta,
+ * in_cursor_fecha, in_cursor_id, in_limite)} y devuelven como máximo
+ * {@code in_limite} eventos del dispositivo con
+ * {@code in_desde <= fecha_evento < in_hasta} (límites nulos: sin límite) y,
+ * si hay cursor, con {@code (fecha_evento, id_evento) < (in_cursor_fecha, in_cursor_id)},
+ * ordenados por {@code fecha_evento DESC, id_evento DESC}. Las columnas son las
+ * de los SPs de "últimos N" más {@code id_evento}. Con un índice por
+ * dispositivo, fecha e ID, cada página cuesta lo mismo sin importar qué tan
+ * atrás esté en el historial.
+ * <p>
+ * Las filas no se acumulan: cada una se entrega al consumidor apenas se lee del
+ * ResultSet, y el tamaño de fetch es el límite de la llamada, que el servicio
+ * mantiene acotado.
+ */
+@Repository
+public class HistorialEventosRepository {
+
+	private static final String CALL_HISTORIAL_MOVIMIENTOS = "{call sp_obtener_historial_movimientos(?, ?, ?, ?, ?, ?)}";
+	private static final String CALL_HISTORIAL_OBSTACULOS = "{call sp_obtener_historial_obstaculos(?, ?, ?, ?, ?, ?)}";
+
+	private static final RowMapper<MovimientoHistorialDto> MOVIMIENTO = (rs, fila) -> new MovimientoHistorialDto(
+			rs.getLong("id_evento"), rs.getTimestamp("fecha_evento"), rs.getString("nombre_dispositivo"),
+			rs.getString("movimiento"), rs.getString("ip_cliente"));
+
+	private static final RowMapper<ObstaculoHistorialDto> OBSTACULO = (rs, fila) -> new ObstaculoHistorialDto(
+			rs.getLong("id_evento"), rs.getTimestamp("fecha_evento"), rs.getString("nombre_dispositivo"),
+			rs.getString("obstaculo_detectado"), rs.getString("ip_cliente"));
+
+	private final JdbcTemplate jdbcTemplate;
+	private final MedidorProcedimientos medidor;
+
+	@Autowired
+	public HistorialEventosRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.medidor = new MedidorProcedimientos(meterRegistry, getClass().getSimpleName());
+	}
+
+	/**
+	 * Lee una página del historial de movimientos.
+	 *
+	 * @param despuesDe Posición del último evento ya entregado, o null para
+	 *                  empezar por el más reciente.
+	 * @param destino   Recibe cada fila en orden, mientras se lee.
+	 * @return Cantidad de filas entregadas.
+	 */
+	public int recorrerMovimientos(String nombreDispositivo, Timestamp desde, Timestamp hasta,
+			CursorHistorial despuesDe, int limite, Consumer<? super MovimientoHistorialDto> destino) {
+		return medidor.medir("recorrerMovimientos", "sp_obtener_historial_movimientos",
+				() -> recorrer(CALL_HISTORIAL_MOVIMIENTOS, nombreDispositivo, desde, hasta, despuesDe, limite,
+						MOVIMIENTO, destino));
+	}
+
+	/**
+	 * Lee una página del historial de obstáculos.
+	 *
+	 * @param despuesDe Posición del último evento ya entregado, o null para
+	 *                  empezar por el más reciente.
+	 * @param destino   Recibe cada fila en orden, mientras se lee.
+	 * @return Cantidad de filas entregadas.
+	 */
+	public int recorrerObstaculos(String nombreDispositivo, Timestamp desde, Timestamp hasta,
+			CursorHistorial despuesDe, int limite, Consumer<? super ObstaculoHistorialDto> destino) {
+		return medidor.medir("recorrerObstaculos", "sp_obtener_historial_obstaculos",
+				() -> recorrer(CALL_HISTORIAL_OBSTACULOS, nombreDispositivo, desde, hasta, despuesDe, limite,
+						OBSTACULO, destino));
+	}
+
+	private <T> int recorrer(String llamada, String nombreDispositivo, Timestamp desde, Timestamp hasta,
+			CursorHistorial despuesDe, int limite, RowMapper<T> mapper, Consumer<? super T> destino) {
+		return jdbcTemplate.execute(llamada, (CallableStatementCallback<Integer>) cs -> {
+			cs.setString(1, nombreDispositivo);
+			cs.setObject(2, desde, Types.TIMESTAMP);
+			cs.setObject(3, hasta, Types.TIMESTAMP);
+			if (despuesDe != null) {
+				cs.setObject(4, despuesDe.fechaEvento(), Types.TIMESTAMP);
+				cs.setLong(5, despuesDe.idEvento());
+			} else {
+				cs.setNull(4, Types.TIMESTAMP);
+				cs.setNull(5, Types.BIGINT);
+			}
+			cs.setInt(6, limite);
+			cs.setFetchSize(limite);
+			int filas = 0;
+			try (ResultSet rs = cs.executeQuery()) {
+				while (rs.next()) {
+					destino.accept(mapper.mapRow(rs, filas++));
+				}
+			}
+			return filas;
+		});
+	}
+}
@@ -0,0 +1,204 @@
+package org.axolotlj.iotcart.repository;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Implementación de {@link IotProcedureOperations} con {@link CallableStatement}
+ * directos, sin pasar por el {@code StoredProcedureQuery} de Hibernate ni por
+ * las proyecciones intermedias de Spring Data. Se activa con
+ * {@code iotcart.bd.acceso=jdbc} y tiene prioridad sobre
+ * {@link IotProcedureRepository}, que sigue existiendo.
+ * <p>
+ * Las filas se leen directamente en records. Las sentencias se preparan sobre
+ * la conexión de la transacción en curso (JdbcTemplate comparte la conexión de
+ * JPA), y el driver las reutiliza de su caché de sentencias
+ * ({@code cacheCallableStmts}, ver {@code spring.datasource.hikari.data-source-properties}).
+ * <p>
+ * Cada llamada se registra en {@code iotcart.bd.procedimiento} con las mismas
+ * etiquetas que la métrica de repositorios de Spring Boot y en la fase
+ * {@code db} de {@code Server-Timing}.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "iotcart.bd.acceso", havingValue = "jdbc")
+public class IotProcedureJdbcRepository implements IotProcedureOperations {
+
+	private static final String CALL_AGREGAR_MOVIMIENTO = "{call sp_agregar_movimiento(?, ?, ?, ?, ?, ?, ?, ?)}";
+	private static final String CALL_AGREGAR_OBSTACULO = "{call sp_agregar_obstaculo(?, ?, ?, ?, ?, ?, ?, ?)}";
+	private static final String CALL_OBTENER_ULTIMOS_MOVIMIENTOS = "{call sp_obtener_ultimos_movimientos(?, ?)}";
+	private static final String CALL_OBTENER_ULTIMOS_OBSTACULOS = "{call sp_obtener_ultimos_obstaculos(?, ?)}";
+	private static final String CALL_AGREGAR_SECUENCIA_DEMO = "{call sp_agregar_secuencia_demo(?, ?, ?)}";
+	private static final String CALL_EJECUTAR_SECUENCIA_DEMO = "{call sp_ejecutar_secuencia_demo(?, ?, ?, ?, ?, ?, ?)}";
+	private static final String CALL_OBTENER_ULTIMAS_SECUENCIAS_DEMO = "{call sp_obtener_ultimas_secuencias_demo()}";
+
+	private static final int PARAM_ID_EVENTO_CREADO = 8;
+	private static final int PARAM_ID_SECUENCIA_CREADA = 3;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final IotProcedureRepositoryCustomImpl lotes;
+	private final MedidorProcedimientos medidor;
+
+	@Autowired
+	public IotProcedureJdbcRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.lotes = new IotProcedureRepositoryCustomImpl(jdbcTemplate);
+		this.medidor = new MedidorProcedimientos(meterRegistry, getClass().getSimpleName());
+	}
+
+	@Override
+	public Long agregarMovimiento(String nombreDispositivo, String codigoOperacion, String ipCliente, String pais,
+			String ciudad, BigDecimal latitud, BigDecimal longitud) {
+		return medidor.medir("agregarMovimiento", "sp_agregar_movimiento",
+				() -> jdbcTemplate.execute(CALL_AGREGAR_MOVIMIENTO, (CallableStatementCallback<Long>) cs -> {
+					asignarEvento(cs, nombreDispositivo, codigoOperacion, ipCliente, pais, ciudad, latitud,
+							longitud);
+					cs.registerOutParameter(PARAM_ID_EVENTO_CREADO, Types.BIGINT);
+					cs.execute();
+					return cs.getLong(PARAM_ID_EVENTO_CREADO);
+				}));
+	}
+
+	@Override
+	public Long agregarObstaculo(String nombreDispositivo, String codigoObstaculo, String ipCliente, String pais,
+			String ciudad, BigDecimal latitud, BigDecimal longitud) {
+		return medidor.medir("agregarObstaculo", "sp_agregar_obstaculo",
+				() -> jdbcTemplate.execute(CALL_AGREGAR_OBSTACULO, (CallableStatementCallback<Long>) cs -> {
+					asignarEvento(cs, nombreDispositivo, codigoObstaculo, ipCliente, pais, ciudad, latitud,
+							longitud);
+					cs.registerOutParameter(PARAM_ID_EVENTO_CREADO, Types.BIGINT);
+					cs.execute();
+					return cs.getLong(PARAM_ID_EVENTO_CREADO);
+				}));
+	}
+
+	@Override
+	public List<UltimosMovimientosDto> obtenerUltimosMovimientos(String nombreDispositivo, int limite) {
+		return medidor.medir("obtenerUltimosMovimientos", "sp_obtener_ultimos_movimientos",
+				() -> jdbcTemplate.execute(CALL_OBTENER_ULTIMOS_MOVIMIENTOS,
+						(CallableStatementCallback<List<UltimosMovimientosDto>>) cs -> {
+							cs.setString(1, nombreDispositivo);
+							cs.setInt(2, limite);
+							try (ResultSet rs = cs.executeQuery()) {
+								List<UltimosMovimientosDto> filas = new ArrayList<>();
+								while (rs.next()) {
+									filas.add(new UltimosMovimientosDto(rs.getTimestamp("fecha_evento"),
+											rs.getString("nombre_dispositivo"), rs.getString("movimiento"),
+											rs.getString("ip_cliente")));
+								}
+								return filas;
+							}
+						}));
+	}
+
+	@Override
+	public List<UltimosObstaculosDto> obtenerUltimosObstaculos(String nombreDispositivo, int limite) {
+		return medidor.medir("obtenerUltimosObstaculos", "sp_obtener_ultimos_obstaculos",
+				() -> jdbcTemplate.execute(CALL_OBTENER_ULTIMOS_OBSTACULOS,
+						(CallableStatementCallback<List<UltimosObstaculosDto>>) cs -> {
+							cs.setString(1, nombreDispositivo);
+							cs.setInt(2, limite);
+							try (ResultSet rs = cs.executeQuery()) {
+								List<UltimosObstaculosDto> filas = new ArrayList<>();
+								while (rs.next()) {
+									filas.add(new UltimosObstaculosDto(rs.getTimestamp("fecha_evento"),
+											rs.getString("nombre_dispositivo"), rs.getString("obstaculo_detectado"),
+											rs.getString("ip_cliente")));
+								}
+								return filas;
+							}
+						}));
+	}
+
+	@Override
+	public Integer agregarSecuenciaDemo(String nombreSecuencia, int cantidadMovimientos) {
+		return medidor.medir("agregarSecuenciaDemo", "sp_agregar_secuencia_demo",
+				() -> jdbcTemplate.execute(CALL_AGREGAR_SECUENCIA_DEMO, (CallableStatementCallback<Integer>) cs -> {
+					cs.setString(1, nombreSecuencia);
+					cs.setInt(2, cantidadMovimientos);
+					cs.registerOutParameter(PARAM_ID_SECUENCIA_CREADA, Types.INTEGER);
+					cs.execute();
+					return cs.getInt(PARAM_ID_SECUENCIA_CREADA);
+				}));
+	}
+
+	@Override
+	public void ejecutarSecuenciaDemo(int idSecuencia, String nombreDispositivo, String ipCliente, String pais,
+			String ciudad, BigDecimal latitud, BigDecimal longitud) {
+		medidor.medir("ejecutarSecuenciaDemo", "sp_ejecutar_secuencia_demo",
+				() -> jdbcTemplate.execute(CALL_EJECUTAR_SECUENCIA_DEMO, (CallableStatementCallback<Void>) cs -> {
+					cs.setInt(1, idSecuencia);
+					cs.setString(2, nombreDispositivo);
+					cs.setString(3, ipCliente);
+					cs.setString(4, pais);
+					cs.setString(5, ciudad);
+					cs.setObject(6, latitud, Types.DECIMAL);
+					cs.setObject(7, longitud, Types.DECIMAL);
+					cs.execute();
+					return null;
+				}));
+	}
+
+	@Override
+	public List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo() {
+		return medidor.medir("obtenerUltimasSecuenciasDemo", "sp_obtener_ultimas_secuencias_demo",
+				() -> jdbcTemplate.execute(CALL_OBTENER_ULTIMAS_SECUENCIAS_DEMO,
+						(CallableStatementCallback<List<UltimasSecuenciasDto>>) cs -> {
+							try (ResultSet rs = cs.executeQuery()) {
+								List<UltimasSecuenciasDto> filas = new ArrayList<>();
+								while (rs.next()) {
+									filas.add(new UltimasSecuenciasDto(rs.getInt("id_secuencia"),
+											rs.getString("nombre_secuencia"), rs.getTimestamp("fecha_creacion"),
+											rs.getLong("numero_pasos"), rs.getString("pasos")));
+								}
+								return filas;
+							}
+						}));
+	}
+
+	@Override
+	public List<Long> agregarMovimientos(List<MovimientoRequest> requests, String ipCliente) {
+		return medidor.medir("agregarMovimientos", "agregarMovimientos",
+				() -> lotes.agregarMovimientos(requests, ipCliente));
+	}
+
+	@Override
+	public List<Long> agregarObstaculos(List<ObstaculoRequest> requests, String ipCliente) {
+		return medidor.medir("agregarObstaculos", "agregarObstaculos",
+				() -> lotes.agregarObstaculos(requests, ipCliente));
+	}
+
+	/**
+	 * Asigna los siete parámetros de entrada comunes de los SPs de eventos.
+	 */
+	private static void asignarEvento(CallableStatement cs, String nombreDispositivo, String codigo,
+			String ipCliente, String pais, String ciudad, BigDecimal latitud, BigDecimal longitud)
+			throws SQLException {
+		cs.setString(1, nombreDispositivo);
+		cs.setString(2, codigo);
+		cs.setString(3, ipCliente);
+		cs.setString(4, pais);
+		cs.setString(5, ciudad);
+		cs.setObject(6, latitud, Types.DECIMAL);
+		cs.setObject(7, longitud, Types.DECIMAL);
+	}
+}
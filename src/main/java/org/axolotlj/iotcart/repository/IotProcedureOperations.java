@@ -0,0 +1,64 @@
+package org.axolotlj.iotcart.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+
+/**
+ * Operaciones sobre los procedimientos almacenados de 'iot_dispositivo_db'
+ * que usa el servicio.
+ * <p>
+ * Hay dos implementaciones, elegidas con {@code iotcart.bd.acceso}:
+ * {@link IotProcedureRepository} (Spring Data JPA, {@code jpa}) e
+ * {@link IotProcedureJdbcRepository} ({@code CallableStatement} directos,
+ * {@code jdbc}).
+ */
+public interface IotProcedureOperations extends IotProcedureRepositoryCustom {
+
+    /**
+     * Llama a 'sp_agregar_movimiento' (Índice a).
+     *
+     * @return El ID del evento creado.
+     */
+    Long agregarMovimiento(String nombreDispositivo, String codigoOperacion, String ipCliente, String pais,
+            String ciudad, BigDecimal latitud, BigDecimal longitud);
+
+    /**
+     * Llama a 'sp_agregar_obstaculo' (Índice g).
+     *
+     * @return El ID del evento creado.
+     */
+    Long agregarObstaculo(String nombreDispositivo, String codigoObstaculo, String ipCliente, String pais,
+            String ciudad, BigDecimal latitud, BigDecimal longitud);
+
+    /**
+     * Llama a 'sp_obtener_ultimos_movimientos' (Índice b, c).
+     */
+    List<UltimosMovimientosDto> obtenerUltimosMovimientos(String nombreDispositivo, int limite);
+
+    /**
+     * Llama a 'sp_obtener_ultimos_obstaculos' (Índice h, i).
+     */
+    List<UltimosObstaculosDto> obtenerUltimosObstaculos(String nombreDispositivo, int limite);
+
+    /**
+     * Llama a 'sp_agregar_secuencia_demo' (Índice d).
+     *
+     * @return El ID de la secuencia creada.
+     */
+    Integer agregarSecuenciaDemo(String nombreSecuencia, int cantidadMovimientos);
+
+    /**
+     * Llama a 'sp_ejecutar_secuencia_demo' (Índice f).
+     */
+    void ejecutarSecuenciaDemo(int idSecuencia, String nombreDispositivo, String ipCliente, String pais,
+            String ciudad, BigDecimal latitud, BigDecimal longitud);
+
+    /**
+     * Llama a 'sp_obtener_ultimas_secuencias_demo' (Índice e).
+     */
+    List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo();
+}
@@ -10,18 +10,29 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Repositorio de Spring Data JPA para interactuar con los procedimientos
  * almacenados de la base de datos 'iot_dispositivo_db'.
+ * Las operaciones por lotes se implementan en {@link IotProcedureRepositoryCustomImpl}.
+ * Es la implementación por defecto de {@link IotProcedureOperations}
+ * ({@code iotcart.bd.acceso=jpa}).
+ * <p>
+ * Las consultas leen las filas en proyecciones de interfaz ({@code Fila*}) y
+ * las copian a los records de {@code dto.response}, para que ningún proxy de
+ * Spring Data llegue al servicio, la caché o la serialización JSON.
  */
 @Repository
-public interface IotProcedureRepository extends JpaRepository<BitacoraEvento, Long> {
+public interface IotProcedureRepository
+        extends JpaRepository<BitacoraEvento, Long>, IotProcedureRepositoryCustom, IotProcedureOperations {
 
     /**
      * Llama a 'sp_agregar_movimiento' (Índice a).
      */
+    @Override
     @Procedure(procedureName = "sp_agregar_movimiento", outputParameterName = "id_evento_creado")
     Long agregarMovimiento(
             @Param("in_nombre_dispositivo") String nombreDispositivo,
@@ -36,6 +47,7 @@ public interface IotProcedureRepository extends JpaRepository<BitacoraEvento, Lo
     /**
      * Llama a 'sp_agregar_obstaculo' (Índice g).
      */
+    @Override
     @Procedure(procedureName = "sp_agregar_obstaculo", outputParameterName = "id_evento_creado")
     Long agregarObstaculo(
             @Param("in_nombre_dispositivo") String nombreDispositivo,
@@ -51,25 +63,36 @@ public interface IotProcedureRepository extends JpaRepository<BitacoraEvento, Lo
      * Llama a 'sp_obtener_ultimos_movimientos' (Índice b, c).
      * Mapea el resultado a UltimosMovimientosDto.
      */
-    @Procedure(procedureName = "sp_obtener_ultimos_movimientos")
-    List<UltimosMovimientosDto> obtenerUltimosMovimientos(
-            @Param("in_nombre_dispositivo") String nombreDispositivo,
-            @Param("in_limite") int limite
-    );
+    @Override
+    default List<UltimosMovimientosDto> obtenerUltimosMovimientos(String nombreDispositivo, int limite) {
+        List<FilaMovimiento> filas = consultarUltimosMovimientos(nombreDispositivo, limite);
+        List<UltimosMovimientosDto> resultado = new ArrayList<>(filas.size());
+        for (FilaMovimiento fila : filas) {
+            resultado.add(new UltimosMovimientosDto(fila.getFecha_evento(), fila.getNombre_dispositivo(),
+                    fila.getMovimiento(), fila.getIp_cliente()));
+        }
+        return resultado;
+    }
 
     /**
      * Llama a 'sp_obtener_ultimos_obstaculos' (Índice h, i).
      * Mapea el resultado a UltimosObstaculosDto.
      */
-    @Procedure(procedureName = "sp_obtener_ultimos_obstaculos")
-    List<UltimosObstaculosDto> obtenerUltimosObstaculos(
-            @Param("in_nombre_dispositivo") String nombreDispositivo,
-            @Param("in_limite") int limite
-    );
+    @Override
+    default List<UltimosObstaculosDto> obtenerUltimosObstaculos(String nombreDispositivo, int limite) {
+        List<FilaObstaculo> filas = consultarUltimosObstaculos(nombreDispositivo, limite);
+        List<UltimosObstaculosDto> resultado = new ArrayList<>(filas.size());
+        for (FilaObstaculo fila : filas) {
+            resultado.add(new UltimosObstaculosDto(fila.getFecha_evento(), fila.getNombre_dispositivo(),
+                    fila.getObstaculo_detectado(), fila.getIp_cliente()));
+        }
+        return resultado;
+    }
 
     /**
      * Llama a 'sp_agregar_secuencia_demo' (Índice d).
      */
+    @Override
     @Procedure(procedureName = "sp_agregar_secuencia_demo", outputParameterName = "id_secuencia_creada")
     Integer agregarSecuenciaDemo(
             @Param("in_nombre_secuencia") String nombreSecuencia,
@@ -80,6 +103,7 @@ public interface IotProcedureRepository extends JpaRepository<BitacoraEvento, Lo
      * Llama a 'sp_ejecutar_secuencia_demo' (Índice f).
      * Este SP no devuelve los pasos, solo un mensaje de éxito.
      */
+    @Override
     @Procedure(procedureName = "sp_ejecutar_secuencia_demo")
     void ejecutarSecuenciaDemo(
             @Param("in_id_secuencia") int idSecuencia,
@@ -95,6 +119,87 @@ public interface IotProcedureRepository extends JpaRepository<BitacoraEvento, Lo
      * Llama a 'sp_obtener_ultimas_secuencias_demo' (Índice e).
      * Mapea el resultado a UltimasSecuenciasDto.
      */
+    @Override
+    default List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo() {
+        List<FilaSecuencia> filas = consultarUltimasSecuenciasDemo();
+        List<UltimasSecuenciasDto> resultado = new ArrayList<>(filas.size());
+        for (FilaSecuencia fila : filas) {
+            resultado.add(new UltimasSecuenciasDto(fila.getId_secuencia(), fila.getNombre_secuencia(),
+                    fila.getFecha_creacion(), fila.getNumero_pasos(), fila.getPasos()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Ejecuta 'sp_obtener_ultimos_movimientos' y devuelve las filas como
+     * proyección de Spring Data. Usar {@link #obtenerUltimosMovimientos(String, int)}.
+     */
+    @Procedure(procedureName = "sp_obtener_ultimos_movimientos")
+    List<FilaMovimiento> consultarUltimosMovimientos(
+            @Param("in_nombre_dispositivo") String nombreDispositivo,
+            @Param("in_limite") int limite
+    );
+
+    /**
+     * Ejecuta 'sp_obtener_ultimos_obstaculos' y devuelve las filas como
+     * proyección de Spring Data. Usar {@link #obtenerUltimosObstaculos(String, int)}.
+     */
+    @Procedure(procedureName = "sp_obtener_ultimos_obstaculos")
+    List<FilaObstaculo> consultarUltimosObstaculos(
+            @Param("in_nombre_dispositivo") String nombreDispositivo,
+            @Param("in_limite") int limite
+    );
+
+    /**
+     * Ejecuta 'sp_obtener_ultimas_secuencias_demo' y devuelve las filas como
+     * proyección de Spring Data. Usar {@link #obtenerUltimasSecuenciasDemo()}.
+     */
     @Procedure(procedureName = "sp_obtener_ultimas_secuencias_demo")
-    List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo();
-}
\ No newline at end of file
+    List<FilaSecuencia> consultarUltimasSecuenciasDemo();
+
+    /**
+     * Proyección de interfaz de una fila de 'sp_obtener_ultimos_movimientos'.
+     * Los nombres de los métodos 'get' deben coincidir con los alias de columna del SP.
+     * Solo vive dentro del repositorio: se copia a {@link UltimosMovimientosDto}
+     * antes de salir de él.
+     */
+    interface FilaMovimiento {
+        Timestamp getFecha_evento();
+
+        String getNombre_dispositivo();
+
+        String getMovimiento();
+
+        String getIp_cliente();
+    }
+
+    /**
+     * Proyección de interfaz de una fila de 'sp_obtener_ultimos_obstaculos'.
+     * Se copia a {@link UltimosObstaculosDto} antes de salir del repositorio.
+     */
+    interface FilaObstaculo {
+        Timestamp getFecha_evento();
+
+        String getNombre_dispositivo();
+
+        String getObstaculo_detectado();
+
+        String getIp_cliente();
+    }
+
+    /**
+     * Proyección de interfaz de una fila de 'sp_obtener_ultimas_secuencias_demo'.
+     * Se copia a {@link UltimasSecuenciasDto} antes de salir del repositorio.
+     */
+    interface FilaSecuencia {
+        int getId_secuencia();
+
+        String getNombre_secuencia();
+
+        Timestamp getFecha_creacion();
+
+        long getNumero_pasos();
+
+        String getPasos();
+    }
+}
@@ -0,0 +1,32 @@
+package org.axolotlj.iotcart.repository;
+
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+
+/**
+ * Fragmento del repositorio con operaciones por lotes que no pueden expresarse
+ * con {@code @Procedure}. Reutiliza una sola sentencia preparada por lote dentro
+ * de la transacción actual.
+ */
+public interface IotProcedureRepositoryCustom {
+
+    /**
+     * Llama a 'sp_agregar_movimiento' (Índice a) una vez por cada elemento del lote.
+     *
+     * @param requests  Los movimientos a registrar, en orden.
+     * @param ipCliente La IP desde la que se recibió el lote.
+     * @return Los IDs de evento creados, en el mismo orden que la entrada.
+     */
+    List<Long> agregarMovimientos(List<MovimientoRequest> requests, String ipCliente);
+
+    /**
+     * Llama a 'sp_agregar_obstaculo' (Índice g) una vez por cada elemento del lote.
+     *
+     * @param requests  Los obstáculos a registrar, en orden.
+     * @param ipCliente La IP desde la que se recibió el lote.
+     * @return Los IDs de evento creados, en el mismo orden que la entrada.
+     */
+    List<Long> agregarObstaculos(List<ObstaculoRequest> requests, String ipCliente);
+}
@@ -0,0 +1,79 @@
+package org.axolotlj.iotcart.repository;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.request.EventoBaseRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Implementación JDBC del fragmento {@link IotProcedureRepositoryCustom}.
+ * <p>
+ * Los SPs de inserción devuelven el ID creado como parámetro OUT, y JDBC no
+ * permite parámetros OUT dentro de {@code executeBatch()}. Por eso se prepara
+ * un único {@link CallableStatement} por lote y se ejecuta una vez por
+ * elemento: el SP se analiza una sola vez y todo el lote se confirma en la
+ * transacción del servicio (JdbcTemplate comparte la conexión de JPA).
+ */
+public class IotProcedureRepositoryCustomImpl implements IotProcedureRepositoryCustom {
+
+	private static final String CALL_AGREGAR_MOVIMIENTO = "{call sp_agregar_movimiento(?, ?, ?, ?, ?, ?, ?, ?)}";
+	private static final String CALL_AGREGAR_OBSTACULO = "{call sp_agregar_obstaculo(?, ?, ?, ?, ?, ?, ?, ?)}";
+
+	private static final int PARAM_ID_EVENTO_CREADO = 8;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public IotProcedureRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public List<Long> agregarMovimientos(List<MovimientoRequest> requests, String ipCliente) {
+		return jdbcTemplate.execute(CALL_AGREGAR_MOVIMIENTO, (CallableStatementCallback<List<Long>>) cs -> {
+			cs.registerOutParameter(PARAM_ID_EVENTO_CREADO, Types.BIGINT);
+			List<Long> ids = new ArrayList<>(requests.size());
+			for (MovimientoRequest request : requests) {
+				ids.add(ejecutar(cs, request, request.getCodigoOperacion(), ipCliente));
+			}
+			return ids;
+		});
+	}
+
+	@Override
+	public List<Long> agregarObstaculos(List<ObstaculoRequest> requests, String ipCliente) {
+		return jdbcTemplate.execute(CALL_AGREGAR_OBSTACULO, (CallableStatementCallback<List<Long>>) cs -> {
+			cs.registerOutParameter(PARAM_ID_EVENTO_CREADO, Types.BIGINT);
+			List<Long> ids = new ArrayList<>(requests.size());
+			for (ObstaculoRequest request : requests) {
+				ids.add(ejecutar(cs, request, request.getCodigoObstaculo(), ipCliente));
+			}
+			return ids;
+		});
+	}
+
+	/**
+	 * Asigna los parámetros comunes de los SPs de inserción, ejecuta la llamada y
+	 * lee el ID creado.
+	 */
+	private Long ejecutar(CallableStatement cs, EventoBaseRequest request, String codigo, String ipCliente)
+			throws SQLException {
+		cs.setString(1, request.getNombreDispositivo());
+		cs.setString(2, codigo);
+		cs.setString(3, ipCliente);
+		cs.setString(4, request.getPais());
+		cs.setString(5, request.getCiudad());
+		cs.setObject(6, request.getLatitud(), Types.DECIMAL);
+		cs.setObject(7, request.getLongitud(), Types.DECIMAL);
+		cs.execute();
+		return cs.getLong(PARAM_ID_EVENTO_CREADO);
+	}
+}
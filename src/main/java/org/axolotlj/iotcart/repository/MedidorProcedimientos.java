@@ -0,0 +1,69 @@
+package org.axolotlj.iotcart.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.axolotlj.iotcart.diagnostico.TiemposServidor;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor.Fase;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Mide las llamadas JDBC a procedimientos almacenados que no pasan por Spring
+ * Data. Las registra en {@code iotcart.bd.procedimiento} con las etiquetas de
+ * {@code DefaultRepositoryTagsProvider} más {@code procedimiento} (ver
+ * {@code MetricasConfig}), para que publiquen la misma serie que los
+ * repositorios de Spring Data, y las suma a la fase {@code db} de
+ * {@code Server-Timing}.
+ */
+final class MedidorProcedimientos {
+
+	private static final String METRICA = "iotcart.bd.procedimiento";
+
+	private final MeterRegistry meterRegistry;
+	private final String repositorio;
+
+	/**
+	 * Timers de las llamadas exitosas por método, para no buscarlos en el
+	 * registro en cada llamada.
+	 */
+	private final Map<String, Timer> exitos = new ConcurrentHashMap<>();
+
+	/**
+	 * @param repositorio Valor de la etiqueta {@code repository}.
+	 */
+	MedidorProcedimientos(MeterRegistry meterRegistry, String repositorio) {
+		this.meterRegistry = meterRegistry;
+		this.repositorio = repositorio;
+	}
+
+	/**
+	 * Ejecuta la llamada y registra su duración.
+	 */
+	<T> T medir(String metodo, String procedimiento, Supplier<T> llamada) {
+		long inicio = System.nanoTime();
+		try {
+			T resultado = llamada.get();
+			registrar(exitos.computeIfAbsent(metodo, m -> timer(m, procedimiento, "SUCCESS", "None")), inicio);
+			return resultado;
+		} catch (RuntimeException e) {
+			registrar(timer(metodo, procedimiento, "ERROR", e.getClass().getSimpleName()), inicio);
+			throw e;
+		}
+	}
+
+	private Timer timer(String metodo, String procedimiento, String estado, String excepcion) {
+		return Timer.builder(METRICA).tags(Tags.of("repository", repositorio, "method", metodo, "state", estado,
+				"exception", excepcion, "procedimiento", procedimiento)).register(meterRegistry);
+	}
+
+	private static void registrar(Timer timer, long inicio) {
+		long duracion = System.nanoTime() - inicio;
+		timer.record(duracion, TimeUnit.NANOSECONDS);
+		TiemposServidor.sumar(Fase.BD, duracion);
+	}
+}
@@ -0,0 +1,53 @@
+package org.axolotlj.iotcart.service;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.ObstaculoHistorialDto;
+import org.axolotlj.iotcart.dto.response.PaginaHistorial;
+
+/**
+ * Interfaz para la consulta del historial de eventos de un dispositivo, por
+ * rango de fechas y del más reciente al más antiguo.
+ */
+public interface HistorialService {
+
+    /**
+     * Obtiene una página del historial de movimientos.
+     *
+     * @param desde  Inicio del rango (inclusivo), o null.
+     * @param hasta  Fin del rango (exclusivo), o null.
+     * @param cursor El {@code siguiente_cursor} de la página anterior, o null
+     *               para la primera página.
+     * @param tamano Eventos por página; se acota al máximo configurado.
+     */
+    PaginaHistorial<MovimientoHistorialDto> obtenerHistorialMovimientos(String nombreDispositivo, Instant desde,
+            Instant hasta, String cursor, int tamano);
+
+    /**
+     * Obtiene una página del historial de obstáculos.
+     *
+     * @see #obtenerHistorialMovimientos(String, Instant, Instant, String, int)
+     */
+    PaginaHistorial<ObstaculoHistorialDto> obtenerHistorialObstaculos(String nombreDispositivo, Instant desde,
+            Instant hasta, String cursor, int tamano);
+
+    /**
+     * Entrega todo el historial de movimientos del rango al consumidor, fila por
+     * fila, leyéndolo por lotes acotados.
+     *
+     * @return Cantidad de eventos entregados.
+     */
+    long transmitirHistorialMovimientos(String nombreDispositivo, Instant desde, Instant hasta,
+            Consumer<? super MovimientoHistorialDto> destino);
+
+    /**
+     * Entrega todo el historial de obstáculos del rango al consumidor, fila por
+     * fila, leyéndolo por lotes acotados.
+     *
+     * @return Cantidad de eventos entregados.
+     */
+    long transmitirHistorialObstaculos(String nombreDispositivo, Instant desde, Instant hasta,
+            Consumer<? super ObstaculoHistorialDto> destino);
+}
@@ -0,0 +1,180 @@
+package org.axolotlj.iotcart.service;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.ObstaculoHistorialDto;
+import org.axolotlj.iotcart.dto.response.PaginaHistorial;
+import org.axolotlj.iotcart.repository.HistorialEventosRepository;
+import org.axolotlj.iotcart.util.CursorHistorial;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementación del servicio de historial.
+ * <p>
+ * Las páginas se leen con paginación por clave: se piden {@code tamano + 1}
+ * eventos para saber si hay una página siguiente sin contar el total. La
+ * transmisión recorre el rango completo con la misma consulta, en lotes de
+ * {@code iotcart.historial.lote-transmision} eventos, cada uno en su propia
+ * transacción de solo lectura. Cada lote se lee completo a memoria y se entrega
+ * al destino ya cerrada la transacción, para no retener una conexión mientras
+ * el cliente lee; la memoria usada es la de un lote, sin importar el tamaño del
+ * rango.
+ */
+@Service
+public class HistorialServiceImpl implements HistorialService {
+
+	private static final Logger log = LogManager.getLogger(HistorialServiceImpl.class);
+
+	private final HistorialEventosRepository historialRepository;
+	private final TransactionTemplate lectura;
+	private final int tamanoMaximo;
+	private final int loteTransmision;
+
+	/**
+	 * Una llamada al SP de historial de un tipo de evento, con el dispositivo y
+	 * el rango ya fijados.
+	 */
+	@FunctionalInterface
+	private interface Consulta<T> {
+		int recorrer(CursorHistorial despuesDe, int limite, Consumer<? super T> destino);
+	}
+
+	@Autowired
+	public HistorialServiceImpl(HistorialEventosRepository historialRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${iotcart.historial.tamano-maximo}") int tamanoMaximo,
+			@Value("${iotcart.historial.lote-transmision}") int loteTransmision) {
+		this.historialRepository = historialRepository;
+		this.lectura = new TransactionTemplate(transactionManager);
+		this.lectura.setReadOnly(true);
+		this.tamanoMaximo = tamanoMaximo;
+		this.loteTransmision = loteTransmision;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaHistorial<MovimientoHistorialDto> obtenerHistorialMovimientos(String nombreDispositivo,
+			Instant desde, Instant hasta, String cursor, int tamano) {
+		log.debug("Consultando historial de movimientos para: {} [{} - {}]", nombreDispositivo, desde, hasta);
+		CursorHistorial despuesDe = cursor != null ? CursorHistorial.decodificar(cursor) : null;
+		try {
+			return pagina(movimientos(nombreDispositivo, desde, hasta), despuesDe, tamano,
+					fila -> new CursorHistorial(fila.fecha_evento(), fila.id_evento()));
+		} catch (Exception e) {
+			log.error("Error inesperado al consultar historial de movimientos [Dispositivo: {}]", nombreDispositivo,
+					e);
+			throw new RuntimeException("Error de base de datos al consultar historial de movimientos.", e);
+		}
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaHistorial<ObstaculoHistorialDto> obtenerHistorialObstaculos(String nombreDispositivo,
+			Instant desde, Instant hasta, String cursor, int tamano) {
+		log.debug("Consultando historial de obstáculos para: {} [{} - {}]", nombreDispositivo, desde, hasta);
+		CursorHistorial despuesDe = cursor != null ? CursorHistorial.decodificar(cursor) : null;
+		try {
+			return pagina(obstaculos(nombreDispositivo, desde, hasta), despuesDe, tamano,
+					fila -> new CursorHistorial(fila.fecha_evento(), fila.id_evento()));
+		} catch (Exception e) {
+			log.error("Error inesperado al consultar historial de obstáculos [Dispositivo: {}]", nombreDispositivo,
+					e);
+			throw new RuntimeException("Error de base de datos al consultar historial de obstáculos.", e);
+		}
+	}
+
+	@Override
+	public long transmitirHistorialMovimientos(String nombreDispositivo, Instant desde, Instant hasta,
+			Consumer<? super MovimientoHistorialDto> destino) {
+		log.debug("Transmitiendo historial de movimientos para: {} [{} - {}]", nombreDispositivo, desde, hasta);
+		try {
+			return transmitir(movimientos(nombreDispositivo, desde, hasta),
+					fila -> new CursorHistorial(fila.fecha_evento(), fila.id_evento()), destino);
+		} catch (UncheckedIOException e) {
+			// El cliente cerró la conexión: no es un error del servidor
+			throw e;
+		} catch (Exception e) {
+			log.error("Error inesperado al transmitir historial de movimientos [Dispositivo: {}]",
+					nombreDispositivo, e);
+			throw new RuntimeException("Error de base de datos al transmitir historial de movimientos.", e);
+		}
+	}
+
+	@Override
+	public long transmitirHistorialObstaculos(String nombreDispositivo, Instant desde, Instant hasta,
+			Consumer<? super ObstaculoHistorialDto> destino) {
+		log.debug("Transmitiendo historial de obstáculos para: {} [{} - {}]", nombreDispositivo, desde, hasta);
+		try {
+			return transmitir(obstaculos(nombreDispositivo, desde, hasta),
+					fila -> new CursorHistorial(fila.fecha_evento(), fila.id_evento()), destino);
+		} catch (UncheckedIOException e) {
+			throw e;
+		} catch (Exception e) {
+			log.error("Error inesperado al transmitir historial de obstáculos [Dispositivo: {}]",
+					nombreDispositivo, e);
+			throw new RuntimeException("Error de base de datos al transmitir historial de obstáculos.", e);
+		}
+	}
+
+	private Consulta<MovimientoHistorialDto> movimientos(String nombreDispositivo, Instant desde, Instant hasta) {
+		Timestamp inicio = timestamp(desde);
+		Timestamp fin = timestamp(hasta);
+		return (despuesDe, limite, destino) -> historialRepository.recorrerMovimientos(nombreDispositivo, inicio,
+				fin, despuesDe, limite, destino);
+	}
+
+	private Consulta<ObstaculoHistorialDto> obstaculos(String nombreDispositivo, Instant desde, Instant hasta) {
+		Timestamp inicio = timestamp(desde);
+		Timestamp fin = timestamp(hasta);
+		return (despuesDe, limite, destino) -> historialRepository.recorrerObstaculos(nombreDispositivo, inicio,
+				fin, despuesDe, limite, destino);
+	}
+
+	private <T> PaginaHistorial<T> pagina(Consulta<T> consulta, CursorHistorial despuesDe, int tamano,
+			Function<T, CursorHistorial> posicion) {
+		int limite = Math.min(Math.max(tamano, 1), tamanoMaximo);
+		List<T> elementos = new ArrayList<>(limite + 1);
+		consulta.recorrer(despuesDe, limite + 1, elementos::add);
+		if (elementos.size() <= limite) {
+			return new PaginaHistorial<>(elementos, null);
+		}
+		elementos.remove(limite);
+		return new PaginaHistorial<>(elementos, posicion.apply(elementos.get(limite - 1)).codificar());
+	}
+
+	private <T> long transmitir(Consulta<T> consulta, Function<T, CursorHistorial> posicion,
+			Consumer<? super T> destino) {
+		long total = 0;
+		CursorHistorial despuesDe = null;
+		List<T> filas = new ArrayList<>(loteTransmision);
+		while (true) {
+			CursorHistorial inicioLote = despuesDe;
+			filas.clear();
+			lectura.executeWithoutResult(status -> consulta.recorrer(inicioLote, loteTransmision, filas::add));
+			filas.forEach(destino);
+			total += filas.size();
+			if (filas.size() < loteTransmision) {
+				return total;
+			}
+			despuesDe = posicion.apply(filas.get(filas.size() - 1));
+		}
+	}
+
+	private static Timestamp timestamp(Instant instante) {
+		return instante != null ? Timestamp.from(instante) : null;
+	}
+}
@@ -21,6 +21,22 @@ public interface IotEventService {
      */
     Long registrarObstaculo(ObstaculoRequest request, String ipCliente);
 
+    /**
+     * Registra un lote de movimientos en una sola transacción y envía una única
+     * notificación WebSocket con todo el lote.
+     *
+     * @return Los IDs de evento creados, en el orden del lote.
+     */
+    List<Long> registrarMovimientos(List<MovimientoRequest> requests, String ipCliente);
+
+    /**
+     * Registra un lote de obstáculos en una sola transacción y envía una única
+     * notificación WebSocket con todo el lote.
+     *
+     * @return Los IDs de evento creados, en el orden del lote.
+     */
+    List<Long> registrarObstaculos(List<ObstaculoRequest> requests, String ipCliente);
+
     /**
      * Ejecuta una secuencia DEMO y notifica vía WebSocket.
      * CORRECCIÓN: Se añade ipCliente como parámetro.
@@ -43,7 +59,8 @@ public interface IotEventService {
     List<UltimosObstaculosDto> obtenerUltimosObstaculos(String nombreDispositivo, int limite);
 
     /**
-     * Obtiene las últimas 20 secuencias DEMO creadas.
+     * Obtiene las últimas 20 secuencias DEMO creadas, con los pasos ya separados
+     * en un arreglo.
      */
-    List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo();
+    List<SecuenciaResponse> obtenerUltimasSecuenciasDemo();
 }
\ No newline at end of file
@@ -1,91 +1,112 @@
 package org.axolotlj.iotcart.service;
 
-import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.cache.AlConfirmar;
+import org.axolotlj.iotcart.cache.CatalogoSecuencias;
+import org.axolotlj.iotcart.cache.SecuenciaCatalogada;
+import org.axolotlj.iotcart.cache.UltimosEventosCache;
+import org.axolotlj.iotcart.diagnostico.IngestaJfr;
+import org.axolotlj.iotcart.diagnostico.ProcedimientoJfr;
 import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
 import org.axolotlj.iotcart.dto.request.MovimientoRequest;
 import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
 import org.axolotlj.iotcart.dto.request.SecuenciaDemoRequest;
-import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
 import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
 import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
-import org.axolotlj.iotcart.repository.IotProcedureRepository;
+import org.axolotlj.iotcart.repository.IotProcedureOperations;
+import org.axolotlj.iotcart.sse.EmisorEventosSse;
+import org.axolotlj.iotcart.util.CoordenadaFija;
 import org.axolotlj.iotcart.util.OperacionEnum;
+import org.axolotlj.iotcart.websocket.ConflacionMovimientos;
+import org.axolotlj.iotcart.websocket.FrameNotificacion;
 import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
 import org.axolotlj.iotcart.websocket.MovimientoNotification;
-import org.axolotlj.iotcart.websocket.Notification;
+import org.axolotlj.iotcart.websocket.ObstaculoNotification;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
 import org.axolotlj.iotcart.websocket.SecuenciaEjecutadaNotification;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * Implementación del servicio de eventos IoT. Maneja la lógica de negocio,
- * llama al repositorio y dispara notificaciones WebSocket transformadas.
+ * llama al repositorio y dispara notificaciones WebSocket y SSE transformadas.
  */
 @Service
 public class IotEventServiceImpl implements IotEventService {
 
 	private static final Logger log = LogManager.getLogger(IotEventServiceImpl.class);
 
-	private final IotProcedureRepository iotRepository;
+	private final IotProcedureOperations iotRepository;
 	private final IotEventSocketHandler socketHandler;
-	private final ObjectMapper objectMapper;
+	private final RegistroNotificaciones registroNotificaciones;
+	private final UltimosEventosCache ultimosEventos;
+	private final CatalogoSecuencias catalogoSecuencias;
+	private final EmisorEventosSse emisorEventosSse;
+	private final ConflacionMovimientos conflacionMovimientos;
 
 	private static final String EVENT_TYPE_MOVIMIENTO = "NUEVO_MOVIMIENTO";
 	private static final String EVENT_TYPE_OBSTACULO = "NUEVO_OBSTACULO";
 	private static final String EVENT_TYPE_SECUENCIA_COMPLETADA = "SECUENCIA_COMPLETADA";
+	private static final String EVENT_TYPE_LOTE_MOVIMIENTOS = "LOTE_MOVIMIENTOS";
+	private static final String EVENT_TYPE_LOTE_OBSTACULOS = "LOTE_OBSTACULOS";
+
+	private static final String INGESTA_MOVIMIENTO = "MOVIMIENTO";
+	private static final String INGESTA_OBSTACULO = "OBSTACULO";
 
 	@Autowired
-	public IotEventServiceImpl(IotProcedureRepository iotRepository, IotEventSocketHandler socketHandler,
-			ObjectMapper objectMapper) {
+	public IotEventServiceImpl(IotProcedureOperations iotRepository, IotEventSocketHandler socketHandler,
+			RegistroNotificaciones registroNotificaciones, UltimosEventosCache ultimosEventos,
+			CatalogoSecuencias catalogoSecuencias, EmisorEventosSse emisorEventosSse,
+			ConflacionMovimientos conflacionMovimientos) {
 		this.iotRepository = iotRepository;
 		this.socketHandler = socketHandler;
-		this.objectMapper = objectMapper;
+		this.registroNotificaciones = registroNotificaciones;
+		this.ultimosEventos = ultimosEventos;
+		this.catalogoSecuencias = catalogoSecuencias;
+		this.emisorEventosSse = emisorEventosSse;
+		this.conflacionMovimientos = conflacionMovimientos;
 	}
 
 	@Override
 	@Transactional
 	public Long registrarMovimiento(MovimientoRequest request, String ipCliente) {
 		log.debug("Iniciando registro de movimiento para el dispositivo: {}", request.getNombreDispositivo());
+		CoordenadaFija.validar(request.getLatitud(), request.getLongitud());
+		IngestaJfr evento = new IngestaJfr(INGESTA_MOVIMIENTO, request.getNombreDispositivo(),
+				request.getCodigoOperacion(), 1);
+		evento.begin();
 		try {
-			Long eventoId = iotRepository.agregarMovimiento(request.getNombreDispositivo(),
-					request.getCodigoOperacion(), ipCliente, request.getPais(), request.getCiudad(),
-					request.getLatitud(), request.getLongitud());
+			Long eventoId = ultimosEventos.registrarMovimientos(Map.of(request.getNombreDispositivo(), 1),
+					() -> llamarProcedimiento("sp_agregar_movimiento",
+							() -> iotRepository.agregarMovimiento(request.getNombreDispositivo(),
+									request.getCodigoOperacion(), ipCliente, request.getPais(), request.getCiudad(),
+									request.getLatitud(), request.getLongitud())),
+					this::releerMovimientos);
 
 			log.info("Movimiento registrado con éxito. Evento ID: {}", eventoId);
 
-			// --- Transformación para WebSocket ---
-			// Buscamos el ID numérico correspondiente al texto de la operación (ej.
-			// "ADELANTE" -> 1)
-			int operacionId = OperacionEnum.obtenerIdPorTexto(request.getCodigoOperacion()).orElse(0);
-
-			if (operacionId == 0) {
-				log.warn("No se encontró mapeo numérico para la operación: {}", request.getCodigoOperacion());
-			}
-
-			// Creamos el payload específico con el entero
-			MovimientoNotification notificationPayload = new MovimientoNotification(request.getNombreDispositivo(),
-					request.getPais(), request.getCiudad(), request.getLatitud(), request.getLongitud(), operacionId,
-					request.getVelocidad());
-
-			broadcastNotification(EVENT_TYPE_MOVIMIENTO, notificationPayload);
+			broadcastNotification(EVENT_TYPE_MOVIMIENTO, request.getNombreDispositivo(),
+					crearNotificacionMovimiento(request));
 			return eventoId;
 
 		} catch (Exception e) {
 			log.error("Error inesperado al intentar registrar movimiento para [Dispositivo: {}, Operación: {}, IP: {}]",
 					request.getNombreDispositivo(), request.getCodigoOperacion(), ipCliente, e);
 			throw new RuntimeException("Error de base de datos al registrar movimiento.", e);
+		} finally {
+			evento.commit();
 		}
 	}
 
@@ -95,18 +116,100 @@ public class IotEventServiceImpl implements IotEventService {
 		// Este método no se solicitó cambiar, se mantiene el comportamiento original
 		// con el Request
 		log.debug("Iniciando registro de obstáculo para el dispositivo: {}", request.getNombreDispositivo());
+		CoordenadaFija.validar(request.getLatitud(), request.getLongitud());
+		IngestaJfr evento = new IngestaJfr(INGESTA_OBSTACULO, request.getNombreDispositivo(),
+				request.getCodigoObstaculo(), 1);
+		evento.begin();
 		try {
-			Long eventoId = iotRepository.agregarObstaculo(request.getNombreDispositivo(), request.getCodigoObstaculo(),
-					ipCliente, request.getPais(), request.getCiudad(), request.getLatitud(), request.getLongitud());
+			Long eventoId = ultimosEventos.registrarObstaculos(Map.of(request.getNombreDispositivo(), 1),
+					() -> llamarProcedimiento("sp_agregar_obstaculo",
+							() -> iotRepository.agregarObstaculo(request.getNombreDispositivo(),
+									request.getCodigoObstaculo(), ipCliente, request.getPais(), request.getCiudad(),
+									request.getLatitud(), request.getLongitud())),
+					this::releerObstaculos);
 
 			log.info("Obstáculo registrado con éxito. Evento ID: {}", eventoId);
-			broadcastNotification(EVENT_TYPE_OBSTACULO, request);
+			broadcastNotification(EVENT_TYPE_OBSTACULO, request.getNombreDispositivo(),
+					crearNotificacionObstaculo(request));
 			return eventoId;
 
 		} catch (Exception e) {
 			log.error("Error inesperado al intentar registrar obstáculo para [Dispositivo: {}, Obstáculo: {}, IP: {}]",
 					request.getNombreDispositivo(), request.getCodigoObstaculo(), ipCliente, e);
 			throw new RuntimeException("Error de base de datos al registrar obstáculo.", e);
+		} finally {
+			evento.commit();
+		}
+	}
+
+	@Override
+	@Transactional
+	public List<Long> registrarMovimientos(List<MovimientoRequest> requests, String ipCliente) {
+		log.debug("Iniciando registro de lote de {} movimientos desde IP: {}", requests.size(), ipCliente);
+		requests.forEach(request -> CoordenadaFija.validar(request.getLatitud(), request.getLongitud()));
+		IngestaJfr evento = new IngestaJfr(INGESTA_MOVIMIENTO, requests.get(0).getNombreDispositivo(), "",
+				requests.size());
+		evento.begin();
+		try {
+			Map<String, Integer> cantidades = requests.stream().collect(
+					Collectors.groupingBy(MovimientoRequest::getNombreDispositivo, Collectors.summingInt(r -> 1)));
+			List<Long> eventoIds = ultimosEventos.registrarMovimientos(cantidades,
+					() -> llamarProcedimiento("sp_agregar_movimiento",
+							() -> iotRepository.agregarMovimientos(requests, ipCliente)),
+					this::releerMovimientos);
+
+			log.info("Lote de {} movimientos registrado con éxito.", eventoIds.size());
+
+			// Una notificación por dispositivo del lote (normalmente uno solo), para
+			// poder enrutarla a los monitores suscritos a ese dispositivo
+			Map<String, List<MovimientoNotification>> porDispositivo = requests.stream()
+					.map(this::crearNotificacionMovimiento).collect(Collectors.groupingBy(
+							MovimientoNotification::getNombreDispositivo, LinkedHashMap::new, Collectors.toList()));
+
+			porDispositivo.forEach((dispositivo, notificationPayload) -> broadcastNotification(
+					EVENT_TYPE_LOTE_MOVIMIENTOS, dispositivo, notificationPayload));
+			return eventoIds;
+
+		} catch (Exception e) {
+			log.error("Error inesperado al intentar registrar lote de {} movimientos [IP: {}]", requests.size(),
+					ipCliente, e);
+			throw new RuntimeException("Error de base de datos al registrar lote de movimientos.", e);
+		} finally {
+			evento.commit();
+		}
+	}
+
+	@Override
+	@Transactional
+	public List<Long> registrarObstaculos(List<ObstaculoRequest> requests, String ipCliente) {
+		log.debug("Iniciando registro de lote de {} obstáculos desde IP: {}", requests.size(), ipCliente);
+		requests.forEach(request -> CoordenadaFija.validar(request.getLatitud(), request.getLongitud()));
+		IngestaJfr evento = new IngestaJfr(INGESTA_OBSTACULO, requests.get(0).getNombreDispositivo(), "",
+				requests.size());
+		evento.begin();
+		try {
+			Map<String, Integer> cantidades = requests.stream().collect(
+					Collectors.groupingBy(ObstaculoRequest::getNombreDispositivo, Collectors.summingInt(r -> 1)));
+			List<Long> eventoIds = ultimosEventos.registrarObstaculos(cantidades,
+					() -> llamarProcedimiento("sp_agregar_obstaculo",
+							() -> iotRepository.agregarObstaculos(requests, ipCliente)),
+					this::releerObstaculos);
+
+			log.info("Lote de {} obstáculos registrado con éxito.", eventoIds.size());
+			Map<String, List<ObstaculoNotification>> porDispositivo = requests.stream()
+					.map(this::crearNotificacionObstaculo).collect(Collectors.groupingBy(
+							ObstaculoNotification::getNombreDispositivo, LinkedHashMap::new, Collectors.toList()));
+
+			porDispositivo.forEach((dispositivo, notificationPayload) -> broadcastNotification(
+					EVENT_TYPE_LOTE_OBSTACULOS, dispositivo, notificationPayload));
+			return eventoIds;
+
+		} catch (Exception e) {
+			log.error("Error inesperado al intentar registrar lote de {} obstáculos [IP: {}]", requests.size(),
+					ipCliente, e);
+			throw new RuntimeException("Error de base de datos al registrar lote de obstáculos.", e);
+		} finally {
+			evento.commit();
 		}
 	}
 
@@ -115,29 +218,30 @@ public class IotEventServiceImpl implements IotEventService {
 	public void ejecutarSecuenciaDemo(EjecutarSecuenciaRequest request, String ipCliente) {
 		log.debug("Iniciando ejecución de secuencia DEMO [ID: {}] para [Dispositivo: {}]", request.getIdSecuencia(),
 				request.getNombreDispositivo());
+		CoordenadaFija.validar(request.getLatitud(), request.getLongitud());
 
 		try {
-			iotRepository.ejecutarSecuenciaDemo(request.getIdSecuencia(), request.getNombreDispositivo(), ipCliente,
-					request.getPais(), request.getCiudad(), request.getLatitud(), request.getLongitud());
+			llamarProcedimiento("sp_ejecutar_secuencia_demo", () -> {
+				iotRepository.ejecutarSecuenciaDemo(request.getIdSecuencia(), request.getNombreDispositivo(),
+						ipCliente, request.getPais(), request.getCiudad(), request.getLatitud(), request.getLongitud());
+				return null;
+			});
 
 			log.info("Secuencia DEMO [ID: {}] ejecutada en la base de datos.", request.getIdSecuencia());
+			// Los movimientos de la secuencia los inserta el SP
+			ultimosEventos.invalidarMovimientos(request.getNombreDispositivo());
 
-			Optional<UltimasSecuenciasDto> optDto = iotRepository.obtenerUltimasSecuenciasDemo().stream()
-					.filter(s -> s.getId_secuencia() == request.getIdSecuencia()).findFirst();
+			Optional<SecuenciaCatalogada> secuencia = catalogoSecuencias.buscar(request.getIdSecuencia(),
+					() -> llamarProcedimiento("sp_obtener_ultimas_secuencias_demo",
+							iotRepository::obtenerUltimasSecuenciasDemo));
 
 			long numeroPasos = 0;
 			List<Integer> pasosIds = Collections.emptyList();
 
-			if (optDto.isPresent()) {
-				UltimasSecuenciasDto dto = optDto.get();
-				numeroPasos = dto.getNumero_pasos();
-
-				// --- Transformación de Strings a IDs ---
-				if (dto.getPasos() != null && !dto.getPasos().isEmpty()) {
-					pasosIds = Arrays.stream(dto.getPasos().split(" -> ")).map(String::trim)
-							.map(OperacionEnum::obtenerIdPorTexto) // Devuelve Optional<Integer>
-							.filter(Optional::isPresent).map(Optional::get).collect(Collectors.toList());
-				}
+			if (secuencia.isPresent()) {
+				// Los pasos ya vienen mapeados a IDs desde el catálogo
+				numeroPasos = secuencia.get().respuesta().getNumero_pasos();
+				pasosIds = secuencia.get().pasosIds();
 			} else {
 				log.warn("No se pudieron encontrar los detalles de la secuencia (ID: {}) para el broadcast WebSocket.",
 						request.getIdSecuencia());
@@ -149,10 +253,11 @@ public class IotEventServiceImpl implements IotEventService {
 
 			notificationPayload.setPais(request.getPais());
 			notificationPayload.setCiudad(request.getCiudad());
-			notificationPayload.setLatitud(request.getLatitud());
-			notificationPayload.setLongitud(request.getLongitud());
+			notificationPayload.setLatitudE7(CoordenadaFija.aE7(request.getLatitud()));
+			notificationPayload.setLongitudE7(CoordenadaFija.aE7(request.getLongitud()));
 
-			broadcastNotification(EVENT_TYPE_SECUENCIA_COMPLETADA, notificationPayload);
+			broadcastNotification(EVENT_TYPE_SECUENCIA_COMPLETADA, request.getNombreDispositivo(),
+					notificationPayload);
 
 		} catch (Exception e) {
 			log.error("Error inesperado al intentar ejecutar secuencia DEMO [ID: {}] para [Dispositivo: {}]",
@@ -166,7 +271,10 @@ public class IotEventServiceImpl implements IotEventService {
 	public Integer crearSecuenciaDemo(SecuenciaDemoRequest request) {
 		log.debug("Creando secuencia DEMO: {}", request.getNombreSecuencia());
 		try {
-			return iotRepository.agregarSecuenciaDemo(request.getNombreSecuencia(), request.getCantidadMovimientos());
+			Integer idSecuencia = llamarProcedimiento("sp_agregar_secuencia_demo", () -> iotRepository
+					.agregarSecuenciaDemo(request.getNombreSecuencia(), request.getCantidadMovimientos()));
+			catalogoSecuencias.invalidar();
+			return idSecuencia;
 		} catch (Exception e) {
 			log.error("Error inesperado al crear secuencia DEMO [Nombre: {}]", request.getNombreSecuencia(), e);
 			throw new RuntimeException("Error de base de datos al crear secuencia.", e);
@@ -174,11 +282,13 @@ public class IotEventServiceImpl implements IotEventService {
 	}
 
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public List<UltimosMovimientosDto> obtenerUltimosMovimientos(String nombreDispositivo, int limite) {
 		log.debug("Consultando últimos {} movimientos para: {}", limite, nombreDispositivo);
 		try {
-			return iotRepository.obtenerUltimosMovimientos(nombreDispositivo, limite);
+			return ultimosEventos.ultimosMovimientos(nombreDispositivo, limite,
+					n -> llamarProcedimiento("sp_obtener_ultimos_movimientos",
+							() -> iotRepository.obtenerUltimosMovimientos(nombreDispositivo, n)));
 		} catch (Exception e) {
 			log.error("Error inesperado al consultar últimos movimientos [Dispositivo: {}]", nombreDispositivo, e);
 			throw new RuntimeException("Error de base de datos al consultar movimientos.", e);
@@ -186,11 +296,13 @@ public class IotEventServiceImpl implements IotEventService {
 	}
 
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public List<UltimosObstaculosDto> obtenerUltimosObstaculos(String nombreDispositivo, int limite) {
 		log.debug("Consultando últimos {} obstáculos para: {}", limite, nombreDispositivo);
 		try {
-			return iotRepository.obtenerUltimosObstaculos(nombreDispositivo, limite);
+			return ultimosEventos.ultimosObstaculos(nombreDispositivo, limite,
+					n -> llamarProcedimiento("sp_obtener_ultimos_obstaculos",
+							() -> iotRepository.obtenerUltimosObstaculos(nombreDispositivo, n)));
 		} catch (Exception e) {
 			log.error("Error inesperado al consultar últimos obstáculos [Dispositivo: {}]", nombreDispositivo, e);
 			throw new RuntimeException("Error de base de datos al consultar obstáculos.", e);
@@ -198,25 +310,110 @@ public class IotEventServiceImpl implements IotEventService {
 	}
 
 	@Override
-	@Transactional
-	public List<UltimasSecuenciasDto> obtenerUltimasSecuenciasDemo() {
+	@Transactional(readOnly = true)
+	public List<SecuenciaResponse> obtenerUltimasSecuenciasDemo() {
 		log.debug("Consultando últimas secuencias DEMO");
 		try {
-			return iotRepository.obtenerUltimasSecuenciasDemo();
+			return catalogoSecuencias.listar(() -> llamarProcedimiento("sp_obtener_ultimas_secuencias_demo",
+					iotRepository::obtenerUltimasSecuenciasDemo));
 		} catch (Exception e) {
 			log.error("Error inesperado al consultar últimas secuencias DEMO", e);
 			throw new RuntimeException("Error de base de datos al consultar secuencias.", e);
 		}
 	}
 
-	private <T> void broadcastNotification(String eventType, T payload) {
+	/**
+	 * Llama al repositorio dentro de un evento JFR con el nombre del
+	 * procedimiento almacenado.
+	 */
+	private static <T> T llamarProcedimiento(String procedimiento, Supplier<T> llamada) {
+		ProcedimientoJfr evento = new ProcedimientoJfr(procedimiento);
+		evento.begin();
 		try {
-			Notification<T> notification = new Notification<>(eventType, payload);
-			String jsonMessage = objectMapper.writeValueAsString(notification);
-			socketHandler.broadcast(jsonMessage);
-			log.debug("Notificación WebSocket transmitida: {}", jsonMessage);
-		} catch (JsonProcessingException e) {
-			log.error("Error fatal: No se pudo serializar la notificación WebSocket de tipo [{}]", eventType, e);
+			return llamada.get();
+		} finally {
+			evento.commit();
+		}
+	}
+
+	/**
+	 * Lee los últimos movimientos del dispositivo en la transacción de
+	 * escritura, que ya incluye los recién insertados, para agregarlos a la
+	 * caché con la descripción y la fecha de la base de datos.
+	 */
+	private List<UltimosMovimientosDto> releerMovimientos(String nombreDispositivo, int cantidad) {
+		return llamarProcedimiento("sp_obtener_ultimos_movimientos",
+				() -> iotRepository.obtenerUltimosMovimientos(nombreDispositivo, cantidad));
+	}
+
+	/**
+	 * Igual que {@link #releerMovimientos(String, int)}, para obstáculos.
+	 */
+	private List<UltimosObstaculosDto> releerObstaculos(String nombreDispositivo, int cantidad) {
+		return llamarProcedimiento("sp_obtener_ultimos_obstaculos",
+				() -> iotRepository.obtenerUltimosObstaculos(nombreDispositivo, cantidad));
+	}
+
+	/**
+	 * Transforma un movimiento recibido en el payload de WebSocket, sustituyendo el
+	 * texto de la operación por su ID numérico (ej. "ADELANTE" -> 1).
+	 */
+	private MovimientoNotification crearNotificacionMovimiento(MovimientoRequest request) {
+		int operacionId = OperacionEnum.resolverId(request.getCodigoOperacion());
+
+		if (operacionId == OperacionEnum.ID_DESCONOCIDO) {
+			log.warn("No se encontró mapeo numérico para la operación: {}", request.getCodigoOperacion());
+		}
+
+		return new MovimientoNotification(request.getNombreDispositivo(), request.getPais(), request.getCiudad(),
+				CoordenadaFija.aE7(request.getLatitud()), CoordenadaFija.aE7(request.getLongitud()), operacionId,
+				request.getVelocidad());
+	}
+
+	/**
+	 * Transforma un obstáculo recibido en el payload de WebSocket, con
+	 * coordenadas en punto fijo.
+	 */
+	private ObstaculoNotification crearNotificacionObstaculo(ObstaculoRequest request) {
+		return new ObstaculoNotification(request.getNombreDispositivo(), request.getPais(), request.getCiudad(),
+				CoordenadaFija.aE7(request.getLatitud()), CoordenadaFija.aE7(request.getLongitud()),
+				request.getCodigoObstaculo());
+	}
+
+	/**
+	 * Transmite la notificación, o la deja en la conflación si es un movimiento
+	 * y la conflación está habilitada, una vez confirmada la transacción en
+	 * curso. Si la transacción se revierte (por ejemplo, un grupo de la ingesta
+	 * asíncrona que luego se reintenta evento por evento), no se anuncia nada
+	 * ni se consume secuencia.
+	 */
+	private <T> void broadcastNotification(String eventType, String nombreDispositivo, T payload) {
+		AlConfirmar.ejecutar(() -> {
+			if (EVENT_TYPE_MOVIMIENTO.equals(eventType) && conflacionMovimientos.isHabilitada()) {
+				conflacionMovimientos.ofrecer(nombreDispositivo,
+						() -> transmitir(eventType, nombreDispositivo, payload));
+				return;
+			}
+			transmitir(eventType, nombreDispositivo, payload);
+		});
+	}
+
+	/**
+	 * Numera y guarda la notificación en el registro de reproducción, la envía
+	 * a los monitores suscritos al tipo de evento y al dispositivo y avisa a los
+	 * clientes SSE. El frame se codifica una sola vez y lo comparten todos.
+	 * <p>
+	 * El frame se deja en las colas de reparto de los shards dentro del
+	 * registro, antes de que otro dispositivo pueda tomar la secuencia
+	 * siguiente, así que cada monitor lo recibe en orden de secuencia.
+	 */
+	private <T> void transmitir(String eventType, String nombreDispositivo, T payload) {
+		FrameNotificacion frame = registroNotificaciones.registrar(eventType, nombreDispositivo, payload,
+				registrado -> socketHandler.broadcast(eventType, nombreDispositivo, () -> registrado));
+		if (frame == null) {
+			return;
 		}
+		log.debug("Notificación WebSocket transmitida: {}", frame.mensaje()::getPayload);
+		emisorEventosSse.avisar();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,214 @@
+package org.axolotlj.iotcart.sse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.util.AnilloReproduccion;
+import org.axolotlj.iotcart.util.AnilloReproduccion.Entrada;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones.NotificacionRegistrada;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Un cliente SSE conectado.
+ * <p>
+ * El cliente no tiene buffer propio: solo recuerda el ID del último evento que
+ * recibió y, cada vez que se le avisa, lee del {@link AnilloReproduccion} lo
+ * que sigue. Así la reproducción al reconectarse y la entrega en vivo son el
+ * mismo recorrido, el orden es el de los IDs y un cliente lento no acumula
+ * memoria: si se atrasa más que la capacidad del anillo, recibe un evento
+ * {@value #EVENT_TYPE_RESINCRONIZAR} y continúa desde el evento más
+ * antiguo disponible. Un solo drenado está activo por cliente, así que
+ * {@code send} nunca se invoca de forma concurrente sobre el mismo emisor.
+ * <p>
+ * {@code send} bloquea mientras la red no acepta los datos, por lo que cada
+ * drenado corre en su propio hilo virtual y un cliente atascado no demora a
+ * los demás. Si un envío lleva más de {@code limiteTiempoEnvioNanos} en curso,
+ * {@link #revisar(long, long)} lo interrumpe y el cliente se da por
+ * desconectado; a un cliente sin eventos le envía periódicamente un
+ * comentario, para que los proxies no corten la conexión por inactividad.
+ */
+final class ClienteSse {
+
+	private static final Logger log = LogManager.getLogger(ClienteSse.class);
+
+	static final String EVENT_TYPE_RESINCRONIZAR = "RESINCRONIZAR";
+
+	private static final int LOTE_LECTURA = 64;
+
+	private static final String COMENTARIO_LATIDO = "latido";
+
+	private final SseEmitter emitter;
+	private final AnilloReproduccion<NotificacionRegistrada> anillo;
+	private final Executor envio;
+	private final Counter resincronizaciones;
+	private final long limiteTiempoEnvioNanos;
+	private final Set<String> dispositivos;
+	private final Set<String> eventos;
+
+	private final AtomicInteger avisos = new AtomicInteger();
+	private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+	private volatile boolean cerrado;
+	private volatile boolean vencido;
+
+	private volatile Thread hiloEnvio;
+	private volatile long inicioEnvioNanos;
+	private volatile long ultimoEnvioNanos = System.nanoTime();
+
+	/**
+	 * Solo lo usa el drenado activo.
+	 */
+	private long ultimoEnviado;
+
+	/**
+	 * @param ultimoRecibido ID del último evento que el cliente ya tiene.
+	 * @param dispositivos   Dispositivos que desea recibir (vacío: todos).
+	 * @param eventos        Tipos de evento que desea recibir (vacío: todos).
+	 */
+	ClienteSse(SseEmitter emitter, AnilloReproduccion<NotificacionRegistrada> anillo, Executor envio,
+			Counter resincronizaciones, long limiteTiempoEnvioMs, long ultimoRecibido, Set<String> dispositivos,
+			Set<String> eventos) {
+		this.emitter = emitter;
+		this.anillo = anillo;
+		this.envio = envio;
+		this.resincronizaciones = resincronizaciones;
+		this.limiteTiempoEnvioNanos = TimeUnit.MILLISECONDS.toNanos(limiteTiempoEnvioMs);
+		this.ultimoEnviado = ultimoRecibido;
+		this.dispositivos = dispositivos;
+		this.eventos = eventos;
+	}
+
+	/**
+	 * Avisa que hay eventos nuevos en el anillo. Nunca bloquea al hilo que
+	 * publica.
+	 */
+	void avisar() {
+		if (!cerrado && avisos.getAndIncrement() == 0) {
+			envio.execute(this::drenar);
+		}
+	}
+
+	void cerrar() {
+		cerrado = true;
+	}
+
+	/**
+	 * Revisión periódica del emisor.
+	 *
+	 * @param ahora              Valor actual de {@link System#nanoTime()}.
+	 * @param intervaloLatidoNanos Inactividad tras la cual se envía un latido.
+	 * @return true si el envío en curso superó el límite y el cliente se cerró.
+	 */
+	boolean revisar(long ahora, long intervaloLatidoNanos) {
+		if (cerrado) {
+			return false;
+		}
+		long inicioEnvio = inicioEnvioNanos;
+		if (inicioEnvio != 0 && ahora - inicioEnvio > limiteTiempoEnvioNanos) {
+			log.warn("Cliente SSE lento: envío en curso desde hace {} ms. Se desconecta.",
+					TimeUnit.NANOSECONDS.toMillis(ahora - inicioEnvio));
+			vencido = true;
+			cerrado = true;
+			// Desbloquea la escritura; el emisor lo termina el drenado, que tiene su monitor
+			Thread hilo = hiloEnvio;
+			if (hilo != null) {
+				hilo.interrupt();
+			}
+			return true;
+		}
+		if (inicioEnvio == 0 && ahora - ultimoEnvioNanos >= intervaloLatidoNanos) {
+			latidoPendiente.set(true);
+			avisar();
+		}
+		return false;
+	}
+
+	private void drenar() {
+		hiloEnvio = Thread.currentThread();
+		try {
+			int vistos;
+			do {
+				vistos = avisos.get();
+				enviarPendientes();
+			} while (avisos.addAndGet(-vistos) != 0);
+		} finally {
+			hiloEnvio = null;
+			if (vencido) {
+				emitter.complete();
+			}
+		}
+	}
+
+	private void enviarPendientes() {
+		try {
+			if (latidoPendiente.getAndSet(false) && !cerrado) {
+				enviar(SseEmitter.event().comment(COMENTARIO_LATIDO));
+			}
+			while (!cerrado) {
+				List<Entrada<NotificacionRegistrada>> entradas = anillo.leerDesde(ultimoEnviado, LOTE_LECTURA);
+				if (entradas == null) {
+					resincronizar();
+					continue;
+				}
+				if (entradas.isEmpty()) {
+					return;
+				}
+				for (Entrada<NotificacionRegistrada> entrada : entradas) {
+					NotificacionRegistrada notificacion = entrada.valor();
+					if (acepta(notificacion)) {
+						enviar(SseEmitter.event().id(Long.toString(entrada.id()))
+								.name(notificacion.eventType()).data(notificacion.frame().mensaje().getPayload()));
+					}
+					ultimoEnviado = entrada.id();
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			// El cliente se desconectó o el emisor ya terminó
+			log.debug("No se pudo enviar al cliente SSE: {}", e.getMessage());
+			cerrado = true;
+			emitter.completeWithError(e);
+		}
+	}
+
+	/**
+	 * Los eventos que siguen al último enviado ya no están en memoria: se le
+	 * indica al cliente cuántos perdió, para que recargue su estado por los
+	 * endpoints de consulta, y la entrega continúa desde el evento más antiguo
+	 * disponible. El aviso lleva el ID anterior a ese evento, para que una
+	 * reconexión no vuelva a pedir el tramo perdido.
+	 */
+	private void resincronizar() throws IOException {
+		long primero = anillo.getPrimerIdDisponible();
+		long perdidos = Math.max(0, primero - 1 - ultimoEnviado);
+		ultimoEnviado = primero - 1;
+		resincronizaciones.increment();
+		log.info("Cliente SSE fuera del registro de reproducción; se reanuda desde el evento {} ({} perdidos).",
+				primero, perdidos);
+		enviar(SseEmitter.event().id(Long.toString(ultimoEnviado)).name(EVENT_TYPE_RESINCRONIZAR)
+				.data(Map.of("eventos_perdidos", perdidos)));
+	}
+
+	private void enviar(SseEmitter.SseEventBuilder evento) throws IOException {
+		inicioEnvioNanos = System.nanoTime();
+		try {
+			emitter.send(evento);
+		} finally {
+			ultimoEnvioNanos = System.nanoTime();
+			inicioEnvioNanos = 0;
+		}
+	}
+
+	private boolean acepta(NotificacionRegistrada notificacion) {
+		return (dispositivos.isEmpty() || dispositivos.contains(notificacion.dispositivo()))
+				&& (eventos.isEmpty() || eventos.contains(notificacion.eventType()));
+	}
+}
@@ -0,0 +1,174 @@
+package org.axolotlj.iotcart.sse;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.util.AnilloReproduccion;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones.NotificacionRegistrada;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Transmite las notificaciones de eventos IoT por Server-Sent Events, para los
+ * monitores que no pueden usar '/ws/iot-events' (por ejemplo, detrás de
+ * proxies que cortan WebSockets).
+ * <p>
+ * El ID de cada evento es la secuencia de la notificación en el
+ * {@link RegistroNotificaciones} y sus datos son el mismo JSON del frame
+ * WebSocket. Un cliente que se reconecta con {@code Last-Event-ID} recibe desde
+ * ese registro los eventos que se perdió, sin consultar la base de datos.
+ * <p>
+ * Cada cliente envía en su propio hilo virtual (ver {@link ClienteSse}). Un
+ * hilo de vigilancia revisa cada mitad de {@code limiteTiempoEnvioMs} (o cada
+ * {@code intervaloLatidoMs}, si es menor) los envíos en curso, para
+ * desconectar a los clientes atascados, y envía los latidos.
+ */
+@Component
+public class EmisorEventosSse {
+
+	private static final Logger log = LogManager.getLogger(EmisorEventosSse.class);
+
+	private final boolean habilitado;
+	private final long tiempoEsperaMs;
+	private final long limiteTiempoEnvioMs;
+	private final long intervaloLatidoNanos;
+	private final AnilloReproduccion<NotificacionRegistrada> anillo;
+	private final Set<ClienteSse> clientes = ConcurrentHashMap.newKeySet();
+	private final ExecutorService envio;
+	private final ScheduledExecutorService vigilancia;
+	private final Counter resincronizaciones;
+	private final Counter desconexionesLentas;
+
+	@Autowired
+	public EmisorEventosSse(RegistroNotificaciones registroNotificaciones, MeterRegistry meterRegistry,
+			@Value("${iotcart.sse.habilitado}") boolean habilitado,
+			@Value("${iotcart.sse.tiempo-espera-ms}") long tiempoEsperaMs,
+			@Value("${iotcart.sse.envio.limite-tiempo-ms}") long limiteTiempoEnvioMs,
+			@Value("${iotcart.sse.latido-ms}") long intervaloLatidoMs) {
+		this.habilitado = habilitado;
+		this.tiempoEsperaMs = tiempoEsperaMs;
+		this.limiteTiempoEnvioMs = limiteTiempoEnvioMs;
+		this.intervaloLatidoNanos = TimeUnit.MILLISECONDS.toNanos(intervaloLatidoMs);
+		this.anillo = registroNotificaciones.getAnillo();
+		// Un envío bloqueado por un cliente lento ocupa solo su propio hilo virtual
+		this.envio = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-envio-", 0).factory());
+
+		Gauge.builder("iotcart.sse.clientes.activos", clientes, Set::size)
+				.description("Clientes SSE conectados").register(meterRegistry);
+		this.resincronizaciones = Counter.builder("iotcart.sse.resincronizaciones")
+				.description("Clientes SSE que pidieron eventos que ya no estaban en el registro de reproducción")
+				.register(meterRegistry);
+		this.desconexionesLentas = Counter.builder("iotcart.sse.desconexiones.lentas")
+				.description("Clientes SSE desconectados por un envío que superó el límite de tiempo")
+				.register(meterRegistry);
+
+		long intervaloRevisionMs = Math.max(Math.min(limiteTiempoEnvioMs / 2, intervaloLatidoMs), 1);
+		this.vigilancia = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("sse-vigilancia").daemon(true).factory());
+		this.vigilancia.scheduleWithFixedDelay(this::revisarClientes, intervaloRevisionMs, intervaloRevisionMs,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return false si el endpoint SSE está deshabilitado.
+	 */
+	public boolean isHabilitado() {
+		return habilitado;
+	}
+
+	/**
+	 * Avisa a los clientes conectados que hay notificaciones nuevas en el
+	 * registro. No espera a la red.
+	 */
+	public void avisar() {
+		for (ClienteSse cliente : clientes) {
+			cliente.avisar();
+		}
+	}
+
+	/**
+	 * Conecta un cliente nuevo.
+	 *
+	 * @param ultimoId     El {@code Last-Event-ID} del cliente, o null si es su
+	 *                     primera conexión (solo recibe eventos nuevos).
+	 * @param dispositivos Dispositivos que desea recibir (null o vacío: todos).
+	 * @param eventos      Tipos de evento que desea recibir (null o vacío:
+	 *                     todos).
+	 * @return El emisor de la respuesta.
+	 */
+	public SseEmitter conectar(Long ultimoId, Collection<String> dispositivos, Collection<String> eventos) {
+		SseEmitter emitter = new SseEmitter(tiempoEsperaMs);
+		long ultimoRecibido = ultimoId != null ? ultimoId : anillo.getUltimoId();
+		ClienteSse cliente = new ClienteSse(emitter, anillo, envio, resincronizaciones, limiteTiempoEnvioMs,
+				ultimoRecibido,
+				dispositivos == null ? Set.of() : Set.copyOf(dispositivos),
+				eventos == null ? Set.of() : Set.copyOf(eventos));
+		emitter.onCompletion(() -> desconectar(cliente));
+		emitter.onTimeout(() -> desconectar(cliente));
+		emitter.onError(e -> desconectar(cliente));
+		clientes.add(cliente);
+		log.info("Nuevo cliente SSE conectado [Last-Event-ID: {}, Pendientes: {}]", ultimoId,
+				Math.max(0, anillo.getUltimoId() - ultimoRecibido));
+		// Envía la reproducción, si hay algo pendiente
+		cliente.avisar();
+		return emitter;
+	}
+
+	/**
+	 * @return El número de clientes SSE conectados.
+	 */
+	public int getClientesActivos() {
+		return clientes.size();
+	}
+
+	/**
+	 * Detiene la vigilancia y el executor de envío al cerrar la aplicación.
+	 */
+	@PreDestroy
+	public void detener() {
+		vigilancia.shutdownNow();
+		envio.shutdownNow();
+	}
+
+	/**
+	 * Desconecta a los clientes con un envío en curso desde hace más del límite
+	 * y envía un latido a los que llevan {@code intervaloLatidoMs} sin recibir
+	 * nada.
+	 */
+	private void revisarClientes() {
+		try {
+			long ahora = System.nanoTime();
+			for (ClienteSse cliente : clientes) {
+				if (cliente.revisar(ahora, intervaloLatidoNanos)) {
+					desconexionesLentas.increment();
+					desconectar(cliente);
+				}
+			}
+		} catch (RuntimeException e) {
+			// Una excepción cancelaría la revisión periódica
+			log.error("Error al revisar los clientes SSE", e);
+		}
+	}
+
+	private void desconectar(ClienteSse cliente) {
+		cliente.cerrar();
+		if (clientes.remove(cliente)) {
+			log.info("Cliente SSE desconectado.");
+		}
+	}
+}
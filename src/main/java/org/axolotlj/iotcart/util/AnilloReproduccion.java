@@ -0,0 +1,110 @@
+package org.axolotlj.iotcart.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registro de reproducción acotado y sin locks: guarda las últimas
+ * {@code capacidad} entradas publicadas, cada una con un ID creciente, para
+ * que un consumidor que se atrasó o se reconectó las lea a partir del último ID
+ * que recibió.
+ * <p>
+ * Cada entrada recibe su ID con {@code incrementAndGet} y se publica en la
+ * ranura {@code id % capacidad}. Al leer, una ranura con un ID menor al
+ * esperado todavía no se ha publicado (la lectura se detiene ahí y el
+ * publicador avisará después) y una con un ID mayor ya fue sobrescrita: ese
+ * tramo se perdió para el consumidor.
+ * <p>
+ * Los IDs empiezan después de {@code idInicial}. Si se deriva del reloj al
+ * arrancar, los IDs de una ejecución anterior quedan por debajo del primero
+ * disponible y se reconocen como perdidos en lugar de confundirse con otros.
+ *
+ * @param <T> El tipo de valor almacenado.
+ */
+public final class AnilloReproduccion<T> {
+
+	/**
+	 * Un valor publicado con su ID.
+	 */
+	public record Entrada<T>(long id, T valor) {
+	}
+
+	private final int capacidad;
+	private final long idInicial;
+	private final AtomicReferenceArray<Entrada<T>> ranuras;
+	private final AtomicLong ultimoId;
+
+	public AnilloReproduccion(int capacidad, long idInicial) {
+		this.capacidad = capacidad;
+		this.idInicial = idInicial;
+		this.ranuras = new AtomicReferenceArray<>(capacidad);
+		this.ultimoId = new AtomicLong(idInicial);
+	}
+
+	public int getCapacidad() {
+		return capacidad;
+	}
+
+	/**
+	 * @return El ID asignado más recientemente (puede estar aún sin publicar),
+	 *         o {@code idInicial} si no hay ninguno.
+	 */
+	public long getUltimoId() {
+		return ultimoId.get();
+	}
+
+	/**
+	 * @return El ID más antiguo que todavía se puede leer.
+	 */
+	public long getPrimerIdDisponible() {
+		return Math.max(idInicial + 1, ultimoId.get() - capacidad + 1);
+	}
+
+	/**
+	 * Publica un valor como el más reciente.
+	 *
+	 * @return Su ID.
+	 */
+	public long agregar(T valor) {
+		long id = ultimoId.incrementAndGet();
+		ranuras.set(indice(id), new Entrada<>(id, valor));
+		return id;
+	}
+
+	/**
+	 * Lee las entradas publicadas que siguen a {@code despuesDeId}, en orden y
+	 * sin huecos.
+	 *
+	 * @param maximo Cantidad máxima de entradas a devolver.
+	 * @return Las entradas (vacía si no hay nuevas), o null si la siguiente a
+	 *         {@code despuesDeId} ya fue sobrescrita o es de otra ejecución.
+	 */
+	public List<Entrada<T>> leerDesde(long despuesDeId, int maximo) {
+		long siguiente = despuesDeId + 1;
+		long ultimo = ultimoId.get();
+		if (siguiente < getPrimerIdDisponible() || despuesDeId > ultimo) {
+			return null;
+		}
+		long fin = Math.min(ultimo, despuesDeId + maximo);
+		List<Entrada<T>> entradas = new ArrayList<>((int) Math.max(0, fin - despuesDeId));
+		for (long id = siguiente; id <= fin; id++) {
+			Entrada<T> entrada = ranuras.get(indice(id));
+			if (entrada == null || entrada.id() < id) {
+				// Entrada en vuelo: su publicador aún no la escribe
+				break;
+			}
+			if (entrada.id() > id) {
+				// Los publicadores dieron la vuelta al anillo durante la lectura
+				return entradas.isEmpty() ? null : entradas;
+			}
+			entradas.add(entrada);
+		}
+		return entradas;
+	}
+
+	private int indice(long id) {
+		return (int) Math.floorMod(id, (long) capacidad);
+	}
+}
@@ -0,0 +1,70 @@
+package org.axolotlj.iotcart.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.axolotlj.iotcart.exception.CoordenadaInvalidaException;
+
+/**
+ * Conversión de coordenadas decimales a enteros de punto fijo.
+ * <p>
+ * Se usa el formato E7 (grados multiplicados por 10^7, resolución ~1 cm): una
+ * latitud o longitud válida (±180°) cabe en un {@code int} y se serializa como
+ * un número entero, sin pasar por {@link BigDecimal}. Las coordenadas de un
+ * evento se validan con {@link #validar(BigDecimal, BigDecimal)} antes de
+ * llegar a la base de datos.
+ */
+public final class CoordenadaFija {
+
+    /**
+     * Factor de escala del formato E7.
+     */
+    public static final int ESCALA_E7 = 7;
+
+    private static final BigDecimal LATITUD_MAXIMA = BigDecimal.valueOf(90);
+    private static final BigDecimal LONGITUD_MAXIMA = BigDecimal.valueOf(180);
+
+    private CoordenadaFija() {
+    }
+
+    /**
+     * Verifica que la latitud esté en [-90, 90] y la longitud en [-180, 180].
+     * Cualquiera de las dos puede omitirse.
+     *
+     * @param latitud  La latitud en grados (puede ser null).
+     * @param longitud La longitud en grados (puede ser null).
+     * @throws CoordenadaInvalidaException si alguna está fuera de rango.
+     */
+    public static void validar(BigDecimal latitud, BigDecimal longitud) {
+        if (latitud != null && latitud.abs().compareTo(LATITUD_MAXIMA) > 0) {
+            throw new CoordenadaInvalidaException("latitud", latitud, LATITUD_MAXIMA.intValue());
+        }
+        if (longitud != null && longitud.abs().compareTo(LONGITUD_MAXIMA) > 0) {
+            throw new CoordenadaInvalidaException("longitud", longitud, LONGITUD_MAXIMA.intValue());
+        }
+    }
+
+    /**
+     * Convierte grados decimales a E7, redondeando al entero más cercano. La
+     * coordenada debe haber pasado por {@link #validar(BigDecimal, BigDecimal)}.
+     *
+     * @param grados La coordenada en grados (puede ser null).
+     * @return La coordenada en E7, o null si no se recibió.
+     */
+    public static Integer aE7(BigDecimal grados) {
+        if (grados == null) {
+            return null;
+        }
+        return grados.movePointRight(ESCALA_E7).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    /**
+     * Convierte una coordenada E7 de vuelta a grados decimales.
+     *
+     * @param e7 La coordenada en E7 (puede ser null).
+     * @return La coordenada en grados, o null si no se recibió.
+     */
+    public static BigDecimal desdeE7(Integer e7) {
+        return e7 == null ? null : BigDecimal.valueOf(e7, ESCALA_E7);
+    }
+}
@@ -0,0 +1,49 @@
+package org.axolotlj.iotcart.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.axolotlj.iotcart.exception.CursorInvalidoException;
+
+/**
+ * Posición de un evento en el historial de un dispositivo, ordenado por
+ * {@code (fecha_evento, id_evento)} descendente. La página siguiente empieza
+ * en el primer evento estrictamente anterior a esta posición (paginación por
+ * clave, sin OFFSET).
+ * <p>
+ * Se entrega al cliente como texto opaco: {@code fecha|id} en Base64 URL-safe.
+ *
+ * @param fechaEvento Fecha del último evento entregado.
+ * @param idEvento    ID del último evento entregado.
+ */
+public record CursorHistorial(Timestamp fechaEvento, long idEvento) {
+
+	private static final char SEPARADOR = '|';
+
+	/**
+	 * @return El cursor codificado para el cliente.
+	 */
+	public String codificar() {
+		String texto = fechaEvento.toInstant().toString() + SEPARADOR + idEvento;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * @param cursor El cursor recibido del cliente.
+	 * @return La posición que representa.
+	 * @throws CursorInvalidoException Si el cursor no se puede interpretar.
+	 */
+	public static CursorHistorial decodificar(String cursor) {
+		try {
+			String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+			int separador = texto.lastIndexOf(SEPARADOR);
+			Instant fecha = Instant.parse(texto.substring(0, separador));
+			long id = Long.parseLong(texto.substring(separador + 1));
+			return new CursorHistorial(Timestamp.from(fecha), id);
+		} catch (RuntimeException e) {
+			throw new CursorInvalidoException(cursor, e);
+		}
+	}
+}
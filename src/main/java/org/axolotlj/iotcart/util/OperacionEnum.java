@@ -1,6 +1,5 @@
 package org.axolotlj.iotcart.util;
 
-import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -25,6 +24,19 @@ public enum OperacionEnum {
     GIRO_360_DERECHA(10, "Giro 360° derecha", "GIRO_360_DER"),
     GIRO_360_IZQUIERDA(11, "Giro 360° izquierda", "GIRO_360_IZQ");
 
+    /**
+     * ID devuelto por {@link #resolverId(String)} cuando el texto no corresponde a ninguna operación.
+     */
+    public static final int ID_DESCONOCIDO = 0;
+
+    private static final OperacionEnum[] POR_ID = new OperacionEnum[values().length + 1];
+
+    static {
+        for (OperacionEnum op : values()) {
+            POR_ID[op.id] = op;
+        }
+    }
+
     private final int id;
     private final String descripcion;
     private final String codigoProtocolo;
@@ -46,29 +58,58 @@ public enum OperacionEnum {
         return id;
     }
 
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public String getCodigoProtocolo() {
+        return codigoProtocolo;
+    }
+
+    /**
+     * Resuelve el ID de una operación comparando contra la descripción, el código de protocolo o el nombre del enum.
+     * Es insensible a mayúsculas y minúsculas y no crea objetos cuando el texto se reconoce.
+     *
+     * @param texto El texto a buscar (ej. "VUELTA_ADELANTE_DER" o "Vuelta adelante derecha").
+     * @return El ID numérico, o {@link #ID_DESCONOCIDO} si no hay coincidencia.
+     */
+    public static int resolverId(String texto) {
+        OperacionEnum op = ResolutorOperacion.resolver(texto);
+        return op != null ? op.id : ID_DESCONOCIDO;
+    }
+
+    /**
+     * Busca la operación por su ID numérico, el que envían los dispositivos en
+     * el formato compacto.
+     *
+     * @param id El ID de la operación.
+     * @return La operación, o null si el ID no corresponde a ninguna.
+     */
+    public static OperacionEnum desdeId(int id) {
+        return id > 0 && id < POR_ID.length ? POR_ID[id] : null;
+    }
+
     /**
      * Busca el ID de una operación comparando contra la descripción, el código de protocolo o el nombre del enum.
      * Es insensible a mayúsculas y minúsculas.
      *
      * @param texto El texto a buscar (ej. "VUELTA_ADELANTE_DER" o "Vuelta adelante derecha").
      * @return Un Optional con el ID numérico si se encuentra coincidencia.
+     * @see #resolverId(String)
      */
     public static Optional<Integer> obtenerIdPorTexto(String texto) {
-        if (texto == null || texto.trim().isEmpty()) {
-            return Optional.empty();
-        }
-        String textoNormalizado = texto.trim();
+        int id = resolverId(texto);
+        return id != ID_DESCONOCIDO ? Optional.of(id) : Optional.empty();
+    }
 
-        return Arrays.stream(values())
-                .filter(op -> 
-                    // 1. Comparar con el código de protocolo (Prioridad Frontend: "VUELTA_ADELANTE_DER")
-                    op.codigoProtocolo.equalsIgnoreCase(textoNormalizado) ||
-                    // 2. Comparar con la descripción (Prioridad BD: "Vuelta adelante derecha")
-                    op.descripcion.equalsIgnoreCase(textoNormalizado) ||
-                    // 3. Comparar con el nombre de la constante (Fallback)
-                    op.name().equalsIgnoreCase(textoNormalizado)
-                )
-                .map(OperacionEnum::getId)
-                .findFirst();
+    /**
+     * Busca la operación comparando contra la descripción, el código de protocolo o el nombre del enum.
+     * Es insensible a mayúsculas y minúsculas.
+     *
+     * @param texto El texto a buscar (ej. "VUELTA_ADELANTE_DER" o "Vuelta adelante derecha").
+     * @return Un Optional con la operación si se encuentra coincidencia.
+     */
+    public static Optional<OperacionEnum> buscarPorTexto(String texto) {
+        return Optional.ofNullable(ResolutorOperacion.resolver(texto));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package org.axolotlj.iotcart.util;
+
+/**
+ * Tabla precalculada para resolver el texto de una operación (código de
+ * protocolo, descripción o nombre del enum) en O(1).
+ * <p>
+ * Es una tabla de direccionamiento abierto cuyas claves se comparan sin
+ * distinguir mayúsculas, con la misma regla que {@link String#equalsIgnoreCase}.
+ * El hash se calcula carácter por carácter sobre el texto sin espacios en los
+ * extremos, por lo que resolver un texto conocido no crea ningún objeto.
+ */
+final class ResolutorOperacion {
+
+    /**
+     * Tamaño de la tabla (potencia de dos, al menos el doble de las claves).
+     */
+    private static final int TAMANO_TABLA = 128;
+    private static final int MASCARA = TAMANO_TABLA - 1;
+
+    private static final String[] CLAVES = new String[TAMANO_TABLA];
+    private static final OperacionEnum[] OPERACIONES = new OperacionEnum[TAMANO_TABLA];
+
+    static {
+        // Se registran en el orden del enum; ante una clave repetida gana la primera
+        // constante, igual que la búsqueda lineal original
+        for (OperacionEnum op : OperacionEnum.values()) {
+            registrar(op.getCodigoProtocolo(), op);
+            registrar(op.getDescripcion(), op);
+            registrar(op.name(), op);
+        }
+    }
+
+    private ResolutorOperacion() {
+    }
+
+    /**
+     * @param texto El texto a resolver (puede ser null o tener espacios en los
+     *              extremos).
+     * @return La operación, o null si no hay coincidencia.
+     */
+    static OperacionEnum resolver(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        int inicio = 0;
+        int fin = texto.length();
+        while (inicio < fin && texto.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && texto.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        int longitud = fin - inicio;
+        if (longitud == 0) {
+            return null;
+        }
+
+        for (int i = hash(texto, inicio, fin) & MASCARA;; i = (i + 1) & MASCARA) {
+            String clave = CLAVES[i];
+            if (clave == null) {
+                return null;
+            }
+            if (clave.length() == longitud && clave.regionMatches(true, 0, texto, inicio, longitud)) {
+                return OPERACIONES[i];
+            }
+        }
+    }
+
+    private static void registrar(String clave, OperacionEnum op) {
+        for (int i = hash(clave, 0, clave.length()) & MASCARA;; i = (i + 1) & MASCARA) {
+            if (CLAVES[i] == null) {
+                CLAVES[i] = clave;
+                OPERACIONES[i] = op;
+                return;
+            }
+            if (CLAVES[i].equalsIgnoreCase(clave)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hash insensible a mayúsculas: dos textos iguales según
+     * {@link String#equalsIgnoreCase} producen el mismo valor.
+     */
+    private static int hash(String texto, int inicio, int fin) {
+        int h = 0;
+        for (int i = inicio; i < fin; i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(texto.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,113 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Conflación por dispositivo de las notificaciones de movimiento.
+ * <p>
+ * Un carro manejado a mano puede enviar varios movimientos por segundo. Con la
+ * conflación habilitada, cada movimiento queda pendiente hasta el siguiente
+ * tick de {@code iotcart.notificaciones.conflacion.intervalo-ms}; si en ese
+ * intervalo llega otro del mismo dispositivo, reemplaza al anterior, que nunca
+ * se transmite. Así cada dispositivo genera a lo sumo una notificación de
+ * movimiento por tick, sin importar la frecuencia con la que publique. Los
+ * movimientos se siguen guardando todos en la base de datos; solo se conflan
+ * las notificaciones.
+ * <p>
+ * El resto de las notificaciones no pasa por aquí, por lo que un obstáculo
+ * puede llegar a los monitores antes que un movimiento anterior del mismo
+ * dispositivo que todavía espera su tick.
+ */
+@Component
+public class ConflacionMovimientos {
+
+	private static final Logger log = LogManager.getLogger(ConflacionMovimientos.class);
+
+	private final boolean habilitada;
+	private final Map<String, Runnable> pendientes = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService tick;
+	private final Counter conflados;
+
+	@Autowired
+	public ConflacionMovimientos(MeterRegistry meterRegistry,
+			@Value("${iotcart.notificaciones.conflacion.habilitada}") boolean habilitada,
+			@Value("${iotcart.notificaciones.conflacion.intervalo-ms}") long intervaloMs) {
+		this.habilitada = habilitada;
+		this.conflados = Counter.builder("iotcart.notificaciones.conflacion.reemplazadas")
+				.description("Notificaciones de movimiento reemplazadas por una más reciente del mismo dispositivo")
+				.register(meterRegistry);
+		if (!habilitada) {
+			this.tick = null;
+			return;
+		}
+		this.tick = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("iot-conflacion").daemon(true).factory());
+		this.tick.scheduleAtFixedRate(this::emitir, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+		log.info("Conflación de movimientos habilitada [intervalo: {} ms]", intervaloMs);
+	}
+
+	/**
+	 * @return false si las notificaciones de movimiento se transmiten sin
+	 *         conflar.
+	 */
+	public boolean isHabilitada() {
+		return habilitada;
+	}
+
+	/**
+	 * Deja pendiente la transmisión del movimiento de un dispositivo hasta el
+	 * siguiente tick, reemplazando la que ya estuviera pendiente.
+	 *
+	 * @param dispositivo El {@code nombreDispositivo} del movimiento.
+	 * @param transmitir  Transmite la notificación; se invoca en el hilo del
+	 *                    tick.
+	 */
+	public void ofrecer(String dispositivo, Runnable transmitir) {
+		if (pendientes.put(dispositivo, transmitir) != null) {
+			conflados.increment();
+		}
+	}
+
+	/**
+	 * Transmite la última notificación pendiente de cada dispositivo.
+	 */
+	private void emitir() {
+		for (String dispositivo : pendientes.keySet()) {
+			Runnable transmitir = pendientes.remove(dispositivo);
+			if (transmitir == null) {
+				continue;
+			}
+			try {
+				transmitir.run();
+			} catch (RuntimeException e) {
+				// Una excepción cancelaría los ticks siguientes
+				log.error("No se pudo transmitir el movimiento conflado [Dispositivo: {}]", dispositivo, e);
+			}
+		}
+	}
+
+	/**
+	 * Detiene el tick al cerrar la aplicación; los movimientos pendientes no se
+	 * transmiten.
+	 */
+	@PreDestroy
+	public void detener() {
+		if (tick != null) {
+			tick.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package org.axolotlj.iotcart.websocket;
+
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * Frame WebSocket de una notificación transmitida junto con su número de
+ * secuencia, para que una sesión que se está reanudando descarte los frames
+ * que ya recibió por la reproducción.
+ *
+ * @param mensaje   El frame, compartido por todas las sesiones.
+ * @param secuencia El número de secuencia global de la notificación.
+ */
+public record FrameNotificacion(TextMessage mensaje, long secuencia) {
+}
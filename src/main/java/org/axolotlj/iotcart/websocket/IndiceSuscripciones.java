@@ -0,0 +1,148 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Índice de tema a sesiones de un shard.
+ * <p>
+ * Las sesiones sin filtro de dispositivo viven en {@code todosDispositivos};
+ * las que filtran por dispositivo se indexan bajo cada {@code nombreDispositivo}
+ * suscrito. Para un evento solo se recorren esos dos grupos, y el filtro por
+ * tipo de evento se resuelve con una búsqueda en el conjunto de la sesión.
+ * Las lecturas no toman candado; las altas, bajas y cambios de suscripción se
+ * serializan con un candado del índice. Un cambio de suscripción agrega las
+ * entradas nuevas antes de quitar las que ya no usa, para que una lectura
+ * concurrente nunca deje de ver a la sesión en un tema que conserva.
+ */
+final class IndiceSuscripciones {
+
+	private final Set<SesionMonitor> todosDispositivos = ConcurrentHashMap.newKeySet();
+	private final Map<String, Set<SesionMonitor>> porDispositivo = new ConcurrentHashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+
+	void agregar(SesionMonitor monitor) {
+		lock.lock();
+		try {
+			indexar(monitor, monitor.getSuscripcion());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void quitar(SesionMonitor monitor) {
+		lock.lock();
+		try {
+			desindexar(monitor, monitor.getSuscripcion());
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Reemplaza la suscripción de la sesión y mueve sus entradas en el índice.
+	 * Debe invocarse en el hilo de reparto del shard, para que {@link #repartir}
+	 * no vea a la sesión a la vez en las entradas anteriores y en las nuevas.
+	 */
+	void actualizar(SesionMonitor monitor, Suscripcion nueva) {
+		lock.lock();
+		try {
+			Suscripcion anterior = monitor.getSuscripcion();
+			indexar(monitor, nueva);
+			monitor.setSuscripcion(nueva);
+			desindexarSobrantes(monitor, anterior, nueva);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return true si al menos una sesión del shard recibiría el evento.
+	 */
+	boolean hayDestinatarios(String eventType, String dispositivo) {
+		for (SesionMonitor monitor : todosDispositivos) {
+			if (monitor.getSuscripcion().aceptaEvento(eventType)) {
+				return true;
+			}
+		}
+		Set<SesionMonitor> suscritos = dispositivo == null ? null : porDispositivo.get(dispositivo);
+		if (suscritos != null) {
+			for (SesionMonitor monitor : suscritos) {
+				if (monitor.getSuscripcion().aceptaEvento(eventType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Deja el mensaje en el buffer de cada sesión suscrita al evento.
+	 */
+	void repartir(String eventType, String dispositivo, FrameNotificacion frame) {
+		for (SesionMonitor monitor : todosDispositivos) {
+			if (monitor.getSuscripcion().aceptaEvento(eventType)) {
+				monitor.encolar(frame);
+			}
+		}
+		Set<SesionMonitor> suscritos = dispositivo == null ? null : porDispositivo.get(dispositivo);
+		if (suscritos != null) {
+			for (SesionMonitor monitor : suscritos) {
+				if (monitor.getSuscripcion().aceptaEvento(eventType)) {
+					monitor.encolar(frame);
+				}
+			}
+		}
+	}
+
+	private void indexar(SesionMonitor monitor, Suscripcion suscripcion) {
+		if (!suscripcion.filtraDispositivos()) {
+			todosDispositivos.add(monitor);
+			return;
+		}
+		for (String dispositivo : suscripcion.dispositivos()) {
+			porDispositivo.computeIfAbsent(dispositivo, d -> ConcurrentHashMap.newKeySet()).add(monitor);
+		}
+	}
+
+	private void desindexar(SesionMonitor monitor, Suscripcion suscripcion) {
+		if (!suscripcion.filtraDispositivos()) {
+			todosDispositivos.remove(monitor);
+			return;
+		}
+		for (String dispositivo : suscripcion.dispositivos()) {
+			quitarDeDispositivo(monitor, dispositivo);
+		}
+	}
+
+	/**
+	 * Quita las entradas de la suscripción {@code anterior} que {@code nueva} ya
+	 * no usa.
+	 */
+	private void desindexarSobrantes(SesionMonitor monitor, Suscripcion anterior, Suscripcion nueva) {
+		if (!anterior.filtraDispositivos()) {
+			if (nueva.filtraDispositivos()) {
+				todosDispositivos.remove(monitor);
+			}
+			return;
+		}
+		for (String dispositivo : anterior.dispositivos()) {
+			if (!nueva.dispositivos().contains(dispositivo)) {
+				quitarDeDispositivo(monitor, dispositivo);
+			}
+		}
+	}
+
+	private void quitarDeDispositivo(SesionMonitor monitor, String dispositivo) {
+		Set<SesionMonitor> suscritos = porDispositivo.get(dispositivo);
+		if (suscritos != null) {
+			suscritos.remove(monitor);
+			if (suscritos.isEmpty()) {
+				porDispositivo.remove(dispositivo);
+			}
+		}
+	}
+}
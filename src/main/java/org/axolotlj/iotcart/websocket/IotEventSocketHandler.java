@@ -1,29 +1,199 @@
 package org.axolotlj.iotcart.websocket;
 
-import java.io.IOException;
+import java.net.URI;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor.Fase;
+import org.axolotlj.iotcart.util.AnilloReproduccion;
+import org.axolotlj.iotcart.util.AnilloReproduccion.Entrada;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones.NotificacionRegistrada;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Maneja las conexiones WebSocket para el monitoreo de eventos IoT en tiempo
  * real.
+ * <p>
+ * Cada sesión tiene su propio buffer de salida ({@link SesionMonitor}) que se
+ * drena de forma asíncrona, de modo que un monitor lento no agrega latencia al
+ * hilo que atiende la petición del dispositivo. Un hilo de vigilancia revisa
+ * cada mitad de {@code limiteTiempoEnvioMs} los envíos en curso, para cerrar
+ * también las sesiones atascadas que ya no reciben notificaciones. Los cierres
+ * corren cada uno en su propio hilo, para que no esperen a los hilos de envío
+ * que están bloqueados justo en esos clientes.
+ * <p>
+ * Las sesiones se reparten en {@link ShardSesiones} por hash de su ID. Cada
+ * shard reparte en su propio executor de un solo hilo, en paralelo con los
+ * demás. El reparto nunca se hace en el hilo que publica, ni siquiera con
+ * pocas sesiones: si una notificación pudiera ir directo al buffer mientras la
+ * anterior espera en el executor, la adelantaría en la misma sesión.
+ * <p>
+ * Los monitores pueden suscribirse a dispositivos y/o tipos de evento enviando
+ * un {@link SuscripcionRequest}. Las notificaciones se enrutan por el índice de
+ * suscripciones de cada shard.
+ * <p>
+ * Cada notificación lleva su número de {@code secuencia} global (ver
+ * {@link RegistroNotificaciones}). Un monitor que se reconecta con
+ * {@code /ws/iot-events?reanudar=<última secuencia recibida>} recibe primero,
+ * desde memoria, las notificaciones que se perdió y luego las nuevas, sin
+ * repetir ninguna. Si ya no están en memoria (o no caben en su buffer de
+ * salida), recibe un {@value #EVENT_TYPE_RESINCRONIZAR} con la secuencia
+ * actual y debe recargar su estado por los endpoints de consulta. La
+ * suscripción también se puede dar al conectar, con {@code dispositivos} y
+ * {@code eventos} separados por comas, para que la reproducción ya venga
+ * filtrada.
  */
 @Component
 public class IotEventSocketHandler extends TextWebSocketHandler {
 
 	private static final Logger log = LogManager.getLogger(IotEventSocketHandler.class);
 
-	// Lista segura para concurrencia de sesiones (monitores conectados)
-	private final List<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+	private static final String TAG_SESION = "sesion";
+
+	private static final String EVENT_TYPE_SUSCRIPCION = "SUSCRIPCION_ACTUALIZADA";
+	private static final String EVENT_TYPE_ERROR = "ERROR";
+	static final String EVENT_TYPE_RESINCRONIZAR = "RESINCRONIZAR";
+
+	static final String PARAM_REANUDAR = "reanudar";
+	static final String PARAM_DISPOSITIVOS = "dispositivos";
+	static final String PARAM_EVENTOS = "eventos";
+
+	// Shards de sesiones (monitores conectados), cada uno con su executor
+	private final ShardSesiones[] shards;
+	private final AtomicInteger totalSesiones = new AtomicInteger();
+	private final ScheduledExecutorService vigilanciaEnvios;
+	private final ExecutorService cierres;
+
+	private final MeterRegistry meterRegistry;
+	private final ObjectMapper objectMapper;
+	private final RegistroNotificaciones registroNotificaciones;
+	private final long limiteTiempoEnvioMs;
+	private final int limiteBufferBytes;
+	private final PoliticaDesborde politicaDesborde;
+
+	private final MetricasEnvio metricasEnvio;
+	private final Timer fanOut;
+	private final Counter reanudacionesReproducidas;
+	private final Counter reanudacionesResincronizadas;
+
+	/**
+	 * @param meterRegistry       Registro donde se publican las métricas de
+	 *                            sesiones, reparto, envío y retraso por sesión.
+	 * @param objectMapper        Para leer las suscripciones de los monitores.
+	 * @param registroNotificaciones De donde se reproducen las notificaciones
+	 *                            perdidas al reanudar una sesión.
+	 * @param numeroShards        Particiones de sesiones con executor propio.
+	 * @param limiteTiempoEnvioMs Tiempo máximo que puede durar un envío antes de
+	 *                            cerrar la sesión por lenta.
+	 * @param limiteBufferBytes   Bytes máximos pendientes por sesión.
+	 * @param politicaDesborde    Qué hacer al superar el límite del buffer.
+	 * @param hilosVirtuales      Si los hilos de reparto, envío y cierre son
+	 *                            virtuales (ver
+	 *                            {@code spring.threads.virtual.enabled}).
+	 */
+	@Autowired
+	public IotEventSocketHandler(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+			RegistroNotificaciones registroNotificaciones,
+			@Value("${iotcart.websocket.fanout.shards}") int numeroShards,
+			@Value("${iotcart.websocket.envio.limite-tiempo-ms}") long limiteTiempoEnvioMs,
+			@Value("${iotcart.websocket.envio.limite-buffer-bytes}") int limiteBufferBytes,
+			@Value("${iotcart.websocket.envio.politica-desborde}") PoliticaDesborde politicaDesborde,
+			@Value("${spring.threads.virtual.enabled}") boolean hilosVirtuales) {
+		this.meterRegistry = meterRegistry;
+		this.objectMapper = objectMapper;
+		this.registroNotificaciones = registroNotificaciones;
+		this.shards = new ShardSesiones[numeroShards];
+		for (int i = 0; i < numeroShards; i++) {
+			shards[i] = crearShard(i, hilosVirtuales);
+		}
+		this.cierres = hiloPorTarea(hilosVirtuales, "ws-cierre-");
+		this.limiteTiempoEnvioMs = limiteTiempoEnvioMs;
+		this.limiteBufferBytes = limiteBufferBytes;
+		this.politicaDesborde = politicaDesborde;
+
+		this.metricasEnvio = MetricasEnvio.registrar(meterRegistry);
+		Gauge.builder("iotcart.websocket.sesiones.activas", totalSesiones, AtomicInteger::get)
+				.description("Sesiones de monitoreo conectadas").register(meterRegistry);
+		this.fanOut = Timer.builder("iotcart.websocket.fanout")
+				.description("Tiempo para dejar una notificación en el buffer de todas las sesiones destinatarias")
+				.register(meterRegistry);
+		this.reanudacionesReproducidas = contadorReanudaciones(meterRegistry, "reproducida");
+		this.reanudacionesResincronizadas = contadorReanudaciones(meterRegistry, "resincronizada");
+
+		long intervaloRevisionMs = Math.max(limiteTiempoEnvioMs / 2, 1);
+		this.vigilanciaEnvios = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().name("ws-vigilancia-envios").daemon(true).factory());
+		this.vigilanciaEnvios.scheduleWithFixedDelay(this::revisarEnvios, intervaloRevisionMs, intervaloRevisionMs,
+				TimeUnit.MILLISECONDS);
+	}
+
+	private static Counter contadorReanudaciones(MeterRegistry meterRegistry, String resultado) {
+		return Counter.builder("iotcart.websocket.reanudaciones")
+				.description("Sesiones reconectadas con un token de reanudación").tag("resultado", resultado)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * El reparto sigue siendo secuencial para conservar el orden de las
+	 * notificaciones. El envío usa un hilo por drenado: como cada sesión tiene un
+	 * solo drenado activo, la concurrencia queda acotada por el número de
+	 * sesiones y un {@code sendMessage} bloqueado no retrasa a las demás
+	 * sesiones del shard. Con hilos virtuales, además, no ocupa un hilo de
+	 * plataforma; con hilos de plataforma, los hilos libres se reutilizan.
+	 */
+	private static ShardSesiones crearShard(int indice, boolean hilosVirtuales) {
+		return new ShardSesiones(
+				Executors.newSingleThreadExecutor(
+						hilos(hilosVirtuales).name("ws-shard-" + indice + "-reparto").factory()),
+				hiloPorTarea(hilosVirtuales, "ws-shard-" + indice + "-envio-"));
+	}
+
+	private static Thread.Builder hilos(boolean hilosVirtuales) {
+		return hilosVirtuales ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+	}
+
+	/**
+	 * Executor que nunca deja una tarea esperando a otra: un hilo virtual nuevo
+	 * por tarea o, con hilos de plataforma, uno libre del pool o uno nuevo.
+	 */
+	private static ExecutorService hiloPorTarea(boolean hilosVirtuales, String prefijo) {
+		ThreadFactory fabrica = hilos(hilosVirtuales).name(prefijo, 0).factory();
+		return hilosVirtuales ? Executors.newThreadPerTaskExecutor(fabrica) : Executors.newCachedThreadPool(fabrica);
+	}
 
 	/**
 	 * Se invoca después de que se establece una conexión WebSocket.
@@ -32,9 +202,108 @@ public class IotEventSocketHandler extends TextWebSocketHandler {
 	 */
 	@Override
 	public void afterConnectionEstablished(WebSocketSession session) {
-		sessions.add(session);
-		log.info("Nueva conexión WebSocket establecida: [ID: {}, RemoteAddress: {}]", session.getId(),
-				session.getRemoteAddress());
+		ShardSesiones shard = shardDe(session.getId());
+		SesionMonitor monitor = new SesionMonitor(session, shard.getEnvio(), cierres, limiteTiempoEnvioMs,
+				limiteBufferBytes, politicaDesborde, metricasEnvio);
+		monitor.setMedidores(registrarMetricas(monitor));
+		MultiValueMap<String, String> parametros = parametros(session.getUri());
+		monitor.setSuscripcion(Suscripcion.de(lista(parametros.get(PARAM_DISPOSITIVOS)),
+				lista(parametros.get(PARAM_EVENTOS))));
+		String reanudar = parametros.getFirst(PARAM_REANUDAR);
+		if (reanudar == null) {
+			shard.agregar(monitor);
+		} else {
+			reanudar(shard, monitor, reanudar);
+		}
+		totalSesiones.incrementAndGet();
+		log.info("Nueva conexión WebSocket establecida: [ID: {}, RemoteAddress: {}, Reanudar: {}]", session.getId(),
+				session.getRemoteAddress(), reanudar);
+	}
+
+	/**
+	 * Encola las notificaciones posteriores a la última que recibió el monitor
+	 * y luego agrega la sesión a su shard, sin que se registren notificaciones
+	 * mientras tanto: las anteriores llegan solo por la reproducción y las
+	 * siguientes solo en vivo.
+	 */
+	private void reanudar(ShardSesiones shard, SesionMonitor monitor, String token) {
+		long ultimaRecibida = secuencia(token);
+		boolean reproducida = registroNotificaciones.sinPublicaciones(() -> {
+			AnilloReproduccion<NotificacionRegistrada> anillo = registroNotificaciones.getAnillo();
+			long actual = anillo.getUltimoId();
+			List<TextMessage> perdidas = perdidas(anillo.leerDesde(ultimaRecibida, anillo.getCapacidad()),
+					monitor.getSuscripcion());
+			if (perdidas != null) {
+				monitor.reproducir(perdidas, actual);
+			} else {
+				monitor.reproducir(List.of(resincronizar(ultimaRecibida, actual)), actual);
+			}
+			shard.agregar(monitor);
+			return perdidas != null;
+		});
+		(reproducida ? reanudacionesReproducidas : reanudacionesResincronizadas).increment();
+		if (!reproducida) {
+			log.info("Sesión WebSocket sin reproducción posible; se pide resincronizar [ID: {}, Token: {}]",
+					monitor.getId(), token);
+		}
+	}
+
+	/**
+	 * @return Los frames que acepta la suscripción, o null si hubo un hueco o
+	 *         no caben en el buffer de salida de la sesión.
+	 */
+	private List<TextMessage> perdidas(List<Entrada<NotificacionRegistrada>> entradas,
+			Suscripcion suscripcion) {
+		if (entradas == null) {
+			return null;
+		}
+		List<TextMessage> frames = new ArrayList<>();
+		long bytes = 0;
+		for (Entrada<NotificacionRegistrada> entrada : entradas) {
+			NotificacionRegistrada notificacion = entrada.valor();
+			if (suscripcion.acepta(notificacion.eventType(), notificacion.dispositivo())) {
+				TextMessage mensaje = notificacion.frame().mensaje();
+				frames.add(mensaje);
+				bytes += mensaje.getPayloadLength();
+			}
+		}
+		return bytes <= limiteBufferBytes ? frames : null;
+	}
+
+	private TextMessage resincronizar(long ultimaRecibida, long actual) {
+		try {
+			return new TextMessage(objectMapper.writeValueAsString(new Notification<>(EVENT_TYPE_RESINCRONIZAR,
+					Map.of("secuencia_solicitada", ultimaRecibida), actual)));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("No se pudo serializar el aviso de resincronización.", e);
+		}
+	}
+
+	private static MultiValueMap<String, String> parametros(URI uri) {
+		return uri == null ? new LinkedMultiValueMap<>() : UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+	}
+
+	/**
+	 * Une los valores repetidos y separados por comas de un parámetro.
+	 */
+	private static List<String> lista(List<String> valores) {
+		if (valores == null) {
+			return null;
+		}
+		return valores.stream().flatMap(valor -> Arrays.stream(valor.split(","))).map(String::trim)
+				.filter(valor -> !valor.isEmpty()).toList();
+	}
+
+	/**
+	 * Un token que no es un número no viene de este servidor: se trata como
+	 * perdido.
+	 */
+	private static long secuencia(String token) {
+		try {
+			return Long.parseLong(token.trim());
+		} catch (NumberFormatException e) {
+			return Long.MIN_VALUE;
+		}
 	}
 
 	/**
@@ -45,8 +314,64 @@ public class IotEventSocketHandler extends TextWebSocketHandler {
 	 */
 	@Override
 	public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-		sessions.remove(session);
-		log.info("Conexión WebSocket cerrada: [ID: {}, Status: {}]", session.getId(), status);
+		SesionMonitor monitor = shardDe(session.getId()).quitar(session.getId());
+		if (monitor == null) {
+			log.info("Conexión WebSocket cerrada: [ID: {}, Status: {}]", session.getId(), status);
+			return;
+		}
+		totalSesiones.decrementAndGet();
+		monitor.getMedidores().forEach(meterRegistry::remove);
+		log.info("Conexión WebSocket cerrada: [ID: {}, Status: {}, Enviados: {}, Descartados: {}]", session.getId(),
+				status, monitor.getEnviados(), monitor.getDescartados());
+	}
+
+	/**
+	 * Procesa los mensajes de suscripción enviados por un monitor.
+	 *
+	 * @param session La sesión que envía el mensaje.
+	 * @param message El {@link SuscripcionRequest} en JSON.
+	 */
+	@Override
+	protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+		SesionMonitor monitor = shardDe(session.getId()).buscar(session.getId());
+		if (monitor == null) {
+			return;
+		}
+
+		SuscripcionRequest request;
+		try {
+			request = objectMapper.readValue(message.getPayload(), SuscripcionRequest.class);
+		} catch (JsonProcessingException e) {
+			log.warn("Mensaje de suscripción inválido en la sesión WebSocket [ID: {}]: {}", session.getId(),
+					e.getOriginalMessage());
+			responder(monitor, EVENT_TYPE_ERROR, "Mensaje de suscripción inválido.");
+			return;
+		}
+
+		Suscripcion suscripcion;
+		if (SuscripcionRequest.ACCION_SUSCRIBIR.equalsIgnoreCase(request.getAccion())) {
+			if (contieneNull(request.getDispositivos()) || contieneNull(request.getEventos())) {
+				responder(monitor, EVENT_TYPE_ERROR, "La suscripción no puede contener valores null.");
+				return;
+			}
+			suscripcion = Suscripcion.de(request.getDispositivos(), request.getEventos());
+		} else if (SuscripcionRequest.ACCION_CANCELAR.equalsIgnoreCase(request.getAccion())) {
+			suscripcion = Suscripcion.TODO;
+		} else {
+			responder(monitor, EVENT_TYPE_ERROR, "Acción de suscripción desconocida: " + request.getAccion());
+			return;
+		}
+
+		// La confirmación sale ya aplicado el cambio: lo que llegue después sigue la nueva suscripción
+		shardDe(session.getId()).actualizarSuscripcion(monitor, suscripcion, () -> {
+			log.info("Suscripción actualizada [ID: {}, Dispositivos: {}, Eventos: {}]", session.getId(),
+					suscripcion.dispositivos(), suscripcion.eventos());
+			responder(monitor, EVENT_TYPE_SUSCRIPCION, request);
+		});
+	}
+
+	private static boolean contieneNull(List<String> valores) {
+		return valores != null && valores.stream().anyMatch(Objects::isNull);
 	}
 
 	/**
@@ -65,25 +390,150 @@ public class IotEventSocketHandler extends TextWebSocketHandler {
 	}
 
 	/**
-	 * Envía un mensaje de texto (push) a todos los clientes (monitores) conectados.
+	 * Envía un mensaje de texto (push) a todos los clientes (monitores)
+	 * conectados, sin importar sus suscripciones. El mensaje se deja en el
+	 * buffer de cada sesión y se envía de forma asíncrona; este método no espera
+	 * a la red.
 	 *
 	 * @param message El mensaje JSON a transmitir.
 	 */
 	public void broadcast(String message) {
-		if (sessions.isEmpty()) {
+		if (totalSesiones.get() == 0) {
 			log.debug("No hay sesiones de monitoreo activas para transmitir.");
 			return;
 		}
 
+		// Un único TextMessage inmutable compartido por todas las sesiones
 		TextMessage textMessage = new TextMessage(message);
-		for (WebSocketSession session : sessions) {
-			try {
-				if (session.isOpen()) {
-					session.sendMessage(textMessage);
+		for (ShardSesiones shard : shards) {
+			shard.repartirATodas(textMessage);
+		}
+	}
+
+	/**
+	 * Envía un evento solo a los monitores suscritos a su tipo y dispositivo.
+	 * El frame se construye una sola vez, solo si al menos un monitor lo va a
+	 * recibir, y se comparte entre todas las sesiones.
+	 *
+	 * @param eventType   El tipo de evento (ej. "NUEVO_MOVIMIENTO").
+	 * @param dispositivo El {@code nombreDispositivo} del evento.
+	 * @param frame       Produce el frame (ver {@link RegistroNotificaciones});
+	 *                    puede devolver null si falla.
+	 */
+	public void broadcast(String eventType, String dispositivo, Supplier<FrameNotificacion> frame) {
+		if (totalSesiones.get() == 0) {
+			log.debug("No hay sesiones de monitoreo activas para transmitir.");
+			return;
+		}
+		if (!hayDestinatarios(eventType, dispositivo)) {
+			log.debug("Ninguna sesión suscrita a [{}] de [{}].", eventType, dispositivo);
+			return;
+		}
+
+		FrameNotificacion notificacion = frame.get();
+		if (notificacion == null) {
+			return;
+		}
+
+		long inicio = System.nanoTime();
+		// El último shard en terminar registra la duración del reparto completo
+		AtomicInteger restantes = new AtomicInteger(shards.length);
+		Runnable alTerminar = () -> {
+			if (restantes.decrementAndGet() == 0) {
+				fanOut.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+			}
+		};
+		for (ShardSesiones shard : shards) {
+			if (shard.isEmpty()) {
+				alTerminar.run();
+			} else {
+				shard.repartirAsync(eventType, dispositivo, notificacion, alTerminar);
+			}
+		}
+		// La petición solo espera a que el reparto quede programado
+		TiemposServidor.sumar(Fase.REPARTO, System.nanoTime() - inicio);
+	}
+
+	/**
+	 * @return El número de sesiones de monitoreo conectadas.
+	 */
+	public int getSesionesActivas() {
+		return totalSesiones.get();
+	}
+
+	/**
+	 * Detiene la vigilancia de envíos y los executors de los shards y de cierre
+	 * al cerrar la aplicación.
+	 */
+	@PreDestroy
+	public void detener() {
+		vigilanciaEnvios.shutdownNow();
+		for (ShardSesiones shard : shards) {
+			shard.detener();
+		}
+		cierres.shutdownNow();
+	}
+
+	/**
+	 * Cierra las sesiones con un envío en curso desde hace más del límite,
+	 * aunque no se les haya encolado nada desde entonces.
+	 */
+	private void revisarEnvios() {
+		try {
+			for (ShardSesiones shard : shards) {
+				for (SesionMonitor monitor : shard.getSesiones()) {
+					monitor.revisarEnvio();
 				}
-			} catch (IOException e) {
-				log.warn("No se pudo enviar mensaje a la sesión WebSocket: [ID: {}]", session.getId(), e);
 			}
+		} catch (RuntimeException e) {
+			// Una excepción cancelaría la revisión periódica
+			log.error("Error al revisar los envíos de las sesiones WebSocket", e);
 		}
 	}
-}
\ No newline at end of file
+
+	private ShardSesiones shardDe(String idSesion) {
+		return shards[Math.floorMod(idSesion.hashCode(), shards.length)];
+	}
+
+	private boolean hayDestinatarios(String eventType, String dispositivo) {
+		for (ShardSesiones shard : shards) {
+			if (shard.hayDestinatarios(eventType, dispositivo)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Envía una respuesta directa a una sola sesión.
+	 */
+	private void responder(SesionMonitor monitor, String eventType, Object payload) {
+		try {
+			String json = objectMapper.writeValueAsString(new Notification<>(eventType, payload));
+			monitor.encolar(new TextMessage(json));
+		} catch (JsonProcessingException e) {
+			log.error("No se pudo serializar la respuesta WebSocket de tipo [{}]", eventType, e);
+		}
+	}
+
+	/**
+	 * Publica las métricas de retraso de una sesión, etiquetadas con su ID, para
+	 * identificar qué monitores se están quedando atrás.
+	 */
+	private List<Meter> registrarMetricas(SesionMonitor monitor) {
+		String id = monitor.getId();
+		return List.of(
+				Gauge.builder("iotcart.websocket.sesion.pendientes", monitor, SesionMonitor::getPendientes)
+						.description("Mensajes en el buffer de salida de la sesión").tag(TAG_SESION, id)
+						.register(meterRegistry),
+				Gauge.builder("iotcart.websocket.sesion.retraso", monitor, SesionMonitor::getRetrasoActualMs)
+						.description("Antigüedad del mensaje más viejo sin enviar").baseUnit("milliseconds")
+						.tag(TAG_SESION, id).register(meterRegistry),
+				Gauge.builder("iotcart.websocket.sesion.ultimo.retraso", monitor, SesionMonitor::getUltimoRetrasoMs)
+						.description("Tiempo entre encolar y enviar el último mensaje entregado")
+						.baseUnit("milliseconds").tag(TAG_SESION, id).register(meterRegistry),
+				FunctionCounter.builder("iotcart.websocket.sesion.descartados", monitor, SesionMonitor::getDescartados)
+						.description("Mensajes descartados por desborde del buffer").tag(TAG_SESION, id)
+						.register(meterRegistry));
+	}
+}
@@ -0,0 +1,24 @@
+package org.axolotlj.iotcart.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas compartidas por todas las sesiones de monitoreo para los envíos a
+ * la red.
+ *
+ * @param duracion Duración de cada {@code sendMessage}.
+ * @param fallidos Envíos que terminaron en error.
+ */
+record MetricasEnvio(Timer duracion, Counter fallidos) {
+
+	static MetricasEnvio registrar(MeterRegistry meterRegistry) {
+		return new MetricasEnvio(
+				Timer.builder("iotcart.websocket.envio")
+						.description("Duración del envío de un mensaje a una sesión de monitoreo")
+						.register(meterRegistry),
+				Counter.builder("iotcart.websocket.envio.fallidos")
+						.description("Envíos a sesiones de monitoreo que terminaron en error").register(meterRegistry));
+	}
+}
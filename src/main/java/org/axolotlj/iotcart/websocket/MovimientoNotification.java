@@ -4,11 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-
 /**
  * DTO específico para la notificación WebSocket de 'NUEVO_MOVIMIENTO'.
- * A diferencia del Request, este utiliza un entero para el código de operación.
+ * A diferencia del Request, este utiliza un entero para el código de operación
+ * y coordenadas en punto fijo E7 (ver {@link org.axolotlj.iotcart.util.CoordenadaFija}).
  */
 @Getter
 @Setter
@@ -17,8 +16,16 @@ public class MovimientoNotification {
     private String nombreDispositivo;
     private String pais;
     private String ciudad;
-    private BigDecimal latitud;
-    private BigDecimal longitud;
+
+    /**
+     * Latitud en grados x 10^7 (ej. 194326000 en lugar de 19.4326).
+     */
+    private Integer latitudE7;
+
+    /**
+     * Longitud en grados x 10^7.
+     */
+    private Integer longitudE7;
     
     /**
      * Código numérico de la operación (ej. 1 en lugar de "ADELANTE").
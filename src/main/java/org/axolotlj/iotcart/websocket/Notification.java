@@ -1,5 +1,7 @@
 package org.axolotlj.iotcart.websocket;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,4 +25,16 @@ public class Notification<T> {
 	 * Los datos asociados con el evento (el DTO del movimiento, obstáculo, etc.).
 	 */
 	private T payload;
-}
\ No newline at end of file
+
+	/**
+	 * Número de secuencia global de la notificación, creciente entre todos los
+	 * eventos transmitidos. Es el token para reanudar la sesión tras una
+	 * reconexión. Las respuestas directas a una sesión no lo llevan.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long secuencia;
+
+	public Notification(String eventType, T payload) {
+		this(eventType, payload, null);
+	}
+}
@@ -0,0 +1,111 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor;
+import org.axolotlj.iotcart.diagnostico.TiemposServidor.Fase;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Codifica una {@link Notification} en un único frame WebSocket inmutable que
+ * comparten todas las sesiones.
+ * <p>
+ * Jackson escribe sobre un único buffer y {@link JsonGenerator} reutilizados,
+ * en lugar de crear un writer y un generador por evento como hace
+ * {@code writeValueAsString}. No se sincroniza por su cuenta: el único llamador,
+ * {@link RegistroNotificaciones}, codifica bajo su candado, así que nunca hay
+ * dos codificaciones a la vez. La API de WebSocket del contenedor solo envía
+ * texto como String, por lo que esa es la única copia que queda y ocurre una
+ * sola vez por evento, no por sesión.
+ */
+@Component
+public class NotificationEncoder {
+
+	private static final Logger log = LogManager.getLogger(NotificationEncoder.class);
+
+	private static final int TAMANO_INICIAL_BUFFER = 512;
+
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter writer;
+	private final Timer duracion;
+	private Codificador codificador;
+
+	/**
+	 * Buffer de salida con su generador ligado.
+	 */
+	private record Codificador(CharArrayWriter buffer, JsonGenerator generator) {
+	}
+
+	@Autowired
+	public NotificationEncoder(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+		this.objectMapper = objectMapper;
+		this.writer = objectMapper.writerFor(Notification.class);
+		this.duracion = Timer.builder("iotcart.websocket.codificacion")
+				.description("Tiempo para serializar una notificación en su frame WebSocket").register(meterRegistry);
+	}
+
+	/**
+	 * Codifica la notificación en un frame listo para enviarse. Debe invocarse
+	 * bajo el candado de {@link RegistroNotificaciones}.
+	 *
+	 * @param eventType El tipo de evento (ej. "NUEVO_MOVIMIENTO").
+	 * @param payload   Los datos del evento.
+	 * @param secuencia El número de secuencia global de la notificación.
+	 * @return El frame, o null si la notificación no pudo serializarse.
+	 */
+	public FrameNotificacion codificar(String eventType, Object payload, long secuencia) {
+		long inicio = System.nanoTime();
+		try {
+			return serializar(eventType, payload, secuencia);
+		} finally {
+			long nanos = System.nanoTime() - inicio;
+			duracion.record(nanos, TimeUnit.NANOSECONDS);
+			TiemposServidor.sumar(Fase.NOTIFICACION, nanos);
+		}
+	}
+
+	private FrameNotificacion serializar(String eventType, Object payload, long secuencia) {
+		try {
+			if (codificador == null) {
+				codificador = crearCodificador();
+			}
+		} catch (IOException e) {
+			log.error("Error fatal: No se pudo crear el generador JSON para la notificación [{}]", eventType, e);
+			return null;
+		}
+
+		try {
+			writer.writeValue(codificador.generator(), new Notification<>(eventType, payload, secuencia));
+			codificador.generator().flush();
+			FrameNotificacion frame = new FrameNotificacion(new TextMessage(codificador.buffer().toString()), secuencia);
+			codificador.buffer().reset();
+			return frame;
+		} catch (IOException e) {
+			// El generador puede quedar a medio escribir: se descarta y el siguiente evento crea otro
+			codificador = null;
+			log.error("Error fatal: No se pudo serializar la notificación WebSocket de tipo [{}]", eventType, e);
+			return null;
+		}
+	}
+
+	private Codificador crearCodificador() throws IOException {
+		CharArrayWriter buffer = new CharArrayWriter(TAMANO_INICIAL_BUFFER);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer);
+		// Cada notificación es un valor raíz independiente, sin separador
+		generator.setRootValueSeparator(null);
+		return new Codificador(buffer, generator);
+	}
+}
@@ -0,0 +1,30 @@
+package org.axolotlj.iotcart.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO específico para la notificación WebSocket de 'NUEVO_OBSTACULO'.
+ * Usa coordenadas en punto fijo E7 (ver {@link org.axolotlj.iotcart.util.CoordenadaFija}).
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class ObstaculoNotification {
+    private String nombreDispositivo;
+    private String pais;
+    private String ciudad;
+
+    /**
+     * Latitud en grados x 10^7.
+     */
+    private Integer latitudE7;
+
+    /**
+     * Longitud en grados x 10^7.
+     */
+    private Integer longitudE7;
+
+    private String codigoObstaculo;
+}
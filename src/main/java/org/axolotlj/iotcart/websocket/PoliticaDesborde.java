@@ -0,0 +1,18 @@
+package org.axolotlj.iotcart.websocket;
+
+/**
+ * Qué hacer cuando el buffer de salida de una sesión WebSocket supera su límite.
+ */
+public enum PoliticaDesborde {
+
+    /**
+     * Descarta los mensajes más antiguos del buffer hasta volver al límite.
+     * El monitor pierde eventos intermedios pero sigue conectado.
+     */
+    DESCARTAR_ANTIGUOS,
+
+    /**
+     * Cierra la sesión. El monitor debe reconectarse.
+     */
+    DESCONECTAR
+}
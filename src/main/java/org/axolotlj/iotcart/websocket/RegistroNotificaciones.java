@@ -0,0 +1,113 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.axolotlj.iotcart.diagnostico.CodificacionJfr;
+import org.axolotlj.iotcart.util.AnilloReproduccion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numera, codifica y guarda cada notificación transmitida, para que las
+ * sesiones WebSocket y los clientes SSE que se reconectan reciban desde memoria
+ * lo que se perdieron.
+ * <p>
+ * Cada notificación recibe un número de secuencia global, que viaja en su
+ * frame y es a la vez el token de reanudación del monitor y el ID del evento
+ * SSE. Los frames se guardan en un {@link AnilloReproduccion} de
+ * {@code iotcart.notificaciones.capacidad-reproduccion} notificaciones, haya o
+ * no monitores conectados. Las secuencias arrancan en el instante de inicio en
+ * microsegundos, de modo que un token de antes de un reinicio se reconoce como
+ * perdido.
+ * <p>
+ * Numerar, codificar, guardar y entregar el frame a quien lo transmite ocurren
+ * bajo un candado, así que el anillo siempre está completo hasta su última
+ * secuencia, los frames llegan a las colas de reparto en orden de secuencia
+ * aunque publiquen varios dispositivos a la vez, y una reanudación que toma el
+ * mismo candado ({@link #sinPublicaciones(Supplier)}) ve exactamente las
+ * notificaciones anteriores a la que sigue.
+ */
+@Component
+public class RegistroNotificaciones {
+
+	/**
+	 * Una notificación guardada, con lo necesario para filtrarla por la
+	 * suscripción de quien la reproduce.
+	 */
+	public record NotificacionRegistrada(String eventType, String dispositivo, FrameNotificacion frame) {
+	}
+
+	private final NotificationEncoder notificationEncoder;
+	private final AnilloReproduccion<NotificacionRegistrada> anillo;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	@Autowired
+	public RegistroNotificaciones(NotificationEncoder notificationEncoder,
+			@Value("${iotcart.notificaciones.capacidad-reproduccion}") int capacidadReproduccion) {
+		this.notificationEncoder = notificationEncoder;
+		this.anillo = new AnilloReproduccion<>(capacidadReproduccion, System.currentTimeMillis() * 1000);
+	}
+
+	/**
+	 * Asigna la siguiente secuencia a la notificación, la codifica y la guarda.
+	 *
+	 * @param eventType   El tipo de evento (ej. "NUEVO_MOVIMIENTO").
+	 * @param dispositivo El {@code nombreDispositivo} del evento.
+	 * @param payload     Los datos del evento.
+	 * @return El frame, o null si la notificación no pudo serializarse (en ese
+	 *         caso no consume secuencia).
+	 */
+	public FrameNotificacion registrar(String eventType, String dispositivo, Object payload) {
+		return registrar(eventType, dispositivo, payload, frame -> {
+		});
+	}
+
+	/**
+	 * Asigna la siguiente secuencia a la notificación, la codifica, la guarda y
+	 * se la entrega a {@code publicar} antes de soltar el candado. Así, ningún
+	 * frame de secuencia mayor se publica antes que él.
+	 *
+	 * @param publicar Recibe el frame bajo el candado; no debe bloquear (ver
+	 *                 {@link IotEventSocketHandler#broadcast(String, String, Supplier)},
+	 *                 que solo lo deja en las colas de reparto).
+	 * @return El frame, o null si la notificación no pudo serializarse.
+	 */
+	public FrameNotificacion registrar(String eventType, String dispositivo, Object payload,
+			Consumer<FrameNotificacion> publicar) {
+		lock.lock();
+		try {
+			CodificacionJfr evento = new CodificacionJfr(eventType);
+			evento.begin();
+			FrameNotificacion frame = notificationEncoder.codificar(eventType, payload, anillo.getUltimoId() + 1);
+			if (frame == null) {
+				return null;
+			}
+			evento.setBytes(frame.mensaje().getPayloadLength());
+			evento.commit();
+			anillo.agregar(new NotificacionRegistrada(eventType, dispositivo, frame));
+			publicar.accept(frame);
+			return frame;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Ejecuta la acción sin que se registren notificaciones mientras dura.
+	 */
+	public <R> R sinPublicaciones(Supplier<R> accion) {
+		lock.lock();
+		try {
+			return accion.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public AnilloReproduccion<NotificacionRegistrada> getAnillo() {
+		return anillo;
+	}
+}
@@ -1,6 +1,5 @@
 package org.axolotlj.iotcart.websocket;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 import lombok.Getter;
@@ -28,8 +27,16 @@ public class SecuenciaEjecutadaNotification {
     private String nombreDispositivo;
     private String pais;
     private String ciudad;
-    private BigDecimal latitud;
-    private BigDecimal longitud;
+
+    /**
+     * Latitud en grados x 10^7.
+     */
+    private Integer latitudE7;
+
+    /**
+     * Longitud en grados x 10^7.
+     */
+    private Integer longitudE7;
 
     /**
      * Constructor para poblar los datos.
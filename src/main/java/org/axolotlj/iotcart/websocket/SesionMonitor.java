@@ -0,0 +1,351 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.axolotlj.iotcart.diagnostico.EnvioSesionJfr;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.Meter;
+
+/**
+ * Sesión de un monitor conectado con su propio buffer de salida acotado.
+ * <p>
+ * {@link #encolar(TextMessage)} nunca bloquea al hilo que publica: agrega el
+ * mensaje al buffer y programa el drenado en el {@link Executor} de envío. Un
+ * solo drenado está activo por sesión, por lo que {@code sendMessage} nunca se
+ * invoca de forma concurrente sobre la misma sesión.
+ * <p>
+ * Si un envío lleva más de {@code limiteTiempoEnvioNanos} en curso, la sesión
+ * se considera un consumidor lento y se cierra. Se revisa al encolar y, para
+ * las sesiones que ya no reciben tráfico, periódicamente desde el manejador
+ * (ver {@link #revisarEnvio()}). Si el buffer supera {@code limiteBufferBytes},
+ * se aplica la {@link PoliticaDesborde} configurada. El cierre se hace en un
+ * executor propio, nunca en el hilo que publica ni en el de envío: los hilos de
+ * envío pueden estar bloqueados justo en los clientes que se cierran.
+ */
+final class SesionMonitor {
+
+	private static final Logger log = LogManager.getLogger(SesionMonitor.class);
+
+	private final WebSocketSession session;
+	private final Executor executor;
+	private final Executor cierre;
+	private final long limiteTiempoEnvioNanos;
+	private final int limiteBufferBytes;
+	private final PoliticaDesborde politica;
+	private final MetricasEnvio metricas;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Deque<Pendiente> buffer = new ArrayDeque<>();
+	private int bytesPendientes;
+
+	private final AtomicBoolean drenando = new AtomicBoolean();
+	private final AtomicBoolean cerrada = new AtomicBoolean();
+	private volatile long inicioEnvioNanos;
+
+	private final AtomicLong enviados = new AtomicLong();
+	private final AtomicLong descartados = new AtomicLong();
+	private volatile long ultimoRetrasoNanos;
+
+	private List<Meter> medidores = List.of();
+
+	private volatile Suscripcion suscripcion = Suscripcion.TODO;
+
+	/**
+	 * Secuencia hasta la cual la sesión ya recibió las notificaciones por
+	 * reproducción; los frames en vivo hasta ella se descartan.
+	 */
+	private volatile long reproducidoHasta = Long.MIN_VALUE;
+
+	/**
+	 * Mensaje en espera junto con el instante en que se encoló.
+	 */
+	private record Pendiente(TextMessage mensaje, long encoladoNanos) {
+	}
+
+	SesionMonitor(WebSocketSession session, Executor executor, Executor cierre, long limiteTiempoEnvioMs,
+			int limiteBufferBytes, PoliticaDesborde politica, MetricasEnvio metricas) {
+		this.session = session;
+		this.executor = executor;
+		this.cierre = cierre;
+		this.limiteTiempoEnvioNanos = TimeUnit.MILLISECONDS.toNanos(limiteTiempoEnvioMs);
+		this.limiteBufferBytes = limiteBufferBytes;
+		this.politica = politica;
+		this.metricas = metricas;
+	}
+
+	WebSocketSession getSession() {
+		return session;
+	}
+
+	String getId() {
+		return session.getId();
+	}
+
+	Suscripcion getSuscripcion() {
+		return suscripcion;
+	}
+
+	/**
+	 * Solo debe invocarse desde {@link IndiceSuscripciones}, que mantiene el
+	 * índice consistente con la suscripción, o antes de agregar la sesión a su
+	 * shard.
+	 */
+	void setSuscripcion(Suscripcion suscripcion) {
+		this.suscripcion = suscripcion;
+	}
+
+	/**
+	 * Agrega un mensaje al buffer de salida y programa su envío asíncrono.
+	 *
+	 * @param mensaje El mensaje a enviar (puede compartirse entre sesiones).
+	 */
+	void encolar(TextMessage mensaje) {
+		agregar(mensaje);
+	}
+
+	/**
+	 * Encola una notificación transmitida, salvo que la sesión ya la haya
+	 * recibido por la reproducción.
+	 */
+	void encolar(FrameNotificacion frame) {
+		if (frame.secuencia() > reproducidoHasta) {
+			agregar(frame.mensaje());
+		}
+	}
+
+	/**
+	 * Encola las notificaciones que la sesión se perdió antes de reconectarse.
+	 * Debe invocarse antes de agregar la sesión a su shard.
+	 *
+	 * @param mensajes Los frames a reproducir, en orden.
+	 * @param hasta    Secuencia de la última notificación cubierta por la
+	 *                 reproducción; los frames en vivo hasta ella se descartan.
+	 */
+	void reproducir(List<TextMessage> mensajes, long hasta) {
+		reproducidoHasta = hasta;
+		for (TextMessage mensaje : mensajes) {
+			agregar(mensaje);
+		}
+	}
+
+	private void agregar(TextMessage mensaje) {
+		if (cerrada.get() || !session.isOpen()) {
+			return;
+		}
+
+		if (revisarEnvio()) {
+			return;
+		}
+
+		long ahora = System.nanoTime();
+		boolean desbordada = false;
+		lock.lock();
+		try {
+			buffer.addLast(new Pendiente(mensaje, ahora));
+			bytesPendientes += mensaje.getPayloadLength();
+			while (bytesPendientes > limiteBufferBytes && buffer.size() > 1) {
+				if (politica == PoliticaDesborde.DESCONECTAR) {
+					desbordada = true;
+					break;
+				}
+				Pendiente antiguo = buffer.pollFirst();
+				bytesPendientes -= antiguo.mensaje().getPayloadLength();
+				descartados.incrementAndGet();
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (desbordada) {
+			log.warn("Buffer de salida excedido ({} bytes). Se cierra la sesión WebSocket [ID: {}]", limiteBufferBytes,
+					getId());
+			cerrar(CloseStatus.SESSION_NOT_RELIABLE);
+			return;
+		}
+
+		if (drenando.compareAndSet(false, true)) {
+			executor.execute(this::drenar);
+		}
+	}
+
+	/**
+	 * Cierra la sesión si el envío en curso lleva más del límite.
+	 *
+	 * @return true si la sesión se cerró por lenta.
+	 */
+	boolean revisarEnvio() {
+		long inicioEnvio = inicioEnvioNanos;
+		if (inicioEnvio == 0 || cerrada.get()) {
+			return false;
+		}
+		long enCurso = System.nanoTime() - inicioEnvio;
+		if (enCurso <= limiteTiempoEnvioNanos) {
+			return false;
+		}
+		log.warn("Sesión WebSocket lenta: envío en curso desde hace {} ms. Se cierra [ID: {}]",
+				TimeUnit.NANOSECONDS.toMillis(enCurso), getId());
+		cerrar(CloseStatus.SESSION_NOT_RELIABLE);
+		return true;
+	}
+
+	/**
+	 * Envía los mensajes del buffer en orden hasta vaciarlo.
+	 */
+	private void drenar() {
+		while (true) {
+			Pendiente siguiente = tomarSiguiente();
+			if (siguiente == null) {
+				drenando.set(false);
+				// Un productor pudo encolar entre el último poll y la liberación de la bandera
+				if (estaVacio() || !drenando.compareAndSet(false, true)) {
+					return;
+				}
+				continue;
+			}
+
+			if (cerrada.get() || !session.isOpen()) {
+				continue;
+			}
+
+			long inicio = System.nanoTime();
+			inicioEnvioNanos = inicio;
+			EnvioSesionJfr evento = new EnvioSesionJfr(getId(), siguiente.mensaje().getPayloadLength(),
+					inicio - siguiente.encoladoNanos());
+			evento.begin();
+			try {
+				session.sendMessage(siguiente.mensaje());
+				enviados.incrementAndGet();
+			} catch (IOException | IllegalStateException e) {
+				metricas.fallidos().increment();
+				evento.setFallido(true);
+				log.warn("No se pudo enviar mensaje a la sesión WebSocket: [ID: {}]", getId(), e);
+			} finally {
+				evento.commit();
+				long fin = System.nanoTime();
+				metricas.duracion().record(fin - inicio, TimeUnit.NANOSECONDS);
+				ultimoRetrasoNanos = fin - siguiente.encoladoNanos();
+				inicioEnvioNanos = 0;
+			}
+		}
+	}
+
+	private Pendiente tomarSiguiente() {
+		lock.lock();
+		try {
+			Pendiente siguiente = buffer.pollFirst();
+			if (siguiente != null) {
+				bytesPendientes -= siguiente.mensaje().getPayloadLength();
+			}
+			return siguiente;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean estaVacio() {
+		lock.lock();
+		try {
+			return buffer.isEmpty();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Cierra la sesión una sola vez y libera el buffer. El cierre de la conexión
+	 * puede bloquear con un cliente lento, por lo que se programa en el executor
+	 * de cierre.
+	 */
+	void cerrar(CloseStatus status) {
+		if (!cerrada.compareAndSet(false, true)) {
+			return;
+		}
+		lock.lock();
+		try {
+			buffer.clear();
+			bytesPendientes = 0;
+		} finally {
+			lock.unlock();
+		}
+		try {
+			cierre.execute(() -> cerrarSesion(status));
+		} catch (RejectedExecutionException e) {
+			// El executor de cierre ya se detuvo
+			cerrarSesion(status);
+		}
+	}
+
+	private void cerrarSesion(CloseStatus status) {
+		try {
+			session.close(status);
+		} catch (IOException e) {
+			log.debug("Error al cerrar la sesión WebSocket [ID: {}]", getId(), e);
+		}
+	}
+
+	// --- Métricas de retraso por sesión ---
+
+	List<Meter> getMedidores() {
+		return medidores;
+	}
+
+	void setMedidores(List<Meter> medidores) {
+		this.medidores = medidores;
+	}
+
+	/**
+	 * @return Mensajes esperando en el buffer de salida.
+	 */
+	int getPendientes() {
+		lock.lock();
+		try {
+			return buffer.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return Antigüedad en milisegundos del mensaje más viejo sin enviar (0 si
+	 *         el buffer está vacío).
+	 */
+	double getRetrasoActualMs() {
+		lock.lock();
+		try {
+			Pendiente primero = buffer.peekFirst();
+			return primero == null ? 0 : (System.nanoTime() - primero.encoladoNanos()) / 1_000_000.0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return Tiempo en milisegundos entre encolar y terminar de enviar el
+	 *         último mensaje entregado.
+	 */
+	double getUltimoRetrasoMs() {
+		return ultimoRetrasoNanos / 1_000_000.0;
+	}
+
+	long getEnviados() {
+		return enviados.get();
+	}
+
+	long getDescartados() {
+		return descartados.get();
+	}
+}
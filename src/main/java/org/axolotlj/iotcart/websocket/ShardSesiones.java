@@ -0,0 +1,132 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * Partición de las sesiones de monitoreo con sus propios executors.
+ * <p>
+ * La pertenencia se guarda en un {@link ConcurrentHashMap}, por lo que
+ * conectar o desconectar un monitor no copia el conjunto completo. Cada shard
+ * tiene un executor de reparto, que deja la notificación en el buffer de sus
+ * sesiones, y un executor de envío, que drena esos buffers. Separarlos evita
+ * que un envío bloqueado retrase el reparto de las siguientes notificaciones.
+ * <p>
+ * Todo reparto pasa por el executor de reparto, que es de un solo hilo: las
+ * notificaciones llegan al buffer de cada sesión en el orden en que se
+ * programaron.
+ * <p>
+ * El reparto de eventos pasa por el {@link IndiceSuscripciones} del shard, de
+ * modo que solo se visitan las sesiones suscritas.
+ */
+final class ShardSesiones {
+
+	private final ExecutorService reparto;
+	private final ExecutorService envio;
+	private final Map<String, SesionMonitor> sesiones = new ConcurrentHashMap<>();
+	private final IndiceSuscripciones indice = new IndiceSuscripciones();
+
+	ShardSesiones(ExecutorService reparto, ExecutorService envio) {
+		this.reparto = reparto;
+		this.envio = envio;
+	}
+
+	/**
+	 * @return El executor donde se drenan los buffers de las sesiones del shard.
+	 */
+	ExecutorService getEnvio() {
+		return envio;
+	}
+
+	void agregar(SesionMonitor monitor) {
+		sesiones.put(monitor.getId(), monitor);
+		indice.agregar(monitor);
+	}
+
+	SesionMonitor quitar(String idSesion) {
+		SesionMonitor monitor = sesiones.remove(idSesion);
+		if (monitor != null) {
+			indice.quitar(monitor);
+		}
+		return monitor;
+	}
+
+	SesionMonitor buscar(String idSesion) {
+		return sesiones.get(idSesion);
+	}
+
+	/**
+	 * Programa el cambio de suscripción en el executor de reparto, entre dos
+	 * repartos, para que ninguna notificación vea el índice a medio cambiar.
+	 *
+	 * @param alTerminar Se invoca ya aplicado el cambio, o de inmediato si el
+	 *                   shard ya se detuvo.
+	 */
+	void actualizarSuscripcion(SesionMonitor monitor, Suscripcion suscripcion, Runnable alTerminar) {
+		programar(() -> indice.actualizar(monitor, suscripcion), alTerminar);
+	}
+
+	boolean hayDestinatarios(String eventType, String dispositivo) {
+		return indice.hayDestinatarios(eventType, dispositivo);
+	}
+
+	boolean isEmpty() {
+		return sesiones.isEmpty();
+	}
+
+	Collection<SesionMonitor> getSesiones() {
+		return sesiones.values();
+	}
+
+	/**
+	 * Programa el reparto del mensaje a cada sesión del shard, sin filtrar, en
+	 * el executor de reparto del shard.
+	 */
+	void repartirATodas(TextMessage mensaje) {
+		programar(() -> {
+			for (SesionMonitor monitor : sesiones.values()) {
+				monitor.encolar(mensaje);
+			}
+		}, () -> {
+		});
+	}
+
+	/**
+	 * Programa el reparto del mensaje a las sesiones suscritas al evento en el
+	 * executor de reparto del shard.
+	 *
+	 * @param alTerminar Se invoca al terminar el reparto, o de inmediato si el
+	 *                   shard ya se detuvo.
+	 */
+	void repartirAsync(String eventType, String dispositivo, FrameNotificacion frame, Runnable alTerminar) {
+		programar(() -> indice.repartir(eventType, dispositivo, frame), alTerminar);
+	}
+
+	private void programar(Runnable tarea, Runnable alTerminar) {
+		try {
+			reparto.execute(() -> {
+				try {
+					tarea.run();
+				} finally {
+					alTerminar.run();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// La aplicación se está cerrando: la notificación ya quedó en el registro
+			alTerminar.run();
+		}
+	}
+
+	/**
+	 * Detiene los executors del shard.
+	 */
+	void detener() {
+		reparto.shutdownNow();
+		envio.shutdownNow();
+	}
+}
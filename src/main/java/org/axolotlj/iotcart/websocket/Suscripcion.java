@@ -0,0 +1,46 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Filtro de eventos de una sesión de monitoreo. Un conjunto vacío significa
+ * "todos": una sesión sin dispositivos ni eventos recibe cada notificación,
+ * que es el comportamiento de las sesiones que nunca se suscriben.
+ *
+ * @param dispositivos Valores de {@code nombreDispositivo} que se desean recibir.
+ * @param eventos      Tipos de evento (ej. "NUEVO_MOVIMIENTO") que se desean recibir.
+ */
+record Suscripcion(Set<String> dispositivos, Set<String> eventos) {
+
+	/**
+	 * Suscripción sin filtros.
+	 */
+	static final Suscripcion TODO = new Suscripcion(Set.of(), Set.of());
+
+	static Suscripcion de(Collection<String> dispositivos, Collection<String> eventos) {
+		return new Suscripcion(dispositivos == null ? Set.of() : Set.copyOf(dispositivos),
+				eventos == null ? Set.of() : Set.copyOf(eventos));
+	}
+
+	/**
+	 * @return true si la sesión solo quiere ciertos dispositivos.
+	 */
+	boolean filtraDispositivos() {
+		return !dispositivos.isEmpty();
+	}
+
+	/**
+	 * @return true si el tipo de evento pasa el filtro de eventos.
+	 */
+	boolean aceptaEvento(String eventType) {
+		return eventos.isEmpty() || eventos.contains(eventType);
+	}
+
+	/**
+	 * @return true si el evento pasa los dos filtros.
+	 */
+	boolean acepta(String eventType, String dispositivo) {
+		return aceptaEvento(eventType) && (!filtraDispositivos() || dispositivos.contains(dispositivo));
+	}
+}
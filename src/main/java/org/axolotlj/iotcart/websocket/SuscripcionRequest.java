@@ -0,0 +1,36 @@
+package org.axolotlj.iotcart.websocket;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Mensaje que un monitor envía por '/ws/iot-events' para elegir qué eventos
+ * recibir.
+ * <p>
+ * Ejemplo: {@code {"accion":"SUSCRIBIR","dispositivos":["ROVER-01"],"eventos":["NUEVO_MOVIMIENTO"]}}.
+ * Con {@code "accion":"CANCELAR"} la sesión vuelve a recibir todos los eventos.
+ */
+@Getter
+@Setter
+public class SuscripcionRequest {
+
+    public static final String ACCION_SUSCRIBIR = "SUSCRIBIR";
+    public static final String ACCION_CANCELAR = "CANCELAR";
+
+    /**
+     * "SUSCRIBIR" o "CANCELAR".
+     */
+    private String accion;
+
+    /**
+     * Dispositivos a recibir. Vacío o ausente significa todos.
+     */
+    private List<String> dispositivos;
+
+    /**
+     * Tipos de evento a recibir. Vacío o ausente significa todos.
+     */
+    private List<String> eventos;
+}
@@ -0,0 +1,99 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.IotcartApplication;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.repository.IotProcedureJdbcRepository;
+import org.axolotlj.iotcart.repository.IotProcedureOperations;
+import org.axolotlj.iotcart.repository.IotProcedureRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Costo por llamada de un procedimiento de consulta con cada implementación
+ * de {@link IotProcedureOperations}: Spring Data JPA ({@code @Procedure} y
+ * proyecciones de interfaz) contra {@code CallableStatement} directo con
+ * records.
+ * <p>
+ * Arranca la aplicación sobre H2 en memoria con el procedimiento de
+ * {@link ProcedimientosH2}, y cada llamada se hace dentro de una transacción
+ * como en el servicio, leyendo todos los campos de cada fila como lo haría
+ * Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccesoDatosBenchmark {
+
+	@Param({ "jpa", "jdbc" })
+	public String acceso;
+
+	@Param({ "10" })
+	public int limite;
+
+	private ConfigurableApplicationContext context;
+	private IotProcedureOperations repositorio;
+	private TransactionTemplate transactionTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		System.setProperty("LOG_PATH", "target/jmh-logs");
+		context = new SpringApplicationBuilder(IotcartApplication.class).web(WebApplicationType.NONE)
+				.properties("spring.profiles.active=prod", "iotcart.bd.acceso=jdbc",
+						"spring.datasource.url=jdbc:h2:mem:benchmark;IGNORE_UNKNOWN_SETTINGS=TRUE",
+						"spring.jpa.open-in-view=false")
+				.run();
+		ProcedimientosH2.crear(context.getBean(JdbcTemplate.class));
+		repositorio = "jpa".equals(acceso) ? context.getBean(IotProcedureRepository.class)
+				: context.getBean(IotProcedureJdbcRepository.class);
+		transactionTemplate = context.getBean(TransactionTemplate.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void ultimosMovimientos(Blackhole bh) {
+		List<UltimosMovimientosDto> filas = transactionTemplate
+				.execute(status -> repositorio.obtenerUltimosMovimientos("ROVER-01", limite));
+		for (UltimosMovimientosDto fila : filas) {
+			bh.consume(fila.fecha_evento());
+			bh.consume(fila.nombre_dispositivo());
+			bh.consume(fila.movimiento());
+			bh.consume(fila.ip_cliente());
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(AccesoDatosBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,107 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.config.FilasConsultaJson;
+import org.axolotlj.iotcart.dto.response.ApiResponse;
+import org.axolotlj.iotcart.dto.response.IdResponse;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Costo de serializar el contenedor {@link ApiResponse} tal como lo hace
+ * Spring MVC (mismo {@code ObjectMapper} por defecto) para las respuestas más
+ * frecuentes: el ID de un evento, los últimos 10 movimientos y las últimas 20
+ * secuencias.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseBenchmark {
+
+	/**
+	 * {@code reflexion}: Jackson introspecciona las filas. {@code serializadores}:
+	 * se registran los de {@link FilasConsultaJson}, como en la aplicación.
+	 */
+	@Param({ "reflexion", "serializadores" })
+	public String modo;
+
+	private ObjectMapper objectMapper;
+
+	private ApiResponse<IdResponse> id;
+	private ApiResponse<List<UltimosMovimientosDto>> movimientos;
+	private ApiResponse<List<SecuenciaResponse>> secuencias;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if ("serializadores".equals(modo)) {
+			builder.serializers(new FilasConsultaJson.MovimientoSerializer(),
+					new FilasConsultaJson.ObstaculoSerializer(), new FilasConsultaJson.SecuenciaSerializer());
+		}
+		objectMapper = builder.build();
+		Timestamp ahora = Timestamp.from(Instant.now());
+
+		id = ApiResponse.success(new IdResponse(123456L));
+
+		List<UltimosMovimientosDto> listaMovimientos = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			listaMovimientos.add(new UltimosMovimientosDto(ahora, "ROVER-01", "Giro 90° derecha", "192.168.1.100"));
+		}
+		movimientos = ApiResponse.success(listaMovimientos);
+
+		List<SecuenciaResponse> listaSecuencias = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			listaSecuencias.add(new SecuenciaResponse(i + 1, "Secuencia " + (i + 1), ahora, 5,
+					List.of("Adelante", "Giro 90° derecha", "Adelante", "Vuelta atrás izquierda", "Detener")));
+		}
+		secuencias = ApiResponse.success(listaSecuencias);
+	}
+
+	@Benchmark
+	public byte[] idEvento() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(id);
+	}
+
+	@Benchmark
+	public byte[] ultimosMovimientos() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(movimientos);
+	}
+
+	@Benchmark
+	public byte[] ultimasSecuencias() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(secuencias);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ApiResponseBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,109 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga de {@code POST /api/v1/iot/control/movimiento} contra una
+ * instancia en ejecución. Reporta throughput, p50, p99 y errores.
+ * <p>
+ * Para comparar hilos de plataforma contra hilos virtuales se ejecuta dos
+ * veces contra la misma base de datos, arrancando la aplicación con
+ * {@code --spring.threads.virtual.enabled=false} y luego con {@code =true}.
+ * <p>
+ * Argumentos (todos opcionales): {@code url concurrencia peticiones calentamiento}.
+ */
+public class CargaMovimiento {
+
+	private static final String URL_POR_DEFECTO = "http://localhost:8080/api/v1/iot/control/movimiento";
+
+	private static final String CUERPO = """
+			{"nombreDispositivo":"CARGA-%d","pais":"México","ciudad":"CDMX","latitud":19.4326077,\
+			"longitud":-99.1332080,"codigoOperacion":"ADELANTE","velocidad":150}""";
+
+	public static void main(String[] args) throws InterruptedException {
+		URI uri = URI.create(args.length > 0 ? args[0] : URL_POR_DEFECTO);
+		int concurrencia = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int peticiones = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+		int calentamiento = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+		HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5)).executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+		System.out.printf("Calentando con %d peticiones...%n", calentamiento);
+		ejecutar(cliente, uri, concurrencia, calentamiento);
+
+		System.out.printf("Midiendo %d peticiones con %d clientes concurrentes contra %s%n", peticiones,
+				concurrencia, uri);
+		Resultado resultado = ejecutar(cliente, uri, concurrencia, peticiones);
+
+		long[] latencias = Arrays.copyOf(resultado.latenciasNanos(), resultado.completadas());
+		Arrays.sort(latencias);
+		double segundos = resultado.duracionNanos() / 1e9;
+		System.out.printf("Throughput: %.1f req/s%n", resultado.completadas() / segundos);
+		System.out.printf("p50: %.2f ms | p99: %.2f ms | máx: %.2f ms%n", percentil(latencias, 0.50),
+				percentil(latencias, 0.99), latencias.length == 0 ? 0 : latencias[latencias.length - 1] / 1e6);
+		System.out.printf("Errores: %d de %d%n", resultado.errores(), peticiones);
+	}
+
+	private record Resultado(long[] latenciasNanos, int completadas, long errores, long duracionNanos) {
+	}
+
+	/**
+	 * Reparte {@code peticiones} entre {@code concurrencia} clientes que envían
+	 * en bucle cerrado (cada uno espera su respuesta antes de la siguiente).
+	 */
+	private static Resultado ejecutar(HttpClient cliente, URI uri, int concurrencia, int peticiones)
+			throws InterruptedException {
+		long[] latencias = new long[peticiones];
+		AtomicInteger siguiente = new AtomicInteger();
+		AtomicInteger completadas = new AtomicInteger();
+		AtomicLong errores = new AtomicLong();
+
+		long inicio = System.nanoTime();
+		try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < concurrencia; c++) {
+				clientes.execute(() -> {
+					int n;
+					while ((n = siguiente.getAndIncrement()) < peticiones) {
+						HttpRequest peticion = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30))
+								.header("Content-Type", "application/json")
+								.POST(HttpRequest.BodyPublishers.ofString(CUERPO.formatted(n % 16))).build();
+						long t0 = System.nanoTime();
+						try {
+							HttpResponse<Void> respuesta = cliente.send(peticion,
+									HttpResponse.BodyHandlers.discarding());
+							if (respuesta.statusCode() >= 300) {
+								errores.incrementAndGet();
+								continue;
+							}
+							latencias[completadas.getAndIncrement()] = System.nanoTime() - t0;
+						} catch (Exception e) {
+							errores.incrementAndGet();
+						}
+					}
+				});
+			}
+			clientes.shutdown();
+			clientes.awaitTermination(1, TimeUnit.HOURS);
+		}
+		return new Resultado(latencias, completadas.get(), errores.get(), System.nanoTime() - inicio);
+	}
+
+	private static double percentil(long[] ordenadas, double p) {
+		if (ordenadas.length == 0) {
+			return 0;
+		}
+		int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+		return ordenadas[Math.max(indice, 0)] / 1e6;
+	}
+}
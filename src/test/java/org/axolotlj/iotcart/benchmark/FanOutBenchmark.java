@@ -0,0 +1,95 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.websocket.FrameNotificacion;
+import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.axolotlj.iotcart.websocket.PoliticaDesborde;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latencia de entrega de una notificación a N sesiones simuladas: desde
+ * {@link IotEventSocketHandler#broadcast(String, String, java.util.function.Supplier)}
+ * hasta que la última sesión
+ * recibe el mensaje. Se reporta en modo muestreo para obtener percentiles.
+ * <p>
+ * Compara el reparto en un solo shard ({@code shards = 1}) contra el reparto
+ * paralelo por varios shards, con executors de hilos de plataforma y de hilos
+ * virtuales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+	private static final FrameNotificacion MENSAJE = new FrameNotificacion(new TextMessage(
+			"{\"eventType\":\"NUEVO_MOVIMIENTO\",\"payload\":{\"nombreDispositivo\":\"ROVER-01\"}}"), 1);
+
+	@Param({ "100", "1000", "10000" })
+	public int sesiones;
+
+	@Param({ "1", "4", "8" })
+	public int shards;
+
+	@Param({ "false", "true" })
+	public boolean hilosVirtuales;
+
+	private IotEventSocketHandler handler;
+	private volatile CountDownLatch entregas;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectMapper objectMapper = new ObjectMapper();
+		handler = new IotEventSocketHandler(meterRegistry, objectMapper,
+				new RegistroNotificaciones(new NotificationEncoder(objectMapper, meterRegistry), 16), shards, 5000, Integer.MAX_VALUE, PoliticaDesborde.DESCARTAR_ANTIGUOS, hilosVirtuales);
+		for (int i = 0; i < sesiones; i++) {
+			handler.afterConnectionEstablished(new SesionSimulada("s-" + i, mensaje -> entregas.countDown()));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		handler.detener();
+	}
+
+	@Benchmark
+	public void entregarATodas() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(sesiones);
+		entregas = latch;
+		handler.broadcast("NUEVO_MOVIMIENTO", "ROVER-01", () -> MENSAJE);
+		latch.await();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(FanOutBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,92 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.config.FormatoCompactoCbor;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Costo de leer un mismo movimiento en JSON y en el formato compacto CBOR de
+ * {@link FormatoCompactoCbor}, hasta obtener el {@link MovimientoRequest}.
+ * <p>
+ * Solo mide el parseo del cuerpo; el ahorro en bytes por evento, que es lo que
+ * cuenta en el enlace del dispositivo, lo imprime {@link #main(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoIngestaBenchmark {
+
+	private static final String JSON = "{\"nombreDispositivo\":\"ROVER-01\",\"codigoOperacion\":\"VUELTA_ADELANTE_DER\","
+			+ "\"pais\":\"México\",\"ciudad\":\"CDMX\",\"latitud\":19.4326077,\"longitud\":-99.1332080,"
+			+ "\"velocidad\":150}";
+
+	private byte[] json;
+	private byte[] cbor;
+	private ObjectReader lectorJson;
+	private ObjectReader lectorCbor;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		json = JSON.getBytes(StandardCharsets.UTF_8);
+		cbor = compacto();
+		lectorJson = new ObjectMapper().readerFor(MovimientoRequest.class);
+		CBORMapper cborMapper = new CBORMapper();
+		cborMapper.registerModule(FormatoCompactoCbor.modulo());
+		lectorCbor = cborMapper.readerFor(MovimientoRequest.class);
+		MovimientoRequest deJson = lectorJson.readValue(json);
+		MovimientoRequest deCbor = lectorCbor.readValue(cbor);
+		if (!deJson.getCodigoOperacion().equals(deCbor.getCodigoOperacion())
+				|| !deJson.getLatitud().equals(deCbor.getLatitud())
+				|| !deJson.getLongitud().equals(deCbor.getLongitud())) {
+			throw new IllegalStateException("Ambos formatos deben producir el mismo movimiento");
+		}
+	}
+
+	@Benchmark
+	public MovimientoRequest json() throws IOException {
+		return lectorJson.readValue(json);
+	}
+
+	@Benchmark
+	public MovimientoRequest cbor() throws IOException {
+		return lectorCbor.readValue(cbor);
+	}
+
+	private static byte[] compacto() throws IOException {
+		return new CBORMapper().writeValueAsBytes(
+				Arrays.asList("ROVER-01", 4, 194326077, -991332080, 150, "México", "CDMX"));
+	}
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		System.out.printf("Bytes por movimiento: JSON %d, CBOR compacto %d%n",
+				JSON.getBytes(StandardCharsets.UTF_8).length, compacto().length);
+		new Runner(new OptionsBuilder().include(FormatoIngestaBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,151 @@
+package org.axolotlj.iotcart.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.axolotlj.iotcart.cache.CatalogoSecuencias;
+import org.axolotlj.iotcart.cache.LecturaPrimaria;
+import org.axolotlj.iotcart.cache.UltimosEventosCache;
+import org.axolotlj.iotcart.controller.IotControlController;
+import org.axolotlj.iotcart.ingest.IotIngestPipeline;
+import org.axolotlj.iotcart.ingest.IotIngestSocketHandler;
+import org.axolotlj.iotcart.repository.IotProcedureRepository;
+import org.axolotlj.iotcart.service.IotEventServiceImpl;
+import org.axolotlj.iotcart.sse.EmisorEventosSse;
+import org.axolotlj.iotcart.websocket.ConflacionMovimientos;
+import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.axolotlj.iotcart.websocket.PoliticaDesborde;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.logging.LogFile;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Movimientos ingeridos por segundo en un solo hilo (un núcleo) por
+ * {@code POST /api/v1/iot/control/movimiento} frente a un frame de
+ * '/ws/iot-ingest' con su acuse.
+ * <p>
+ * Ambos caminos usan el mismo servicio real con el repositorio simulado y el
+ * perfil de logging {@code prod}, así que la diferencia es el costo de
+ * despachar la petición: el de MockMvc (filtros, resolución del handler,
+ * conversión de cuerpo y respuesta) contra el de leer el frame y escribir el
+ * acuse. No incluye el parseo HTTP ni el TLS que el canal persistente también
+ * evita; para eso, {@link CargaMovimiento} contra una instancia en ejecución.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class IngestaWebSocketBenchmark {
+
+	private static final String CUERPO = "{\"nombreDispositivo\":\"ROVER-01\",\"codigoOperacion\":\"ADELANTE\","
+			+ "\"pais\":\"México\",\"ciudad\":\"CDMX\",\"latitud\":19.4326077,\"longitud\":-99.1332080}";
+
+	private static final TextMessage FRAME = new TextMessage(
+			"{\"tipo\":\"MOVIMIENTO\",\"ref\":1,\"evento\":" + CUERPO + "}");
+
+	private MockMvc mockMvc;
+	private IotEventSocketHandler socketHandler;
+	private IotIngestSocketHandler ingestHandler;
+	private SesionSimulada sesion;
+	private WebSocketMessage<?> ultimoAcuse;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		System.setProperty("LOG_PATH", "target/jmh-logs");
+
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.setActiveProfiles("prod");
+		LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+		loggingSystem.beforeInitialize();
+		loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:log4j2-spring.xml",
+				LogFile.get(environment));
+
+		IotProcedureRepository repository = mock(IotProcedureRepository.class, withSettings().stubOnly());
+		when(repository.agregarMovimiento(any(), any(), any(), any(), any(), any(), any())).thenReturn(1L);
+		IotIngestPipeline pipeline = mock(IotIngestPipeline.class, withSettings().stubOnly());
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectMapper objectMapper = new ObjectMapper();
+		RegistroNotificaciones registro = new RegistroNotificaciones(new NotificationEncoder(objectMapper, meterRegistry),
+				1024);
+		socketHandler = new IotEventSocketHandler(meterRegistry, objectMapper, registro, 2, 5000, 1 << 20,
+				PoliticaDesborde.DESCARTAR_ANTIGUOS, false);
+		LecturaPrimaria lecturaPrimaria = new LecturaPrimaria(mock(PlatformTransactionManager.class), false);
+		IotEventServiceImpl service = new IotEventServiceImpl(repository, socketHandler, registro,
+				new UltimosEventosCache(meterRegistry, lecturaPrimaria, true, 100),
+				new CatalogoSecuencias(lecturaPrimaria, 5000),
+				new EmisorEventosSse(registro, meterRegistry, false, 0, 5000, 15000),
+				new ConflacionMovimientos(meterRegistry, false, 100));
+
+		mockMvc = MockMvcBuilders.standaloneSetup(new IotControlController(service, pipeline, 500)).build();
+		ingestHandler = new IotIngestSocketHandler(service, pipeline, objectMapper, meterRegistry);
+		sesion = new SesionSimulada("rover", mensaje -> ultimoAcuse = mensaje);
+		ingestHandler.afterConnectionEstablished(sesion);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		socketHandler.detener();
+		LogManager.shutdown();
+	}
+
+	@Benchmark
+	public MvcResult rest() throws Exception {
+		return mockMvc.perform(post("/api/v1/iot/control/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content(CUERPO)).andReturn();
+	}
+
+	@Benchmark
+	public WebSocketMessage<?> websocket() throws Exception {
+		ingestHandler.handleMessage(sesion, FRAME);
+		return ultimoAcuse;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(IngestaWebSocketBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
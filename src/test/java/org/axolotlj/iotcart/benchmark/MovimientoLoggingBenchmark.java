@@ -0,0 +1,139 @@
+package org.axolotlj.iotcart.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.axolotlj.iotcart.cache.CatalogoSecuencias;
+import org.axolotlj.iotcart.cache.LecturaPrimaria;
+import org.axolotlj.iotcart.cache.UltimosEventosCache;
+import org.axolotlj.iotcart.controller.IotControlController;
+import org.axolotlj.iotcart.ingest.IotIngestPipeline;
+import org.axolotlj.iotcart.repository.IotProcedureRepository;
+import org.axolotlj.iotcart.service.IotEventServiceImpl;
+import org.axolotlj.iotcart.sse.EmisorEventosSse;
+import org.axolotlj.iotcart.websocket.ConflacionMovimientos;
+import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.axolotlj.iotcart.websocket.PoliticaDesborde;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.logging.LogFile;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Throughput de {@code POST /api/v1/iot/control/movimiento} con la
+ * configuración de logging por defecto (síncrona, DEBUG, con ubicación y flush
+ * inmediato) frente al perfil {@code prod} de {@code log4j2-spring.xml}.
+ * <p>
+ * El controlador y el servicio son los reales, sobre MockMvc y con el
+ * repositorio simulado, así que la diferencia entre perfiles es el costo de
+ * sus logs. Log4j2 se inicializa como lo hace Spring Boot y escribe en
+ * {@code target/jmh-logs}; la consola se descarta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MovimientoLoggingBenchmark {
+
+	private static final String CUERPO = "{\"nombreDispositivo\":\"ROVER-01\",\"codigoOperacion\":\"ADELANTE\","
+			+ "\"pais\":\"México\",\"ciudad\":\"CDMX\",\"latitud\":19.4326077,\"longitud\":-99.1332080}";
+
+	/**
+	 * Perfil de Spring activo al cargar {@code log4j2-spring.xml}: "default" o
+	 * "prod".
+	 */
+	@Param({ "default", "prod" })
+	public String perfil;
+
+	private MockMvc mockMvc;
+	private IotEventSocketHandler socketHandler;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		System.setProperty("LOG_PATH", "target/jmh-logs");
+
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.setActiveProfiles(perfil);
+		LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+		loggingSystem.beforeInitialize();
+		loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:log4j2-spring.xml",
+				LogFile.get(environment));
+
+		IotProcedureRepository repository = mock(IotProcedureRepository.class, withSettings().stubOnly());
+		when(repository.agregarMovimiento(any(), any(), any(), any(), any(), any(), any())).thenReturn(1L);
+		IotIngestPipeline pipeline = mock(IotIngestPipeline.class, withSettings().stubOnly());
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ObjectMapper objectMapper = new ObjectMapper();
+		RegistroNotificaciones registro = new RegistroNotificaciones(new NotificationEncoder(objectMapper, meterRegistry),
+				1024);
+		socketHandler = new IotEventSocketHandler(meterRegistry, objectMapper, registro, 2, 5000, 1 << 20,
+				PoliticaDesborde.DESCARTAR_ANTIGUOS, false);
+		LecturaPrimaria lecturaPrimaria = new LecturaPrimaria(mock(PlatformTransactionManager.class), false);
+		IotEventServiceImpl service = new IotEventServiceImpl(repository, socketHandler, registro,
+				new UltimosEventosCache(meterRegistry, lecturaPrimaria, true, 100),
+				new CatalogoSecuencias(lecturaPrimaria, 5000),
+				new EmisorEventosSse(registro, meterRegistry, false, 0, 5000, 15000),
+				new ConflacionMovimientos(meterRegistry, false, 100));
+
+		mockMvc = MockMvcBuilders.standaloneSetup(new IotControlController(service, pipeline, 500)).build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		socketHandler.detener();
+		LogManager.shutdown();
+	}
+
+	@Benchmark
+	public MvcResult registrarMovimiento() throws Exception {
+		return mockMvc.perform(post("/api/v1/iot/control/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content(CUERPO)).andReturn();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MovimientoLoggingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,97 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.util.CoordenadaFija;
+import org.axolotlj.iotcart.websocket.MovimientoNotification;
+import org.axolotlj.iotcart.websocket.Notification;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.TextMessage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Costo por evento de construir el frame de una notificación de movimiento.
+ * <p>
+ * Compara la ruta anterior ({@code writeValueAsString} sobre un payload con
+ * coordenadas {@link BigDecimal} y un {@link TextMessage} nuevo) contra
+ * {@link NotificationEncoder}. Se ejecuta con {@link GCProfiler} para reportar
+ * la asignación por evento ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationEncodingBenchmark {
+
+	private static final String EVENTO = "NUEVO_MOVIMIENTO";
+
+	/**
+	 * Payload con la forma previa a las coordenadas en punto fijo.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class MovimientoDecimal {
+		private String nombreDispositivo;
+		private String pais;
+		private String ciudad;
+		private BigDecimal latitud;
+		private BigDecimal longitud;
+		private Integer codigoOperacion;
+		private Integer velocidad;
+	}
+
+	private ObjectMapper objectMapper;
+	private NotificationEncoder encoder;
+	private MovimientoDecimal payloadDecimal;
+	private MovimientoNotification payloadE7;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		objectMapper = new ObjectMapper();
+		encoder = new NotificationEncoder(objectMapper, new SimpleMeterRegistry());
+		BigDecimal latitud = new BigDecimal("19.4326077");
+		BigDecimal longitud = new BigDecimal("-99.1332080");
+		payloadDecimal = new MovimientoDecimal("ROVER-01", "México", "CDMX", latitud, longitud, 1, 150);
+		payloadE7 = new MovimientoNotification("ROVER-01", "México", "CDMX", CoordenadaFija.aE7(latitud),
+				CoordenadaFija.aE7(longitud), 1, 150);
+	}
+
+	@Benchmark
+	public TextMessage writeValueAsString() throws JsonProcessingException {
+		return new TextMessage(objectMapper.writeValueAsString(new Notification<>(EVENTO, payloadDecimal)));
+	}
+
+	@Benchmark
+	public TextMessage encoder() {
+		return encoder.codificar(EVENTO, payloadE7, 1L).mensaje();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NotificationEncodingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
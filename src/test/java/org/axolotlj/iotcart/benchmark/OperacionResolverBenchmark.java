@@ -0,0 +1,99 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.axolotlj.iotcart.util.OperacionEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Costo por texto resuelto de la búsqueda lineal original de
+ * {@code OperacionEnum.obtenerIdPorTexto} contra
+ * {@link OperacionEnum#resolverId(String)}.
+ * <p>
+ * Cada invocación resuelve las 11 operaciones por código de protocolo y por
+ * descripción (con mayúsculas mezcladas y espacios) más varios textos
+ * desconocidos. Se ejecuta con {@link GCProfiler} para confirmar que la tabla
+ * no asigna memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperacionResolverBenchmark {
+
+	private static final int TEXTOS = 26;
+
+	private String[] textos;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<String> lista = new ArrayList<>();
+		for (OperacionEnum op : OperacionEnum.values()) {
+			lista.add(op.getCodigoProtocolo());
+			lista.add(" " + op.getDescripcion().toUpperCase() + " ");
+		}
+		lista.addAll(List.of("SALTAR", "Adelante rapido", "", "GIRO_180_DER"));
+		textos = lista.toArray(String[]::new);
+		if (textos.length != TEXTOS) {
+			throw new IllegalStateException("Se esperaban " + TEXTOS + " textos");
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEXTOS)
+	public void busquedaLineal(Blackhole bh) {
+		for (String texto : textos) {
+			bh.consume(obtenerIdPorTextoLineal(texto).orElse(0));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TEXTOS)
+	public void tablaPrecalculada(Blackhole bh) {
+		for (String texto : textos) {
+			bh.consume(OperacionEnum.resolverId(texto));
+		}
+	}
+
+	/**
+	 * Implementación previa de {@code OperacionEnum.obtenerIdPorTexto}.
+	 */
+	private static Optional<Integer> obtenerIdPorTextoLineal(String texto) {
+		if (texto == null || texto.trim().isEmpty()) {
+			return Optional.empty();
+		}
+		String textoNormalizado = texto.trim();
+		return Arrays.stream(OperacionEnum.values())
+				.filter(op -> op.getCodigoProtocolo().equalsIgnoreCase(textoNormalizado)
+						|| op.getDescripcion().equalsIgnoreCase(textoNormalizado)
+						|| op.name().equalsIgnoreCase(textoNormalizado))
+				.map(OperacionEnum::getId).findFirst();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(OperacionResolverBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
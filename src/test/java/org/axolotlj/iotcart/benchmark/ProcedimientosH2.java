@@ -0,0 +1,163 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.h2.tools.SimpleResultSet;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Versiones en H2 de los procedimientos de consulta, para medir y probar el
+ * acceso a datos sin MySQL. Devuelven filas generadas en memoria, así que el
+ * costo que queda es el de la llamada y el mapeo.
+ */
+public final class ProcedimientosH2 {
+
+	private static final Timestamp FECHA = Timestamp.from(Instant.parse("2025-01-01T00:00:00Z"));
+
+	/**
+	 * Eventos del historial simulado, con IDs de 1 a este valor. Cada par de
+	 * eventos comparte fecha, para probar el desempate por ID.
+	 */
+	public static final int EVENTOS_HISTORIAL = 250;
+
+	private ProcedimientosH2() {
+	}
+
+	/**
+	 * Registra los procedimientos como alias de H2.
+	 */
+	public static void crear(JdbcTemplate jdbcTemplate) {
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS sp_obtener_ultimos_movimientos FOR \""
+				+ ProcedimientosH2.class.getName() + ".ultimosMovimientos\"");
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS sp_obtener_ultimos_obstaculos FOR \""
+				+ ProcedimientosH2.class.getName() + ".ultimosObstaculos\"");
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS sp_obtener_historial_movimientos FOR \""
+				+ ProcedimientosH2.class.getName() + ".historialMovimientos\"");
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS sp_obtener_historial_obstaculos FOR \""
+				+ ProcedimientosH2.class.getName() + ".historialObstaculos\"");
+		jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS sp_exportar_eventos FOR \""
+				+ ProcedimientosH2.class.getName() + ".exportarEventos\"");
+	}
+
+	/**
+	 * @return La fecha del evento {@code idEvento} del historial simulado.
+	 */
+	public static Timestamp fechaHistorial(long idEvento) {
+		return Timestamp.from(FECHA.toInstant().plusSeconds(60 * (idEvento / 2)));
+	}
+
+	/**
+	 * @return El dispositivo del evento {@code idEvento} en la exportación
+	 *         simulada: los pares son de ROVER-01 y los impares de ROVER-02.
+	 */
+	public static String dispositivoExportacion(long idEvento) {
+		return idEvento % 2 == 0 ? "ROVER-01" : "ROVER-02";
+	}
+
+	public static ResultSet ultimosMovimientos(Connection conn, String dispositivo, Integer limite)
+			throws SQLException {
+		return filas(conn, "movimiento", dispositivo, "Adelante", limite);
+	}
+
+	public static ResultSet ultimosObstaculos(Connection conn, String dispositivo, Integer limite)
+			throws SQLException {
+		return filas(conn, "obstaculo_detectado", dispositivo, "OBSTACULO_FRONTAL", limite);
+	}
+
+	private static ResultSet filas(Connection conn, String columna, String dispositivo, String valor, Integer limite)
+			throws SQLException {
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.addColumn("fecha_evento", Types.TIMESTAMP, 0, 0);
+		rs.addColumn("nombre_dispositivo", Types.VARCHAR, 100, 0);
+		rs.addColumn(columna, Types.VARCHAR, 100, 0);
+		rs.addColumn("ip_cliente", Types.VARCHAR, 45, 0);
+		// H2 llama a la función sin datos para conocer las columnas
+		if (conn.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+			return rs;
+		}
+		for (int i = 0; i < limite; i++) {
+			rs.addRow(FECHA, dispositivo, valor, "192.168.1.100");
+		}
+		return rs;
+	}
+
+	public static ResultSet historialMovimientos(Connection conn, String dispositivo, Timestamp desde,
+			Timestamp hasta, Timestamp cursorFecha, Long cursorId, Integer limite) throws SQLException {
+		return historial(conn, "movimiento", dispositivo, "Adelante", desde, hasta, cursorFecha, cursorId, limite);
+	}
+
+	public static ResultSet historialObstaculos(Connection conn, String dispositivo, Timestamp desde,
+			Timestamp hasta, Timestamp cursorFecha, Long cursorId, Integer limite) throws SQLException {
+		return historial(conn, "obstaculo_detectado", dispositivo, "OBSTACULO_FRONTAL", desde, hasta, cursorFecha,
+				cursorId, limite);
+	}
+
+	/**
+	 * Recorre el historial simulado con la semántica de los SPs de historial:
+	 * rango {@code [desde, hasta)}, posiciones estrictamente anteriores al
+	 * cursor y orden {@code fecha_evento DESC, id_evento DESC}.
+	 */
+	private static ResultSet historial(Connection conn, String columna, String dispositivo, String valor,
+			Timestamp desde, Timestamp hasta, Timestamp cursorFecha, Long cursorId, Integer limite)
+			throws SQLException {
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.addColumn("id_evento", Types.BIGINT, 19, 0);
+		rs.addColumn("fecha_evento", Types.TIMESTAMP, 0, 0);
+		rs.addColumn("nombre_dispositivo", Types.VARCHAR, 100, 0);
+		rs.addColumn(columna, Types.VARCHAR, 100, 0);
+		rs.addColumn("ip_cliente", Types.VARCHAR, 45, 0);
+		if (conn.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+			return rs;
+		}
+		int filas = 0;
+		for (long id = EVENTOS_HISTORIAL; id >= 1 && filas < limite; id--) {
+			Timestamp fecha = fechaHistorial(id);
+			boolean enRango = (desde == null || !fecha.before(desde)) && (hasta == null || fecha.before(hasta));
+			boolean despuesDelCursor = cursorFecha == null || fecha.before(cursorFecha)
+					|| (fecha.equals(cursorFecha) && id < cursorId);
+			if (enRango && despuesDelCursor) {
+				rs.addRow(id, fecha, dispositivo, valor, "192.168.1.100");
+				filas++;
+			}
+		}
+		return rs;
+	}
+
+	/**
+	 * Recorre el historial simulado con la semántica de 'sp_exportar_eventos':
+	 * IDs mayores a {@code despuesDeId}, rango {@code [desde, hasta)},
+	 * dispositivos separados por comas y orden {@code id_evento ASC}.
+	 */
+	public static ResultSet exportarEventos(Connection conn, String tipo, String dispositivos, Timestamp desde,
+			Timestamp hasta, Long despuesDeId, Integer limite) throws SQLException {
+		SimpleResultSet rs = new SimpleResultSet();
+		rs.addColumn("id_evento", Types.BIGINT, 19, 0);
+		rs.addColumn("fecha_evento", Types.TIMESTAMP, 0, 0);
+		rs.addColumn("nombre_dispositivo", Types.VARCHAR, 100, 0);
+		rs.addColumn("evento", Types.VARCHAR, 100, 0);
+		rs.addColumn("ip_cliente", Types.VARCHAR, 45, 0);
+		if (conn.getMetaData().getURL().equals("jdbc:columnlist:connection")) {
+			return rs;
+		}
+		List<String> incluidos = dispositivos != null ? Arrays.asList(dispositivos.split(",")) : null;
+		String evento = "MOVIMIENTO".equals(tipo) ? "Adelante" : "OBSTACULO_FRONTAL";
+		int filas = 0;
+		for (long id = despuesDeId + 1; id <= EVENTOS_HISTORIAL && filas < limite; id++) {
+			Timestamp fecha = fechaHistorial(id);
+			String dispositivo = dispositivoExportacion(id);
+			boolean enRango = (desde == null || !fecha.before(desde)) && (hasta == null || fecha.before(hasta));
+			if (enRango && (incluidos == null || incluidos.contains(dispositivo))) {
+				rs.addRow(id, fecha, dispositivo, evento, "192.168.1.100");
+				filas++;
+			}
+		}
+		return rs;
+	}
+}
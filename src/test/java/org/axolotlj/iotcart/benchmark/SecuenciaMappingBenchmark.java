@@ -0,0 +1,93 @@
+package org.axolotlj.iotcart.benchmark;
+
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.axolotlj.iotcart.cache.CatalogoSecuencias;
+import org.axolotlj.iotcart.cache.LecturaPrimaria;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.util.OperacionEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Costo de construir la respuesta de {@code GET /secuencia} a partir de las
+ * filas de 'sp_obtener_ultimas_secuencias_demo' (20 secuencias).
+ * <p>
+ * Compara el mapeo por petición que hacía {@code IotQueryController} (split de
+ * {@code " -> "} y {@code SecuenciaResponse} nuevos en cada GET) contra la
+ * lectura del {@link CatalogoSecuencias} ya cargado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecuenciaMappingBenchmark {
+
+	private static final int SECUENCIAS = 20;
+
+	@Param({ "5", "20" })
+	public int pasosPorSecuencia;
+
+	private List<UltimasSecuenciasDto> filas;
+	private CatalogoSecuencias catalogo;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		OperacionEnum[] operaciones = OperacionEnum.values();
+		filas = new ArrayList<>(SECUENCIAS);
+		for (int i = 0; i < SECUENCIAS; i++) {
+			List<String> pasos = new ArrayList<>(pasosPorSecuencia);
+			for (int p = 0; p < pasosPorSecuencia; p++) {
+				pasos.add(operaciones[(i + p) % operaciones.length].getDescripcion());
+			}
+			filas.add(new UltimasSecuenciasDto(i + 1, "Secuencia " + (i + 1), Timestamp.from(Instant.now()),
+					pasosPorSecuencia, String.join(" -> ", pasos)));
+		}
+		catalogo = new CatalogoSecuencias(new LecturaPrimaria(mock(PlatformTransactionManager.class), false), 60_000);
+		catalogo.listar(() -> filas);
+	}
+
+	@Benchmark
+	public List<SecuenciaResponse> splitPorPeticion() {
+		return filas.stream()
+				.map(dto -> new SecuenciaResponse(dto.id_secuencia(), dto.nombre_secuencia(),
+						dto.fecha_creacion(), dto.numero_pasos(), Arrays.asList(dto.pasos().split(" -> "))))
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<SecuenciaResponse> catalogo() {
+		return catalogo.listar(() -> filas);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SecuenciaMappingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
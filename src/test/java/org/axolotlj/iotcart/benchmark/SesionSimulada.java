@@ -0,0 +1,123 @@
+package org.axolotlj.iotcart.benchmark;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Sesión WebSocket en memoria para los benchmarks. No hace I/O: cada envío
+ * solo notifica al {@link Receptor} configurado.
+ */
+public class SesionSimulada implements WebSocketSession {
+
+	/**
+	 * Recibe cada mensaje "enviado" por la sesión.
+	 */
+	@FunctionalInterface
+	public interface Receptor {
+		void recibir(WebSocketMessage<?> mensaje);
+	}
+
+	private final String id;
+	private final Receptor receptor;
+	private final Map<String, Object> atributos = new ConcurrentHashMap<>();
+	private volatile boolean abierta = true;
+
+	public SesionSimulada(String id, Receptor receptor) {
+		this.id = id;
+		this.receptor = receptor;
+	}
+
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public URI getUri() {
+		return URI.create("ws://localhost/ws/iot-events");
+	}
+
+	@Override
+	public HttpHeaders getHandshakeHeaders() {
+		return HttpHeaders.EMPTY;
+	}
+
+	@Override
+	public Map<String, Object> getAttributes() {
+		return atributos;
+	}
+
+	@Override
+	public Principal getPrincipal() {
+		return null;
+	}
+
+	@Override
+	public InetSocketAddress getLocalAddress() {
+		return null;
+	}
+
+	@Override
+	public InetSocketAddress getRemoteAddress() {
+		return null;
+	}
+
+	@Override
+	public String getAcceptedProtocol() {
+		return null;
+	}
+
+	@Override
+	public void setTextMessageSizeLimit(int messageSizeLimit) {
+	}
+
+	@Override
+	public int getTextMessageSizeLimit() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+	}
+
+	@Override
+	public int getBinaryMessageSizeLimit() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public List<WebSocketExtension> getExtensions() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void sendMessage(WebSocketMessage<?> message) {
+		receptor.recibir(message);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return abierta;
+	}
+
+	@Override
+	public void close() {
+		abierta = false;
+	}
+
+	@Override
+	public void close(CloseStatus status) {
+		abierta = false;
+	}
+}
@@ -0,0 +1,105 @@
+package org.axolotlj.iotcart.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Pruebas unitarias para el catálogo de secuencias DEMO.
+ */
+public class CatalogoSecuenciasTest {
+
+	private CatalogoSecuencias catalogo;
+
+	private int consultasBd;
+	private final List<UltimasSecuenciasDto> filasBd = new ArrayList<>();
+	private final Supplier<List<UltimasSecuenciasDto>> consultaBd = () -> {
+		consultasBd++;
+		return List.copyOf(filasBd);
+	};
+
+	@BeforeEach
+	public void setUp() {
+		catalogo = new CatalogoSecuencias(new LecturaPrimaria(mock(PlatformTransactionManager.class), false), 60_000);
+		consultasBd = 0;
+		filasBd.clear();
+		filasBd.add(secuencia(1, "Adelante -> Giro 90° derecha -> Detener"));
+	}
+
+	@Test
+	public void testBuscarPorIdSinVolverALaBaseDeDatos() {
+		// Act
+		Optional<SecuenciaCatalogada> primera = catalogo.buscar(1, consultaBd);
+		Optional<SecuenciaCatalogada> segunda = catalogo.buscar(1, consultaBd);
+
+		// Assert: una sola lectura y pasos ya mapeados a IDs
+		assertEquals(1, consultasBd);
+		assertEquals(List.of(1, 8, 3), primera.orElseThrow().pasosIds());
+		assertEquals(List.of("Adelante", "Giro 90° derecha", "Detener"),
+				segunda.orElseThrow().respuesta().getPasos());
+	}
+
+	@Test
+	public void testIdMayorQueLosConocidosRecarga() {
+		// Arrange: la secuencia 2 se creó en otra instancia, pasado el intervalo
+		catalogo = new CatalogoSecuencias(new LecturaPrimaria(mock(PlatformTransactionManager.class), false), 0);
+		catalogo.buscar(1, consultaBd);
+		filasBd.add(secuencia(2, "Atrás"));
+
+		// Act
+		Optional<SecuenciaCatalogada> nueva = catalogo.buscar(2, consultaBd);
+		Optional<SecuenciaCatalogada> antigua = catalogo.buscar(0, consultaBd);
+
+		// Assert: solo el ID mayor recarga
+		assertEquals(List.of(2), nueva.orElseThrow().pasosIds());
+		assertTrue(antigua.isEmpty());
+		assertEquals(2, consultasBd);
+	}
+
+	@Test
+	public void testIdsDesconocidosNoRecarganEnCadaBusqueda() {
+		// Arrange: el catálogo solo tiene las últimas secuencias
+		filasBd.clear();
+		filasBd.add(secuencia(40, "Adelante"));
+		catalogo.buscar(40, consultaBd);
+
+		// Act: una secuencia antigua y un ID inexistente, varias veces
+		for (int i = 0; i < 5; i++) {
+			assertTrue(catalogo.buscar(3, consultaBd).isEmpty());
+			assertTrue(catalogo.buscar(99, consultaBd).isEmpty());
+		}
+
+		// Assert: el 3 es anterior a las conocidas y el 99 no recarga dentro del intervalo
+		assertEquals(1, consultasBd);
+	}
+
+	@Test
+	public void testInvalidarFuerzaRecarga() {
+		// Arrange
+		catalogo.listar(consultaBd);
+
+		// Act: sin transacción activa la invalidación es inmediata
+		catalogo.invalidar();
+		catalogo.listar(consultaBd);
+
+		// Assert
+		assertEquals(2, consultasBd);
+	}
+
+	private static UltimasSecuenciasDto secuencia(int id, String pasos) {
+		return new UltimasSecuenciasDto(id, "Secuencia " + id, Timestamp.from(Instant.now()),
+				pasos.split(" -> ").length, pasos);
+	}
+}
@@ -0,0 +1,185 @@
+package org.axolotlj.iotcart.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas unitarias para la caché de últimos eventos y sus eventos recientes
+ * por dispositivo.
+ */
+public class UltimosEventosCacheTest {
+
+	private static final String DISPOSITIVO = "ROVER-01";
+
+	private SimpleMeterRegistry meterRegistry;
+	private PlatformTransactionManager transactionManager;
+	private UltimosEventosCache cache;
+
+	// Simula el SP: registra los límites consultados y devuelve la historia dada
+	private final List<Integer> consultasBd = new ArrayList<>();
+	private List<UltimosMovimientosDto> historiaBd;
+
+	private final IntFunction<List<UltimosMovimientosDto>> consultaBd = limite -> {
+		consultasBd.add(limite);
+		return new ArrayList<>(historiaBd.subList(0, Math.min(limite, historiaBd.size())));
+	};
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		transactionManager = mock(PlatformTransactionManager.class);
+		cache = new UltimosEventosCache(meterRegistry, new LecturaPrimaria(transactionManager, true), true, 5);
+		consultasBd.clear();
+		historiaBd = List.of(movimiento("Atrás"), movimiento("Adelante"));
+	}
+
+	@Test
+	public void testCalientaUnaVezYLuegoRespondeDesdeMemoria() {
+		// Act: la primera consulta calienta con su propio límite
+		List<UltimosMovimientosDto> primera = cache.ultimosMovimientos(DISPOSITIVO, 3, consultaBd);
+		List<UltimosMovimientosDto> segunda = cache.ultimosMovimientos(DISPOSITIVO, 1, consultaBd);
+
+		// Assert: la historia es completa, por lo que 3 se responde con 2 filas
+		assertEquals(List.of(3), consultasBd);
+		assertEquals(List.of("Atrás", "Adelante"), descripciones(primera));
+		assertEquals(List.of("Atrás"), descripciones(segunda));
+		assertEquals(1.0, meterRegistry.get("iotcart.cache.ultimos.consultas").tag("tipo", "movimiento")
+				.tag("resultado", "acierto").counter().count());
+	}
+
+	@Test
+	public void testRegistrarAgregaLasFilasReleidasSinVolverACargar() {
+		// Arrange
+		cache.ultimosMovimientos(DISPOSITIVO, 2, consultaBd);
+		UltimosMovimientosDto nuevo = movimiento("Giro 90° derecha");
+		historiaBd = List.of(nuevo, movimiento("Atrás"), movimiento("Adelante"));
+
+		// Act: sin transacción activa la fila se agrega de inmediato
+		Long id = cache.registrarMovimientos(Map.of(DISPOSITIVO, 1), () -> 7L,
+				(dispositivo, cantidad) -> consultaBd.apply(cantidad));
+		List<UltimosMovimientosDto> ultimos = cache.ultimosMovimientos(DISPOSITIVO, 3, consultaBd);
+
+		// Assert: solo se releyó la fila insertada, con su descripción y su fecha del SP
+		assertEquals(7L, id);
+		assertEquals(List.of(2, 1), consultasBd);
+		assertSame(nuevo, ultimos.get(0));
+		assertEquals(List.of("Giro 90° derecha", "Atrás", "Adelante"), descripciones(ultimos));
+	}
+
+	@Test
+	public void testRegistrarEnDispositivoSinConsultasNoRelee() {
+		// Act
+		cache.registrarMovimientos(Map.of(DISPOSITIVO, 1), () -> 7L,
+				(dispositivo, cantidad) -> consultaBd.apply(cantidad));
+
+		// Assert
+		assertEquals(List.of(), consultasBd);
+	}
+
+	@Test
+	public void testEscriturasCruzadasInvalidan() {
+		// Arrange: la segunda escritura se confirma mientras la primera inserta
+		cache.ultimosMovimientos(DISPOSITIVO, 2, consultaBd);
+
+		// Act
+		cache.registrarMovimientos(Map.of(DISPOSITIVO, 1), () -> cache.registrarMovimientos(
+				Map.of(DISPOSITIVO, 1), () -> 8L, (dispositivo, cantidad) -> consultaBd.apply(cantidad)),
+				(dispositivo, cantidad) -> consultaBd.apply(cantidad));
+		cache.ultimosMovimientos(DISPOSITIVO, 2, consultaBd);
+
+		// Assert: la siguiente consulta vuelve a la base de datos
+		assertEquals(List.of(2, 1, 1, 2), consultasBd);
+	}
+
+	@Test
+	public void testCargaEnTransaccionPropiaQueNoEsDeSoloLectura() {
+		// Act
+		cache.ultimosMovimientos(DISPOSITIVO, 1, consultaBd);
+
+		// Assert: con réplica, solo así la carga lee la base primaria
+		ArgumentCaptor<TransactionDefinition> definicion = ArgumentCaptor.forClass(TransactionDefinition.class);
+		verify(transactionManager).getTransaction(definicion.capture());
+		assertFalse(definicion.getValue().isReadOnly());
+		assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definicion.getValue().getPropagationBehavior());
+	}
+
+	@Test
+	public void testSinReplicaCargaEnLaTransaccionDeLaConsulta() {
+		// Arrange
+		cache = new UltimosEventosCache(meterRegistry, new LecturaPrimaria(transactionManager, false), true, 5);
+
+		// Act
+		cache.ultimosMovimientos(DISPOSITIVO, 1, consultaBd);
+
+		// Assert: una transacción nueva pediría una segunda conexión a la primaria
+		assertEquals(List.of(1), consultasBd);
+		verifyNoInteractions(transactionManager);
+	}
+
+	@Test
+	public void testLimiteMayorQueCapacidadVaALaBaseDeDatos() {
+		// Act
+		cache.ultimosMovimientos(DISPOSITIVO, 6, consultaBd);
+
+		// Assert: sin cargar la caché, la consulta sigue en la transacción del servicio
+		assertEquals(List.of(6), consultasBd);
+		verifyNoInteractions(transactionManager);
+		assertEquals(1.0, meterRegistry.get("iotcart.cache.ultimos.consultas").tag("tipo", "movimiento")
+				.tag("resultado", "fallo").counter().count());
+	}
+
+	@Test
+	public void testHistoriaIncompletaNoRespondeMasDeLoSembrado() {
+		// Arrange
+		EventosRecientes<Integer> eventos = new EventosRecientes<>(3);
+		eventos.sembrar(eventos.getEstado(), List.of(5, 4, 3, 2), false);
+
+		// Assert: guarda solo la capacidad y no inventa lo que no leyó
+		assertEquals(List.of(5, 4, 3), eventos.ultimos(3));
+		assertNull(eventos.ultimos(4));
+	}
+
+	@Test
+	public void testSiembraDescartadaSiSeInvalidoDuranteLaLectura() {
+		// Arrange
+		EventosRecientes<Integer> eventos = new EventosRecientes<>(4);
+		EventosRecientes.Estado<Integer> antes = eventos.getEstado();
+		eventos.invalidar();
+
+		// Act
+		boolean sembrado = eventos.sembrar(antes, List.of(9, 8), true);
+
+		// Assert
+		assertFalse(sembrado);
+		assertNull(eventos.ultimos(2));
+	}
+
+	private static UltimosMovimientosDto movimiento(String descripcion) {
+		return new UltimosMovimientosDto(Timestamp.from(Instant.now()), DISPOSITIVO, descripcion, "10.0.0.2");
+	}
+
+	private static List<String> descripciones(List<UltimosMovimientosDto> movimientos) {
+		return movimientos.stream().map(UltimosMovimientosDto::movimiento).toList();
+	}
+}
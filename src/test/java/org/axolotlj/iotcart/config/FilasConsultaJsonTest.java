@@ -0,0 +1,63 @@
+package org.axolotlj.iotcart.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.response.ApiResponse;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pruebas unitarias para los serializadores de las filas de consulta: deben
+ * producir exactamente el mismo JSON que la serialización por reflexión.
+ */
+public class FilasConsultaJsonTest {
+
+	private static final Timestamp FECHA = Timestamp.from(Instant.parse("2025-03-01T12:30:45.123Z"));
+
+	private final ObjectMapper reflexion = Jackson2ObjectMapperBuilder.json().build();
+	private final ObjectMapper serializadores = Jackson2ObjectMapperBuilder.json()
+			.serializers(new FilasConsultaJson.MovimientoSerializer(), new FilasConsultaJson.ObstaculoSerializer(),
+					new FilasConsultaJson.SecuenciaSerializer())
+			.build();
+
+	@Test
+	public void testMovimientosIgualQueReflexion() throws Exception {
+		// Arrange
+		ApiResponse<List<UltimosMovimientosDto>> respuesta = ApiResponse.success(
+				List.of(new UltimosMovimientosDto(FECHA, "ROVER-01", "Adelante", "10.0.0.1"),
+						new UltimosMovimientosDto(null, "ROVER-01", null, null)));
+
+		// Assert
+		assertEquals(reflexion.writeValueAsString(respuesta), serializadores.writeValueAsString(respuesta));
+	}
+
+	@Test
+	public void testObstaculosIgualQueReflexion() throws Exception {
+		// Arrange
+		ApiResponse<List<UltimosObstaculosDto>> respuesta = ApiResponse
+				.success(List.of(new UltimosObstaculosDto(FECHA, "DRON-01", "Adelante-Derecha", "10.0.0.2")));
+
+		// Assert
+		assertEquals(reflexion.writeValueAsString(respuesta), serializadores.writeValueAsString(respuesta));
+	}
+
+	@Test
+	public void testSecuenciasIgualQueReflexion() throws Exception {
+		// Arrange
+		ApiResponse<List<SecuenciaResponse>> respuesta = ApiResponse.success(
+				List.of(new SecuenciaResponse(7, "Demo", FECHA, 2, List.of("Adelante", "Detener")),
+						new SecuenciaResponse(8, "Vacía", null, 0, List.of())));
+
+		// Assert
+		assertEquals(reflexion.writeValueAsString(respuesta), serializadores.writeValueAsString(respuesta));
+	}
+}
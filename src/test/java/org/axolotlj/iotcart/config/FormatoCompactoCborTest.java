@@ -0,0 +1,128 @@
+package org.axolotlj.iotcart.config;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.axolotlj.iotcart.controller.IotControlController;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.ingest.IotIngestPipeline;
+import org.axolotlj.iotcart.service.IotEventService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * Pruebas del formato compacto CBOR en los endpoints de control.
+ */
+@WebMvcTest(IotControlController.class)
+@Import(FormatoCompactoCbor.class)
+public class FormatoCompactoCborTest {
+
+	private static final CBORMapper CBOR = new CBORMapper();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private IotEventService iotEventService;
+
+	@MockBean
+	private IotIngestPipeline iotIngestPipeline;
+
+	@Test
+	public void testMovimientoCompactoLlegaIgualQueElJson() throws Exception {
+		// Arrange
+		when(iotEventService.registrarMovimiento(any(MovimientoRequest.class), anyString())).thenReturn(123L);
+
+		// Act
+		enviar("/api/v1/iot/control/movimiento",
+				Arrays.asList("ROVER-01", 4, 194326077, -991332080, 150, "México", "CDMX"))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.data.id").value(123));
+
+		// Assert
+		ArgumentCaptor<MovimientoRequest> captor = ArgumentCaptor.forClass(MovimientoRequest.class);
+		verify(iotEventService).registrarMovimiento(captor.capture(), anyString());
+		MovimientoRequest movimiento = captor.getValue();
+		assertEquals("ROVER-01", movimiento.getNombreDispositivo());
+		assertEquals("VUELTA_ADELANTE_DER", movimiento.getCodigoOperacion());
+		assertEquals(new BigDecimal("19.4326077"), movimiento.getLatitud());
+		assertEquals(new BigDecimal("-99.1332080"), movimiento.getLongitud());
+		assertEquals(150, movimiento.getVelocidad());
+		assertEquals("CDMX", movimiento.getCiudad());
+	}
+
+	@Test
+	public void testLotesYCamposOpcionales() throws Exception {
+		// Arrange
+		when(iotEventService.registrarMovimientos(anyList(), anyString())).thenReturn(List.of(10L, 11L));
+		when(iotEventService.registrarObstaculo(any(ObstaculoRequest.class), anyString())).thenReturn(20L);
+
+		// Act: el segundo movimiento omite velocidad, país y ciudad y no trae ubicación
+		enviar("/api/v1/iot/control/movimiento/batch", List.of(
+				Arrays.asList("ROVER-01", 1, 194326077, -991332080, 80),
+				Arrays.asList("ROVER-01", 3, null, null)))
+				.andExpect(status().isCreated()).andExpect(jsonPath("$.data[1].id").value(11));
+		enviar("/api/v1/iot/control/obstaculo", Arrays.asList("ROVER-01", "PARED", 194326077, -991332080))
+				.andExpect(status().isCreated());
+
+		// Assert
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<MovimientoRequest>> lote = ArgumentCaptor.forClass(List.class);
+		verify(iotEventService).registrarMovimientos(lote.capture(), anyString());
+		MovimientoRequest detener = lote.getValue().get(1);
+		assertEquals("DETENER", detener.getCodigoOperacion());
+		assertEquals(0, detener.getVelocidad());
+		assertNull(detener.getLatitud());
+
+		ArgumentCaptor<ObstaculoRequest> obstaculo = ArgumentCaptor.forClass(ObstaculoRequest.class);
+		verify(iotEventService).registrarObstaculo(obstaculo.capture(), anyString());
+		assertEquals("PARED", obstaculo.getValue().getCodigoObstaculo());
+		assertNull(obstaculo.getValue().getPais());
+	}
+
+	@Test
+	public void testArreglosInvalidosSeRechazanCon400() throws Exception {
+		// Act & Assert: ID de operación desconocido
+		enviar("/api/v1/iot/control/movimiento", Arrays.asList("ROVER-01", 99, 194326077, -991332080))
+				.andExpect(status().isBadRequest()).andExpect(jsonPath("$.success", is(false)));
+		// ID de operación null
+		enviar("/api/v1/iot/control/movimiento", Arrays.asList("ROVER-01", null, 1, 2))
+				.andExpect(status().isBadRequest()).andExpect(jsonPath("$.success", is(false)));
+		// Faltan elementos obligatorios
+		enviar("/api/v1/iot/control/movimiento", List.of("ROVER-01", 1)).andExpect(status().isBadRequest());
+		// Elementos de más
+		enviar("/api/v1/iot/control/obstaculo",
+				Arrays.asList("ROVER-01", "PARED", 1, 2, "México", "CDMX", "extra"))
+				.andExpect(status().isBadRequest());
+
+		verifyNoInteractions(iotEventService);
+	}
+
+	private ResultActions enviar(String url, Object cuerpo) throws Exception {
+		return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_CBOR).accept(MediaType.APPLICATION_JSON)
+				.content(CBOR.writeValueAsBytes(cuerpo)));
+	}
+}
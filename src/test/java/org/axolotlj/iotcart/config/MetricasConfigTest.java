@@ -0,0 +1,52 @@
+package org.axolotlj.iotcart.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Method;
+
+import org.axolotlj.iotcart.repository.IotProcedureOperations;
+import org.axolotlj.iotcart.repository.IotProcedureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocationResult;
+
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Pruebas unitarias para las etiquetas de las métricas de repositorio.
+ */
+public class MetricasConfigTest {
+
+	@Test
+	public void testConsultaJpaSeEtiquetaComoElMetodoDelRepositorioJdbc() throws Exception {
+		// Arrange: el método que mide Spring Data en modo JPA
+		Method consulta = IotProcedureRepository.class.getMethod("consultarUltimosMovimientos", String.class,
+				int.class);
+		RepositoryMethodInvocation invocacion = new RepositoryMethodInvocation(IotProcedureRepository.class,
+				consulta, exito(), 1_000);
+
+		// Act
+		Tags etiquetas = Tags.of(new MetricasConfig().repositoryTagsProvider().repositoryTags(invocacion));
+
+		// Assert
+		assertEquals(Tags.of("method", "obtenerUltimosMovimientos").and("procedimiento",
+				"sp_obtener_ultimos_movimientos").and("repository", "IotProcedureRepository").and("state", "SUCCESS")
+				.and("exception", "None"), etiquetas);
+		// El nombre reportado existe en la interfaz que implementa el repositorio JDBC
+		IotProcedureOperations.class.getMethod(MetricasConfig.metodo(consulta), String.class, int.class);
+	}
+
+	private static RepositoryMethodInvocationResult exito() {
+		return new RepositoryMethodInvocationResult() {
+			@Override
+			public State getState() {
+				return State.SUCCESS;
+			}
+
+			@Override
+			public Throwable getError() {
+				return null;
+			}
+		};
+	}
+}
@@ -0,0 +1,108 @@
+package org.axolotlj.iotcart.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.axolotlj.iotcart.benchmark.ProcedimientosH2;
+import org.axolotlj.iotcart.cache.LecturaPrimaria;
+import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.axolotlj.iotcart.service.IotEventService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pruebas de la separación de lecturas y escrituras sobre dos bases H2 en
+ * memoria: 'primaria' y 'replica'.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"iotcart.bd.replica.habilitada=true",
+		"spring.datasource.url=jdbc:h2:mem:primaria;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+		"iotcart.bd.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+		"iotcart.bd.replica.hikari.maximum-pool-size=3",
+		"iotcart.cache.ultimos.habilitada=false" })
+public class ReplicaLecturaConfigTest {
+
+	private static final String BASE_ACTUAL = "SELECT DATABASE()";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private HikariDataSource replicaDataSource;
+
+	@Autowired
+	private IotEventService iotEventService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private LecturaPrimaria lecturaPrimaria;
+
+	@Test
+	public void testSoloLecturaVaALaReplicaYEscrituraALaPrimaria() {
+		// Act
+		String lectura = plantilla(true).execute(status -> jdbcTemplate.queryForObject(BASE_ACTUAL, String.class));
+		String escritura = plantilla(false).execute(status -> jdbcTemplate.queryForObject(BASE_ACTUAL, String.class));
+
+		// Assert
+		assertEquals("REPLICA", lectura);
+		assertEquals("PRIMARIA", escritura);
+	}
+
+	@Test
+	public void testConsultaDelServicioUsaLaReplica() {
+		// Arrange: el procedimiento solo existe en la réplica
+		ProcedimientosH2.crear(new JdbcTemplate(replicaDataSource));
+
+		// Act
+		List<UltimosObstaculosDto> obstaculos = iotEventService.obtenerUltimosObstaculos("ROVER-01", 2);
+
+		// Assert
+		assertEquals(2, obstaculos.size());
+		assertEquals("ROVER-01", obstaculos.get(0).nombre_dispositivo());
+	}
+
+	@Test
+	public void testCargaDeCacheDentroDeUnaConsultaLeeLaPrimaria() {
+		// Act: como la recarga del catálogo dentro de una consulta de solo lectura
+		String base = plantilla(true).execute(status -> lecturaPrimaria
+				.leer(() -> jdbcTemplate.queryForObject(BASE_ACTUAL, String.class)));
+
+		// Assert
+		assertEquals("PRIMARIA", base);
+	}
+
+	@Test
+	public void testCadaPoolTieneSuTamanoYSusMetricas() {
+		// Arrange: las métricas de Hikari aparecen al abrir cada pool
+		plantilla(true).execute(status -> jdbcTemplate.queryForObject(BASE_ACTUAL, String.class));
+		plantilla(false).execute(status -> jdbcTemplate.queryForObject(BASE_ACTUAL, String.class));
+
+		// Assert
+		assertEquals(3.0, meterRegistry.get("hikaricp.connections.max").tag("pool", ReplicaLecturaConfig.POOL_REPLICA)
+				.gauge().value());
+		assertEquals(10.0, meterRegistry.get("hikaricp.connections.max")
+				.tag("pool", ReplicaLecturaConfig.POOL_PRIMARIA).gauge().value());
+	}
+
+	private TransactionTemplate plantilla(boolean soloLectura) {
+		TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+		plantilla.setReadOnly(soloLectura);
+		return plantilla;
+	}
+}
@@ -1,20 +1,30 @@
 package org.axolotlj.iotcart.controller;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
 import org.axolotlj.iotcart.dto.request.MovimientoRequest;
 import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
 import org.axolotlj.iotcart.dto.request.SecuenciaDemoRequest;
+import org.axolotlj.iotcart.exception.CoordenadaInvalidaException;
+import org.axolotlj.iotcart.exception.IngestaSaturadaException;
+import org.axolotlj.iotcart.ingest.IotIngestPipeline;
 import org.axolotlj.iotcart.service.IotEventService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +39,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * Pruebas unitarias para IotControlController. Actualizadas para esperar el
  * formato ApiResponse { success, data, error }.
  */
-@WebMvcTest(IotControlController.class)
+@WebMvcTest(controllers = IotControlController.class, properties = "iotcart.control.lote-maximo=2")
 public class IotControlControllerTest {
 
 	@Autowired
@@ -41,6 +51,9 @@ public class IotControlControllerTest {
 	@MockBean
 	private IotEventService iotEventService;
 
+	@MockBean
+	private IotIngestPipeline iotIngestPipeline;
+
 	/**
 	 * Prueba el endpoint POST /api/v1/iot/control/movimiento
 	 */
@@ -63,6 +76,47 @@ public class IotControlControllerTest {
 				.andExpect(jsonPath("$.data.id").value(expectedEventId)); // Verificar el ID anidado
 	}
 
+	/**
+	 * Prueba que una coordenada fuera de rango se responda con 400.
+	 */
+	@Test
+	public void testRegistrarMovimientoConCoordenadaInvalidaDevuelve400() throws Exception {
+		// Arrange
+		MovimientoRequest request = new MovimientoRequest();
+		request.setNombreDispositivo("ROVER-TEST");
+		request.setCodigoOperacion("ADELANTE");
+		request.setLongitud(new BigDecimal("-300.5"));
+
+		when(iotEventService.registrarMovimiento(any(MovimientoRequest.class), anyString()))
+				.thenThrow(new CoordenadaInvalidaException("longitud", request.getLongitud(), 180));
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.success", is(false)))
+				.andExpect(jsonPath("$.error", is("La longitud debe estar entre -180 y 180 grados: -300.5")));
+	}
+
+	/**
+	 * Prueba que la respuesta incluya el desglose Server-Timing.
+	 */
+	@Test
+	public void testRegistrarMovimientoIncluyeServerTiming() throws Exception {
+		// Arrange
+		MovimientoRequest request = new MovimientoRequest();
+		request.setNombreDispositivo("ROVER-TEST");
+		request.setCodigoOperacion("ADELANTE");
+
+		when(iotEventService.registrarMovimiento(any(MovimientoRequest.class), anyString())).thenReturn(1L);
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isCreated())
+				.andExpect(header().string("Server-Timing", matchesPattern(
+						"db;dur=\\d+\\.\\d{3}, notif;dur=\\d+\\.\\d{3}, fanout;dur=\\d+\\.\\d{3}, "
+								+ "resp;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}")));
+	}
+
 	/**
 	 * Prueba el endpoint POST /api/v1/iot/control/obstaculo
 	 */
@@ -84,6 +138,105 @@ public class IotControlControllerTest {
 				.andExpect(jsonPath("$.data.id").value(expectedEventId)); // Verificar el ID anidado
 	}
 
+	/**
+	 * Prueba que POST /api/v1/iot/control/movimiento responde 202 con un ticket
+	 * cuando la ingesta asíncrona está habilitada.
+	 */
+	@Test
+	public void testRegistrarMovimientoAsincrono() throws Exception {
+		// Arrange
+		MovimientoRequest request = new MovimientoRequest();
+		request.setNombreDispositivo("ROVER-TEST");
+		request.setCodigoOperacion("ADELANTE");
+
+		when(iotIngestPipeline.isHabilitada()).thenReturn(true);
+		when(iotIngestPipeline.encolarMovimiento(any(MovimientoRequest.class), anyString())).thenReturn(42L);
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/movimiento").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isAccepted()) // Espera HTTP 202
+				.andExpect(jsonPath("$.success", is(true)))
+				.andExpect(jsonPath("$.data.ticket").value(42));
+	}
+
+	/**
+	 * Prueba que POST /api/v1/iot/control/obstaculo responde 429 cuando la cola de
+	 * ingesta asíncrona está llena.
+	 */
+	@Test
+	public void testRegistrarObstaculoColaLlena() throws Exception {
+		// Arrange
+		ObstaculoRequest request = new ObstaculoRequest();
+		request.setNombreDispositivo("ROVER-TEST");
+		request.setCodigoObstaculo("OBS_ADELANTE");
+
+		when(iotIngestPipeline.isHabilitada()).thenReturn(true);
+		when(iotIngestPipeline.encolarObstaculo(any(ObstaculoRequest.class), anyString()))
+				.thenThrow(new IngestaSaturadaException(1));
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/obstaculo").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(request))).andExpect(status().isTooManyRequests())
+				.andExpect(jsonPath("$.success", is(false)));
+	}
+
+	/**
+	 * Prueba el endpoint POST /api/v1/iot/control/movimiento/batch
+	 */
+	@Test
+	public void testRegistrarMovimientosLote() throws Exception {
+		// Arrange
+		MovimientoRequest primero = new MovimientoRequest();
+		primero.setNombreDispositivo("ROVER-TEST");
+		primero.setCodigoOperacion("ADELANTE");
+
+		MovimientoRequest segundo = new MovimientoRequest();
+		segundo.setNombreDispositivo("ROVER-TEST");
+		segundo.setCodigoOperacion("DETENER");
+
+		List<MovimientoRequest> lote = Arrays.asList(primero, segundo);
+
+		when(iotEventService.registrarMovimientos(anyList(), anyString())).thenReturn(Arrays.asList(10L, 11L));
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/movimiento/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(lote))).andExpect(status().isCreated())
+				.andExpect(jsonPath("$.success", is(true)))
+				.andExpect(jsonPath("$.data[0].id").value(10)) // Los IDs conservan el orden del lote
+				.andExpect(jsonPath("$.data[1].id").value(11));
+	}
+
+	/**
+	 * Prueba que POST /api/v1/iot/control/obstaculo/batch rechaza un lote vacío.
+	 */
+	@Test
+	public void testRegistrarObstaculosLoteVacio() throws Exception {
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/obstaculo/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(Collections.emptyList()))).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.success", is(false)))
+				.andExpect(jsonPath("$.error").exists());
+	}
+
+	/**
+	 * Prueba que POST /api/v1/iot/control/movimiento/batch rechaza un lote
+	 * mayor que el máximo sin llamar al servicio.
+	 */
+	@Test
+	public void testRegistrarMovimientosLoteExcedidoDevuelve400() throws Exception {
+		// Arrange: el máximo de la prueba es 2
+		MovimientoRequest movimiento = new MovimientoRequest();
+		movimiento.setNombreDispositivo("ROVER-TEST");
+		movimiento.setCodigoOperacion("ADELANTE");
+
+		// Act & Assert
+		mockMvc.perform(post("/api/v1/iot/control/movimiento/batch").contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(List.of(movimiento, movimiento, movimiento))))
+				.andExpect(status().isBadRequest()).andExpect(jsonPath("$.success", is(false)))
+				.andExpect(jsonPath("$.error", is("El lote tiene 3 eventos; el máximo es 2.")));
+		verifyNoInteractions(iotEventService);
+	}
+
 	/**
 	 * Prueba el endpoint POST /api/v1/iot/control/secuencia
 	 */
@@ -2,28 +2,42 @@ package org.axolotlj.iotcart.controller;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
-import org.axolotlj.iotcart.dto.response.UltimasSecuenciasDto;
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.PaginaHistorial;
+import org.axolotlj.iotcart.dto.response.SecuenciaResponse;
 import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
 import org.axolotlj.iotcart.dto.response.UltimosObstaculosDto;
+import org.axolotlj.iotcart.exception.CursorInvalidoException;
+import org.axolotlj.iotcart.service.HistorialService;
 import org.axolotlj.iotcart.service.IotEventService;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Pruebas unitarias para IotQueryController.
@@ -38,6 +52,9 @@ public class IotQueryControllerTest {
     @MockBean
     private IotEventService iotEventService;
 
+    @MockBean
+    private HistorialService historialService;
+
     // ... (testGetUltimosMovimientos y testGetUltimosObstaculos sin cambios) ...
     @Test
     public void testGetUltimosMovimientos() throws Exception {
@@ -45,13 +62,10 @@ public class IotQueryControllerTest {
         String dispositivo = "ROVER-CURIOSITY";
         int limite = 5;
 
-        UltimosMovimientosDto mockMovimiento = Mockito.mock(UltimosMovimientosDto.class);
-        when(mockMovimiento.getFecha_evento()).thenReturn(Timestamp.from(Instant.now()));
-        when(mockMovimiento.getNombre_dispositivo()).thenReturn(dispositivo);
-        when(mockMovimiento.getMovimiento()).thenReturn("Adelante");
-        when(mockMovimiento.getIp_cliente()).thenReturn("192.168.1.100");
+        UltimosMovimientosDto movimiento = new UltimosMovimientosDto(Timestamp.from(Instant.now()), dispositivo,
+                "Adelante", "192.168.1.100");
 
-        List<UltimosMovimientosDto> mockList = Collections.singletonList(mockMovimiento);
+        List<UltimosMovimientosDto> mockList = Collections.singletonList(movimiento);
 
         when(iotEventService.obtenerUltimosMovimientos(dispositivo, limite))
                 .thenReturn(mockList);
@@ -74,13 +88,10 @@ public class IotQueryControllerTest {
         String dispositivo = "DRON-INGENUITY";
         int limite = 2;
 
-        UltimosObstaculosDto mockObstaculo = Mockito.mock(UltimosObstaculosDto.class);
-        when(mockObstaculo.getFecha_evento()).thenReturn(Timestamp.from(Instant.now()));
-        when(mockObstaculo.getNombre_dispositivo()).thenReturn(dispositivo);
-        when(mockObstaculo.getObstaculo_detectado()).thenReturn("Adelante-Derecha");
-        when(mockObstaculo.getIp_cliente()).thenReturn("200.1.1.1");
+        UltimosObstaculosDto obstaculo = new UltimosObstaculosDto(Timestamp.from(Instant.now()), dispositivo,
+                "Adelante-Derecha", "200.1.1.1");
 
-        List<UltimosObstaculosDto> mockList = Collections.singletonList(mockObstaculo);
+        List<UltimosObstaculosDto> mockList = Collections.singletonList(obstaculo);
 
         when(iotEventService.obtenerUltimosObstaculos(dispositivo, limite))
                 .thenReturn(mockList);
@@ -103,16 +114,11 @@ public class IotQueryControllerTest {
      */
     @Test
     public void testGetUltimasSecuenciasDemo() throws Exception {
-        // Arrange
-        UltimasSecuenciasDto mockSecuencia = Mockito.mock(UltimasSecuenciasDto.class);
-        when(mockSecuencia.getId_secuencia()).thenReturn(1);
-        when(mockSecuencia.getNombre_secuencia()).thenReturn("Secuencia de prueba");
-        when(mockSecuencia.getFecha_creacion()).thenReturn(Timestamp.from(Instant.now()));
-        when(mockSecuencia.getNumero_pasos()).thenReturn(3L);
-        // El servicio/repo sigue devolviendo un STRING
-        when(mockSecuencia.getPasos()).thenReturn("Adelante -> Giro 90° derecha -> Detener");
+        // Arrange: el servicio ya entrega los pasos separados desde el catálogo
+        SecuenciaResponse secuencia = new SecuenciaResponse(1, "Secuencia de prueba",
+                Timestamp.from(Instant.now()), 3L, List.of("Adelante", "Giro 90° derecha", "Detener"));
 
-        List<UltimasSecuenciasDto> mockList = Collections.singletonList(mockSecuencia);
+        List<SecuenciaResponse> mockList = Collections.singletonList(secuencia);
 
         when(iotEventService.obtenerUltimasSecuenciasDemo()).thenReturn(mockList);
 
@@ -152,4 +158,88 @@ public class IotQueryControllerTest {
                 .andExpect(jsonPath("$.success", is(true))) // Verificar nueva estructura
                 .andExpect(jsonPath("$.data", hasSize(0))); // Verificar array anidado vacío
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetHistorialMovimientosConCursor() throws Exception {
+        // Arrange
+        String dispositivo = "ROVER-CURIOSITY";
+        Instant desde = Instant.parse("2025-01-01T00:00:00Z");
+        MovimientoHistorialDto movimiento = new MovimientoHistorialDto(42L, Timestamp.from(desde), dispositivo,
+                "Adelante", "192.168.1.100");
+
+        when(historialService.obtenerHistorialMovimientos(dispositivo, desde, null, "abc", 1))
+                .thenReturn(new PaginaHistorial<>(List.of(movimiento), "def"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/iot/query/movimiento/{dispositivoNombre}/historial", dispositivo)
+                .param("desde", "2025-01-01T00:00:00Z")
+                .param("cursor", "abc")
+                .param("tamano", "1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)))
+                .andExpect(jsonPath("$.data.elementos", hasSize(1)))
+                .andExpect(jsonPath("$.data.elementos[0].id_evento", is(42)))
+                .andExpect(jsonPath("$.data.elementos[0].movimiento", is("Adelante")))
+                .andExpect(jsonPath("$.data.siguiente_cursor", is("def")));
+    }
+
+    @Test
+    public void testGetUltimosConLimiteFueraDeRangoDevuelve400() throws Exception {
+        // Act & Assert: ni negativo ni mayor que el máximo llegan a la base de datos
+        mockMvc.perform(get("/api/v1/iot/query/movimiento/{dispositivoNombre}", "ROVER-CURIOSITY")
+                .param("limite", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success", is(false)));
+        mockMvc.perform(get("/api/v1/iot/query/obstaculo/{dispositivoNombre}", "DRON-INGENUITY")
+                .param("limite", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("El límite debe estar entre 1 y 1000.")));
+
+        verifyNoInteractions(iotEventService);
+    }
+
+    @Test
+    public void testGetHistorialCursorInvalidoDevuelve400() throws Exception {
+        // Arrange
+        when(historialService.obtenerHistorialObstaculos("DRON-INGENUITY", null, null, "roto", 100))
+                .thenThrow(new CursorInvalidoException("roto", new IllegalArgumentException()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/iot/query/obstaculo/{dispositivoNombre}/historial", "DRON-INGENUITY")
+                .param("cursor", "roto"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success", is(false)));
+    }
+
+    @Test
+    public void testTransmitirHistorialMovimientosComoNdjson() throws Exception {
+        // Arrange: el servicio entrega dos filas al consumidor
+        String dispositivo = "ROVER-CURIOSITY";
+        Timestamp fecha = Timestamp.from(Instant.now());
+        when(historialService.transmitirHistorialMovimientos(eq(dispositivo), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<MovimientoHistorialDto> destino = invocation.getArgument(3);
+                    destino.accept(new MovimientoHistorialDto(2L, fecha, dispositivo, "Atrás", "10.0.0.1"));
+                    destino.accept(new MovimientoHistorialDto(1L, fecha, dispositivo, "Adelante", "10.0.0.1"));
+                    return 2L;
+                });
+
+        // Act
+        MvcResult resultado = mockMvc
+                .perform(get("/api/v1/iot/query/movimiento/{dispositivoNombre}/historial/ndjson", dispositivo))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1_800_000L, resultado.getRequest().getAsyncContext().getTimeout());
+
+        // Assert: una línea JSON por evento
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(2, lineas.length);
+        assertTrue(lineas[0].startsWith("{\"id_evento\":2,"));
+        assertTrue(lineas[1].contains("\"movimiento\":\"Adelante\""));
+    }
+}
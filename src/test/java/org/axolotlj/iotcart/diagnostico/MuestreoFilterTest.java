@@ -0,0 +1,96 @@
+package org.axolotlj.iotcart.diagnostico;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Filter.Result;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.Logger;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Pruebas unitarias para el filtro de muestreo de logs.
+ */
+public class MuestreoFilterTest {
+
+	private static final String CONTROLADOR = "org.axolotlj.iotcart.controller.IotControlController";
+
+	@Test
+	public void testTasaCeroDescartaSoloInfoDelPrefijo() {
+		// Arrange
+		MuestreoFilter filtro = MuestreoFilter.createFilter("org.axolotlj.iotcart.controller", "INFO", 0.0);
+
+		// Assert
+		assertEquals(Result.DENY, filtro.filter(evento(CONTROLADOR, Level.INFO)));
+		assertEquals(Result.DENY, filtro.filter(evento(CONTROLADOR, Level.DEBUG)));
+		assertEquals(Result.NEUTRAL, filtro.filter(evento(CONTROLADOR, Level.WARN)));
+		assertEquals(Result.NEUTRAL, filtro.filter(evento("org.axolotlj.iotcart.service.X", Level.INFO)));
+	}
+
+	@Test
+	public void testTasaUnoDejaPasarTodo() {
+		// Arrange
+		MuestreoFilter filtro = MuestreoFilter.createFilter("org.axolotlj.iotcart.controller", null, 1.0);
+
+		// Assert
+		assertEquals(Result.NEUTRAL, filtro.filter(evento(CONTROLADOR, Level.INFO)));
+	}
+
+	@Test
+	public void testLaMuestraDeLaPeticionDecideTodosSusEventos() {
+		// Arrange
+		MuestreoFilter filtro = MuestreoFilter.createFilter("org.axolotlj.iotcart.controller", "INFO", 0.1);
+
+		// Act & Assert: 999 < 0.1 * ESCALA, 1000 no
+		try {
+			ThreadContext.put(MuestreoFilter.CLAVE_MUESTRA, "999");
+			for (int i = 0; i < 100; i++) {
+				assertEquals(Result.NEUTRAL, filtro.filter(logger(CONTROLADOR), Level.INFO, null, "prueba", i));
+			}
+			ThreadContext.put(MuestreoFilter.CLAVE_MUESTRA, "1000");
+			for (int i = 0; i < 100; i++) {
+				assertEquals(Result.DENY, filtro.filter(logger(CONTROLADOR), Level.INFO, null, "prueba", i));
+			}
+		} finally {
+			ThreadContext.remove(MuestreoFilter.CLAVE_MUESTRA);
+		}
+	}
+
+	@Test
+	public void testElFiltroDePeticionSorteaUnaVezYLimpiaAlTerminar() throws Exception {
+		// Arrange
+		List<String> muestras = new ArrayList<>();
+		FilterChain cadena = (request, response) -> muestras.add(ThreadContext.get(MuestreoFilter.CLAVE_MUESTRA));
+
+		// Act
+		new MuestreoPeticionFilter().doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), cadena);
+
+		// Assert
+		assertEquals(1, muestras.size());
+		int muestra = Integer.parseInt(muestras.get(0));
+		assertTrue(muestra >= 0 && muestra < MuestreoFilter.ESCALA);
+		assertNull(ThreadContext.get(MuestreoFilter.CLAVE_MUESTRA));
+	}
+
+	private static Logger logger(String nombre) {
+		return (Logger) LogManager.getLogger(nombre);
+	}
+
+	private static LogEvent evento(String logger, Level level) {
+		return Log4jLogEvent.newBuilder().setLoggerName(logger).setLevel(level)
+				.setMessage(new SimpleMessage("prueba")).build();
+	}
+}
@@ -0,0 +1,157 @@
+package org.axolotlj.iotcart.exportacion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.axolotlj.iotcart.benchmark.ProcedimientosH2;
+import org.axolotlj.iotcart.repository.ExportacionEventosRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas de la exportación de la bitácora contra los procedimientos de
+ * {@link ProcedimientosH2}, leyendo el resultado con {@link LectorExportacion}.
+ */
+public class ExportadorEventosTest {
+
+	private static final int LOTE = 16;
+	// Pequeño, para que el archivo se escriba en muchos vaciados
+	private static final int TAMANO_BUFFER = 512;
+
+	private ExportadorEventos exportador;
+
+	@BeforeEach
+	public void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:exportacion;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		ProcedimientosH2.crear(jdbcTemplate);
+
+		exportador = new ExportadorEventos(new ExportacionEventosRepository(jdbcTemplate, new SimpleMeterRegistry()),
+				new DataSourceTransactionManager(dataSource), LOTE, 6, TAMANO_BUFFER);
+	}
+
+	@Test
+	public void testExportaTodosLosEventosEnOrdenAscendente() throws IOException {
+		// Act
+		byte[] archivo = exportar(TipoEvento.MOVIMIENTO, null, null, null, 0);
+		List<EventoExportado> eventos = new ArrayList<>();
+		LectorExportacion.Resultado resultado = LectorExportacion.leer(new ByteArrayInputStream(archivo),
+				eventos::add);
+
+		// Assert
+		assertTrue(resultado.completo());
+		assertEquals(TipoEvento.MOVIMIENTO, resultado.tipo());
+		assertEquals(ProcedimientosH2.EVENTOS_HISTORIAL, resultado.eventos());
+		assertEquals(ProcedimientosH2.EVENTOS_HISTORIAL, resultado.ultimoId());
+		assertEquals(LongStream.rangeClosed(1, ProcedimientosH2.EVENTOS_HISTORIAL).boxed().toList(), ids(eventos));
+		EventoExportado evento = eventos.get(41);
+		assertEquals(ProcedimientosH2.fechaHistorial(42), evento.fechaEvento());
+		assertEquals("ROVER-01", evento.nombreDispositivo());
+		assertEquals("Adelante", evento.evento());
+		assertEquals("192.168.1.100", evento.ipCliente());
+	}
+
+	@Test
+	public void testFiltraPorDispositivosYRango() throws IOException {
+		// Arrange: eventos 20..99 (las fechas de 10 a 49 minutos)
+		Instant desde = ProcedimientosH2.fechaHistorial(20).toInstant();
+		Instant hasta = ProcedimientosH2.fechaHistorial(100).toInstant();
+
+		// Act
+		byte[] archivo = exportar(TipoEvento.OBSTACULO, List.of("ROVER-01"), desde, hasta, 0);
+		List<EventoExportado> eventos = new ArrayList<>();
+		LectorExportacion.Resultado resultado = LectorExportacion.leer(new ByteArrayInputStream(archivo),
+				eventos::add);
+
+		// Assert
+		assertTrue(resultado.completo());
+		assertEquals(LongStream.iterate(20, id -> id < 100, id -> id + 2).boxed().toList(), ids(eventos));
+		assertTrue(eventos.stream().allMatch(e -> "OBSTACULO_FRONTAL".equals(e.evento())));
+	}
+
+	@Test
+	public void testArchivoCortadoSeReanudaDesdeElUltimoId() throws IOException {
+		// Arrange: la descarga se corta a la mitad
+		byte[] completo = exportar(TipoEvento.MOVIMIENTO, null, null, null, 0);
+		byte[] cortado = Arrays.copyOf(completo, completo.length / 2);
+		List<EventoExportado> eventos = new ArrayList<>();
+		LectorExportacion.Resultado primeraParte = LectorExportacion.leer(new ByteArrayInputStream(cortado),
+				eventos::add);
+
+		// Act
+		byte[] reanudado = exportar(TipoEvento.MOVIMIENTO, null, null, null, primeraParte.ultimoId());
+		LectorExportacion.Resultado segundaParte = LectorExportacion.leer(new ByteArrayInputStream(reanudado),
+				eventos::add);
+
+		// Assert
+		assertFalse(primeraParte.completo());
+		assertTrue(primeraParte.eventos() > 0);
+		assertEquals(primeraParte.eventos(), primeraParte.ultimoId());
+		assertTrue(segundaParte.completo());
+		assertEquals(primeraParte.ultimoId(), segundaParte.despuesDeId());
+		assertEquals(LongStream.rangeClosed(1, ProcedimientosH2.EVENTOS_HISTORIAL).boxed().toList(), ids(eventos));
+	}
+
+	@Test
+	public void testEscribeCadaLoteFueraDeLaTransaccion() throws IOException {
+		// Arrange: un canal que anota si hay transacción abierta en cada escritura
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		WritableByteChannel canal = Channels.newChannel(salida);
+		List<Boolean> conTransaccion = new ArrayList<>();
+		WritableByteChannel vigilado = new WritableByteChannel() {
+			@Override
+			public int write(ByteBuffer origen) throws IOException {
+				conTransaccion.add(TransactionSynchronizationManager.isActualTransactionActive());
+				return canal.write(origen);
+			}
+
+			@Override
+			public boolean isOpen() {
+				return canal.isOpen();
+			}
+
+			@Override
+			public void close() throws IOException {
+				canal.close();
+			}
+		};
+
+		// Act
+		exportador.exportar(TipoEvento.MOVIMIENTO, null, null, null, 0, vigilado);
+
+		// Assert: hubo varios vaciados y ninguno con la conexión de lectura abierta
+		assertTrue(conTransaccion.size() > 1);
+		assertFalse(conTransaccion.contains(true));
+	}
+
+	private byte[] exportar(TipoEvento tipo, List<String> dispositivos, Instant desde, Instant hasta,
+			long despuesDeId) throws IOException {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		exportador.exportar(tipo, dispositivos, desde, hasta, despuesDeId, Channels.newChannel(salida));
+		return salida.toByteArray();
+	}
+
+	private static List<Long> ids(List<EventoExportado> eventos) {
+		return eventos.stream().map(EventoExportado::idEvento).toList();
+	}
+}
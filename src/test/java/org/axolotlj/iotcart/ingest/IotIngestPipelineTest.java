@@ -0,0 +1,235 @@
+package org.axolotlj.iotcart.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.axolotlj.iotcart.cache.CatalogoSecuencias;
+import org.axolotlj.iotcart.cache.LecturaPrimaria;
+import org.axolotlj.iotcart.cache.UltimosEventosCache;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.exception.CoordenadaInvalidaException;
+import org.axolotlj.iotcart.repository.IotProcedureOperations;
+import org.axolotlj.iotcart.service.IotEventServiceImpl;
+import org.axolotlj.iotcart.sse.EmisorEventosSse;
+import org.axolotlj.iotcart.util.AnilloReproduccion.Entrada;
+import org.axolotlj.iotcart.websocket.ConflacionMovimientos;
+import org.axolotlj.iotcart.websocket.IotEventSocketHandler;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones.NotificacionRegistrada;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas de la ingesta asíncrona con el servicio real: agrupación, reintento
+ * tras un grupo fallido y vaciado de la cola al detenerse.
+ */
+public class IotIngestPipelineTest {
+
+	private static final String DISPOSITIVO_INVALIDO = "ROVER-INVALIDO";
+
+	private SimpleMeterRegistry meterRegistry;
+	private IotProcedureOperations repository;
+	private RegistroNotificaciones registro;
+	private ConflacionMovimientos conflacion;
+	private IotEventServiceImpl service;
+	private TransaccionesSimuladas transacciones;
+	private IotIngestPipeline pipeline;
+	private long secuenciaInicial;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		repository = mock(IotProcedureOperations.class);
+		AtomicLong ids = new AtomicLong();
+		when(repository.agregarMovimiento(any(), any(), any(), any(), any(), any(), any()))
+				.thenAnswer(inv -> ids.incrementAndGet());
+		when(repository.agregarMovimiento(eq(DISPOSITIVO_INVALIDO), any(), any(), any(), any(), any(), any()))
+				.thenThrow(new IllegalStateException("Dispositivo no registrado"));
+
+		ObjectMapper objectMapper = new ObjectMapper();
+		registro = new RegistroNotificaciones(new NotificationEncoder(objectMapper, meterRegistry), 64);
+		secuenciaInicial = registro.getAnillo().getUltimoId();
+		conflacion = new ConflacionMovimientos(meterRegistry, false, 100);
+		LecturaPrimaria lecturaPrimaria = new LecturaPrimaria(mock(PlatformTransactionManager.class), false);
+		service = new IotEventServiceImpl(repository, mock(IotEventSocketHandler.class), registro,
+				new UltimosEventosCache(meterRegistry, lecturaPrimaria, true, 10),
+				new CatalogoSecuencias(lecturaPrimaria, 5000),
+				mock(EmisorEventosSse.class), conflacion);
+		transacciones = new TransaccionesSimuladas();
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (pipeline != null) {
+			pipeline.detener();
+		}
+		conflacion.detener();
+	}
+
+	private void iniciar(int tamanoLote, long ventanaMs) {
+		pipeline = new IotIngestPipeline(service, new TransactionTemplate(transacciones), meterRegistry, true, 100,
+				tamanoLote, ventanaMs, false);
+		pipeline.iniciar();
+	}
+
+	@Test
+	public void testAgrupaHastaElTamanoOHastaAgotarLaVentana() throws Exception {
+		// Arrange
+		iniciar(3, 300);
+		long inicio = System.nanoTime();
+
+		// Act
+		for (int i = 1; i <= 5; i++) {
+			pipeline.encolarMovimiento(movimiento("ROVER-0" + i), "10.0.0.7");
+		}
+
+		// Assert: el primer grupo se cierra por tamaño; el segundo espera la ventana
+		DistributionSummary tamanos = meterRegistry.get("iotcart.ingesta.lote.tamano").summary();
+		esperar(() -> tamanos.count() >= 1);
+		assertEquals(1, transacciones.confirmadas.size());
+		esperar(() -> tamanos.count() >= 2);
+		assertEquals(2, transacciones.confirmadas.size());
+		assertTrue(transacciones.confirmadas.get(1) - inicio >= 300_000_000L);
+		assertEquals(3.0, tamanos.max());
+		assertEquals(5, notificados().size());
+	}
+
+	@Test
+	public void testGrupoFallidoSeReintentaUnoAUnoYAnunciaCadaEventoUnaVez() throws Exception {
+		// Arrange
+		iniciar(3, 5_000);
+
+		// Act: el segundo evento hace fallar la transacción del grupo
+		pipeline.encolarMovimiento(movimiento("ROVER-01"), "10.0.0.7");
+		pipeline.encolarMovimiento(movimiento(DISPOSITIVO_INVALIDO), "10.0.0.7");
+		pipeline.encolarMovimiento(movimiento("ROVER-03"), "10.0.0.7");
+
+		// Assert: nada del grupo revertido se anunció; el reintento anuncia los válidos una vez
+		DistributionSummary tamanos = meterRegistry.get("iotcart.ingesta.lote.tamano").summary();
+		esperar(() -> tamanos.count() == 2);
+		assertEquals(1.0, meterRegistry.get("iotcart.ingesta.fallidos").counter().count());
+		assertEquals(2, transacciones.confirmadas.size());
+		assertEquals(2, transacciones.revertidas.size());
+		assertEquals(List.of("ROVER-01", "ROVER-03"), notificados());
+		verify(repository, times(2)).agregarMovimiento(eq("ROVER-01"), any(), any(), any(), any(), any(), any());
+	}
+
+	@Test
+	public void testDetenerConfirmaLoQueQuedaEnLaCola() throws Exception {
+		// Arrange: una ventana larga deja el grupo abierto
+		iniciar(100, 10_000);
+		for (int i = 1; i <= 3; i++) {
+			pipeline.encolarMovimiento(movimiento("ROVER-0" + i), "10.0.0.7");
+		}
+
+		// Act
+		pipeline.detener();
+		pipeline = null;
+
+		// Assert
+		verify(repository, times(3)).agregarMovimiento(any(), any(), any(), any(), any(), any(), any());
+		assertEquals(List.of("ROVER-01", "ROVER-02", "ROVER-03"), notificados());
+	}
+
+	@Test
+	public void testCoordenadaFueraDeRangoSeRechazaAntesDeLaBaseDeDatos() throws Exception {
+		// Arrange: 250° no cabe en E7 como int
+		iniciar(3, 5_000);
+		MovimientoRequest request = movimiento("ROVER-01");
+		request.setLatitud(new BigDecimal("250.0"));
+
+		// Act & Assert: ni la ingesta asíncrona ni la síncrona llegan al SP
+		assertThrows(CoordenadaInvalidaException.class, () -> pipeline.encolarMovimiento(request, "10.0.0.7"));
+		assertThrows(CoordenadaInvalidaException.class, () -> service.registrarMovimiento(request, "10.0.0.7"));
+		verify(repository, never()).agregarMovimiento(any(), any(), any(), any(), any(), any(), any());
+		assertTrue(notificados().isEmpty());
+	}
+
+	private static MovimientoRequest movimiento(String dispositivo) {
+		MovimientoRequest request = new MovimientoRequest();
+		request.setNombreDispositivo(dispositivo);
+		request.setCodigoOperacion("ADELANTE");
+		return request;
+	}
+
+	/**
+	 * @return Los dispositivos de las notificaciones registradas, en orden de
+	 *         secuencia.
+	 */
+	private List<String> notificados() {
+		List<String> dispositivos = new ArrayList<>();
+		for (Entrada<NotificacionRegistrada> entrada : registro.getAnillo().leerDesde(secuenciaInicial, 64)) {
+			dispositivos.add(entrada.valor().dispositivo());
+		}
+		return dispositivos;
+	}
+
+	private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5_000;
+		while (!condicion.getAsBoolean()) {
+			if (System.currentTimeMillis() > limite) {
+				fail("La condición no se cumplió a tiempo");
+			}
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Administrador de transacciones sin base de datos que sí ejecuta las
+	 * sincronizaciones (afterCommit), como el real.
+	 */
+	private static final class TransaccionesSimuladas extends AbstractPlatformTransactionManager {
+
+		private static final long serialVersionUID = 1L;
+
+		final transient List<Long> confirmadas = new CopyOnWriteArrayList<>();
+		final transient List<Long> revertidas = new CopyOnWriteArrayList<>();
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			confirmadas.add(System.nanoTime());
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+			revertidas.add(System.nanoTime());
+		}
+	}
+}
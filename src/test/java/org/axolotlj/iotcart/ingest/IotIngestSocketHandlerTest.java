@@ -0,0 +1,124 @@
+package org.axolotlj.iotcart.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.axolotlj.iotcart.dto.request.EjecutarSecuenciaRequest;
+import org.axolotlj.iotcart.dto.request.MovimientoRequest;
+import org.axolotlj.iotcart.dto.request.ObstaculoRequest;
+import org.axolotlj.iotcart.exception.IngestaSaturadaException;
+import org.axolotlj.iotcart.service.IotEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas del canal de ingesta WebSocket de los dispositivos.
+ */
+public class IotIngestSocketHandlerTest {
+
+	private IotEventService iotEventService;
+	private IotIngestPipeline iotIngestPipeline;
+	private SimpleMeterRegistry meterRegistry;
+	private IotIngestSocketHandler handler;
+	private WebSocketSession session;
+	private final List<String> acuses = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		iotEventService = mock(IotEventService.class);
+		iotIngestPipeline = mock(IotIngestPipeline.class);
+		meterRegistry = new SimpleMeterRegistry();
+		handler = new IotIngestSocketHandler(iotEventService, iotIngestPipeline, new ObjectMapper(), meterRegistry);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("X-Forwarded-For", "10.0.0.7, 172.16.0.1");
+		session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn("rover");
+		when(session.getHandshakeHeaders()).thenReturn(headers);
+		when(session.getAttributes()).thenReturn(new HashMap<>());
+		doAnswer(inv -> acuses.add(inv.<TextMessage>getArgument(0).getPayload())).when(session).sendMessage(any());
+		handler.afterConnectionEstablished(session);
+	}
+
+	@Test
+	public void testCadaFrameRecibeSuAcuseConElIdDelEvento() throws Exception {
+		// Arrange
+		when(iotEventService.registrarMovimiento(any(MovimientoRequest.class), eq("10.0.0.7"))).thenReturn(101L);
+		when(iotEventService.registrarObstaculo(any(ObstaculoRequest.class), eq("10.0.0.7"))).thenReturn(102L);
+
+		// Act
+		enviar("{\"tipo\":\"MOVIMIENTO\",\"ref\":1,\"evento\":{\"nombreDispositivo\":\"ROVER-01\","
+				+ "\"codigoOperacion\":\"ADELANTE\",\"latitud\":19.4326077,\"velocidad\":150}}");
+		// El tipo puede venir después del evento
+		enviar("{\"ref\":2,\"evento\":{\"nombreDispositivo\":\"ROVER-01\",\"codigoObstaculo\":\"PARED\"},"
+				+ "\"tipo\":\"OBSTACULO\"}");
+		enviar("{\"tipo\":\"SECUENCIA\",\"ref\":3,\"evento\":{\"nombreDispositivo\":\"ROVER-01\",\"idSecuencia\":4}}");
+
+		// Assert
+		assertEquals(List.of("{\"ref\":1,\"id\":101}", "{\"ref\":2,\"id\":102}", "{\"ref\":3}"), acuses);
+		verify(iotEventService).registrarMovimiento(
+				argThat(m -> "ADELANTE".equals(m.getCodigoOperacion()) && m.getVelocidad() == 150), eq("10.0.0.7"));
+		verify(iotEventService).ejecutarSecuenciaDemo(argThat(s -> s.getIdSecuencia() == 4), eq("10.0.0.7"));
+		assertEquals(3.0, meterRegistry.get("iotcart.ingesta.websocket.frames").tag("resultado", "aceptado")
+				.counter().count());
+	}
+
+	@Test
+	public void testConIngestaAsincronaRespondeTicketOSaturacion() throws Exception {
+		// Arrange
+		when(iotIngestPipeline.isHabilitada()).thenReturn(true);
+		when(iotIngestPipeline.encolarMovimiento(any(MovimientoRequest.class), any())).thenReturn(55L)
+				.thenThrow(new IngestaSaturadaException(1));
+		String frame = "{\"tipo\":\"MOVIMIENTO\",\"ref\":%d,\"evento\":{\"nombreDispositivo\":\"ROVER-01\"}}";
+
+		// Act
+		enviar(frame.formatted(1));
+		enviar(frame.formatted(2));
+
+		// Assert
+		assertEquals(List.of("{\"ref\":1,\"ticket\":55}",
+				"{\"ref\":2,\"error\":\"El servidor está saturado. Reintente más tarde.\"}"), acuses);
+	}
+
+	@Test
+	public void testFramesInvalidosOFallidosSeRechazanSinCerrarLaSesion() throws Exception {
+		// Arrange
+		when(iotEventService.registrarMovimiento(any(MovimientoRequest.class), any()))
+				.thenThrow(new RuntimeException("Error de base de datos al registrar movimiento."));
+
+		// Act
+		enviar("{\"tipo\":\"GIRO\",\"ref\":1,\"evento\":{}}");
+		enviar("{\"ref\":2}");
+		enviar("{\"tipo\":\"MOVIMIENTO\",\"ref\":3,\"evento\":{\"nombreDispositivo\":\"ROVER-01\"}}");
+		enviar("{\"tipo\":\"SECUENCIA\",\"ref\":4,\"evento\":{\"idSecuencia\":1}}");
+
+		// Assert
+		assertEquals(List.of("{\"error\":\"Frame de ingesta inválido.\"}",
+				"{\"ref\":2,\"error\":\"Frame de ingesta sin evento.\"}",
+				"{\"ref\":3,\"error\":\"Ocurrió un error inesperado.\"}", "{\"ref\":4}"), acuses);
+		verify(iotEventService).ejecutarSecuenciaDemo(any(EjecutarSecuenciaRequest.class), eq("10.0.0.7"));
+		assertEquals(3.0, meterRegistry.get("iotcart.ingesta.websocket.frames").tag("resultado", "rechazado")
+				.counter().count());
+	}
+
+	private void enviar(String frame) throws Exception {
+		handler.handleMessage(session, new TextMessage(frame));
+	}
+}
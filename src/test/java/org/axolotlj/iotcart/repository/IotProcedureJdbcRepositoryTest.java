@@ -0,0 +1,67 @@
+package org.axolotlj.iotcart.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.axolotlj.iotcart.benchmark.ProcedimientosH2;
+import org.axolotlj.iotcart.dto.response.UltimosMovimientosDto;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas unitarias para el repositorio JDBC, sobre los procedimientos de
+ * consulta simulados en H2.
+ */
+public class IotProcedureJdbcRepositoryTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private IotProcedureJdbcRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:jdbc-repository;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		ProcedimientosH2.crear(jdbcTemplate);
+
+		meterRegistry = new SimpleMeterRegistry();
+		repository = new IotProcedureJdbcRepository(jdbcTemplate, meterRegistry);
+	}
+
+	@Test
+	public void testObtenerUltimosMovimientosMapeaFilas() throws Exception {
+		// Act
+		List<UltimosMovimientosDto> movimientos = repository.obtenerUltimosMovimientos("ROVER-01", 3);
+
+		// Assert
+		assertEquals(3, movimientos.size());
+		assertEquals("ROVER-01", movimientos.get(0).nombre_dispositivo());
+		assertEquals("Adelante", movimientos.get(0).movimiento());
+		assertEquals(1, meterRegistry.get("iotcart.bd.procedimiento")
+				.tag("procedimiento", "sp_obtener_ultimos_movimientos").tag("state", "SUCCESS").timer().count());
+	}
+
+	@Test
+	public void testFilaSeSerializaComoLaProyeccion() throws Exception {
+		// Arrange
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+		// Act
+		JsonNode json = objectMapper.valueToTree(repository.obtenerUltimosMovimientos("ROVER-01", 1).get(0));
+
+		// Assert: mismas claves que la proyección de Spring Data
+		List<String> claves = new ArrayList<>();
+		json.fieldNames().forEachRemaining(claves::add);
+		assertEquals(List.of("fecha_evento", "nombre_dispositivo", "movimiento", "ip_cliente"), claves);
+	}
+}
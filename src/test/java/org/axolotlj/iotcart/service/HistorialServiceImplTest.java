@@ -0,0 +1,128 @@
+package org.axolotlj.iotcart.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.axolotlj.iotcart.benchmark.ProcedimientosH2;
+import org.axolotlj.iotcart.dto.response.MovimientoHistorialDto;
+import org.axolotlj.iotcart.dto.response.PaginaHistorial;
+import org.axolotlj.iotcart.exception.CursorInvalidoException;
+import org.axolotlj.iotcart.repository.HistorialEventosRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas del historial paginado y transmitido contra los procedimientos de
+ * {@link ProcedimientosH2}.
+ */
+public class HistorialServiceImplTest {
+
+	private static final String DISPOSITIVO = "ROVER-01";
+	private static final int TAMANO_MAXIMO = 40;
+	private static final int LOTE_TRANSMISION = 7;
+
+	private SimpleMeterRegistry meterRegistry;
+	private HistorialServiceImpl service;
+
+	@BeforeEach
+	public void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:historial;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		ProcedimientosH2.crear(jdbcTemplate);
+
+		meterRegistry = new SimpleMeterRegistry();
+		service = new HistorialServiceImpl(new HistorialEventosRepository(jdbcTemplate, meterRegistry),
+				new DataSourceTransactionManager(dataSource), TAMANO_MAXIMO, LOTE_TRANSMISION);
+	}
+
+	@Test
+	public void testPaginasRecorrenElRangoSinRepetirNiSaltar() {
+		// Arrange: eventos 20..179 (las fechas de 10 a 89 minutos)
+		Instant desde = ProcedimientosH2.fechaHistorial(20).toInstant();
+		Instant hasta = ProcedimientosH2.fechaHistorial(180).toInstant();
+
+		// Act
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		int paginas = 0;
+		do {
+			PaginaHistorial<MovimientoHistorialDto> pagina = service.obtenerHistorialMovimientos(DISPOSITIVO, desde,
+					hasta, cursor, 25);
+			pagina.elementos().forEach(fila -> ids.add(fila.id_evento()));
+			cursor = pagina.siguiente_cursor();
+			paginas++;
+		} while (cursor != null);
+
+		// Assert
+		assertEquals(rango(179, 20), ids);
+		assertEquals(7, paginas);
+	}
+
+	@Test
+	public void testTamanoSeAcotaAlMaximo() {
+		// Act
+		PaginaHistorial<MovimientoHistorialDto> pagina = service.obtenerHistorialMovimientos(DISPOSITIVO, null, null,
+				null, 100_000);
+
+		// Assert
+		assertEquals(TAMANO_MAXIMO, pagina.elementos().size());
+		assertEquals(ProcedimientosH2.EVENTOS_HISTORIAL, pagina.elementos().get(0).id_evento());
+	}
+
+	@Test
+	public void testTransmisionEntregaTodoElRangoPorLotes() {
+		// Act
+		List<Long> ids = new ArrayList<>();
+		long total = service.transmitirHistorialMovimientos(DISPOSITIVO, null, null,
+				fila -> ids.add(fila.id_evento()));
+
+		// Assert: una llamada por lote completo más la última, incompleta
+		assertEquals(ProcedimientosH2.EVENTOS_HISTORIAL, total);
+		assertEquals(rango(ProcedimientosH2.EVENTOS_HISTORIAL, 1), ids);
+		assertEquals(ProcedimientosH2.EVENTOS_HISTORIAL / LOTE_TRANSMISION + 1, meterRegistry
+				.get("iotcart.bd.procedimiento").tag("procedimiento", "sp_obtener_historial_movimientos").timer()
+				.count());
+	}
+
+	@Test
+	public void testTransmisionEntregaCadaLoteFueraDeLaTransaccion() {
+		// Act: el destino simula un cliente que lee mientras se transmite
+		List<Boolean> conTransaccion = new ArrayList<>();
+		service.transmitirHistorialObstaculos(DISPOSITIVO, null, null,
+				fila -> conTransaccion.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+		// Assert: ninguna fila se escribe con la conexión de lectura abierta
+		assertFalse(conTransaccion.isEmpty());
+		assertFalse(conTransaccion.contains(true));
+	}
+
+	@Test
+	public void testCursorInvalido() {
+		// Act & Assert
+		assertThrows(CursorInvalidoException.class,
+				() -> service.obtenerHistorialObstaculos(DISPOSITIVO, null, null, "no-es-un-cursor", 10));
+		assertNull(service.obtenerHistorialObstaculos(DISPOSITIVO,
+				ProcedimientosH2.fechaHistorial(240).toInstant(), null, null, 300).siguiente_cursor());
+	}
+
+	private static List<Long> rango(long desde, long hasta) {
+		List<Long> ids = new ArrayList<>();
+		for (long id = desde; id >= hasta; id--) {
+			ids.add(id);
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,219 @@
+package org.axolotlj.iotcart.sse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import org.axolotlj.iotcart.controller.IotEventStreamController;
+import org.axolotlj.iotcart.websocket.NotificationEncoder;
+import org.axolotlj.iotcart.websocket.RegistroNotificaciones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas de la transmisión SSE y su reproducción con {@code Last-Event-ID},
+ * a través del controlador.
+ */
+public class EmisorEventosSseTest {
+
+	private static final Pattern ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+	private static final long ESPERA_MAXIMA_MS = 5_000;
+
+	private SimpleMeterRegistry meterRegistry;
+	private RegistroNotificaciones registro;
+	private EmisorEventosSse emisor;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		registro = new RegistroNotificaciones(new NotificationEncoder(new ObjectMapper(), meterRegistry), 4);
+		emisor = new EmisorEventosSse(registro, meterRegistry, true, 60_000, 5000, 15_000);
+		mockMvc = MockMvcBuilders.standaloneSetup(new IotEventStreamController(emisor)).build();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		emisor.detener();
+	}
+
+	@Test
+	public void testReconexionConLastEventIdReproduceSoloLoPerdido() throws Exception {
+		// Arrange: un cliente recibe tres eventos
+		MvcResult primero = conectar(null, null);
+		publicar("NUEVO_MOVIMIENTO", "ROVER-01", 1);
+		publicar("NUEVO_OBSTACULO", "ROVER-01", 2);
+		publicar("NUEVO_MOVIMIENTO", "ROVER-02", 3);
+		String recibido = esperarContenido(primero, "\"n\":3");
+		List<String> ids = ids(recibido);
+
+		// Act: se reconecta habiendo recibido solo el primero
+		MvcResult reconexion = conectar(ids.get(0), null);
+		String reproducido = esperarContenido(reconexion, "\"n\":3");
+
+		// Assert
+		assertEquals(3, ids.size());
+		assertTrue(recibido.contains("event:NUEVO_OBSTACULO"));
+		assertEquals(ids.subList(1, 3), ids(reproducido));
+		assertFalse(reproducido.contains("\"n\":1"));
+	}
+
+	@Test
+	public void testFiltraPorDispositivo() throws Exception {
+		// Arrange
+		MvcResult cliente = conectar(null, "ROVER-02");
+
+		// Act
+		publicar("NUEVO_MOVIMIENTO", "ROVER-01", 1);
+		publicar("NUEVO_MOVIMIENTO", "ROVER-02", 2);
+		String recibido = esperarContenido(cliente, "\"n\":2");
+
+		// Assert
+		assertEquals(1, ids(recibido).size());
+		assertFalse(recibido.contains("\"n\":1"));
+	}
+
+	@Test
+	public void testIdFueraDelRegistroPideResincronizar() throws Exception {
+		// Arrange: el registro guarda 4 eventos; se publican 10
+		MvcResult referencia = conectar(null, null);
+		publicar("NUEVO_MOVIMIENTO", "ROVER-01", 1);
+		long primerId = Long.parseLong(ids(esperarContenido(referencia, "\"n\":1")).get(0));
+		for (int n = 2; n <= 10; n++) {
+			publicar("NUEVO_MOVIMIENTO", "ROVER-01", n);
+		}
+
+		// Act: reconexión de un cliente que solo recibió el primero
+		MvcResult atrasado = conectar(Long.toString(primerId), null);
+		esperarContenido(atrasado, "\"n\":10");
+		publicar("NUEVO_MOVIMIENTO", "ROVER-01", 11);
+		String recibido = esperarContenido(atrasado, "\"n\":11");
+
+		// Assert: se avisa la pérdida de 2..6 y se reproducen 7..10 antes de seguir en vivo
+		assertTrue(recibido.startsWith("id:" + (primerId + 5) + "\nevent:" + ClienteSse.EVENT_TYPE_RESINCRONIZAR));
+		assertTrue(recibido.contains("\"eventos_perdidos\":5"));
+		assertFalse(recibido.contains("\"n\":6"));
+		assertEquals(LongStream.rangeClosed(primerId + 5, primerId + 10).mapToObj(Long::toString).toList(),
+				ids(recibido));
+		// La referencia también pudo atrasarse mientras se publicaban los 10
+		assertTrue(meterRegistry.get("iotcart.sse.resincronizaciones").counter().count() >= 1.0);
+	}
+
+	@Test
+	public void testClienteSinEventosRecibeLatidos() throws Exception {
+		// Arrange
+		emisor.detener();
+		emisor = new EmisorEventosSse(registro, meterRegistry, true, 60_000, 5000, 50);
+		mockMvc = MockMvcBuilders.standaloneSetup(new IotEventStreamController(emisor)).build();
+
+		// Act
+		MvcResult cliente = conectar(null, null);
+
+		// Assert: un comentario SSE, que el navegador ignora
+		assertTrue(esperarContenido(cliente, ":latido").startsWith(":latido\n\n"));
+	}
+
+	@Test
+	public void testEnvioAtascadoSeInterrumpeYElClienteSeDesconecta() throws Exception {
+		// Arrange: la red no acepta los datos hasta que se interrumpe el envío
+		CountDownLatch enviando = new CountDownLatch(1);
+		CompletableFuture<Throwable> error = new CompletableFuture<>();
+		SseEmitter emitter = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				enviando.countDown();
+				try {
+					new CountDownLatch(1).await();
+				} catch (InterruptedException e) {
+					throw new IOException("Escritura interrumpida", e);
+				}
+			}
+
+			@Override
+			public synchronized void completeWithError(Throwable ex) {
+				error.complete(ex);
+			}
+		};
+		ExecutorService envio = Executors.newVirtualThreadPerTaskExecutor();
+		ClienteSse cliente = new ClienteSse(emitter, registro.getAnillo(), envio,
+				meterRegistry.counter("resincronizaciones"), 100, registro.getAnillo().getUltimoId(), Set.of(),
+				Set.of());
+		publicar("NUEVO_MOVIMIENTO", "ROVER-01", 1);
+		cliente.avisar();
+		assertTrue(enviando.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+
+		// Act: la vigilancia pasa después del límite
+		boolean desconectado = cliente.revisar(System.nanoTime() + TimeUnit.SECONDS.toNanos(1),
+				TimeUnit.MINUTES.toNanos(1));
+
+		// Assert
+		assertTrue(desconectado);
+		assertInstanceOf(IOException.class, error.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+		envio.shutdownNow();
+	}
+
+	private MvcResult conectar(String lastEventId, String dispositivo) throws Exception {
+		var peticion = get("/sse/iot-events");
+		if (lastEventId != null) {
+			peticion.header("Last-Event-ID", lastEventId);
+		}
+		if (dispositivo != null) {
+			peticion.param("dispositivos", dispositivo);
+		}
+		return mockMvc.perform(peticion).andExpect(request().asyncStarted()).andReturn();
+	}
+
+	private void publicar(String eventType, String dispositivo, int n) {
+		registro.registrar(eventType, dispositivo, Map.of("nombreDispositivo", dispositivo, "n", n));
+		emisor.avisar();
+	}
+
+	private static String esperarContenido(MvcResult resultado, String esperado) throws Exception {
+		long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+		while (System.currentTimeMillis() < limite) {
+			String contenido = resultado.getResponse().getContentAsString();
+			if (contenido.contains(esperado)) {
+				return contenido;
+			}
+			Thread.sleep(10);
+		}
+		fail("No se recibió '" + esperado + "': " + resultado.getResponse().getContentAsString());
+		return null;
+	}
+
+	private static List<String> ids(String contenido) {
+		List<String> ids = new ArrayList<>();
+		Matcher matcher = ID.matcher(contenido);
+		while (matcher.find()) {
+			ids.add(matcher.group(1));
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,56 @@
+package org.axolotlj.iotcart.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.axolotlj.iotcart.util.AnilloReproduccion.Entrada;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas unitarias del registro de reproducción.
+ */
+public class AnilloReproduccionTest {
+
+	private static final long ID_INICIAL = 1_000;
+
+	@Test
+	public void testLeeEnOrdenDesdeElUltimoIdRecibido() {
+		// Arrange
+		AnilloReproduccion<String> anillo = new AnilloReproduccion<>(8, ID_INICIAL);
+		long primero = anillo.agregar("a");
+		anillo.agregar("b");
+		anillo.agregar("c");
+
+		// Act
+		List<Entrada<String>> todas = anillo.leerDesde(ID_INICIAL, 10);
+		List<Entrada<String>> despuesDelPrimero = anillo.leerDesde(primero, 1);
+		List<Entrada<String>> alDia = anillo.leerDesde(anillo.getUltimoId(), 10);
+
+		// Assert
+		assertEquals(ID_INICIAL + 1, primero);
+		assertEquals(List.of("a", "b", "c"), todas.stream().map(Entrada::valor).toList());
+		assertEquals(List.of(new Entrada<>(primero + 1, "b")), despuesDelPrimero);
+		assertTrue(alDia.isEmpty());
+	}
+
+	@Test
+	public void testTramoSobrescritoOIdAjenoSeReportanComoPerdidos() {
+		// Arrange: capacidad 4, con 10 entradas solo quedan las 4 últimas
+		AnilloReproduccion<Integer> anillo = new AnilloReproduccion<>(4, ID_INICIAL);
+		for (int i = 1; i <= 10; i++) {
+			anillo.agregar(i);
+		}
+
+		// Act / Assert
+		assertEquals(ID_INICIAL + 7, anillo.getPrimerIdDisponible());
+		assertNull(anillo.leerDesde(ID_INICIAL + 5, 10));
+		assertEquals(List.of(7, 8, 9, 10),
+				anillo.leerDesde(ID_INICIAL + 6, 10).stream().map(Entrada::valor).toList());
+		// Un ID de una ejecución anterior (menor) o de otra instancia (mayor)
+		assertNull(anillo.leerDesde(5, 10));
+		assertNull(anillo.leerDesde(ID_INICIAL + 50, 10));
+	}
+}
@@ -0,0 +1,37 @@
+package org.axolotlj.iotcart.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas unitarias para la resolución de textos de operación.
+ */
+public class OperacionEnumTest {
+
+    @Test
+    public void testResuelveCodigoDescripcionYNombre() {
+        for (OperacionEnum op : OperacionEnum.values()) {
+            assertEquals(op.getId(), OperacionEnum.resolverId(op.getCodigoProtocolo()));
+            assertEquals(op.getId(), OperacionEnum.resolverId(op.getDescripcion()));
+            assertEquals(op.getId(), OperacionEnum.resolverId(op.name()));
+        }
+    }
+
+    @Test
+    public void testIgnoraMayusculasYEspacios() {
+        assertEquals(8, OperacionEnum.resolverId("  giro 90° DERECHA\t"));
+        assertEquals(2, OperacionEnum.resolverId("ATRÁS"));
+        assertEquals(4, OperacionEnum.resolverId("vuelta_adelante_der"));
+    }
+
+    @Test
+    public void testTextoDesconocidoDevuelveCentinela() {
+        assertEquals(OperacionEnum.ID_DESCONOCIDO, OperacionEnum.resolverId(null));
+        assertEquals(OperacionEnum.ID_DESCONOCIDO, OperacionEnum.resolverId("   "));
+        assertEquals(OperacionEnum.ID_DESCONOCIDO, OperacionEnum.resolverId("SALTAR"));
+        assertEquals(OperacionEnum.ID_DESCONOCIDO, OperacionEnum.resolverId("Adelante derecha"));
+        assertTrue(OperacionEnum.obtenerIdPorTexto("SALTAR").isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package org.axolotlj.iotcart.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas de la conflación de movimientos por dispositivo.
+ */
+public class ConflacionMovimientosTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private ConflacionMovimientos conflacion;
+	private final List<String> transmitidos = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		conflacion = new ConflacionMovimientos(meterRegistry, true, 200);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		conflacion.detener();
+	}
+
+	@Test
+	public void testTransmiteSoloElUltimoDeCadaDispositivoPorTick() throws Exception {
+		// Arrange
+		CountDownLatch tick = new CountDownLatch(2);
+
+		// Act: ráfagas de dos dispositivos dentro del mismo intervalo
+		for (int i = 1; i <= 5; i++) {
+			ofrecer("ROVER-01", "ROVER-01#" + i, i == 5 ? tick : null);
+		}
+		ofrecer("ROVER-02", "ROVER-02#1", null);
+		ofrecer("ROVER-02", "ROVER-02#2", tick);
+
+		// Assert
+		assertTrue(tick.await(2, TimeUnit.SECONDS));
+		assertEquals(2, transmitidos.size());
+		assertTrue(transmitidos.containsAll(List.of("ROVER-01#5", "ROVER-02#2")));
+		assertEquals(5.0, meterRegistry.get("iotcart.notificaciones.conflacion.reemplazadas").counter().count());
+	}
+
+	@Test
+	public void testCadaTickTransmiteDeNuevo() throws Exception {
+		// Arrange
+		CountDownLatch primero = new CountDownLatch(1);
+		CountDownLatch segundo = new CountDownLatch(1);
+		ofrecer("ROVER-01", "ROVER-01#1", primero);
+		assertTrue(primero.await(2, TimeUnit.SECONDS));
+
+		// Act
+		ofrecer("ROVER-01", "ROVER-01#2", segundo);
+
+		// Assert
+		assertTrue(segundo.await(2, TimeUnit.SECONDS));
+		assertEquals(List.of("ROVER-01#1", "ROVER-01#2"), transmitidos);
+		assertEquals(0.0, meterRegistry.get("iotcart.notificaciones.conflacion.reemplazadas").counter().count());
+	}
+
+	private void ofrecer(String dispositivo, String movimiento, CountDownLatch transmitido) {
+		conflacion.ofrecer(dispositivo, () -> {
+			transmitidos.add(movimiento);
+			if (transmitido != null) {
+				transmitido.countDown();
+			}
+		});
+	}
+}
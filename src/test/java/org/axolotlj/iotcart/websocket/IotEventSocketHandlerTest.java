@@ -0,0 +1,367 @@
+package org.axolotlj.iotcart.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas unitarias para el enrutamiento por suscripción de IotEventSocketHandler.
+ */
+public class IotEventSocketHandlerTest {
+
+	private static final int CAPACIDAD = 64;
+	private static final Pattern SECUENCIA = Pattern.compile("\"secuencia\":(\\d+)");
+
+	private SimpleMeterRegistry meterRegistry;
+	private RegistroNotificaciones registro;
+	private IotEventSocketHandler handler;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		ObjectMapper objectMapper = new ObjectMapper();
+		registro = new RegistroNotificaciones(new NotificationEncoder(objectMapper, meterRegistry), CAPACIDAD);
+		handler = new IotEventSocketHandler(meterRegistry, objectMapper, registro, 2, 5000, 1 << 20,
+				PoliticaDesborde.DESCARTAR_ANTIGUOS, false);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		handler.detener();
+	}
+
+	private WebSocketSession conectar(String id) {
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn(id);
+		when(session.isOpen()).thenReturn(true);
+		handler.afterConnectionEstablished(session);
+		return session;
+	}
+
+	/**
+	 * Envía la suscripción y espera su confirmación, que sale ya aplicado el
+	 * cambio en el índice.
+	 */
+	private void suscribir(WebSocketSession session, String json) throws Exception {
+		handler.handleTextMessage(session, new TextMessage(json));
+		verify(session, timeout(1000)).sendMessage(argThat(confirmacion()));
+	}
+
+	private static ArgumentMatcher<WebSocketMessage<?>> confirmacion() {
+		return mensaje -> mensaje instanceof TextMessage texto
+				&& texto.getPayload().contains("\"eventType\":\"SUSCRIPCION_ACTUALIZADA\"");
+	}
+
+	@Test
+	public void testEnrutaPorDispositivoYTipo() throws Exception {
+		// Arrange
+		WebSocketSession todo = conectar("todo");
+		WebSocketSession rover = conectar("rover");
+		suscribir(rover, "{\"accion\":\"SUSCRIBIR\",\"dispositivos\":[\"ROVER-01\"],\"eventos\":[\"NUEVO_OBSTACULO\"]}");
+		TextMessage evento = new TextMessage("{\"eventType\":\"NUEVO_MOVIMIENTO\"}");
+
+		// Act: un movimiento de ROVER-01 no coincide con el tipo suscrito
+		handler.broadcast("NUEVO_MOVIMIENTO", "ROVER-01", () -> new FrameNotificacion(evento, 1));
+
+		// Assert
+		verify(todo, timeout(1000)).sendMessage(evento);
+		verify(rover, after(200).never()).sendMessage(evento);
+	}
+
+	@Test
+	public void testNoSerializaSinDestinatarios() throws Exception {
+		// Arrange
+		WebSocketSession rover = conectar("rover");
+		suscribir(rover, "{\"accion\":\"SUSCRIBIR\",\"dispositivos\":[\"ROVER-01\"]}");
+		AtomicBoolean serializado = new AtomicBoolean();
+
+		// Act
+		handler.broadcast("NUEVO_MOVIMIENTO", "ROVER-02", () -> {
+			serializado.set(true);
+			return new FrameNotificacion(new TextMessage("{}"), 1);
+		});
+
+		// Assert
+		assertFalse(serializado.get());
+		verify(rover, after(200).never()).sendMessage(new TextMessage("{}"));
+	}
+
+	@Test
+	public void testCancelarVuelveARecibirTodo() throws Exception {
+		// Arrange
+		WebSocketSession rover = conectar("rover");
+		suscribir(rover, "{\"accion\":\"SUSCRIBIR\",\"dispositivos\":[\"ROVER-01\"]}");
+		handler.handleTextMessage(rover, new TextMessage("{\"accion\":\"CANCELAR\"}"));
+		verify(rover, timeout(1000).times(2)).sendMessage(argThat(confirmacion()));
+		TextMessage evento = new TextMessage("{\"eventType\":\"NUEVO_OBSTACULO\"}");
+
+		// Act
+		handler.broadcast("NUEVO_OBSTACULO", "ROVER-02", () -> new FrameNotificacion(evento, 1));
+
+		// Assert
+		verify(rover, timeout(1000)).sendMessage(evento);
+		verify(rover, never()).close(any());
+	}
+
+	@Test
+	public void testSuscripcionConNullSeRechazaSinCerrarLaSesion() throws Exception {
+		// Arrange
+		WebSocketSession rover = conectar("rover");
+
+		// Act
+		handler.handleTextMessage(rover, new TextMessage("{\"accion\":\"SUSCRIBIR\",\"dispositivos\":[null]}"));
+
+		// Assert: responde con error y conserva la suscripción anterior
+		verify(rover, timeout(1000)).sendMessage(argThat(mensaje -> mensaje instanceof TextMessage texto
+				&& texto.getPayload().contains("\"eventType\":\"ERROR\"")));
+		verify(rover, never()).close(any());
+		TextMessage evento = new TextMessage("{\"eventType\":\"NUEVO_OBSTACULO\"}");
+		handler.broadcast("NUEVO_OBSTACULO", "ROVER-02", () -> new FrameNotificacion(evento, 1));
+		verify(rover, timeout(1000)).sendMessage(evento);
+	}
+
+	@Test
+	public void testPublicaSesionesActivasYDuracionDelReparto() throws Exception {
+		// Arrange
+		WebSocketSession session = conectar("todo");
+		TextMessage evento = new TextMessage("{\"eventType\":\"NUEVO_MOVIMIENTO\"}");
+
+		// Act
+		handler.broadcast("NUEVO_MOVIMIENTO", "ROVER-01", () -> new FrameNotificacion(evento, 1));
+
+		// Assert
+		verify(session, timeout(1000)).sendMessage(evento);
+		assertEquals(1.0, meterRegistry.get("iotcart.websocket.sesiones.activas").gauge().value());
+		Timer fanOut = meterRegistry.get("iotcart.websocket.fanout").timer();
+		long limite = System.currentTimeMillis() + 1_000;
+		while (fanOut.count() == 0 && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, fanOut.count());
+	}
+
+	@Test
+	public void testReanudarReproduceLoPerdidoYSigueEnVivoSinRepetir() throws Exception {
+		// Arrange: el monitor alcanzó a recibir la primera de tres notificaciones
+		long primera = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+		publicar("NUEVO_OBSTACULO", "ROVER-02");
+		long tercera = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+		List<String> recibidos = new CopyOnWriteArrayList<>();
+
+		// Act: se reconecta solo para ROVER-01
+		reconectar("reanudada", "reanudar=" + primera + "&dispositivos=ROVER-01", recibidos);
+		long cuarta = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+
+		// Assert
+		esperar(recibidos, cuarta);
+		assertEquals(List.of(tercera, cuarta), secuencias(recibidos));
+		assertEquals(1.0, meterRegistry.get("iotcart.websocket.reanudaciones").tag("resultado", "reproducida")
+				.counter().count());
+	}
+
+	@Test
+	public void testTokenFueraDelAnilloPideResincronizar() throws Exception {
+		// Arrange: el anillo ya dio la vuelta desde la primera notificación
+		long primera = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+		long ultima = primera;
+		for (int i = 0; i < CAPACIDAD + 5; i++) {
+			ultima = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+		}
+		List<String> recibidos = new CopyOnWriteArrayList<>();
+
+		// Act
+		reconectar("atrasada", "reanudar=" + primera, recibidos);
+		long siguiente = publicar("NUEVO_MOVIMIENTO", "ROVER-01");
+
+		// Assert: solo el aviso, con la secuencia desde la que sigue en vivo
+		esperar(recibidos, siguiente);
+		assertEquals(2, recibidos.size());
+		assertTrue(recibidos.get(0).contains("\"eventType\":\"" + IotEventSocketHandler.EVENT_TYPE_RESINCRONIZAR));
+		assertEquals(List.of(ultima, siguiente), secuencias(recibidos));
+		assertEquals(1.0, meterRegistry.get("iotcart.websocket.reanudaciones").tag("resultado", "resincronizada")
+				.counter().count());
+	}
+
+	@Test
+	public void testTormentaDeReconexionesSinHuecosNiRepetidos() throws Exception {
+		// Un publicador constante mientras 40 monitores se reconectan a la vez
+		tormentaDeReconexiones(1, 3_000);
+	}
+
+	@Test
+	public void testPublicadoresConcurrentesLleganEnOrdenDeSecuencia() throws Exception {
+		// Cuatro dispositivos publicando a la vez: una secuencia no debe adelantar a la anterior
+		tormentaDeReconexiones(4, 750);
+	}
+
+	@Test
+	public void testUnaSecuenciaNoSeRepartePorDelanteDeLaAnterior() throws Exception {
+		// Arrange: el primer dispositivo ya tiene secuencia pero aún no entrega su frame
+		List<String> recibidos = new CopyOnWriteArrayList<>();
+		reconectar("monitor", "", recibidos);
+		CountDownLatch registrada = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Thread lento = Thread.ofPlatform().start(() -> registro.registrar("NUEVO_MOVIMIENTO", "ROVER-01",
+				Map.of("nombreDispositivo", "ROVER-01"), frame -> {
+					registrada.countDown();
+					try {
+						liberar.await(1, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					handler.broadcast("NUEVO_MOVIMIENTO", "ROVER-01", () -> frame);
+				}));
+		assertTrue(registrada.await(1, TimeUnit.SECONDS));
+
+		// Act: otro dispositivo publica mientras tanto
+		Thread rapido = Thread.ofPlatform().start(() -> publicar("NUEVO_OBSTACULO", "ROVER-02"));
+		rapido.join(200);
+		liberar.countDown();
+		lento.join();
+		rapido.join();
+
+		// Assert
+		long ultima = registro.getAnillo().getUltimoId();
+		esperar(recibidos, ultima);
+		assertEquals(List.of(ultima - 1, ultima), secuencias(recibidos));
+	}
+
+	private void tormentaDeReconexiones(int publicadores, int notificacionesPorPublicador) throws Exception {
+		// Arrange
+		int monitores = 40;
+		CountDownLatch inicio = new CountDownLatch(1);
+		List<Thread> hilos = new ArrayList<>();
+		for (int p = 0; p < publicadores; p++) {
+			String dispositivo = "ROVER-0" + (p + 1);
+			hilos.add(Thread.ofPlatform().start(() -> {
+				try {
+					inicio.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < notificacionesPorPublicador; i++) {
+					publicar("NUEVO_MOVIMIENTO", dispositivo);
+				}
+			}));
+		}
+		List<List<String>> recibidos = new ArrayList<>();
+		List<Long> tokens = new CopyOnWriteArrayList<>();
+		ExecutorService reconexiones = Executors.newFixedThreadPool(8);
+
+		// Act: cada monitor reanuda desde una secuencia reciente, algunas ya fuera del anillo
+		inicio.countDown();
+		for (int i = 0; i < monitores; i++) {
+			List<String> propios = new CopyOnWriteArrayList<>();
+			recibidos.add(propios);
+			String id = "m-" + i;
+			int atraso = (i * 7) % (CAPACIDAD * 2);
+			reconexiones.execute(() -> {
+				long token = registro.getAnillo().getUltimoId() - atraso;
+				tokens.add(token);
+				reconectar(id, "reanudar=" + token, propios);
+			});
+		}
+		reconexiones.shutdown();
+		assertTrue(reconexiones.awaitTermination(10, TimeUnit.SECONDS));
+		for (Thread hilo : hilos) {
+			hilo.join();
+		}
+		long ultima = registro.getAnillo().getUltimoId();
+
+		// Assert: cada monitor recibe una racha continua hasta la última, tras un aviso si se atrasó
+		for (List<String> propios : recibidos) {
+			esperar(propios, ultima);
+			List<Long> secuencias = secuencias(propios);
+			int desde = propios.get(0).contains(IotEventSocketHandler.EVENT_TYPE_RESINCRONIZAR) ? 1 : 0;
+			for (int i = desde + 1; i < secuencias.size(); i++) {
+				assertEquals(secuencias.get(i - 1) + 1, secuencias.get(i), "Hueco, repetido o desorden en " + propios);
+			}
+			assertEquals(ultima, secuencias.get(secuencias.size() - 1));
+		}
+		assertEquals(monitores, tokens.size());
+	}
+
+	private long publicar(String eventType, String dispositivo) {
+		// Igual que IotEventServiceImpl: el frame se reparte bajo el candado del registro
+		FrameNotificacion frame = registro.registrar(eventType, dispositivo, Map.of("nombreDispositivo", dispositivo),
+				registrado -> handler.broadcast(eventType, dispositivo, () -> registrado));
+		return frame.secuencia();
+	}
+
+	private WebSocketSession reconectar(String id, String consulta, List<String> recibidos) {
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn(id);
+		when(session.isOpen()).thenReturn(true);
+		when(session.getUri()).thenReturn(URI.create("ws://localhost/ws/iot-events?" + consulta));
+		try {
+			doAnswer(invocacion -> recibidos.add(invocacion.<TextMessage>getArgument(0).getPayload())).when(session)
+					.sendMessage(any());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		handler.afterConnectionEstablished(session);
+		return session;
+	}
+
+	private static void esperar(List<String> recibidos, long secuencia) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5_000;
+		while (System.currentTimeMillis() < limite) {
+			List<Long> secuencias = secuencias(recibidos);
+			if (!secuencias.isEmpty() && secuencias.get(secuencias.size() - 1) >= secuencia) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("No se recibió la secuencia " + secuencia + ": " + recibidos);
+	}
+
+	private static List<Long> secuencias(List<String> recibidos) {
+		List<Long> secuencias = new ArrayList<>();
+		for (String mensaje : recibidos) {
+			Matcher matcher = SECUENCIA.matcher(mensaje);
+			if (matcher.find()) {
+				secuencias.add(Long.parseLong(matcher.group(1)));
+			}
+		}
+		return secuencias;
+	}
+}
@@ -0,0 +1,143 @@
+package org.axolotlj.iotcart.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Pruebas unitarias para el buffer de salida por sesión de SesionMonitor.
+ */
+public class SesionMonitorTest {
+
+	private WebSocketSession session;
+	private final MetricasEnvio metricas = MetricasEnvio.registrar(new SimpleMeterRegistry());
+
+	// Executor que retiene las tareas para simular un drenado que aún no corre
+	private final List<Runnable> tareas = new ArrayList<>();
+	private final List<Runnable> cierres = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() {
+		session = mock(WebSocketSession.class);
+		when(session.isOpen()).thenReturn(true);
+		when(session.getId()).thenReturn("s1");
+		tareas.clear();
+		cierres.clear();
+	}
+
+	@Test
+	public void testEnviaEnOrdenAlDrenar() throws Exception {
+		// Arrange
+		SesionMonitor monitor = new SesionMonitor(session, tareas::add, cierres::add, 1000, 1024,
+				PoliticaDesborde.DESCARTAR_ANTIGUOS, metricas);
+		List<String> recibidos = new ArrayList<>();
+		doAnswer(inv -> recibidos.add(((TextMessage) inv.getArgument(0)).getPayload()))
+				.when(session).sendMessage(any());
+
+		// Act
+		monitor.encolar(new TextMessage("a"));
+		monitor.encolar(new TextMessage("b"));
+		tareas.forEach(Runnable::run);
+
+		// Assert: un solo drenado programado y entrega en orden
+		assertEquals(1, tareas.size());
+		assertEquals(List.of("a", "b"), recibidos);
+		assertEquals(2, monitor.getEnviados());
+		assertEquals(0, monitor.getPendientes());
+	}
+
+	@Test
+	public void testDescartaAntiguosAlDesbordar() throws Exception {
+		// Arrange: el buffer admite 4 bytes
+		SesionMonitor monitor = new SesionMonitor(session, tareas::add, cierres::add, 1000, 4, PoliticaDesborde.DESCARTAR_ANTIGUOS,
+				metricas);
+
+		// Act
+		monitor.encolar(new TextMessage("aa"));
+		monitor.encolar(new TextMessage("bb"));
+		monitor.encolar(new TextMessage("cc"));
+
+		// Assert
+		assertEquals(2, monitor.getPendientes());
+		assertEquals(1, monitor.getDescartados());
+		verify(session, never()).close(any());
+	}
+
+	@Test
+	public void testDesconectaAlDesbordar() throws Exception {
+		// Arrange: el buffer admite 4 bytes
+		SesionMonitor monitor = new SesionMonitor(session, tareas::add, cierres::add, 1000, 4, PoliticaDesborde.DESCONECTAR,
+				metricas);
+
+		// Act
+		monitor.encolar(new TextMessage("aa"));
+		monitor.encolar(new TextMessage("bb"));
+		monitor.encolar(new TextMessage("cc"));
+
+		// Assert: el hilo que publica no cierra; el cierre queda en el executor de cierre
+		verify(session, never()).close(any());
+		assertEquals(0, monitor.getPendientes());
+		assertEquals(1, cierres.size());
+		cierres.forEach(Runnable::run);
+		verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+	}
+
+	@Test
+	public void testCierraUnEnvioAtascadoSinTraficoNuevo() throws Exception {
+		// Arrange: el envío ocupa el único hilo de envío hasta que se cierra la sesión
+		ExecutorService envio = Executors.newSingleThreadExecutor();
+		ExecutorService cierre = Executors.newCachedThreadPool();
+		CountDownLatch enviando = new CountDownLatch(1);
+		CountDownLatch cerrada = new CountDownLatch(1);
+		doAnswer(inv -> {
+			enviando.countDown();
+			cerrada.await(5, TimeUnit.SECONDS);
+			return null;
+		}).when(session).sendMessage(any());
+		doAnswer(inv -> {
+			cerrada.countDown();
+			return null;
+		}).when(session).close(any());
+		SesionMonitor monitor = new SesionMonitor(session, envio, cierre, 50, 1024, PoliticaDesborde.DESCARTAR_ANTIGUOS,
+				metricas);
+
+		try {
+			monitor.encolar(new TextMessage("a"));
+			assertTrue(enviando.await(5, TimeUnit.SECONDS));
+
+			// Act: nadie vuelve a encolar; solo la revisión periódica lo detecta
+			assertFalse(monitor.revisarEnvio());
+			Thread.sleep(100);
+			assertTrue(monitor.revisarEnvio());
+
+			// Assert
+			verify(session, timeout(5_000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+			assertFalse(monitor.revisarEnvio());
+		} finally {
+			envio.shutdownNow();
+			cierre.shutdownNow();
+		}
+	}
+}